@@ -0,0 +1,40 @@
+package com.controllerface.bvge.game.world;
+
+import com.controllerface.bvge.memory.sectors.Sector;
+import com.controllerface.bvge.physics.PhysicsEntityBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generation of a single sector. The sector coordinate advances on each invocation so the results are
+ * not skewed by any one region of the world being cheaper to generate than another.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EarthLikeWorldBenchmark
+{
+    private static final int SPAN = 64;
+
+    private EarthLikeWorld world;
+    private int next = 0;
+
+    @Setup
+    public void setup()
+    {
+        world = new EarthLikeWorld(1337L);
+    }
+
+    @Benchmark
+    public PhysicsEntityBatch generate_sector()
+    {
+        int x = (next % SPAN) - (SPAN / 2);
+        int y = ((next / SPAN) % SPAN) - (SPAN / 2);
+        next++;
+        return world.generate_sector(new Sector(x, y));
+    }
+}
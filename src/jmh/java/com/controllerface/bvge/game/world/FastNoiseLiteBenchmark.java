@@ -0,0 +1,55 @@
+package com.controllerface.bvge.game.world;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of sampling a full sector worth of fractal 2D noise, for each of the supported noise types, both
+ * one point at a time and as a single grid. Sample coordinates match the block spacing used by the world generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastNoiseLiteBenchmark
+{
+    private static final int SAMPLES = 16;
+    private static final float SPACING = 32.0f;
+
+    @Param({"OpenSimplex2", "OpenSimplex2S", "Cellular", "Perlin", "ValueCubic", "Value"})
+    public FastNoiseLite.NoiseType noise_type;
+
+    private FastNoiseLite noise;
+    private final float[] grid = new float[SAMPLES * SAMPLES];
+
+    @Setup
+    public void setup()
+    {
+        noise = new FastNoiseLite(1337);
+        noise.SetNoiseType(noise_type);
+        noise.SetFractalType(FastNoiseLite.FractalType.FBm);
+    }
+
+    @Benchmark
+    public void get_noise_sector(Blackhole blackhole)
+    {
+        for (int y = 0; y < SAMPLES; y++)
+        {
+            for (int x = 0; x < SAMPLES; x++)
+            {
+                blackhole.consume(noise.GetNoise(x * SPACING, y * SPACING));
+            }
+        }
+    }
+
+    @Benchmark
+    public float[] get_noise_grid_sector()
+    {
+        noise.GetNoiseGrid(grid, 0, 0, SPACING, SAMPLES, SAMPLES);
+        return grid;
+    }
+}
@@ -0,0 +1,98 @@
+package com.controllerface.bvge.game.world;
+
+import com.controllerface.bvge.memory.groups.UnorderedCoreBufferGroup;
+import com.controllerface.bvge.physics.EntityColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures copying of unloaded entities from raw egress data into the columnar batch format. The raw data is synthetic, laid out the same
+ * way as a block-heavy egress: every entity has one hull with four points, four edges, one hull bone and one
+ * entity bone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldUnloaderBenchmark
+{
+    private static final int POINTS_PER_HULL = 4;
+
+    @Param({"256", "4096"})
+    public int entity_count;
+
+    private final UnorderedCoreBufferGroup.Raw raw = new UnorderedCoreBufferGroup.Raw();
+    private final EntityColumns columns = new EntityColumns();
+
+    @Setup
+    public void setup()
+    {
+        int point_count = entity_count * POINTS_PER_HULL;
+        raw.ensure_space(new int[]{ entity_count, entity_count, point_count, point_count, entity_count, entity_count });
+
+        var random = new SplittableRandom(1337L);
+        for (int entity_index = 0; entity_index < entity_count; entity_index++)
+        {
+            float x = random.nextFloat() * 4096f - 2048f;
+            float y = random.nextFloat() * 4096f - 2048f;
+            int entity_4 = entity_index * 4;
+            int entity_2 = entity_index * 2;
+            int point_start = entity_index * POINTS_PER_HULL;
+            int point_end = point_start + POINTS_PER_HULL - 1;
+
+            raw.entity[entity_4]     = x;
+            raw.entity[entity_4 + 1] = y;
+            raw.entity[entity_4 + 2] = x;
+            raw.entity[entity_4 + 3] = y;
+            raw.entity_hull_table[entity_2]     = entity_index;
+            raw.entity_hull_table[entity_2 + 1] = entity_index;
+            raw.entity_bone_table[entity_2]     = entity_index;
+            raw.entity_bone_table[entity_2 + 1] = entity_index;
+            raw.entity_root_hull[entity_index]  = entity_index;
+            raw.entity_mass[entity_index]       = 1.0f;
+
+            raw.hull[entity_4]     = x;
+            raw.hull[entity_4 + 1] = y;
+            raw.hull[entity_4 + 2] = x;
+            raw.hull[entity_4 + 3] = y;
+            raw.hull_point_table[entity_2]     = point_start;
+            raw.hull_point_table[entity_2 + 1] = point_end;
+            raw.hull_edge_table[entity_2]      = point_start;
+            raw.hull_edge_table[entity_2 + 1]  = point_end;
+            raw.hull_bone_table[entity_2]      = entity_index;
+            raw.hull_bone_table[entity_2 + 1]  = entity_index;
+            raw.hull_entity_id[entity_index]   = entity_index;
+            raw.hull_integrity[entity_index]   = 100;
+
+            for (int point_index = point_start; point_index <= point_end; point_index++)
+            {
+                int point_4 = point_index * 4;
+                int point_2 = point_index * 2;
+                raw.point[point_4]     = x + random.nextFloat();
+                raw.point[point_4 + 1] = y + random.nextFloat();
+                raw.point[point_4 + 2] = raw.point[point_4];
+                raw.point[point_4 + 3] = raw.point[point_4 + 1];
+                raw.point_hull_index[point_index] = entity_index;
+
+                raw.edge[point_2]     = point_index;
+                raw.edge[point_2 + 1] = point_index == point_end ? point_start : point_index + 1;
+                raw.edge_length[point_index] = 1.0f;
+            }
+        }
+    }
+
+    @Benchmark
+    public EntityColumns append_entities()
+    {
+        columns.clear();
+        for (int entity_offset = 0; entity_offset < entity_count; entity_offset++)
+        {
+            columns.append(raw, entity_offset);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,47 @@
+package com.controllerface.bvge.gpu;
+
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.kernels.crud.CreateEdge_k;
+import com.controllerface.bvge.gpu.cl.kernels.crud.CreateEntity_k;
+import com.controllerface.bvge.gpu.cl.kernels.crud.CreateHull_k;
+import com.controllerface.bvge.gpu.cl.kernels.crud.CreatePoint_k;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generation of create kernel source. Only the generated source is exercised, no OpenCL context is
+ * required to run these benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelSourceBenchmark
+{
+    @Benchmark
+    public String create_point_src()
+    {
+        return GPU.CL.crud_create_k_src(KernelType.create_point, CreatePoint_k.Args.class);
+    }
+
+    @Benchmark
+    public String create_edge_src()
+    {
+        return GPU.CL.crud_create_k_src(KernelType.create_edge, CreateEdge_k.Args.class);
+    }
+
+    @Benchmark
+    public String create_hull_src()
+    {
+        return GPU.CL.crud_create_k_src(KernelType.create_hull, CreateHull_k.Args.class);
+    }
+
+    @Benchmark
+    public String create_entity_src()
+    {
+        return GPU.CL.crud_create_k_src(KernelType.create_entity, CreateEntity_k.Args.class);
+    }
+}
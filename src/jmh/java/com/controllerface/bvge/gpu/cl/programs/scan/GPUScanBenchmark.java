@@ -0,0 +1,78 @@
+package com.controllerface.bvge.gpu.cl.programs.scan;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+
+/**
+ * Compares the multi-pass and look-back int scans on a large input, on whatever Open CL device is available,
+ * including CPU runtimes. The input is scanned in place, so each call scans the output of the last one, which has
+ * the same cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GPUScanBenchmark
+{
+    private static final int SCAN_SIZE = 1 << 22;
+
+    @Param({"MULTI_PASS", "LOOK_BACK"})
+    public GPUScanLookBack.Mode mode;
+
+    private GPUScanScalarInt scan;
+    private CL_Buffer buffer;
+
+    @Setup
+    public void setup()
+    {
+        GPU.startup_compute();
+        GPUScanLookBack.select_mode(mode);
+        scan = new GPUScanScalarInt(GPU.compute.physics_queue);
+
+        var random = new Random(7);
+        buffer = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * SCAN_SIZE);
+        var data = MemoryUtil.memAlloc(cl_int.size() * SCAN_SIZE);
+        try
+        {
+            var ints = data.asIntBuffer();
+            for (int i = 0; i < SCAN_SIZE; i++)
+            {
+                ints.put(i, random.nextInt(16));
+            }
+            GPU.CL.write_buffer(GPU.compute.physics_queue, buffer, data);
+            GPU.compute.physics_queue.finish();
+        }
+        finally
+        {
+            MemoryUtil.memFree(data);
+        }
+
+        // the first call builds the program and sizes the tile buffers
+        scan_int();
+    }
+
+    @TearDown
+    public void tear_down()
+    {
+        buffer.release();
+        scan.release();
+        GPUScanLookBack.select_mode(GPUScanLookBack.Mode.MULTI_PASS);
+        GPU.shutdown();
+    }
+
+    @Benchmark
+    public void scan_int()
+    {
+        scan.scan_int(buffer.ptr(), SCAN_SIZE);
+        GPU.compute.physics_queue.finish();
+    }
+}
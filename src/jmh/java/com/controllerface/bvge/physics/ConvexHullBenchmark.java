@@ -0,0 +1,48 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.models.geometry.Vertex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures convex hull calculation over randomly distributed points. Hull construction is a gift-wrapping
+ * algorithm, so cost depends on both the number of input points and the number that end up on the hull.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvexHullBenchmark
+{
+    @Param({"4", "16", "64", "256"})
+    public int point_count;
+
+    private Vertex[] points;
+
+    @Setup
+    public void setup()
+    {
+        var random = new SplittableRandom(1337L);
+        points = new Vertex[point_count];
+        for (int i = 0; i < point_count; i++)
+        {
+            float angle = (float) (random.nextDouble() * Math.PI * 2.0);
+            float radius = (float) random.nextDouble();
+            points[i] = new Vertex(i,
+                (float) Math.cos(angle) * radius,
+                (float) Math.sin(angle) * radius,
+                List.of(), new String[0], new float[0]);
+        }
+    }
+
+    @Benchmark
+    public Vertex[] calculate_convex_hull()
+    {
+        return PhysicsObjects.calculate_convex_hull(points);
+    }
+}
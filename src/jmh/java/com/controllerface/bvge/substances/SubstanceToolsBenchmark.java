@@ -0,0 +1,40 @@
+package com.controllerface.bvge.substances;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures substance to type index lookups, for every registered solid and liquid. These lookups happen once per
+ * spawned object, so they sit directly on the sector loading path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubstanceToolsBenchmark
+{
+    private final Solid[] solids = Solid.values();
+    private final Liquid[] liquids = Liquid.values();
+
+    @Benchmark
+    public void to_type_index_solid(Blackhole blackhole)
+    {
+        for (var solid : solids)
+        {
+            blackhole.consume(SubstanceTools.to_type_index(solid));
+        }
+    }
+
+    @Benchmark
+    public void to_type_index_liquid(Blackhole blackhole)
+    {
+        for (var liquid : liquids)
+        {
+            blackhole.consume(SubstanceTools.to_type_index(liquid));
+        }
+    }
+}
@@ -5,6 +5,20 @@ import com.controllerface.bvge.editor.Editor;
 import com.controllerface.bvge.events.EventBus;
 import com.controllerface.bvge.game.InputSystem;
 import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.programs.scan.GPUScanLookBack;
+import com.controllerface.bvge.memory.GPUCoreMemory;
+import com.controllerface.bvge.memory.sectors.CompactionPolicy;
+import com.controllerface.bvge.memory.sectors.ReorderSchedule;
+import com.controllerface.bvge.physics.BodySleep;
+import com.controllerface.bvge.physics.BroadPhaseBounds;
+import com.controllerface.bvge.physics.ContactCache;
+import com.controllerface.bvge.physics.ContinuousCollision;
+import com.controllerface.bvge.physics.EdgeColoring;
+import com.controllerface.bvge.physics.PhysicsBackend;
+import com.controllerface.bvge.physics.PhysicsOptions;
+import com.controllerface.bvge.physics.PhysicsSimulation;
+import com.controllerface.bvge.physics.StaticKeyLayer;
+import com.controllerface.bvge.physics.SubStepScheduler;
 import org.lwjgl.Version;
 import org.lwjgl.system.Configuration;
 import org.lwjgl.util.freetype.FreeType;
@@ -19,6 +33,35 @@ public class Main
 {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
     private static final String WINDOW_TITLE = "BVGE Prototype";
+    private static final String ARG_HEADLESS    = "--headless";
+    private static final String ARG_TICKS       = "--ticks=";
+    private static final String ARG_CPU_PHYSICS = "--cpu-physics";
+    private static final String ARG_ADAPTIVE    = "--adaptive-substeps";
+    private static final String ARG_BOUNDED     = "--bounded-broad-phase";
+    private static final String ARG_REORDER     = "--spatial-reorder";
+    private static final String ARG_COMPACT     = "--lazy-compaction";
+    private static final String ARG_LOOK_BACK   = "--look-back-scan";
+    private static final String ARG_STATIC_KEYS = "--static-key-cache";
+    private static final String ARG_SLEEP       = "--body-sleep";
+    private static final String ARG_CCD         = "--ccd";
+    private static final String ARG_WARM        = "--warm-contacts";
+    private static final String ARG_WARM_STEPS  = "--warm-edge-steps=";
+    private static final String ARG_EDGE_COLORS = "--colored-edges";
+
+    /**
+     * With spatial reordering enabled, the core buffers are reordered every 10 seconds of simulation at the
+     * default tick rate, or sooner once a quarter of the live entities have been replaced by streaming.
+     */
+    private static final int REORDER_INTERVAL = 600;
+    private static final float REORDER_CHURN   = 0.25f;
+
+    /**
+     * With lazy compaction enabled, deleted entities are compacted once there are a thousand of them, or once they
+     * make up a tenth of all entities, and otherwise after at most 2 seconds of simulation at the default tick rate.
+     */
+    private static final int COMPACT_LIMIT    = 1_000;
+    private static final float COMPACT_RATIO  = 0.1f;
+    private static final int COMPACT_DEFERRAL = 120;
 
     public static void main(String[] args)
     {
@@ -26,7 +69,31 @@ public class Main
         configure_logger();
         configure_libraries();
         version_info();
-        run();
+
+        boolean headless = false;
+        long tick_limit = -1;
+        var physics_options = PhysicsOptions.DEFAULTS;
+        for (var arg : args)
+        {
+            if (arg.equals(ARG_HEADLESS)) headless = true;
+            else if (arg.startsWith(ARG_TICKS)) tick_limit = Long.parseLong(arg.substring(ARG_TICKS.length()));
+            else if (arg.equals(ARG_CPU_PHYSICS)) physics_options = physics_options.with_backend(PhysicsBackend.CPU);
+            else if (arg.equals(ARG_ADAPTIVE)) physics_options = physics_options.with_sub_steps(SubStepScheduler.Mode.ADAPTIVE);
+            else if (arg.equals(ARG_BOUNDED)) physics_options = physics_options.with_broad_phase(BroadPhaseBounds.Mode.BOUNDED);
+            else if (arg.equals(ARG_REORDER)) GPUCoreMemory.select_reorder_schedule(new ReorderSchedule(REORDER_INTERVAL, REORDER_CHURN));
+            else if (arg.equals(ARG_COMPACT)) GPUCoreMemory.select_compaction_policy(new CompactionPolicy(COMPACT_LIMIT, COMPACT_RATIO, COMPACT_DEFERRAL));
+            else if (arg.equals(ARG_LOOK_BACK)) GPUScanLookBack.select_mode(GPUScanLookBack.Mode.LOOK_BACK);
+            else if (arg.equals(ARG_STATIC_KEYS)) physics_options = physics_options.with_static_keys(StaticKeyLayer.Mode.CACHED);
+            else if (arg.equals(ARG_SLEEP)) physics_options = physics_options.with_sleep(BodySleep.Mode.SLEEP_AT_REST);
+            else if (arg.equals(ARG_CCD)) physics_options = physics_options.with_ccd(ContinuousCollision.Mode.SWEPT);
+            else if (arg.equals(ARG_WARM)) physics_options = physics_options.with_contacts(ContactCache.Mode.WARM);
+            else if (arg.startsWith(ARG_WARM_STEPS)) physics_options = physics_options.with_warm_edge_steps(Integer.parseInt(arg.substring(ARG_WARM_STEPS.length())));
+            else if (arg.equals(ARG_EDGE_COLORS)) physics_options = physics_options.with_constraints(EdgeColoring.Mode.PER_EDGE);
+        }
+        PhysicsSimulation.select_options(physics_options);
+
+        if (headless) run_headless(tick_limit);
+        else run();
     }
 
     private static void version_info()
@@ -85,5 +152,30 @@ public class Main
             Editor.destroy();
         }
     }
+
+    private static void run_headless(long tick_limit)
+    {
+        Window window = Window.get();
+        Editor.init();
+
+        var ecs             = new ECS();
+        var event_bus       = new EventBus();
+        var input_system    = new InputSystem(ecs);
+
+        GPU.startup_headless(ecs, event_bus);
+        window.init(ecs, event_bus, input_system);
+        window.init_game_mode();
+
+        try { window.run_headless(tick_limit); }
+        catch (Exception e) { throw new RuntimeException("Unexpected error", e); }
+        finally
+        {
+            GPU.shutdown();
+            input_system.shutdown();
+            event_bus.clear();
+            ecs.shutdown();
+            Editor.destroy();
+        }
+    }
 }
 
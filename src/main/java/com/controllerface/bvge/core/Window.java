@@ -23,6 +23,7 @@ public class Window
 {
     private static final Logger LOGGER = Logger.getLogger(Window.class.getName());
     private static final float MAX_DT = 100.0f;
+    private static final float HEADLESS_DT = 1.0f / 60.0f;
 
     private int width;
     private int height;
@@ -176,6 +177,48 @@ public class Window
         }
     }
 
+    /**
+     * Drives the game from a fixed-step loop with no window, ticking as fast as possible. Used when running
+     * in headless mode, where there is no display to pace frames against.
+     *
+     * @param tick_limit the number of ticks to run before returning, or a negative value to run until interrupted
+     */
+    public void run_headless(long tick_limit)
+    {
+        LOGGER.log(Level.INFO, "Starting headless loop, tick limit: " + tick_limit);
+
+        long ticks = 0;
+        long start = System.nanoTime();
+        long report_start = start;
+        long report_ticks = 0;
+
+        while ((tick_limit < 0 || ticks < tick_limit) && !Thread.currentThread().isInterrupted())
+        {
+            ecs.tick(HEADLESS_DT);
+            ticks++;
+            report_ticks++;
+
+            long now = System.nanoTime();
+            if (now - report_start >= 1_000_000_000L)
+            {
+                float seconds = (float) (now - report_start) / 1_000_000_000f;
+                LOGGER.log(Level.INFO, "headless ticks/sec: " + String.format("%.2f", report_ticks / seconds));
+                if (Editor.ACTIVE)
+                {
+                    Editor.queue_event("fps", String.valueOf(report_ticks));
+                }
+                report_start = now;
+                report_ticks = 0;
+            }
+        }
+
+        closing = true;
+        game_mode.destroy();
+
+        float total_seconds = (float) (System.nanoTime() - start) / 1_000_000_000f;
+        LOGGER.log(Level.INFO, "headless run complete, ticks: " + ticks + " seconds: " + String.format("%.3f", total_seconds));
+    }
+
     public int width()
     {
         return width;
@@ -26,7 +26,7 @@ public class Editor
 
     public static void queue_event(String name, String data)
     {
-        if (ACTIVE)
+        if (ACTIVE && server != null)
         {
             server.queue_stat_event(name, data);
         }
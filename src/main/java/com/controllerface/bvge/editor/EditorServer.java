@@ -35,6 +35,8 @@ public class EditorServer
     private final List<EditorStream> streams = new CopyOnWriteArrayList<>();
     private final Map<String, String> stat_events = new ConcurrentHashMap<>();
 
+    private final long[] metric_scratch = new long[Metrics.WINDOW];
+
     private ServerSocket server_socket;
     private Thread incoming;
     private Thread outgoing;
@@ -69,6 +71,10 @@ public class EditorServer
             "/events",
             EditorServer::handle_sse),
 
+        METRICS(EndpointMethod.GET,
+            "/metrics",
+            EditorServer::respond_metrics),
+
         STATIC_ASSET(EndpointMethod.GET,
             StaticAsset::is_asset,
             StaticAsset::serve_asset);
@@ -123,6 +129,51 @@ public class EditorServer
         }
     }
 
+    private static void respond_metrics(Request request, Socket client_connection, EditorServer server)
+    {
+        var body = metrics_json().getBytes(StandardCharsets.UTF_8);
+        var head = ("HTTP/1.1 200 OK\r\n"
+            + "Content-Type: application/json\r\n"
+            + "Content-Length:" + body.length + "\r\n"
+            + "Connection: close\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        try (client_connection;
+             var response_stream = client_connection.getOutputStream())
+        {
+            response_stream.write(head);
+            response_stream.write(body);
+            response_stream.flush();
+        }
+        catch (IOException ioException)
+        {
+            System.err.println("Error writing to response stream");
+        }
+    }
+
+    /**
+     * Formats a snapshot of all metrics as a JSON object. Uses its own scratch buffer, as requests are handled on
+     * independent threads from the event stream.
+     */
+    private static String metrics_json()
+    {
+        var scratch = new long[Metrics.WINDOW];
+        var json = new StringJoiner(", ", "{", "}");
+        for (var metric : Metrics.Metric.values())
+        {
+            var summary = Metrics.snapshot(metric, scratch);
+            json.add("\"" + metric.event_name + "\" : {"
+                + "\"unit\" : \"" + metric.unit.name().toLowerCase() + "\", "
+                + "\"samples\" : " + summary.samples() + ", "
+                + "\"p50\" : " + summary.p50() + ", "
+                + "\"p99\" : " + summary.p99() + ", "
+                + "\"max\" : " + summary.max() + "}");
+        }
+        for (var counter : Metrics.Counter.values())
+        {
+            json.add("\"" + counter.event_name + "\" : " + Metrics.total(counter));
+        }
+        return json.toString();
+    }
+
     private static void handle_sse(Request request, Socket client_connection, EditorServer server)
     {
         boolean isSSE = request.headers().stream()
@@ -240,6 +291,20 @@ public class EditorServer
                 stat_events.forEach((name, value) ->
                     streams.forEach(stream -> stream.queue_event(name, value)));
 
+                for (var metric : Metrics.Metric.values())
+                {
+                    var summary = Metrics.snapshot(metric, metric_scratch);
+                    if (summary.samples() == 0) continue;
+                    var value = "p50: " + summary.p50() + " p99: " + summary.p99() + " max: " + summary.max();
+                    streams.forEach(stream -> stream.queue_event(metric.event_name, value));
+                }
+
+                for (var counter : Metrics.Counter.values())
+                {
+                    var value = String.valueOf(Metrics.total(counter));
+                    streams.forEach(stream -> stream.queue_event(counter.event_name, value));
+                }
+
                 var inventory_event = inventory.entrySet().stream()
                     .map(e -> "\"" + SubstanceTools.from_type_index(e.getKey()) + "\" : " + e.getValue())
                     .collect(Collectors.joining(", ","{","}"));
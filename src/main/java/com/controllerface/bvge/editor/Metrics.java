@@ -0,0 +1,207 @@
+package com.controllerface.bvge.editor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Registry of pre-defined frame metrics. Hot paths record raw primitive values against a fixed metric ID, which
+ * writes into a per-metric ring of recent samples without locking or allocating. The editor server periodically
+ * takes a snapshot of each ring and reports percentiles over the window, so short spikes remain visible instead of
+ * being overwritten by the most recent value.
+ */
+public class Metrics
+{
+    /**
+     * Number of samples kept per metric. Must be a power of two.
+     */
+    static final int WINDOW = 1024;
+    private static final int WINDOW_MASK = WINDOW - 1;
+
+    public enum Unit
+    {
+        NANOS,
+        COUNT,
+    }
+
+    /**
+     * Windowed metrics, each keeps the most recent {@link #WINDOW} samples. Event names are the names reported to
+     * the editor, and match the names previously used for the equivalent stat events.
+     */
+    public enum Metric
+    {
+        PHYS_FRAME                 ("phys",                       Unit.NANOS),
+        PHYS_CYCLE                 ("phys_cycle",                 Unit.NANOS),
+        PHYS_EGRESS                ("phys_egress",                Unit.NANOS),
+        PHYS_COMPACT               ("phys_compact",               Unit.NANOS),
+        PHYS_TOMBSTONES            ("phys_tombstones",            Unit.COUNT),
+        PHYS_REORDER               ("phys_reorder",               Unit.NANOS),
+        PHYS_INTEGRATE             ("phys_integrate",             Unit.NANOS),
+        PHYS_CALCULATE_HULL_AABB   ("phys_calculate_hull_aabb",   Unit.NANOS),
+        PHYS_BANK_OFFSET           ("phys_bank_offset",           Unit.NANOS),
+        PHYS_BANK_SCAN_BOUNDS      ("phys_bank_scan_bounds",      Unit.NANOS),
+        PHYS_BANK_COMPLETE_BOUNDS  ("phys_bank_complete_bounds",  Unit.NANOS),
+        PHYS_BANK_READ_PINNED      ("phys_bank_read_pinned",      Unit.NANOS),
+        PHYS_GEN_KEYS              ("phys_gen_keys",              Unit.NANOS),
+        PHYS_KEY_MAP               ("phys_key_map",               Unit.NANOS),
+        PHYS_STATIC_KEYS           ("phys_static_keys",           Unit.NANOS),
+        PHYS_LOCATE_INBOUNDS       ("phys_locate_inbounds",       Unit.NANOS),
+        PHYS_MATCH_CANDIDATES      ("phys_match_candidates",      Unit.NANOS),
+        PHYS_MATCH_OFFSETS         ("phys_match_offsets",         Unit.NANOS),
+        PHYS_AABB_COLLIDE          ("phys_aabb_collide",          Unit.NANOS),
+        PHYS_FINALIZE_CANDIDATES   ("phys_finalize_candidates",   Unit.NANOS),
+        PHYS_CCD_COLLIDE           ("phys_ccd_collide",           Unit.NANOS),
+        PHYS_SAT_COLLIDE           ("phys_sat_collide",           Unit.NANOS),
+        PHYS_SAT_SCAN_REACTIONS    ("phys_sat_scan_reactions",    Unit.NANOS),
+        PHYS_SAT_SORT_REACTIONS    ("phys_sat_sort_reactions",    Unit.NANOS),
+        PHYS_SAT_APPLY_REACTIONS   ("phys_sat_apply_reactions",   Unit.NANOS),
+        PHYS_ANIMATE_ENTITIES      ("phys_animate_entities",      Unit.NANOS),
+        PHYS_ANIMATE_BONES         ("phys_animate_bones",         Unit.NANOS),
+        PHYS_ANIMATE_POINTS        ("phys_animate_points",        Unit.NANOS),
+        PHYS_RESOLVE_CONSTRAINTS   ("phys_resolve_constraints",   Unit.NANOS),
+        PHYS_COLOR_EDGES           ("phys_color_edges",           Unit.NANOS),
+        PHYS_MOVE_ENTITIES         ("phys_move_entities",         Unit.NANOS),
+        PHYS_MOVE_HULLS            ("phys_move_hulls",            Unit.NANOS),
+        PHYS_WAKE_SLEEPERS         ("phys_wake_sleepers",         Unit.NANOS),
+        PHYS_MATCH_BUFFER_COUNT    ("phys_match_buffer_count",    Unit.COUNT),
+        PHYS_CANDIDATE_COUNT       ("phys_candidate_count",       Unit.COUNT),
+        PHYS_REACTION_COUNT        ("phys_reaction_count",        Unit.COUNT),
+        PHYS_WARM_CONTACTS         ("phys_warm_contacts",         Unit.COUNT),
+        PHYS_CONSTRAINT_ERROR      ("phys_constraint_error",      Unit.COUNT),
+        PHYS_SUB_STEPS             ("phys_sub_steps",             Unit.COUNT),
+        PHYS_EDGE_STEPS            ("phys_edge_steps",            Unit.COUNT),
+        SECTOR_LOAD                ("sector_load",                Unit.NANOS),
+        SECTOR_COUNT               ("sector_count",               Unit.COUNT),
+        SECTOR_MEMORY              ("mem_sector",                 Unit.COUNT),
+        RENDER_MEMORY              ("mem_render",                 Unit.COUNT),
+        RENDER_MODEL               ("render_model",               Unit.NANOS),
+        RENDER_CL_CYCLE            ("render_cl_cycle",            Unit.NANOS),
+        RENDER_BUFFER_READ         ("render_buffer_read",         Unit.NANOS),
+        RENDER_DETAIL_TRANSFER     ("render_detail_transfer",     Unit.NANOS),
+        RENDER_DATA_TRANSFER       ("render_data_transfer",       Unit.NANOS),
+        RENDER_MODEL_COUNT_MESHES  ("render_model_count_meshes",  Unit.NANOS),
+        RENDER_MODEL_WRITE_DETAILS ("render_model_write_details", Unit.NANOS),
+        RENDER_MODEL_COUNT_BATCHES ("render_model_count_batches", Unit.NANOS),
+        RENDER_MODEL_BATCH_OFFSETS ("render_model_batch_offsets", Unit.NANOS),
+        RENDER_MODEL_BATCH_LOOP    ("render_model_batch_loop",    Unit.NANOS),
+        RENDER_MODEL_SCAN_INT      ("render_model_scan_int",      Unit.NANOS),
+        RENDER_MODEL_SCAN_INT_OUT  ("render_model_scan_int_out",  Unit.NANOS),
+        RENDER_MODEL_SCAN_INT2     ("render_model_scan_int2",     Unit.NANOS),
+        RENDER_BATCH_COUNT         ("render_batch_count",         Unit.COUNT),
+        RENDER_INSTANCE_COUNT      ("render_instance_count",      Unit.COUNT),
+        RENDER_LIQUID_COUNT        ("render_liquid_count",        Unit.COUNT),
+
+        ;
+
+        public final String event_name;
+        public final Unit unit;
+
+        Metric(String event_name, Unit unit)
+        {
+            this.event_name = event_name;
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * Monotonic counters, reported as a running total.
+     */
+    public enum Counter
+    {
+        DROPPED_SUB_STEPS     ("dropped"),
+        SECTORS_LOADED        ("sectors_loaded"),
+        BUDGET_LIMITED_FRAMES ("phys_budget_limited"),
+        POOL_HITS             ("pool_hits"),
+        POOL_MISSES           ("pool_misses"),
+        BOUNDS_OVERFLOWS      ("phys_bounds_overflow"),
+        COMPACTIONS           ("phys_compactions"),
+
+        ;
+
+        public final String event_name;
+
+        Counter(String event_name)
+        {
+            this.event_name = event_name;
+        }
+    }
+
+    /**
+     * Summary of the samples in a metric window at the time of a snapshot.
+     */
+    public record Summary(int samples, long p50, long p99, long max) { }
+
+    private static final int METRIC_COUNT = Metric.values().length;
+
+    private static final AtomicLongArray samples = new AtomicLongArray(METRIC_COUNT * WINDOW);
+    private static final AtomicIntegerArray cursors = new AtomicIntegerArray(METRIC_COUNT);
+    private static final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+    /**
+     * Records one sample for the given metric, overwriting the oldest sample in the window.
+     */
+    public static void record(Metric metric, long value)
+    {
+        int id = metric.ordinal();
+        int cursor = cursors.getAndIncrement(id);
+        samples.setRelease(id * WINDOW + (cursor & WINDOW_MASK), value);
+    }
+
+    public static void count(Counter counter, long delta)
+    {
+        counters.getAndAdd(counter.ordinal(), delta);
+    }
+
+    public static long total(Counter counter)
+    {
+        return counters.get(counter.ordinal());
+    }
+
+    /**
+     * Summarizes the current window of the given metric. The scratch array must hold at least {@link #WINDOW}
+     * values, and is used to sort a copy of the window so callers that take snapshots regularly can avoid
+     * allocating a sample buffer for each one. Samples recorded while the snapshot is taken may or may not be
+     * included.
+     */
+    public static Summary snapshot(Metric metric, long[] scratch)
+    {
+        int id = metric.ordinal();
+        int cursor = cursors.get(id);
+        int count = Integer.compareUnsigned(cursor, WINDOW) >= 0 ? WINDOW : cursor;
+        if (count == 0)
+        {
+            return new Summary(0, 0, 0, 0);
+        }
+
+        int base = id * WINDOW;
+        for (int i = 0; i < count; i++)
+        {
+            scratch[i] = samples.getAcquire(base + i);
+        }
+        Arrays.sort(scratch, 0, count);
+        return new Summary(count,
+            scratch[percentile_index(count, 50)],
+            scratch[percentile_index(count, 99)],
+            scratch[count - 1]);
+    }
+
+    private static int percentile_index(int count, int percentile)
+    {
+        return (int) Math.ceil(count * (percentile / 100.0)) - 1;
+    }
+
+    /**
+     * Clears all samples and counters. Intended for tests and for resetting between benchmark runs.
+     */
+    public static void reset()
+    {
+        for (int i = 0; i < METRIC_COUNT; i++)
+        {
+            cursors.set(i, 0);
+        }
+        for (int i = 0; i < counters.length(); i++)
+        {
+            counters.set(i, 0);
+        }
+    }
+}
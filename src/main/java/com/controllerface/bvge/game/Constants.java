@@ -52,6 +52,7 @@ public class Constants
         IS_HEAD       (0b00000000001000000000000000000000),
         SENSOR_HIT    (0b00000000010000000000000000000000),
         ENTITY_SENSOR (0b00000000100000000000000000000000),
+        IS_SLEEPING   (0b00000001000000000000000000000000),
 
         ;
 
@@ -111,6 +112,9 @@ public class Constants
         GHOST_ACTIVE (0b00000000000000000000010000000000),
         JUMPING      (0b00000000000000000000100000000000),
 
+        // not a single flag, these bits hold the number of sub-steps an entity has been at rest
+        REST_TICKS   (0b01111111000000000000000000000000),
+
         ;
 
         public final int bits;
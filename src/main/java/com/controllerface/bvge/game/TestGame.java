@@ -4,6 +4,7 @@ import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.components.*;
 import com.controllerface.bvge.game.state.PlayerController;
 import com.controllerface.bvge.game.state.PlayerInventory;
+import com.controllerface.bvge.game.world.SectorStore;
 import com.controllerface.bvge.game.world.WorldLoader;
 import com.controllerface.bvge.game.world.WorldUnloader;
 import com.controllerface.bvge.gpu.GPU;
@@ -32,7 +33,9 @@ public class TestGame extends GameMode
     private final Runnable window_upkeep;
     private final int GRID_WIDTH = 3840;
     private final int GRID_HEIGHT = 2160;
+    private final int MAX_CACHED_SECTORS = 2048;
 
+    private final SectorStore sector_store;
     private final Cache<Sector, PhysicsEntityBatch> sector_cache;
     private final Queue<PhysicsEntityBatch> load_queue;
     private final Queue<Sector> unload_queue;
@@ -49,10 +52,14 @@ public class TestGame extends GameMode
         this.load_queue = new LinkedBlockingDeque<>();
         this.unload_queue = new LinkedBlockingDeque<>();
         this.player_inventory = new PlayerInventory();
+        this.sector_store = new SectorStore();
 
-        // todo: look into a custom weigher instead of a flat timeout. weight should be determined by proximity to
+        // todo: look into a custom weigher instead of a flat size limit. weight should be determined by proximity to
         //  sectors nearest to the player.
+        // unloaded sectors are saved to the sector store before they are cached, so evicted sectors can be read
+        // back from disk later, and sectors that were never unloaded can be generated again
         this.sector_cache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_SECTORS)
             .expireAfterAccess(Duration.of(1, ChronoUnit.HOURS))
             .build();
 
@@ -101,12 +108,15 @@ public class TestGame extends GameMode
     private void load_systems(float x, float y)
     {
         var world_permit = new Semaphore(0);
-        ecs.register_system(new WorldLoader(ecs, uniformGrid, sector_cache, load_queue, unload_queue, world_permit));
+        ecs.register_system(new WorldLoader(ecs, uniformGrid, sector_cache, sector_store, load_queue, unload_queue, world_permit));
         ecs.register_system(new PhysicsSimulation(ecs, uniformGrid, player_controller));
-        ecs.register_system(new WorldUnloader(ecs, sector_cache, load_queue, unload_queue, world_permit));
+        ecs.register_system(new WorldUnloader(ecs, sector_cache, sector_store, load_queue, unload_queue, world_permit));
         ecs.register_system(new CameraTracking(ecs, uniformGrid, x, y));
         ecs.register_system(new InventorySystem(ecs, player_inventory));
-        ecs.register_system(new RenderingSystem(ecs, player_inventory, uniformGrid, window_upkeep));
+        if (!GPU.headless())
+        {
+            ecs.register_system(new RenderingSystem(ecs, player_inventory, uniformGrid, window_upkeep));
+        }
     }
 
     @Override
@@ -124,5 +134,6 @@ public class TestGame extends GameMode
     public void destroy()
     {
         player_controller.release();
+        sector_store.close();
     }
 }
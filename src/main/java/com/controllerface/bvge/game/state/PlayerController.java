@@ -13,7 +13,6 @@ import com.controllerface.bvge.gpu.cl.buffers.PersistentBuffer;
 import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
 import com.controllerface.bvge.memory.sectors.SectorController;
 import com.controllerface.bvge.physics.PhysicsObjects;
-import com.controllerface.bvge.physics.PhysicsSimulation;
 import com.controllerface.bvge.physics.UniformGrid;
 
 import java.util.Objects;
@@ -167,7 +166,10 @@ public class PlayerController implements GPUResource
     private boolean action_layer_idle = true;
     private boolean action_layer_empty = true;
 
-    public void update_player_state()
+    /**
+     * @param time_step length of the sub-step that is about to run, which the vertical velocity is measured over
+     */
+    public void update_player_state(float time_step)
     {
         handle_input_states();
 
@@ -351,7 +353,7 @@ public class PlayerController implements GPUResource
         // motion state
 
 
-        float vel_y = (entity[1] - entity[3]) / PhysicsSimulation.FIXED_TIME_STEP;
+        float vel_y = (entity[1] - entity[3]) / time_step;
 
         motion_state[0] = (vel_y < -MOTION_THRESHOLD)
             ? (short)(motion_state[0] + 1)
@@ -8,28 +8,46 @@ import com.controllerface.bvge.physics.UniformGrid;
 import com.controllerface.bvge.substances.Liquid;
 import com.controllerface.bvge.substances.Solid;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import static com.controllerface.bvge.substances.Solid.*;
 
+/**
+ * Generates sectors as a pure function of the world seed and the sector being generated. The noise generators are
+ * configured once during construction and are only read afterward, and all random values are drawn from a generator
+ * that is seeded per sector, so sectors may be generated concurrently, in any order, with reproducible results.
+ */
 public class EarthLikeWorld implements WorldType
 {
     private final FastNoiseLite noise = new FastNoiseLite();
     private final FastNoiseLite noise2 = new FastNoiseLite();
     private final FastNoiseLite noise3 = new FastNoiseLite();
-    private final Random random = new Random();
+    private final long seed;
 
     private static final float block_range_floor = -0.1f;
     private static final float shard_range_floor = -0.14f;
     private static final float water_range_floor = -0.15f;
 
+    /**
+     * Terrain noise is sampled once per sector into a grid that has a one block border on all sides, so every block
+     * in the sector can read the noise of its eight neighbors without sampling the noise generator again.
+     */
+    private static final int TERRAIN_GRID_WIDTH = UniformGrid.BLOCK_COUNT + 2;
+
     private int map_to_block(float n, float floor, float length)
     {
         return (int) MathEX.map(n, floor, 1f, 0f, length);
     }
 
-    public EarthLikeWorld()
+    public EarthLikeWorld(long seed)
     {
+        this.seed = seed;
+
+        noise.SetSeed((int) seed);
+        noise2.SetSeed((int) seed);
+        noise3.SetSeed((int) seed);
+
         noise.SetNoiseType(FastNoiseLite.NoiseType.Perlin);
         noise.SetFrequency(0.02f);
         noise.SetFractalType(FastNoiseLite.FractalType.FBm);
@@ -42,9 +60,9 @@ public class EarthLikeWorld implements WorldType
         noise3.SetFractalType(FastNoiseLite.FractalType.PingPong);
     }
 
-    private Solid rare = Solid.COAL_DEPOSIT;
+    private static final Solid rare = Solid.COAL_DEPOSIT;
 
-    private Solid[] block_pallette = new Solid[]
+    private static final Solid[] block_pallette = new Solid[]
         {
             GRANITE,
             GRANITE,
@@ -79,7 +97,7 @@ public class EarthLikeWorld implements WorldType
             Solid.BLUESCHIST,
         };
 
-    private Solid[] block_pallette2 = new Solid[]
+    private static final Solid[] block_pallette2 = new Solid[]
         {
             Solid.MUGEARITE,
             Solid.ANDESITE,
@@ -100,7 +118,7 @@ public class EarthLikeWorld implements WorldType
             Solid.DIORITE,
         };
 
-    private Solid[] block_pallette3 = new Solid[]
+    private static final Solid[] block_pallette3 = new Solid[]
         {
             Solid.COAL_DEPOSIT,
             Solid.COAL_DEPOSIT,
@@ -179,14 +197,18 @@ public class EarthLikeWorld implements WorldType
             Solid.KIMBERLITE,
         };
 
-    public float rando_float(float baseNumber, float percentage)
+    public static float rando_float(RandomGenerator random, float baseNumber, float percentage)
     {
 
         float upperBound = baseNumber * percentage;
         return baseNumber + random.nextFloat() * (upperBound - baseNumber);
     }
 
-    boolean flip = false;
+    private RandomGenerator sector_random(Sector sector)
+    {
+        long sector_key = ((long) sector.x() << 32) | (sector.y() & 0xFFFFFFFFL);
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + sector_key);
+    }
 
     @Override
     public PhysicsEntityBatch generate_sector(Sector sector)
@@ -195,6 +217,8 @@ public class EarthLikeWorld implements WorldType
         float y_offset = sector.y() * (int)UniformGrid.SECTOR_SIZE;
 
         var batch = new PhysicsEntityBatch();
+        var random = sector_random(sector);
+        var terrain = terrain_grid(sector);
 
         for (int x = 0; x < UniformGrid.BLOCK_COUNT; x++)
         {
@@ -205,14 +229,32 @@ public class EarthLikeWorld implements WorldType
                 float world_y = (y * UniformGrid.BLOCK_SIZE) + y_offset;
                 float world_y_block = world_y + (UniformGrid.BLOCK_SIZE / 2f);
 
-                if (world_y >= 0.0f) surface(batch, world_x_block, world_y_block, world_y, x, y);
-                else underground(batch, world_x_block, world_y_block, world_y);
+                if (world_y >= 0.0f) surface(batch, random, terrain, world_x_block, world_y_block, world_y, x, y);
+                else underground(batch, random, terrain, world_x_block, world_y_block, world_y, x, y);
             }
         }
         return batch;
     }
 
-    private void surface(PhysicsEntityBatch batch, float world_x_block, float world_y_block, float world_y, int x, int y)
+    /**
+     * Samples terrain noise for every block in the given sector, plus a one block border. Sample positions match the
+     * block coordinates used by the generator exactly: block centers on the x axis, and block edges on the y axis.
+     */
+    private float[] terrain_grid(Sector sector)
+    {
+        float x_start = (sector.x() * UniformGrid.BLOCK_COUNT - 1) + 0.5f;
+        float y_start = sector.y() * UniformGrid.BLOCK_COUNT - 1;
+        var terrain = new float[TERRAIN_GRID_WIDTH * TERRAIN_GRID_WIDTH];
+        noise.GetNoiseGrid(terrain, x_start, y_start, 1.0f, TERRAIN_GRID_WIDTH, TERRAIN_GRID_WIDTH);
+        return terrain;
+    }
+
+    private static float terrain(float[] terrain, int x, int y)
+    {
+        return terrain[(y + 1) * TERRAIN_GRID_WIDTH + (x + 1)];
+    }
+
+    private void surface(PhysicsEntityBatch batch, RandomGenerator random, float[] terrain, float world_x_block, float world_y_block, float world_y, int x, int y)
     {
         if (world_y > 500.0) return;
 
@@ -223,9 +265,7 @@ public class EarthLikeWorld implements WorldType
         int h4 = random.nextInt(1000, 2000);
         hits = new int[]{ h1, h2, h3, h4 };
 
-        float block_x = world_x_block / UniformGrid.BLOCK_SIZE;
-        float block_y = world_y / UniformGrid.BLOCK_SIZE;
-        float n = noise.GetNoise(block_x, block_y);
+        float n = terrain(terrain, x, y);
         if (n < 0) n *= -1;
         int block = map_to_block(n, block_range_floor, (float)block_pallette.length);
         var solid = block_pallette[block];
@@ -233,9 +273,8 @@ public class EarthLikeWorld implements WorldType
             Constants.HullFlags.IS_STATIC.bits, solid, hits);
     }
 
-    private void underground(PhysicsEntityBatch batch, float world_x_block, float world_y_block, float world_y)
+    private void underground(PhysicsEntityBatch batch, RandomGenerator random, float[] terrain, float world_x_block, float world_y_block, float world_y, int x, int y)
     {
-        float block_x = world_x_block / UniformGrid.BLOCK_SIZE;
         float block_x_2 = world_x_block / (UniformGrid.BLOCK_SIZE * 10f);
         float block_y = world_y / UniformGrid.BLOCK_SIZE;
         float block_y_2 = world_y_block / (UniformGrid.BLOCK_SIZE * .1f);
@@ -243,7 +282,7 @@ public class EarthLikeWorld implements WorldType
         float sz_solid = UniformGrid.BLOCK_SIZE;
         float sz_liquid = (float)UniformGrid.BLOCK_SIZE * .75f; //rando_float(UniformGrid.BLOCK_SIZE, .65f);
 
-        float n = noise.GetNoise(block_x, block_y);
+        float n = terrain(terrain, x, y);
         boolean gen_block = n >= block_range_floor;
         int layer = 0;
         if (gen_block)
@@ -267,7 +306,7 @@ public class EarthLikeWorld implements WorldType
 
             int flags = Constants.HullFlags.IS_STATIC.bits;
 
-            float mn_below = noise.GetNoise(block_x, block_y - 1);
+            float mn_below = terrain(terrain, x, y - 1);
             boolean underside = mn_below < block_range_floor && mn_below > shard_range_floor;
             if (underside) batch.new_shard(true, false, world_x_block, world_y_block, sz_solid, 0, flags,.1f, 0.0f, 0.005f, ANDESITE);
             else
@@ -285,13 +324,13 @@ public class EarthLikeWorld implements WorldType
                 //}
                 if (layer == 0)
                 {
-                    float n_above  = noise.GetNoise(block_x, block_y + 1);
-                    float n_left   = noise.GetNoise(block_x - 1, block_y);
-                    float n_right  = noise.GetNoise(block_x + 1, block_y);
-                    float n_uleft  = noise.GetNoise(block_x - 1, block_y + 1);
-                    float n_uright = noise.GetNoise(block_x + 1, block_y + 1);
-                    float n_bleft  = noise.GetNoise(block_x - 1, block_y - 1);
-                    float n_bright = noise.GetNoise(block_x + 1, block_y - 1);
+                    float n_above  = terrain(terrain, x, y + 1);
+                    float n_left   = terrain(terrain, x - 1, y);
+                    float n_right  = terrain(terrain, x + 1, y);
+                    float n_uleft  = terrain(terrain, x - 1, y + 1);
+                    float n_uright = terrain(terrain, x + 1, y + 1);
+                    float n_bleft  = terrain(terrain, x - 1, y - 1);
+                    float n_bright = terrain(terrain, x + 1, y - 1);
 
                     boolean air_above = n_above < block_range_floor && n_above > shard_range_floor;
                     boolean air_labove = n_uleft < block_range_floor && n_uleft > shard_range_floor;
@@ -347,10 +386,11 @@ public class EarthLikeWorld implements WorldType
         else if (n < water_range_floor)
         {
             int hull_flags = Constants.HullFlags.IS_LIQUID.bits;
+            // alternate flow direction in a checkerboard, so neighboring particles don't all drift the same way
+            boolean flip = ((x + y) & 1) == 1;
             int point_flags = flip
                 ? Constants.PointFlags.FLOW_LEFT.bits
                 : 0;
-            flip = !flip;
             batch.new_liquid(world_x_block, world_y_block,  sz_liquid, .1f, 0.0f, -0.000001f, 0, hull_flags, point_flags, Liquid.WATER);
         }
         else if (n < shard_range_floor)
@@ -53,6 +53,8 @@ package com.controllerface.bvge.game.world;
 // /*FNLfloat*/ float
 // /*FNLfloat*/ double
 
+import java.util.Arrays;
+
 public class FastNoiseLite
 {
     public enum NoiseType
@@ -341,6 +343,72 @@ public class FastNoiseLite
         }
     }
 
+    /// <summary>
+    /// 2D noise for a regular grid of positions using current settings
+    /// </summary>
+    /// <remarks>
+    /// Writes <c>width * height</c> values into <c>noise</c>, in row major order, so the value for column <c>c</c>
+    /// and row <c>r</c> is stored at <c>noise[r * width + c]</c>, and sampled at <c>(xStart + c * step, yStart + r * step)</c>.
+    /// Each value is identical to calling GetNoise at the same position, but the whole grid is evaluated one octave
+    /// at a time, so the per-point fractal bookkeeping runs as flat loops over primitive arrays.
+    /// </remarks>
+    public void GetNoiseGrid(float[] noise, /*FNLfloat*/ float xStart, /*FNLfloat*/ float yStart, /*FNLfloat*/ float step, int width, int height)
+    {
+        int count = width * height;
+        if (noise.length < count)
+        {
+            throw new IllegalArgumentException("noise grid too small: " + noise.length + " < " + count);
+        }
+
+        /*FNLfloat*/ float[] xs = new /*FNLfloat*/ float[count];
+        /*FNLfloat*/ float[] ys = new /*FNLfloat*/ float[count];
+
+        for (int row = 0; row < height; row++)
+        {
+            /*FNLfloat*/ float y = yStart + row * step;
+            for (int column = 0; column < width; column++)
+            {
+                int i = row * width + column;
+                xs[i] = (xStart + column * step) * mFrequency;
+                ys[i] = y * mFrequency;
+            }
+        }
+
+        switch (mNoiseType)
+        {
+            case OpenSimplex2:
+            case OpenSimplex2S:
+            {
+                final /*FNLfloat*/ float SQRT3 = (/*FNLfloat*/ float)1.7320508075688772935274463415059;
+                final /*FNLfloat*/ float F2 = 0.5f * (SQRT3 - 1);
+                for (int i = 0; i < count; i++)
+                {
+                    /*FNLfloat*/ float t = (xs[i] + ys[i]) * F2;
+                    xs[i] += t;
+                    ys[i] += t;
+                }
+            }
+            break;
+            default:
+                break;
+        }
+
+        switch (mFractalType)
+        {
+            default:
+                for (int i = 0; i < count; i++)
+                {
+                    noise[i] = GenNoiseSingle(mSeed, xs[i], ys[i]);
+                }
+                break;
+            case FBm:
+            case Ridged:
+            case PingPong:
+                GenFractalGrid(noise, xs, ys, count);
+                break;
+        }
+    }
+
     /// <summary>
     /// 3D noise at given position using current settings
     /// </summary>
@@ -914,6 +982,65 @@ public class FastNoiseLite
     }
 
 
+    // Fractal Grid
+
+    private void GenFractalGrid(float[] sum, /*FNLfloat*/ float[] xs, /*FNLfloat*/ float[] ys, int count)
+    {
+        int seed = mSeed;
+        float[] amp = new float[count];
+        float[] octave = new float[count];
+        Arrays.fill(sum, 0, count, 0);
+        Arrays.fill(amp, mFractalBounding);
+
+        for (int o = 0; o < mOctaves; o++)
+        {
+            // lattice evaluation is branchy and table driven, so it is kept apart from the arithmetic below
+            for (int i = 0; i < count; i++)
+            {
+                octave[i] = GenNoiseSingle(seed, xs[i], ys[i]);
+            }
+            seed++;
+
+            switch (mFractalType)
+            {
+                case FBm:
+                    for (int i = 0; i < count; i++)
+                    {
+                        float noise = octave[i];
+                        sum[i] += noise * amp[i];
+                        amp[i] *= Lerp(1.0f, FastMin(noise + 1, 2) * 0.5f, mWeightedStrength);
+                    }
+                    break;
+                case Ridged:
+                    for (int i = 0; i < count; i++)
+                    {
+                        float noise = FastAbs(octave[i]);
+                        sum[i] += (noise * -2 + 1) * amp[i];
+                        amp[i] *= Lerp(1.0f, 1 - noise, mWeightedStrength);
+                    }
+                    break;
+                case PingPong:
+                    for (int i = 0; i < count; i++)
+                    {
+                        float noise = PingPong((octave[i] + 1) * mPingPongStrength);
+                        sum[i] += (noise - 0.5f) * 2 * amp[i];
+                        amp[i] *= Lerp(1.0f, noise, mWeightedStrength);
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                xs[i] *= mLacunarity;
+                ys[i] *= mLacunarity;
+                amp[i] *= mGain;
+            }
+        }
+    }
+
+
     // Simplex/OpenSimplex2 Noise
 
     private float SingleSimplex(int seed, /*FNLfloat*/ float x, /*FNLfloat*/ float y)
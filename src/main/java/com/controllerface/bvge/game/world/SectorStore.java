@@ -0,0 +1,651 @@
+package com.controllerface.bvge.game.world;
+
+import com.controllerface.bvge.memory.sectors.Sector;
+import com.controllerface.bvge.physics.EntityColumns;
+import com.controllerface.bvge.physics.PhysicsEntityBatch;
+import com.controllerface.bvge.substances.Liquid;
+import com.controllerface.bvge.substances.Solid;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent storage tier for sector data. Sectors are grouped into square regions of sectors, and each region
+ * is stored in a single file on disk. A region file starts with a fixed size header, containing one slot entry
+ * per sector, followed by the encoded sector batches. Each slot records the file offset, the encoded length, and
+ * the capacity reserved for the sector. Sectors that grow beyond their reserved capacity are moved to a free
+ * extent that fits them, or to the end of the file, and the space they leave behind is reused by later moves.
+ * -
+ * Reads and writes are positional reads and writes of the region file, so loading a sector that has already been
+ * visited is a single read of its bytes, instead of a regeneration of the sector contents.
+ */
+public class SectorStore
+{
+    private static final Logger LOGGER = Logger.getLogger(SectorStore.class.getName());
+
+    public static final int REGION_SIZE = 16;
+
+    private static final int REGION_SECTORS = REGION_SIZE * REGION_SIZE;
+    private static final int SLOT_SIZE      = 16; // offset (long), length (int), capacity (int)
+    private static final int HEADER_SIZE    = REGION_SECTORS * SLOT_SIZE;
+    private static final int BATCH_MAGIC    = 0x42564753; // "BVGS"
+    private static final int BATCH_VERSION  = 2;
+
+    private static final Solid[] SOLIDS   = Solid.values();
+    private static final Liquid[] LIQUIDS = Liquid.values();
+
+    private record RegionKey(int x, int y) { }
+
+    private final Path region_directory;
+    private final Map<RegionKey, Region> regions = new ConcurrentHashMap<>();
+
+    public SectorStore(Path region_directory)
+    {
+        this.region_directory = region_directory;
+        try
+        {
+            Files.createDirectories(region_directory);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Could not create region directory: " + region_directory, e);
+        }
+    }
+
+    public SectorStore()
+    {
+        this(Path.of(System.getProperty("user.dir") + File.separator + "world" + File.separator + "regions"));
+    }
+
+    /**
+     * Reads the batch for the given sector from disk, if it has been stored previously.
+     *
+     * @param sector the sector to load
+     * @return the stored sector batch, or null if this sector has never been written to the store
+     */
+    public PhysicsEntityBatch load(Sector sector)
+    {
+        return region_for(sector).read(slot_for(sector));
+    }
+
+    /**
+     * Writes the given batch to disk, replacing any previously stored data for the sector.
+     *
+     * @param sector the sector being stored
+     * @param batch the current contents of the sector
+     */
+    public void save(Sector sector, PhysicsEntityBatch batch)
+    {
+        region_for(sector).write(slot_for(sector), batch);
+    }
+
+    public void close()
+    {
+        for (var region : regions.values())
+        {
+            region.close();
+        }
+        regions.clear();
+    }
+
+    private Region region_for(Sector sector)
+    {
+        var key = new RegionKey(Math.floorDiv(sector.x(), REGION_SIZE), Math.floorDiv(sector.y(), REGION_SIZE));
+        return regions.computeIfAbsent(key, this::open_region);
+    }
+
+    private static int slot_for(Sector sector)
+    {
+        int local_x = Math.floorMod(sector.x(), REGION_SIZE);
+        int local_y = Math.floorMod(sector.y(), REGION_SIZE);
+        return local_y * REGION_SIZE + local_x;
+    }
+
+    private Region open_region(RegionKey key)
+    {
+        var file = region_directory.resolve("r." + key.x() + "." + key.y() + ".bvr");
+        try
+        {
+            var channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            return new Region(file, channel);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Could not open region file: " + file, e);
+        }
+    }
+
+    /**
+     * A single open region file. The header is read once when the region is opened and kept on the heap, and
+     * only the slot that changed is written back. Sector data is moved through one direct buffer per region,
+     * which grows to fit the largest sector, so reads and writes allocate nothing once it has grown.
+     * -
+     * Extents that are no longer used, because the sector they held outgrew them, are tracked in a free list,
+     * and merged with free neighbours. New extents are taken from the first free extent that fits, before the
+     * file is grown, and free space at the end of the file is truncated.
+     */
+    private static class Region
+    {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer header;
+        private final TreeMap<Long, Integer> free_extents = new TreeMap<>();
+        private ByteBuffer io_buffer = ByteBuffer.allocateDirect(0);
+        private long end_of_data = HEADER_SIZE;
+
+        private Region(Path file, FileChannel channel) throws IOException
+        {
+            this.file = file;
+            this.channel = channel;
+            this.header = ByteBuffer.allocate(HEADER_SIZE);
+            read_fully(header, 0);
+            header.clear();
+            find_free_extents();
+        }
+
+        private void find_free_extents()
+        {
+            var used_extents = new TreeMap<Long, Integer>();
+            for (int slot = 0; slot < REGION_SECTORS; slot++)
+            {
+                int slot_offset = slot * SLOT_SIZE;
+                int capacity = header.getInt(slot_offset + 12);
+                if (capacity > 0) used_extents.put(header.getLong(slot_offset), capacity);
+            }
+            long next = HEADER_SIZE;
+            for (var extent : used_extents.entrySet())
+            {
+                if (extent.getKey() > next) free_extents.put(next, (int) (extent.getKey() - next));
+                next = Math.max(next, extent.getKey() + extent.getValue());
+            }
+            end_of_data = next;
+        }
+
+        private long allocate(int capacity)
+        {
+            for (var extent : free_extents.entrySet())
+            {
+                if (extent.getValue() < capacity) continue;
+                long offset = extent.getKey();
+                int remaining = extent.getValue() - capacity;
+                free_extents.remove(offset);
+                if (remaining > 0) free_extents.put(offset + capacity, remaining);
+                return offset;
+            }
+            long offset = end_of_data;
+            end_of_data += capacity;
+            return offset;
+        }
+
+        private void release(long offset, int capacity) throws IOException
+        {
+            var before = free_extents.floorEntry(offset);
+            if (before != null && before.getKey() + before.getValue() == offset)
+            {
+                free_extents.remove(before.getKey());
+                offset = before.getKey();
+                capacity += before.getValue();
+            }
+            var after = free_extents.get(offset + capacity);
+            if (after != null)
+            {
+                free_extents.remove(offset + capacity);
+                capacity += after;
+            }
+            if (offset + capacity == end_of_data)
+            {
+                end_of_data = offset;
+                channel.truncate(end_of_data);
+            }
+            else
+            {
+                free_extents.put(offset, capacity);
+            }
+        }
+
+        private ByteBuffer io_buffer(int length)
+        {
+            if (io_buffer.capacity() < length)
+            {
+                io_buffer = ByteBuffer.allocateDirect(Math.max(length, io_buffer.capacity() * 2));
+            }
+            return io_buffer.clear().limit(length);
+        }
+
+        private void read_fully(ByteBuffer buffer, long position) throws IOException
+        {
+            while (buffer.hasRemaining())
+            {
+                int read = channel.read(buffer, position);
+                if (read < 0) break;
+                position += read;
+            }
+        }
+
+        private void write_fully(ByteBuffer buffer, long position) throws IOException
+        {
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private synchronized PhysicsEntityBatch read(int slot)
+        {
+            int slot_offset = slot * SLOT_SIZE;
+            long offset     = header.getLong(slot_offset);
+            int length      = header.getInt(slot_offset + 8);
+            if (length == 0) return null;
+            try
+            {
+                var data = io_buffer(length);
+                read_fully(data, offset);
+                if (data.hasRemaining())
+                {
+                    throw new IOException("Sector data is truncated at offset: " + offset);
+                }
+                return decode(data.flip());
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Could not read sector data from region file: " + file, e);
+            }
+        }
+
+        private synchronized void write(int slot, PhysicsEntityBatch batch)
+        {
+            int slot_offset  = slot * SLOT_SIZE;
+            int length       = encoded_size(batch);
+            long offset      = header.getLong(slot_offset);
+            int capacity     = header.getInt(slot_offset + 12);
+            long old_offset  = offset;
+            int old_capacity = capacity;
+            try
+            {
+                if (length > capacity)
+                {
+                    // reserve some headroom so sectors that change slightly don't need to move every time
+                    capacity = length + (length >> 2);
+                    offset = allocate(capacity);
+                }
+                var data = io_buffer(length);
+                encode(batch, data);
+                write_fully(data.flip(), offset);
+
+                // the slot is only pointed at the new extent once the data is written, then the old one is freed
+                header.putLong(slot_offset, offset);
+                header.putInt(slot_offset + 8, length);
+                header.putInt(slot_offset + 12, capacity);
+                write_fully(header.slice(slot_offset, SLOT_SIZE), (long) slot_offset);
+                if (offset != old_offset && old_capacity > 0)
+                {
+                    release(old_offset, old_capacity);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Could not write sector data to region file: " + file, e);
+            }
+        }
+
+        private synchronized void close()
+        {
+            try
+            {
+                channel.force(false);
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                LOGGER.log(Level.WARNING, "Could not close region file: " + file, e);
+            }
+        }
+    }
+
+    //#region Batch Encoding
+
+    private static final int BATCH_HEADER_BYTES = 11 * Integer.BYTES;
+    private static final int FLUID_BYTES        = 6 * Float.BYTES + 4 * Integer.BYTES;
+    private static final int SHARD_BYTES        = 2 + 6 * Float.BYTES + 3 * Integer.BYTES;
+    private static final int BLOCK_BYTES        = 6 * Float.BYTES + 4 * Integer.BYTES;
+    private static final int ENTITY_BYTES       = 13 * Float.BYTES + 2 * Short.BYTES + 17 * Integer.BYTES;
+    private static final int ENTITY_BONE_BYTES  = 16 * Float.BYTES + 2 * Integer.BYTES;
+    private static final int HULL_BYTES         = 10 * Float.BYTES + 11 * Integer.BYTES;
+    private static final int POINT_BYTES        = 4 * Float.BYTES + Short.BYTES + 7 * Integer.BYTES;
+    private static final int EDGE_BYTES         = Float.BYTES + 4 * Integer.BYTES;
+    private static final int HULL_BONE_BYTES    = 16 * Float.BYTES + 2 * Integer.BYTES;
+
+    static int encoded_size(PhysicsEntityBatch batch)
+    {
+        int size = BATCH_HEADER_BYTES;
+        size += batch.fluids.size() * FLUID_BYTES;
+        size += batch.shards.size() * SHARD_BYTES;
+        for (var block : batch.blocks)
+        {
+            size += BLOCK_BYTES + block.hits().length * Integer.BYTES;
+        }
+        int[] entity_counts = batch.entities.counts();
+        size += entity_counts[0] * ENTITY_BYTES;
+        size += entity_counts[1] * HULL_BYTES;
+        size += entity_counts[2] * POINT_BYTES;
+        size += entity_counts[3] * EDGE_BYTES;
+        size += entity_counts[4] * HULL_BONE_BYTES;
+        size += entity_counts[5] * ENTITY_BONE_BYTES;
+        return size;
+    }
+
+    static void encode(PhysicsEntityBatch batch, ByteBuffer out)
+    {
+        out.putInt(BATCH_MAGIC);
+        out.putInt(BATCH_VERSION);
+        out.putInt(batch.blocks.size());
+        out.putInt(batch.shards.size());
+        out.putInt(batch.fluids.size());
+        int[] entity_counts = batch.entities.counts();
+        for (int count : entity_counts)
+        {
+            out.putInt(count);
+        }
+
+        for (var block : batch.blocks)
+        {
+            out.putFloat(block.x());
+            out.putFloat(block.y());
+            out.putFloat(block.size());
+            out.putFloat(block.mass());
+            out.putFloat(block.friction());
+            out.putFloat(block.restitution());
+            out.putInt(block.entity_flags());
+            out.putInt(block.hull_flags());
+            out.putInt(block.material().ordinal());
+            out.putInt(block.hits().length);
+            for (int hit : block.hits())
+            {
+                out.putInt(hit);
+            }
+        }
+
+        for (var shard : batch.shards)
+        {
+            out.put((byte) (shard.spike() ? 1 : 0));
+            out.put((byte) (shard.flip() ? 1 : 0));
+            out.putFloat(shard.x());
+            out.putFloat(shard.y());
+            out.putFloat(shard.size());
+            out.putFloat(shard.mass());
+            out.putFloat(shard.friction());
+            out.putFloat(shard.restitution());
+            out.putInt(shard.entity_flags());
+            out.putInt(shard.hull_flags());
+            out.putInt(shard.material().ordinal());
+        }
+
+        for (var fluid : batch.fluids)
+        {
+            out.putFloat(fluid.x());
+            out.putFloat(fluid.y());
+            out.putFloat(fluid.size());
+            out.putFloat(fluid.mass());
+            out.putFloat(fluid.friction());
+            out.putFloat(fluid.restitution());
+            out.putInt(fluid.entity_flags());
+            out.putInt(fluid.hull_flags());
+            out.putInt(fluid.point_flags());
+            out.putInt(fluid.particle_fluid().ordinal());
+        }
+
+        encode_entities(batch.entities, entity_counts, out);
+    }
+
+    private static void encode_entities(EntityColumns columns, int[] counts, ByteBuffer out)
+    {
+        int entities     = counts[0];
+        int hulls        = counts[1];
+        int points       = counts[2];
+        int edges        = counts[3];
+        int hull_bones   = counts[4];
+        int entity_bones = counts[5];
+
+        put_floats(out, columns.entity, entities * 4);
+        put_floats(out, columns.entity_anim_time, entities * 4);
+        put_floats(out, columns.entity_prev_time, entities * 4);
+        put_shorts(out, columns.entity_motion_state, entities * 2);
+        put_ints(out, columns.entity_anim_layers, entities * 4);
+        put_ints(out, columns.entity_anim_previous, entities * 4);
+        put_ints(out, columns.entity_model_id, entities);
+        put_ints(out, columns.entity_model_transform, entities);
+        put_floats(out, columns.entity_mass, entities);
+        put_ints(out, columns.entity_root_hull, entities);
+        put_ints(out, columns.entity_type, entities);
+        put_ints(out, columns.entity_flag, entities);
+        put_ints(out, columns.entity_hull_table, entities * 2);
+        put_ints(out, columns.entity_bone_table, entities * 2);
+
+        put_floats(out, columns.hull, hulls * 4);
+        put_floats(out, columns.hull_scale, hulls * 2);
+        put_floats(out, columns.hull_rotation, hulls * 2);
+        put_floats(out, columns.hull_friction, hulls);
+        put_floats(out, columns.hull_restitution, hulls);
+        put_ints(out, columns.hull_integrity, hulls);
+        put_ints(out, columns.hull_mesh_id, hulls);
+        put_ints(out, columns.hull_entity_id, hulls);
+        put_ints(out, columns.hull_uv_offset, hulls);
+        put_ints(out, columns.hull_flag, hulls);
+        put_ints(out, columns.hull_point_table, hulls * 2);
+        put_ints(out, columns.hull_edge_table, hulls * 2);
+        put_ints(out, columns.hull_bone_table, hulls * 2);
+
+        put_floats(out, columns.point, points * 4);
+        put_ints(out, columns.point_bone_table, points * 4);
+        put_ints(out, columns.point_vertex_reference, points);
+        put_ints(out, columns.point_hull_index, points);
+        put_shorts(out, columns.point_hit_count, points);
+        put_ints(out, columns.point_flag, points);
+
+        put_ints(out, columns.edge, edges * 2);
+        put_floats(out, columns.edge_length, edges);
+        put_ints(out, columns.edge_flag, edges);
+        put_ints(out, columns.edge_pin, edges);
+
+        put_floats(out, columns.hull_bone, hull_bones * 16);
+        put_ints(out, columns.hull_bone_bind_pose_id, hull_bones);
+        put_ints(out, columns.hull_bone_inv_bind_pose_id, hull_bones);
+
+        put_floats(out, columns.entity_bone, entity_bones * 16);
+        put_ints(out, columns.entity_bone_reference_id, entity_bones);
+        put_ints(out, columns.entity_bone_parent_id, entity_bones);
+    }
+
+    static PhysicsEntityBatch decode(ByteBuffer in)
+    {
+        int magic   = in.getInt();
+        int version = in.getInt();
+        if (magic == BATCH_MAGIC && version < BATCH_VERSION)
+        {
+            // older formats are not migrated, the sector will be generated again from scratch
+            LOGGER.warning("Discarding sector data stored with outdated version: " + version);
+            return null;
+        }
+        if (magic != BATCH_MAGIC || version != BATCH_VERSION)
+        {
+            throw new RuntimeException("Unrecognized sector data, magic: " + magic + " version: " + version);
+        }
+
+        int block_count  = in.getInt();
+        int shard_count  = in.getInt();
+        int fluid_count  = in.getInt();
+        int[] entity_counts = new int[6];
+        for (int c = 0; c < entity_counts.length; c++)
+        {
+            entity_counts[c] = in.getInt();
+        }
+
+        var batch = new PhysicsEntityBatch();
+
+        for (int b = 0; b < block_count; b++)
+        {
+            float x           = in.getFloat();
+            float y           = in.getFloat();
+            float size        = in.getFloat();
+            float mass        = in.getFloat();
+            float friction    = in.getFloat();
+            float restitution = in.getFloat();
+            int entity_flags  = in.getInt();
+            int hull_flags    = in.getInt();
+            var material      = SOLIDS[in.getInt()];
+            var hits          = new int[in.getInt()];
+            for (int h = 0; h < hits.length; h++)
+            {
+                hits[h] = in.getInt();
+            }
+            batch.new_block(x, y, size, mass, friction, restitution, entity_flags, hull_flags, material, hits);
+        }
+
+        for (int s = 0; s < shard_count; s++)
+        {
+            boolean spike     = in.get() != 0;
+            boolean flip      = in.get() != 0;
+            float x           = in.getFloat();
+            float y           = in.getFloat();
+            float size        = in.getFloat();
+            float mass        = in.getFloat();
+            float friction    = in.getFloat();
+            float restitution = in.getFloat();
+            int entity_flags  = in.getInt();
+            int hull_flags    = in.getInt();
+            var material      = SOLIDS[in.getInt()];
+            batch.new_shard(spike, flip, x, y, size, entity_flags, hull_flags, mass, friction, restitution, material);
+        }
+
+        for (int f = 0; f < fluid_count; f++)
+        {
+            float x           = in.getFloat();
+            float y           = in.getFloat();
+            float size        = in.getFloat();
+            float mass        = in.getFloat();
+            float friction    = in.getFloat();
+            float restitution = in.getFloat();
+            int entity_flags  = in.getInt();
+            int hull_flags    = in.getInt();
+            int point_flags   = in.getInt();
+            var liquid        = LIQUIDS[in.getInt()];
+            batch.new_liquid(x, y, size, mass, friction, restitution, entity_flags, hull_flags, point_flags, liquid);
+        }
+
+        decode_entities(batch.entities, entity_counts, in);
+
+        return batch;
+    }
+
+    private static void decode_entities(EntityColumns columns, int[] counts, ByteBuffer in)
+    {
+        columns.resize(counts);
+
+        int entities     = counts[0];
+        int hulls        = counts[1];
+        int points       = counts[2];
+        int edges        = counts[3];
+        int hull_bones   = counts[4];
+        int entity_bones = counts[5];
+
+        get_floats(in, columns.entity, entities * 4);
+        get_floats(in, columns.entity_anim_time, entities * 4);
+        get_floats(in, columns.entity_prev_time, entities * 4);
+        get_shorts(in, columns.entity_motion_state, entities * 2);
+        get_ints(in, columns.entity_anim_layers, entities * 4);
+        get_ints(in, columns.entity_anim_previous, entities * 4);
+        get_ints(in, columns.entity_model_id, entities);
+        get_ints(in, columns.entity_model_transform, entities);
+        get_floats(in, columns.entity_mass, entities);
+        get_ints(in, columns.entity_root_hull, entities);
+        get_ints(in, columns.entity_type, entities);
+        get_ints(in, columns.entity_flag, entities);
+        get_ints(in, columns.entity_hull_table, entities * 2);
+        get_ints(in, columns.entity_bone_table, entities * 2);
+
+        get_floats(in, columns.hull, hulls * 4);
+        get_floats(in, columns.hull_scale, hulls * 2);
+        get_floats(in, columns.hull_rotation, hulls * 2);
+        get_floats(in, columns.hull_friction, hulls);
+        get_floats(in, columns.hull_restitution, hulls);
+        get_ints(in, columns.hull_integrity, hulls);
+        get_ints(in, columns.hull_mesh_id, hulls);
+        get_ints(in, columns.hull_entity_id, hulls);
+        get_ints(in, columns.hull_uv_offset, hulls);
+        get_ints(in, columns.hull_flag, hulls);
+        get_ints(in, columns.hull_point_table, hulls * 2);
+        get_ints(in, columns.hull_edge_table, hulls * 2);
+        get_ints(in, columns.hull_bone_table, hulls * 2);
+
+        get_floats(in, columns.point, points * 4);
+        get_ints(in, columns.point_bone_table, points * 4);
+        get_ints(in, columns.point_vertex_reference, points);
+        get_ints(in, columns.point_hull_index, points);
+        get_shorts(in, columns.point_hit_count, points);
+        get_ints(in, columns.point_flag, points);
+
+        get_ints(in, columns.edge, edges * 2);
+        get_floats(in, columns.edge_length, edges);
+        get_ints(in, columns.edge_flag, edges);
+        get_ints(in, columns.edge_pin, edges);
+
+        get_floats(in, columns.hull_bone, hull_bones * 16);
+        get_ints(in, columns.hull_bone_bind_pose_id, hull_bones);
+        get_ints(in, columns.hull_bone_inv_bind_pose_id, hull_bones);
+
+        get_floats(in, columns.entity_bone, entity_bones * 16);
+        get_ints(in, columns.entity_bone_reference_id, entity_bones);
+        get_ints(in, columns.entity_bone_parent_id, entity_bones);
+    }
+
+    private static void put_floats(ByteBuffer out, float[] data, int length)
+    {
+        out.asFloatBuffer().put(data, 0, length);
+        out.position(out.position() + length * Float.BYTES);
+    }
+
+    private static void put_ints(ByteBuffer out, int[] data, int length)
+    {
+        out.asIntBuffer().put(data, 0, length);
+        out.position(out.position() + length * Integer.BYTES);
+    }
+
+    private static void put_shorts(ByteBuffer out, short[] data, int length)
+    {
+        out.asShortBuffer().put(data, 0, length);
+        out.position(out.position() + length * Short.BYTES);
+    }
+
+    private static void get_floats(ByteBuffer in, float[] data, int length)
+    {
+        in.asFloatBuffer().get(data, 0, length);
+        in.position(in.position() + length * Float.BYTES);
+    }
+
+    private static void get_ints(ByteBuffer in, int[] data, int length)
+    {
+        in.asIntBuffer().get(data, 0, length);
+        in.position(in.position() + length * Integer.BYTES);
+    }
+
+    private static void get_shorts(ByteBuffer in, short[] data, int length)
+    {
+        in.asShortBuffer().get(data, 0, length);
+        in.position(in.position() + length * Short.BYTES);
+    }
+
+    //#endregion
+}
@@ -3,26 +3,31 @@ package com.controllerface.bvge.game.world;
 import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.GameSystem;
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Counter;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.memory.sectors.Sector;
 import com.controllerface.bvge.physics.PhysicsEntityBatch;
 import com.controllerface.bvge.physics.UniformGrid;
 import com.github.benmanes.caffeine.cache.Cache;
 
-import java.util.HashSet;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Semaphore;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class WorldLoader extends GameSystem
 {
-    private final WorldType world                = new EarthLikeWorld();
+    private static final long WORLD_SEED = 1337L;
+    private static final int GENERATOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final WorldType world                = new EarthLikeWorld(WORLD_SEED);
     private final Set<Sector> old_loaded_sectors = new HashSet<>();
     private final Set<Sector> new_loaded_sectors = new HashSet<>();
+    private final List<Sector> pending_sectors   = new ArrayList<>();
+    private final ExecutorService generator_pool;
     private final UniformGrid uniformGrid;
     private final Cache<Sector, PhysicsEntityBatch> sector_cache;
+    private final SectorStore sector_store;
     private final Queue<PhysicsEntityBatch> load_queue;
     private final Queue<Sector> unload_queue;
     private final Thread task_thread;
@@ -35,6 +40,7 @@ public class WorldLoader extends GameSystem
     public WorldLoader(ECS ecs,
                        UniformGrid uniformGrid,
                        Cache<Sector, PhysicsEntityBatch> sector_cache_in,
+                       SectorStore sector_store,
                        Queue<PhysicsEntityBatch> load_queue,
                        Queue<Sector> unload_queue,
                        Semaphore world_permit)
@@ -42,9 +48,14 @@ public class WorldLoader extends GameSystem
         super(ecs);
         this.uniformGrid = uniformGrid;
         this.sector_cache = sector_cache_in;
+        this.sector_store = sector_store;
         this.load_queue = load_queue;
         this.unload_queue = unload_queue;
         this.world_permit = world_permit;
+        this.generator_pool = Executors.newFixedThreadPool(GENERATOR_THREADS, Thread.ofPlatform()
+            .name("sector-generator-", 0)
+            .daemon(true)
+            .factory());
         this.task_thread = Thread.ofVirtual().start(new SectorLoadTask());
     }
 
@@ -69,6 +80,47 @@ public class WorldLoader extends GameSystem
         }
     }
 
+    private PhysicsEntityBatch load_or_generate(Sector sector)
+    {
+        var stored_batch = sector_store.load(sector);
+        return stored_batch != null
+            ? stored_batch
+            : world.generate_sector(sector);
+    }
+
+    /**
+     * Loads or generates all the given sectors in parallel. Called by the sector cache with only the sectors
+     * that are not already cached, so every newly visible sector is produced in one wave.
+     */
+    private Map<Sector, PhysicsEntityBatch> load_or_generate_all(Set<? extends Sector> sectors)
+    {
+        var tasks = new HashMap<Sector, Future<PhysicsEntityBatch>>();
+        for (var sector : sectors)
+        {
+            tasks.put(sector, generator_pool.submit(() -> load_or_generate(sector)));
+        }
+
+        var batches = new HashMap<Sector, PhysicsEntityBatch>();
+        try
+        {
+            for (var task : tasks.entrySet())
+            {
+                batches.put(task.getKey(), task.getValue().get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            tasks.values().forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating sectors", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException("Error generating sectors", e.getCause());
+        }
+        return batches;
+    }
+
     private void load_sectors(SectorBounds sector_bounds)
     {
         var sector_0_key = UniformGrid.get_sector_for_point(sector_bounds.outer_x_origin, sector_bounds.outer_y_origin);
@@ -97,12 +149,25 @@ public class WorldLoader extends GameSystem
                 else
                 {
                     new_loaded_sectors.add(sector);
-                    var sector_batch = sector_cache.get(sector, world::generate_sector);
-                    GPU.memory.load_entity_batch(sector_batch);
+                    pending_sectors.add(sector);
                 }
             }
         }
 
+        if (!pending_sectors.isEmpty())
+        {
+            if (Editor.ACTIVE)
+            {
+                Metrics.count(Counter.SECTORS_LOADED, pending_sectors.size());
+            }
+            var sector_batches = sector_cache.getAll(pending_sectors, this::load_or_generate_all);
+            for (var sector : pending_sectors)
+            {
+                GPU.memory.load_entity_batch(sector_batches.get(sector));
+            }
+            pending_sectors.clear();
+        }
+
         for (var sector : old_loaded_sectors)
         {
             if (!new_loaded_sectors.contains(sector))
@@ -139,7 +204,7 @@ public class WorldLoader extends GameSystem
         }
         if (Editor.ACTIVE)
         {
-            Editor.queue_event("sector_count", String.valueOf(new_loaded_sectors.size()));
+            Metrics.record(Metric.SECTOR_COUNT, new_loaded_sectors.size());
         }
     }
 
@@ -147,5 +212,6 @@ public class WorldLoader extends GameSystem
     public void shutdown()
     {
         task_thread.interrupt();
+        generator_pool.shutdownNow();
     }
 }
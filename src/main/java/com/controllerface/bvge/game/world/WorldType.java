@@ -20,6 +20,10 @@ public interface WorldType
      * implementing class, however, the {@linkplain com.controllerface.bvge.physics.UniformGrid#SECTOR_SIZE}
      * value is mosty likely to be used.
      * todo: the sector data might need to be pulled into a util or constants class for easier visibility
+     * -
+     * Implementations must behave as a pure function of the world seed and the given sector. This method
+     * is called concurrently from multiple threads when several sectors become visible at once, and the
+     * same sector must always produce the same batch so that worlds are reproducible across runs.
      *
      * @param sector the sector for which loading is being requested
      * @return a batch of entities that are present in the given sector
@@ -67,6 +67,7 @@ import static org.lwjgl.opencl.CL10GL.*;
 import static org.lwjgl.opencl.CL11.CL_DEVICE_HOST_UNIFIED_MEMORY;
 import static org.lwjgl.opencl.CL12.CL_MEM_HOST_READ_ONLY;
 import static org.lwjgl.opencl.CL12.clEnqueueFillBuffer;
+import static org.lwjgl.opencl.CL12.clEnqueueMarkerWithWaitList;
 import static org.lwjgl.opencl.CL20.*;
 import static org.lwjgl.opencl.KHRGLSharing.CL_GL_CONTEXT_KHR;
 import static org.lwjgl.opencl.KHRGLSharing.CL_WGL_HDC_KHR;
@@ -121,18 +122,50 @@ public class GPU
     public static CL_ComputeController compute;
     public static GL_GraphicsController graphics;
 
+    private static boolean headless = false;
+
     public static void startup(ECS ecs, EventBus event_bus, InputSystem input_system, String title)
     {
         graphics = GPU.GL.init_gl(title, event_bus, input_system);
-        compute  = GPU.CL.init_cl();
+        compute  = GPU.CL.init_cl(false);
+        memory   = new GPUCoreMemory(compute, ecs, event_bus);
+    }
+
+    /**
+     * Starts up the compute side only, with no window or Open GL context. Any available Open CL device
+     * may be selected, including CPU runtimes, and no memory is shared with Open GL. Code that creates
+     * GL resources must check {@link #headless()} and skip that work when this mode is active.
+     */
+    public static void startup_headless(ECS ecs, EventBus event_bus)
+    {
+        headless = true;
+        graphics = null;
+        compute  = GPU.CL.init_cl(true);
         memory   = new GPUCoreMemory(compute, ecs, event_bus);
     }
 
+    /**
+     * Starts up the compute side only, as in headless mode but without the core memory, for tools and tests that
+     * call kernels directly on buffers of their own.
+     */
+    public static void startup_compute()
+    {
+        headless = true;
+        graphics = null;
+        compute  = GPU.CL.init_cl(true);
+        memory   = null;
+    }
+
+    public static boolean headless()
+    {
+        return headless;
+    }
+
     public static void shutdown()
     {
-        memory.release();
+        if (memory != null) memory.release();
         compute.release();
-        graphics.release();
+        if (graphics != null) graphics.release();
 
         graphics = null;
         compute  = null;
@@ -730,6 +763,11 @@ public class GPU
         private static final long FLAGS_WRITE_CPU_COPY = CL_MEM_READ_WRITE | CL_MEM_COPY_HOST_PTR;
         private static final long FLAGS_READ_CPU_COPY = CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR;
 
+        /**
+         * Options passed to every program build. These are part of the key for cached program binaries.
+         */
+        public static final String BUILD_OPTIONS = "-cl-finite-math-only -cl-denorms-are-zero -cl-mad-enable -cl-fast-relaxed-math";
+
         public static final String BUFFER_PREFIX = "__global";
         public static final String BUFFER_SUFFIX = "*";
 
@@ -803,7 +841,25 @@ public class GPU
 
         //#region CL Initialization Methods
 
-        public static CL_Device init_device()
+        /**
+         * Selects the first GPU device found on any platform, falling back to the first device of any type
+         * when headless mode is requested and no GPU is present.
+         */
+        public static CL_Device init_device(boolean allow_any_device)
+        {
+            var device = find_device(CL_DEVICE_TYPE_GPU);
+            if (device == null && allow_any_device)
+            {
+                device = find_device(CL_DEVICE_TYPE_ALL);
+            }
+            if (device == null)
+            {
+                throw new RuntimeException("Error: no suitable Open CL device found");
+            }
+            return device;
+        }
+
+        private static CL_Device find_device(long device_type)
         {
             int result;
 
@@ -822,26 +878,38 @@ public class GPU
                 throw new RuntimeException("Error: clGetPlatformIDs(): " + result);
             }
 
-            var platform = platform_buffer.get();
-            MemoryUtil.memFree(platform_buffer);
-            int[] numDevicesArray = new int[1];
-            result = clGetDeviceIDs(platform, CL_DEVICE_TYPE_GPU, null, numDevicesArray);
-            if (result != CL_SUCCESS)
+            try
             {
-                throw new RuntimeException("Error: clGetDeviceIDs(): " + result);
+                for (int platform_index = 0; platform_index < numPlatforms; platform_index++)
+                {
+                    var platform = platform_buffer.get(platform_index);
+                    int[] numDevicesArray = new int[1];
+                    result = clGetDeviceIDs(platform, device_type, null, numDevicesArray);
+                    if (result == CL_DEVICE_NOT_FOUND || numDevicesArray[0] == 0) continue;
+                    if (result != CL_SUCCESS)
+                    {
+                        throw new RuntimeException("Error: clGetDeviceIDs(): " + result);
+                    }
+
+                    int numDevices = numDevicesArray[0];
+                    var device_buffer = MemoryUtil.memAllocPointer(numDevices);
+                    result = clGetDeviceIDs(platform, device_type, device_buffer, (IntBuffer) null);
+                    if (result != CL_SUCCESS)
+                    {
+                        MemoryUtil.memFree(device_buffer);
+                        throw new RuntimeException("Error: clGetDeviceIDs(): " + result);
+                    }
+
+                    long device = device_buffer.get();
+                    MemoryUtil.memFree(device_buffer);
+                    return new CL_Device(device, platform);
+                }
+                return null;
             }
-
-            int numDevices = numDevicesArray[0];
-            var device_buffer = MemoryUtil.memAllocPointer(numDevices);
-            result = clGetDeviceIDs(platform, CL_DEVICE_TYPE_GPU, device_buffer, (IntBuffer) null);
-            if (result != CL_SUCCESS)
+            finally
             {
-                throw new RuntimeException("Error: clGetDeviceIDs(): " + result);
+                MemoryUtil.memFree(platform_buffer);
             }
-
-            long device = device_buffer.get();
-            MemoryUtil.memFree(device_buffer);
-            return new CL_Device(device, platform);
         }
 
         public static CL_Context new_context(CL_Device device)
@@ -877,6 +945,27 @@ public class GPU
             }
         }
 
+        public static CL_Context new_headless_context(CL_Device device)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var ctx_props_buffer = stack.mallocPointer(3);
+                var return_code = stack.mallocInt(1);
+                ctx_props_buffer.put(CL_CONTEXT_PLATFORM)
+                    .put(device.platform())
+                    .put(0L)
+                    .flip();
+
+                long ptr_context = clCreateContext(ctx_props_buffer, device.ptr(), null, 0L, return_code);
+                int result = return_code.get(0);
+                if (result != CL_SUCCESS)
+                {
+                    throw new RuntimeException("Error: clCreateContext(): " + result);
+                }
+                return new CL_Context(ptr_context);
+            }
+        }
+
         public static CL_CommandQueue new_command_queue(CL_Context context, CL_Device device)
         {
             try (var stack = MemoryStack.stackPush())
@@ -892,10 +981,12 @@ public class GPU
             }
         }
 
-        private static CL_ComputeController init_cl()
+        private static CL_ComputeController init_cl(boolean headless)
         {
-            var device = init_device();
-            var context = new_context(device);
+            var device = init_device(headless);
+            var context = headless
+                ? new_headless_context(device)
+                : new_context(device);
             var physics_queue = new_command_queue(context, device);
             var render_queue = new_command_queue(context, device);
             var sector_queue = new_command_queue(context, device);
@@ -992,7 +1083,7 @@ public class GPU
         {
             String[] src = src_strings.toArray(new String[]{});
             long ptr = clCreateProgramWithSource(context.ptr(), src, null);
-            int result = clBuildProgram(ptr, device.ptr(), "-cl-finite-math-only -cl-denorms-are-zero -cl-mad-enable -cl-fast-relaxed-math", null, 0);
+            int result = clBuildProgram(ptr, device.ptr(), BUILD_OPTIONS, null, 0);
             if (result != CL_SUCCESS)
             {
                 log_build_error(ptr, device.ptr());
@@ -1001,6 +1092,73 @@ public class GPU
             return new CL_Program(ptr);
         }
 
+        /**
+         * Creates a program from a binary that was returned by {@link #program_binary(CL_Program)} for the same
+         * device. Returns null if the driver rejects the binary, which is expected after a driver update, so the
+         * caller can build the program from source instead.
+         */
+        public static CL_Program new_program_from_binary(CL_Context context, CL_Device device, ByteBuffer binary)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var devices = stack.pointers(device.ptr());
+                var lengths = stack.pointers(binary.remaining());
+                var binaries = stack.pointers(MemoryUtil.memAddress(binary));
+                var binary_status = stack.mallocInt(1);
+                var status = stack.mallocInt(1);
+                long ptr = clCreateProgramWithBinary(context.ptr(), devices, lengths, binaries, binary_status, status);
+                if (status.get(0) != CL_SUCCESS || binary_status.get(0) != CL_SUCCESS)
+                {
+                    if (ptr != NULL) clReleaseProgram(ptr);
+                    return null;
+                }
+                int result = clBuildProgram(ptr, device.ptr(), BUILD_OPTIONS, null, 0);
+                if (result != CL_SUCCESS)
+                {
+                    clReleaseProgram(ptr);
+                    return null;
+                }
+                return new CL_Program(ptr);
+            }
+        }
+
+        /**
+         * Returns the device binary of a built program, for a context with a single device. The returned buffer
+         * is allocated with MemoryUtil and must be freed by the caller.
+         */
+        public static ByteBuffer program_binary(CL_Program program)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var sizes = stack.mallocPointer(1);
+                int result = clGetProgramInfo(program.ptr(), CL_PROGRAM_BINARY_SIZES, sizes, null);
+                if (result != CL_SUCCESS) throw new RuntimeException("Error: clGetProgramInfo(): " + result);
+
+                var binary = MemoryUtil.memAlloc((int) sizes.get(0));
+                var binaries = stack.pointers(MemoryUtil.memAddress(binary));
+                result = clGetProgramInfo(program.ptr(), CL_PROGRAM_BINARIES, binaries, null);
+                if (result != CL_SUCCESS)
+                {
+                    MemoryUtil.memFree(binary);
+                    throw new RuntimeException("Error: clGetProgramInfo(): " + result);
+                }
+                return binary;
+            }
+        }
+
+        /**
+         * Describes the device and driver a program binary was built for. Binaries are only valid for the exact
+         * device and driver that produced them.
+         */
+        public static String device_identity(CL_Device device)
+        {
+            return String.join("|",
+                get_device_string(device.ptr(), CL_DEVICE_VENDOR),
+                get_device_string(device.ptr(), CL_DEVICE_NAME),
+                get_device_string(device.ptr(), CL_DEVICE_VERSION),
+                get_device_string(device.ptr(), CL_DRIVER_VERSION));
+        }
+
         public static CL_Kernel new_kernel(CL_Program program, String kernel_name)
         {
             try (var stack = MemoryStack.stackPush())
@@ -1045,6 +1203,30 @@ public class GPU
             }
         }
 
+        /**
+         * Enqueues a one dimensional kernel with work sizes held in buffers owned by the caller, so callers that
+         * enqueue the same kernels repeatedly do not need to allocate the sizes for every call.
+         */
+        public static void kernel_call(CL_CommandQueue command_queue,
+                                       CL_Kernel kernel,
+                                       PointerBuffer global_work_size,
+                                       PointerBuffer local_work_size)
+        {
+            int result = clEnqueueNDRangeKernel(command_queue.ptr(),
+                kernel.ptr(),
+                1,
+                null,
+                global_work_size,
+                local_work_size,
+                null,
+                null);
+
+            if (result != CL_SUCCESS)
+            {
+                throw new RuntimeException("Error: clEnqueueNDRangeKernel(): " + result);
+            }
+        }
+
         //#endregion
 
         //#region CL Buffer Creation Methods
@@ -1090,6 +1272,23 @@ public class GPU
             }
         }
 
+        /**
+         * Creates a buffer in host accessible memory that is intended to stay mapped, so its host pointer can be
+         * used as the destination of non-blocking reads from device buffers.
+         */
+        public static CL_Buffer new_staging_buffer(CL_Context context, long size)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var status = stack.mallocInt(1);
+                long flags = CL_MEM_READ_WRITE | CL_MEM_ALLOC_HOST_PTR;
+                long ptr = clCreateBuffer(context.ptr(), flags, size, status);
+                int result = status.get(0);
+                if (result != CL_SUCCESS) throw new RuntimeException("Error: clCreateBuffer(): " + result);
+                return new CL_Buffer(ptr);
+            }
+        }
+
         public static CL_Buffer new_pinned_int(CL_Context context)
         {
             try (var stack = MemoryStack.stackPush())
@@ -1223,6 +1422,20 @@ public class GPU
             }
         }
 
+        /**
+         * Enqueues a non-blocking write of the remaining bytes of the given host buffer into the start of the
+         * target device buffer. The host data must remain unchanged until the queue has been finished, or some
+         * later command on the same queue has completed.
+         */
+        public static void write_buffer(CL_CommandQueue queue, CL_Buffer buffer, ByteBuffer data)
+        {
+            int result = clEnqueueWriteBuffer(queue.ptr(), buffer.ptr(), false, 0, data, null, null);
+            if (result != CL_SUCCESS)
+            {
+                throw new RuntimeException("Error: clEnqueueWriteBuffer(): " + result);
+            }
+        }
+
         public static void map_read_int_buffer(CL_CommandQueue queue, CL_Buffer buffer, long size, int count, int[] output)
         {
             try (var stack = MemoryStack.stackPush())
@@ -1332,6 +1545,73 @@ public class GPU
             }
         }
 
+        public static ByteBuffer map_staging_buffer(CL_CommandQueue queue, CL_Buffer buffer, long size)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var status = stack.mallocInt(1);
+                var out = clEnqueueMapBuffer(queue.ptr(),
+                    buffer.ptr(),
+                    true,
+                    CL_MAP_READ | CL_MAP_WRITE,
+                    0,
+                    size,
+                    null,
+                    null,
+                    status,
+                    null);
+
+                assert out != null;
+                int result = status.get(0);
+                if (result != CL_SUCCESS) throw new RuntimeException("Error: clEnqueueMapBuffer(): " + result);
+                return out.order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        public static void unmap_buffer(CL_CommandQueue queue, CL_Buffer buffer, ByteBuffer mapped)
+        {
+            int result = clEnqueueUnmapMemObject(queue.ptr(), buffer.ptr(), mapped, null, null);
+            if (result != CL_SUCCESS) throw new RuntimeException("Error: clEnqueueUnmapMemObject(): " + result);
+        }
+
+        /**
+         * Enqueues a non-blocking read of the start of a device buffer into the remaining bytes of the given host
+         * buffer. The host data must not be read until a later event on the same queue has completed.
+         */
+        public static void read_buffer_async(CL_CommandQueue queue, CL_Buffer buffer, ByteBuffer output)
+        {
+            int result = clEnqueueReadBuffer(queue.ptr(), buffer.ptr(), false, 0, output, null, null);
+            if (result != CL_SUCCESS) throw new RuntimeException("Error: clEnqueueReadBuffer(): " + result);
+        }
+
+        /**
+         * Enqueues a marker and returns its event, which completes once all previously enqueued commands on the
+         * queue have completed. The queue is flushed so the commands start without waiting for a later finish.
+         */
+        public static long enqueue_marker(CL_CommandQueue queue)
+        {
+            try (var stack = MemoryStack.stackPush())
+            {
+                var event = stack.mallocPointer(1);
+                int result = clEnqueueMarkerWithWaitList(queue.ptr(), null, event);
+                if (result != CL_SUCCESS) throw new RuntimeException("Error: clEnqueueMarkerWithWaitList(): " + result);
+                result = clFlush(queue.ptr());
+                if (result != CL_SUCCESS) throw new RuntimeException("Error: clFlush(): " + result);
+                return event.get(0);
+            }
+        }
+
+        /**
+         * Blocks until the given event has completed, then releases it.
+         */
+        public static void await_event(long event)
+        {
+            int result = clWaitForEvents(event);
+            if (result != CL_SUCCESS) throw new RuntimeException("Error: clWaitForEvents(): " + result);
+            result = clReleaseEvent(event);
+            if (result != CL_SUCCESS) throw new RuntimeException("Error: clReleaseEvent(): " + result);
+        }
+
         public static int read_pinned_int(CL_CommandQueue queue, CL_Buffer buffer)
         {
             try (var stack = MemoryStack.stackPush())
@@ -2,9 +2,12 @@ package com.controllerface.bvge.gpu.cl;
 
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.BufferAllocator;
+import com.controllerface.bvge.gpu.cl.buffers.DevicePool;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.contexts.CL_Context;
 import com.controllerface.bvge.gpu.cl.devices.CL_Device;
+import com.controllerface.bvge.gpu.cl.programs.ProgramCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +27,19 @@ public class CL_ComputeController implements GPUResource
     public final CL_CommandQueue render_queue;
     public final CL_CommandQueue sector_queue;
 
+    /**
+     * Device memory pools for transient buffers, one per command queue. A pooled buffer may only be reused by
+     * commands on the queue it was last used with, so pools are never shared between queues.
+     */
+    public final DevicePool physics_pool;
+    public final DevicePool render_pool;
+    public final DevicePool sector_pool;
+
+    /**
+     * Built programs, shared between program instances with the same source and cached on disk between runs.
+     */
+    public final ProgramCache programs;
+
     private final List<GPUResource> resources = new ArrayList<>();
 
     public CL_ComputeController(long max_work_group_size,
@@ -47,6 +63,10 @@ public class CL_ComputeController implements GPUResource
         this.physics_queue = physics_queue;
         this.render_queue = render_queue;
         this.sector_queue = sector_queue;
+        this.physics_pool = new DevicePool("Physics", BufferAllocator.DIRECT);
+        this.render_pool = new DevicePool("Render", BufferAllocator.DIRECT);
+        this.sector_pool = new DevicePool("Sector", BufferAllocator.DIRECT);
+        this.programs = new ProgramCache(context, device);
 
         resources.add(device);
         resources.add(context);
@@ -65,6 +85,24 @@ public class CL_ComputeController implements GPUResource
         return globalWorkSize;
     }
 
+    public DevicePool pool(CL_CommandQueue cmd_queue)
+    {
+        if (cmd_queue == physics_queue) return physics_pool;
+        if (cmd_queue == render_queue) return render_pool;
+        if (cmd_queue == sector_queue) return sector_pool;
+        throw new RuntimeException("No device pool for command queue: " + cmd_queue);
+    }
+
+    /**
+     * Trims all device pools. Should be called once per frame, while the command queues are idle.
+     */
+    public void trim_pools()
+    {
+        physics_pool.trim();
+        render_pool.trim();
+        sector_pool.trim();
+    }
+
     public int work_group_count(int n)
     {
         return (int) Math.ceil((float) n / (float) max_scan_block_size);
@@ -73,6 +111,10 @@ public class CL_ComputeController implements GPUResource
     @Override
     public void release()
     {
+        physics_pool.release();
+        render_pool.release();
+        sector_pool.release();
+        programs.release();
         for (var resource : resources)
         {
             resource.release();
@@ -0,0 +1,46 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import com.controllerface.bvge.gpu.GPU;
+
+/**
+ * Source of the device memory that backs a resizable buffer.
+ */
+public interface BufferAllocator
+{
+    /**
+     * Allocates memory directly from the device, and releases it as soon as it is freed.
+     */
+    BufferAllocator DIRECT = new BufferAllocator()
+    {
+        @Override
+        public CL_Buffer allocate(long byte_capacity)
+        {
+            return GPU.CL.new_buffer(GPU.compute.context, byte_capacity);
+        }
+
+        @Override
+        public void free(CL_Buffer buffer, long byte_capacity)
+        {
+            buffer.release();
+        }
+    };
+
+    /**
+     * Allocates a buffer of exactly byte_capacity bytes. Callers should round the requested capacity with
+     * {@link #capacity_for(long)} first, so the allocation can be reused.
+     */
+    CL_Buffer allocate(long byte_capacity);
+
+    /**
+     * Gives back a buffer previously obtained from {@link #allocate(long)} with the given capacity.
+     */
+    void free(CL_Buffer buffer, long byte_capacity);
+
+    /**
+     * Returns the capacity that will actually be allocated when at least the given number of bytes is needed.
+     */
+    default long capacity_for(long byte_capacity)
+    {
+        return byte_capacity;
+    }
+}
@@ -5,12 +5,14 @@ import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class BufferGroup<E extends Enum<E> & BufferType> implements BufferSet<E>
 {
     private final String name;
     private final boolean persistent;
     protected final CL_CommandQueue cmd_queue;
+    protected final MemoryBudget budget;
     protected Map<E, ResizableBuffer> buffers;
 
     public BufferGroup(CL_CommandQueue cmd_queue, Class<E> type, String name, boolean persistent)
@@ -19,18 +21,41 @@ public class BufferGroup<E extends Enum<E> & BufferType> implements BufferSet<E>
         this.name = name;
         this.cmd_queue = cmd_queue;
         this.persistent = persistent;
+        this.budget = new MemoryBudget(name);
     }
 
-    private ResizableBuffer new_buffer(int item_size)
+    private ResizableBuffer new_buffer(E buffer_type)
     {
-        return new PersistentBuffer(this.cmd_queue, item_size);
+        return new PersistentBuffer(this.cmd_queue,
+            buffer_type.data_type().size(),
+            ResizableBuffer.DEFAULT_ITEM_CAPACITY,
+            buffer_type.growth_policy(),
+            budget);
     }
 
-    private ResizableBuffer new_buffer(int item_size, long initial_capacity)
+    private ResizableBuffer new_buffer(E buffer_type, long initial_capacity)
     {
+        int item_size = buffer_type.data_type().size();
         return persistent
-            ? new PersistentBuffer(this.cmd_queue, item_size, initial_capacity)
-            : new TransientBuffer(this.cmd_queue, item_size, initial_capacity);
+            ? new PersistentBuffer(this.cmd_queue, item_size, initial_capacity, buffer_type.growth_policy(), budget)
+            : new TransientBuffer(this.cmd_queue, item_size, initial_capacity, buffer_type.growth_policy(), budget);
+    }
+
+    /**
+     * Limits the total device memory held by the buffers in this group. Growth beyond the limit is reduced to
+     * the required capacity, and growth that cannot fit at all fails with an exception.
+     */
+    public void set_budget(long limit_bytes)
+    {
+        budget.set_limit(limit_bytes);
+    }
+
+    /**
+     * @return the device memory currently held by the buffers in this group, in bytes
+     */
+    public long memory_used()
+    {
+        return budget.used();
     }
 
     @Override
@@ -39,6 +64,14 @@ public class BufferGroup<E extends Enum<E> & BufferType> implements BufferSet<E>
         return buffers.get(buffer_type);
     }
 
+    /**
+     * Calls the consumer once for every buffer in this group.
+     */
+    public void for_each(BiConsumer<E, ResizableBuffer> consumer)
+    {
+        buffers.forEach(consumer);
+    }
+
     @Override
     public void init_buffer(E buffer_type)
     {
@@ -46,24 +79,21 @@ public class BufferGroup<E extends Enum<E> & BufferType> implements BufferSet<E>
         {
             throw new RuntimeException("Buffer type: " + buffer_type + " already exists in: " + name);
         }
-        buffers.put(buffer_type, new_buffer(buffer_type.data_type().size()));
+        buffers.put(buffer_type, new_buffer(buffer_type));
     }
 
     @Override
     public void init_buffer(E buffer_type, long initial_capacity)
     {
-        buffers.put(buffer_type, new_buffer(buffer_type.data_type().size(), initial_capacity));
+        buffers.put(buffer_type, new_buffer(buffer_type, initial_capacity));
     }
 
     @Override
     public void release()
     {
-        long[] total = new long[1];
-        buffers.forEach((_, v) ->
-        {
-            total[0] += v.debug_data();
-            v.release();
-        });
-        System.out.println("BufferGroup [" + name + "] Memory Usage: MB " + String.format("%.4f", (float) total[0] / 1024f / 1024f));
+        long total = budget.used();
+        buffers.forEach((_, v) -> v.release());
+        System.out.println("BufferGroup [" + name + "] Memory Usage: MB " + String.format("%.4f", (float) total / 1024f / 1024f)
+            + " Peak: MB " + String.format("%.4f", (float) budget.peak() / 1024f / 1024f));
     }
 }
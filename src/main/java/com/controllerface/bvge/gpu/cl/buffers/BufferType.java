@@ -9,4 +9,15 @@ public interface BufferType
      * @return size in bytes of a single element of the specified buffer type
      */
     CL_DataTypes.CL_Type data_type();
+
+    /**
+     * Determines how buffers of this type grow and shrink. Buffer types with known growth patterns may override
+     * this, by default capacity is doubled with a bounded growth step.
+     *
+     * @return the growth policy to use for buffers of this type
+     */
+    default GrowthPolicy growth_policy()
+    {
+        return GrowthPolicy.for_item_size(data_type().size());
+    }
 }
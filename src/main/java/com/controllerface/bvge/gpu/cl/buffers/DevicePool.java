@@ -0,0 +1,166 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Counter;
+import com.controllerface.bvge.gpu.GPUResource;
+
+import java.util.ArrayDeque;
+import java.util.TreeMap;
+
+/**
+ * A pool of device allocations, grouped into size classes. Buffers that are freed are kept and handed out again
+ * for later requests in the same size class, instead of being released and allocated again. Transient buffers
+ * that resize often, for example when a busy collision frame needs more room, then mostly reuse memory without
+ * calling into the driver.
+ * <p>
+ * Size classes are the powers of two, plus three evenly spaced classes between each power of two, so a rounded
+ * request never wastes more than a quarter of its size. Freed buffers are retained up to the largest amount of
+ * memory the pool held during the most recent trim window. Memory that was not needed during a window is
+ * released when the pool is trimmed.
+ * <p>
+ * Each pool must only be used with a single in-order command queue. A freed buffer may still be in use by commands
+ * that have already been enqueued, and it is only safe to hand it out again for commands on the same queue.
+ */
+public class DevicePool implements BufferAllocator, GPUResource
+{
+    /**
+     * Smallest size class, in bytes. Smaller requests are rounded up to this size.
+     */
+    static final long MIN_CLASS_BYTES = 4096L;
+
+    /**
+     * Number of trim calls that make up one retention window.
+     */
+    static final int TRIM_INTERVAL = 600;
+
+    private final String name;
+    private final BufferAllocator source;
+    private final TreeMap<Long, ArrayDeque<CL_Buffer>> free_lists = new TreeMap<>();
+
+    private long in_use_bytes = 0;
+    private long free_bytes = 0;
+    private long window_peak_bytes = 0;
+    private int trim_calls = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public DevicePool(String name, BufferAllocator source)
+    {
+        this.name = name;
+        this.source = source;
+    }
+
+    /**
+     * Rounds a request up to its size class.
+     */
+    @Override
+    public long capacity_for(long byte_capacity)
+    {
+        if (byte_capacity <= MIN_CLASS_BYTES) return MIN_CLASS_BYTES;
+        int exponent = 63 - Long.numberOfLeadingZeros(byte_capacity - 1);
+        long step = 1L << (exponent - 2);
+        return ((byte_capacity + step - 1) / step) * step;
+    }
+
+    @Override
+    public synchronized CL_Buffer allocate(long byte_capacity)
+    {
+        long class_bytes = capacity_for(byte_capacity);
+        var free_list = free_lists.get(class_bytes);
+        CL_Buffer buffer;
+        if (free_list != null && !free_list.isEmpty())
+        {
+            buffer = free_list.pop();
+            free_bytes -= class_bytes;
+            hits++;
+            Metrics.count(Counter.POOL_HITS, 1);
+        }
+        else
+        {
+            buffer = source.allocate(class_bytes);
+            misses++;
+            Metrics.count(Counter.POOL_MISSES, 1);
+        }
+        in_use_bytes += class_bytes;
+        window_peak_bytes = Math.max(window_peak_bytes, in_use_bytes);
+        return buffer;
+    }
+
+    @Override
+    public synchronized void free(CL_Buffer buffer, long byte_capacity)
+    {
+        long class_bytes = capacity_for(byte_capacity);
+        free_lists.computeIfAbsent(class_bytes, _ -> new ArrayDeque<>()).push(buffer);
+        in_use_bytes -= class_bytes;
+        free_bytes += class_bytes;
+    }
+
+    /**
+     * Called once per frame. At the end of each retention window, free buffers are released until the pool holds
+     * no more memory than it had in use at the peak of that window. The largest buffers are released first.
+     */
+    public synchronized void trim()
+    {
+        if (++trim_calls < TRIM_INTERVAL) return;
+        trim_calls = 0;
+
+        long retained = Math.max(window_peak_bytes, in_use_bytes);
+        var classes = free_lists.descendingMap().entrySet().iterator();
+        while (in_use_bytes + free_bytes > retained && classes.hasNext())
+        {
+            var entry = classes.next();
+            long class_bytes = entry.getKey();
+            var free_list = entry.getValue();
+            while (!free_list.isEmpty() && in_use_bytes + free_bytes > retained)
+            {
+                source.free(free_list.pop(), class_bytes);
+                free_bytes -= class_bytes;
+            }
+            if (free_list.isEmpty()) classes.remove();
+        }
+        window_peak_bytes = in_use_bytes;
+    }
+
+    public synchronized long in_use_bytes()
+    {
+        return in_use_bytes;
+    }
+
+    public synchronized long free_bytes()
+    {
+        return free_bytes;
+    }
+
+    public synchronized long hits()
+    {
+        return hits;
+    }
+
+    public synchronized long misses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of allocations that were served from the pool, or zero if nothing was allocated yet
+     */
+    public synchronized double hit_rate()
+    {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Releases all free buffers. Buffers that are still in use are released by their owners.
+     */
+    @Override
+    public synchronized void release()
+    {
+        free_lists.forEach((class_bytes, free_list) -> free_list.forEach(buffer -> source.free(buffer, class_bytes)));
+        free_lists.clear();
+        System.out.println("DevicePool [" + name + "] Hit Rate: " + String.format("%.2f", hit_rate() * 100.0)
+            + "% Retained: MB " + String.format("%.4f", (float) free_bytes / 1024f / 1024f));
+        free_bytes = 0;
+    }
+}
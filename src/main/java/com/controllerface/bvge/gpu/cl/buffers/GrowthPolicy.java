@@ -0,0 +1,80 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+/**
+ * Decides the item capacity a buffer is resized to when it must grow, and whether it should give memory back once
+ * its contents have been compacted. Capacities are always in items, not bytes.
+ */
+public interface GrowthPolicy
+{
+    /**
+     * Largest amount of memory the default policy will add in a single growth step, beyond what is required.
+     */
+    long MAX_GROWTH_BYTES = 32L * 1024L * 1024L;
+
+    /**
+     * A buffer is only shrunk when its live items fill less than 1/SHRINK_RATIO of its capacity, and is then
+     * shrunk to twice the live item count. The gap between the two keeps a buffer that hovers around a boundary
+     * from being repeatedly grown and shrunk.
+     */
+    long SHRINK_RATIO = 4;
+
+    /**
+     * Returns the new capacity for a buffer that currently holds current_items and must hold at least
+     * required_items. Only called when required_items is larger than current_items, and the result must be at
+     * least required_items.
+     */
+    long grow(long current_items, long required_items);
+
+    /**
+     * Returns the capacity a buffer should be reduced to when only live_items are in use. Returning the current
+     * capacity leaves the buffer as it is. The result must never be smaller than live_items or minimum_items.
+     */
+    default long shrink(long current_items, long live_items, long minimum_items)
+    {
+        if (live_items * SHRINK_RATIO >= current_items) return current_items;
+        return Math.min(current_items, Math.max(minimum_items, live_items * 2));
+    }
+
+    /**
+     * Grows in fixed steps of step_items, which is how persistent buffers grew before policies were introduced.
+     */
+    static GrowthPolicy linear(long step_items)
+    {
+        return (current_items, required_items) ->
+        {
+            long steps = (required_items - current_items + step_items - 1) / step_items;
+            return current_items + steps * step_items;
+        };
+    }
+
+    /**
+     * Grows capacity by the given factor, but never adds more than max_step_items beyond what is required in a
+     * single step. Large buffers are then grown in bounded steps instead of doubling.
+     */
+    static GrowthPolicy geometric(double factor, long max_step_items)
+    {
+        return (_, required_items) ->
+        {
+            long step = Math.min((long) (required_items * (factor - 1.0)), max_step_items);
+            return required_items + Math.max(step, 0);
+        };
+    }
+
+    /**
+     * Doubles the required capacity, with no upper limit on the growth step. Used for scratch buffers that are
+     * not owned by a buffer group.
+     */
+    static GrowthPolicy doubling()
+    {
+        return (_, required_items) -> required_items * 2;
+    }
+
+    /**
+     * Default policy for a buffer with items of the given size: doubles capacity until a single step would add
+     * more than {@link #MAX_GROWTH_BYTES}.
+     */
+    static GrowthPolicy for_item_size(int item_size)
+    {
+        return geometric(2.0, Math.max(1, MAX_GROWTH_BYTES / item_size));
+    }
+}
@@ -0,0 +1,89 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the device memory held by a set of buffers, and optionally limits it. Buffers report every allocation,
+ * resize, and release, so the used total is always current. When a buffer grows, the capacity chosen by its growth
+ * policy is reduced to what remains of the budget, and growth that cannot fit at all is an error.
+ */
+public class MemoryBudget
+{
+    /**
+     * Shared budget for buffers that do not belong to a buffer group. It is never limited, and only tracks usage.
+     */
+    public static final MemoryBudget UNTRACKED = new MemoryBudget("Untracked");
+
+    private final String name;
+    private final AtomicLong used_bytes = new AtomicLong();
+    private final AtomicLong peak_bytes = new AtomicLong();
+    private volatile long limit_bytes = Long.MAX_VALUE;
+
+    public MemoryBudget(String name)
+    {
+        this.name = name;
+    }
+
+    public void set_limit(long limit_bytes)
+    {
+        if (limit_bytes <= 0)
+        {
+            throw new IllegalArgumentException("Invalid memory budget for: " + name + " : " + limit_bytes);
+        }
+        this.limit_bytes = limit_bytes;
+    }
+
+    public long limit()
+    {
+        return limit_bytes;
+    }
+
+    public long used()
+    {
+        return used_bytes.get();
+    }
+
+    public long peak()
+    {
+        return peak_bytes.get();
+    }
+
+    /**
+     * Returns the byte capacity a buffer currently holding current_bytes should be resized to, given that it needs
+     * at least required_bytes and its growth policy asked for requested_bytes. The requested capacity is reduced
+     * to fit the budget if needed, but never below the required capacity.
+     */
+    public long fit(long current_bytes, long required_bytes, long requested_bytes)
+    {
+        long available = limit_bytes - (used_bytes.get() - current_bytes);
+        if (required_bytes > available)
+        {
+            throw new RuntimeException("Memory budget exceeded for: " + name
+                + " required: " + required_bytes
+                + " available: " + available
+                + " limit: " + limit_bytes);
+        }
+        return Math.max(required_bytes, Math.min(requested_bytes, available));
+    }
+
+    public void resized(long previous_bytes, long new_bytes)
+    {
+        long used = used_bytes.addAndGet(new_bytes - previous_bytes);
+        peak_bytes.accumulateAndGet(used, Math::max);
+    }
+
+    public void allocated(long bytes)
+    {
+        resized(0, bytes);
+    }
+
+    public void released(long bytes)
+    {
+        resized(bytes, 0);
+    }
+
+    public String name()
+    {
+        return name;
+    }
+}
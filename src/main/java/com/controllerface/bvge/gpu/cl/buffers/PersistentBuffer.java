@@ -3,16 +3,23 @@ package com.controllerface.bvge.gpu.cl.buffers;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 
-import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_float16;
-
 public class PersistentBuffer extends ResizableBuffer
 {
-    public PersistentBuffer(CL_CommandQueue cmd_queue, int item_size, long initial_capacity)
+    public PersistentBuffer(CL_CommandQueue cmd_queue,
+                            int item_size,
+                            long initial_capacity,
+                            GrowthPolicy growth_policy,
+                            MemoryBudget budget)
     {
-        super(cmd_queue, item_size, initial_capacity);
+        super(cmd_queue, item_size, initial_capacity, growth_policy, budget, BufferAllocator.DIRECT);
         clear();
     }
 
+    public PersistentBuffer(CL_CommandQueue cmd_queue, int item_size, long initial_capacity)
+    {
+        this(cmd_queue, item_size, initial_capacity, GrowthPolicy.for_item_size(item_size), MemoryBudget.UNTRACKED);
+    }
+
     public PersistentBuffer(CL_CommandQueue cmd_queue, int item_size)
     {
         this(cmd_queue, item_size, DEFAULT_ITEM_CAPACITY);
@@ -23,31 +30,19 @@ public class PersistentBuffer extends ResizableBuffer
         var required_capacity = item_size * total_item_capacity;
         if (required_capacity <= this.byte_capacity) return;
 
-        long previous_capacity = this.byte_capacity;
-        while (this.byte_capacity < required_capacity)
-        {
-            // todo: define different expansion strategies for different buffer types
-            if (this.item_size == cl_float16.size()) this.byte_capacity += (long)this.item_size * 8192L;
-            else this.byte_capacity += (long)this.item_size * 32768L;
-        }
-
-        var new_buffer = GPU.CL.new_buffer(GPU.compute.context, this.byte_capacity);
-        GPU.CL.zero_buffer(cmd_queue, new_buffer, this.byte_capacity);
-        GPU.CL.transfer_buffer(cmd_queue, this.buffer, new_buffer, previous_capacity);
-
-        release();
-        this.buffer = new_buffer;
-        update_registered_kernels();
+        resize(next_byte_capacity(total_item_capacity), this.byte_capacity, true);
     }
 
+    /**
+     * Copies the first item_count items of the source buffer into this buffer. The existing buffer is kept, and
+     * only grown if it is too small to hold the copied items. Contents past the copied range are left as they are.
+     */
     @Override
-    public void copy_from(ResizableBuffer source)
+    public void copy_from(ResizableBuffer source, long item_count)
     {
-        release();
-        this.byte_capacity = source.byte_capacity;
-        var new_buffer = GPU.CL.new_buffer(GPU.compute.context, this.byte_capacity);
-        GPU.CL.transfer_buffer(cmd_queue, source.buffer, new_buffer, source.byte_capacity);
-        this.buffer = new_buffer;
-        update_registered_kernels();
+        ensure_capacity(item_count);
+        long byte_count = item_size * item_count;
+        if (byte_count == 0) return;
+        GPU.CL.transfer_buffer(cmd_queue, source.buffer, this.buffer, byte_count);
     }
 }
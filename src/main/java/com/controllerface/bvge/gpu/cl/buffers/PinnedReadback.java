@@ -0,0 +1,153 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+/**
+ * Reads back the contents of several device buffers into one reusable region of pinned host memory. All reads are
+ * enqueued without blocking, followed by a single marker event, so the producer thread can return to other work
+ * while the data transfers. A consumer then waits on that one event and decodes each column in the same order the
+ * reads were added.
+ * <p>
+ * Usage is: {@link #read(ResizableBuffer, long)} once per column, then {@link #submit()}. Later, {@link #await()},
+ * followed by one next_* call per column, in the same order. The arena may be reused once decoding is complete.
+ */
+public class PinnedReadback implements GPUResource
+{
+    /**
+     * Column offsets within the arena are aligned to this many bytes.
+     */
+    private static final long ALIGNMENT = 64L;
+
+    private record Pending(CL_Buffer source, long byte_count) { }
+
+    private final CL_CommandQueue cmd_queue;
+    private final List<Pending> pending = new ArrayList<>();
+
+    private CL_Buffer staging;
+    private ByteBuffer host;
+    private long capacity;
+
+    private long event = NULL;
+    private int decode_offset = 0;
+
+    public PinnedReadback(CL_CommandQueue cmd_queue, long initial_capacity)
+    {
+        this.cmd_queue = cmd_queue;
+        allocate(initial_capacity);
+    }
+
+    private static long align(long offset)
+    {
+        return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private void allocate(long new_capacity)
+    {
+        this.capacity = new_capacity;
+        this.staging = GPU.CL.new_staging_buffer(GPU.compute.context, new_capacity);
+        this.host = GPU.CL.map_staging_buffer(cmd_queue, staging, new_capacity);
+    }
+
+    private void free()
+    {
+        GPU.CL.unmap_buffer(cmd_queue, staging, host);
+        cmd_queue.finish();
+        staging.release();
+    }
+
+    /**
+     * Adds a read of the first item_count items of the given buffer. Nothing is enqueued until submit is called.
+     */
+    public void read(ResizableBuffer source, long item_count)
+    {
+        pending.add(new Pending(source.buffer, source.item_size * item_count));
+    }
+
+    /**
+     * Enqueues all reads added since the last submit, without blocking. If the arena is too small, it is replaced
+     * with a larger one first.
+     */
+    public void submit()
+    {
+        if (event != NULL)
+        {
+            // a previous readback that was never consumed must land before the arena is reused
+            await();
+        }
+
+        long required = 0;
+        for (var read : pending)
+        {
+            required = align(required) + read.byte_count;
+        }
+
+        if (required > capacity)
+        {
+            free();
+            allocate(Math.max(required, capacity * 2));
+        }
+
+        long offset = 0;
+        for (var read : pending)
+        {
+            offset = align(offset);
+            if (read.byte_count > 0)
+            {
+                var target = host.slice((int) offset, (int) read.byte_count);
+                GPU.CL.read_buffer_async(cmd_queue, read.source, target);
+            }
+            offset += read.byte_count;
+        }
+        pending.clear();
+
+        event = GPU.CL.enqueue_marker(cmd_queue);
+        decode_offset = 0;
+    }
+
+    /**
+     * Blocks until all reads from the last submit have landed. Does nothing if there is nothing in flight.
+     */
+    public void await()
+    {
+        if (event == NULL) return;
+        GPU.CL.await_event(event);
+        event = NULL;
+    }
+
+    private ByteBuffer next(long byte_count)
+    {
+        int offset = (int) align(decode_offset);
+        decode_offset = offset + (int) byte_count;
+        return host.slice(offset, (int) byte_count).order(host.order());
+    }
+
+    public void next_ints(int[] output, int count)
+    {
+        next((long) count * Integer.BYTES).asIntBuffer().get(output, 0, count);
+    }
+
+    public void next_floats(float[] output, int count)
+    {
+        next((long) count * Float.BYTES).asFloatBuffer().get(output, 0, count);
+    }
+
+    public void next_shorts(short[] output, int count)
+    {
+        next((long) count * Short.BYTES).asShortBuffer().get(output, 0, count);
+    }
+
+    @Override
+    public void release()
+    {
+        await();
+        free();
+    }
+}
@@ -4,35 +4,122 @@ import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 
+import java.nio.ByteBuffer;
+
 public abstract class ResizableBuffer
 {
     protected static final long DEFAULT_ITEM_CAPACITY = 1024L;
 
     protected final int item_size;
     protected final CL_CommandQueue cmd_queue;
+    protected final GrowthPolicy growth_policy;
+    protected final MemoryBudget budget;
+    protected final BufferAllocator allocator;
+    protected final long minimum_item_capacity;
 
     protected long byte_capacity;
     protected CL_Buffer buffer;
 
+    /**
+     * Largest capacity this buffer has been grown to. After a buffer has been shrunk, growing it again goes
+     * straight back to this capacity, so a workload that returns to a previous size pays for one resize, not one
+     * for every growth step along the way.
+     */
+    private long high_water_items;
+
     private RegisteredKernel[] registered_kernels = new RegisteredKernel[0];
 
     private record RegisteredKernel(GPUKernel kernel, Enum<?> arg) { }
 
-    public ResizableBuffer(CL_CommandQueue cmd_queue, int item_size, long item_capacity)
+    public ResizableBuffer(CL_CommandQueue cmd_queue,
+                           int item_size,
+                           long item_capacity,
+                           GrowthPolicy growth_policy,
+                           MemoryBudget budget,
+                           BufferAllocator allocator)
     {
         this.item_size = item_size;
         this.cmd_queue = cmd_queue;
-        this.byte_capacity = this.item_size * item_capacity;
-        this.buffer = GPU.CL.new_buffer(GPU.compute.context, this.byte_capacity);
+        this.growth_policy = growth_policy;
+        this.budget = budget;
+        this.allocator = allocator;
+        this.minimum_item_capacity = item_capacity;
+        this.high_water_items = item_capacity;
+        long initial_bytes = budget.fit(0, this.item_size * item_capacity, this.item_size * item_capacity);
+        this.byte_capacity = allocator.capacity_for(initial_bytes);
+        this.buffer = allocator.allocate(this.byte_capacity);
+        this.budget.allocated(this.byte_capacity);
     }
 
     abstract public void ensure_capacity(long total_item_capacity);
 
-    public void copy_from(ResizableBuffer source)
+    /**
+     * Returns the byte capacity to grow to when at least required_items must fit, as chosen by the growth policy
+     * and limited by the memory budget.
+     */
+    protected long next_byte_capacity(long required_items)
+    {
+        long current_items = this.byte_capacity / item_size;
+        long target_items = Math.max(growth_policy.grow(current_items, required_items), high_water_items);
+        return budget.fit(this.byte_capacity, item_size * required_items, item_size * target_items);
+    }
+
+    /**
+     * Replaces the buffer with a new one of the given capacity. The first preserved_bytes of the old buffer are
+     * copied to the new buffer, and the new buffer is zeroed first if requested.
+     */
+    protected void resize(long requested_byte_capacity, long preserved_bytes, boolean zero)
+    {
+        long new_byte_capacity = allocator.capacity_for(requested_byte_capacity);
+        var new_buffer = allocator.allocate(new_byte_capacity);
+        if (zero)
+        {
+            GPU.CL.zero_buffer(cmd_queue, new_buffer, new_byte_capacity);
+        }
+        if (preserved_bytes > 0)
+        {
+            GPU.CL.transfer_buffer(cmd_queue, this.buffer, new_buffer, preserved_bytes);
+        }
+
+        allocator.free(this.buffer, this.byte_capacity);
+        this.budget.resized(this.byte_capacity, new_byte_capacity);
+        this.byte_capacity = new_byte_capacity;
+        this.buffer = new_buffer;
+        this.high_water_items = Math.max(this.high_water_items, new_byte_capacity / item_size);
+        update_registered_kernels();
+    }
+
+    /**
+     * Gives memory back when only the first live_items are in use, if the growth policy decides the buffer is
+     * large enough relative to its contents to be worth shrinking. The live items are kept.
+     */
+    public void shrink_to(long live_items)
+    {
+        long current_items = this.byte_capacity / item_size;
+        long target_items = growth_policy.shrink(current_items, live_items, minimum_item_capacity);
+        if (target_items >= current_items) return;
+        long high_water = high_water_items;
+        resize(item_size * target_items, item_size * live_items, true);
+        high_water_items = high_water;
+    }
+
+    public void copy_from(ResizableBuffer source, long item_count)
     {
         throw new UnsupportedOperationException("this operation is not supported");
     }
 
+    /**
+     * Copies the first item_count items of this buffer into the start of the target buffer, which is grown to fit
+     * if needed. The target may have a different item size, and is used as raw storage.
+     */
+    public void copy_to(ResizableBuffer target, long item_count)
+    {
+        long byte_count = item_size * item_count;
+        if (byte_count == 0) return;
+        target.ensure_capacity((byte_count + target.item_size - 1) / target.item_size);
+        GPU.CL.transfer_buffer(cmd_queue, this.buffer, target.buffer, byte_count);
+    }
+
     protected void update_registered_kernels()
     {
         for (var registered : registered_kernels)
@@ -66,7 +153,13 @@ public abstract class ResizableBuffer
 
     public void release()
     {
-        this.buffer.release();
+        allocator.free(this.buffer, this.byte_capacity);
+        this.budget.released(this.byte_capacity);
+    }
+
+    public void transfer_in(ByteBuffer data)
+    {
+        GPU.CL.write_buffer(this.cmd_queue, this.buffer, data);
     }
 
     public void transfer_out_int(int[] ints, long size, int count)
@@ -3,11 +3,24 @@ package com.controllerface.bvge.gpu.cl.buffers;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 
+/**
+ * A buffer with contents that do not need to survive a resize. Memory is drawn from, and returned to, the device
+ * pool of the command queue the buffer is used with.
+ */
 public class TransientBuffer extends ResizableBuffer
 {
+    public TransientBuffer(CL_CommandQueue cmd_queue,
+                           int item_size,
+                           long initial_capacity,
+                           GrowthPolicy growth_policy,
+                           MemoryBudget budget)
+    {
+        super(cmd_queue, item_size, initial_capacity, growth_policy, budget, GPU.compute.pool(cmd_queue));
+    }
+
     public TransientBuffer(CL_CommandQueue cmd_queue, int item_size, long initial_capacity)
     {
-        super(cmd_queue, item_size, initial_capacity);
+        this(cmd_queue, item_size, initial_capacity, GrowthPolicy.doubling(), MemoryBudget.UNTRACKED);
     }
 
     public void ensure_capacity(long total_item_capacity)
@@ -15,9 +28,6 @@ public class TransientBuffer extends ResizableBuffer
         var required_capacity = item_size * total_item_capacity;
         if (required_capacity <= this.byte_capacity) return;
 
-        this.byte_capacity = required_capacity * 2;
-        release();
-        this.buffer = GPU.CL.new_buffer(GPU.compute.context, this.byte_capacity);
-        update_registered_kernels();
+        resize(next_byte_capacity(total_item_capacity), 0, false);
     }
 }
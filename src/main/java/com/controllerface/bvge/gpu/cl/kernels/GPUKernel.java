@@ -4,9 +4,11 @@ import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
 import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import org.lwjgl.PointerBuffer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class GPUKernel
@@ -15,6 +17,12 @@ public abstract class GPUKernel
     final CL_Kernel kernel;
     final List<CL_Buffer> shared_memory_ptrs = new ArrayList<>();
 
+    /**
+     * Last value set for each int argument, by ordinal, so unchanged values can be skipped by update_arg.
+     */
+    private long[] int_args = new long[0];
+    private static final long UNSET = Long.MIN_VALUE;
+
     public GPUKernel(CL_CommandQueue cmd_queue, CL_Kernel kernel)
     {
         this.cmd_queue = cmd_queue;
@@ -29,6 +37,7 @@ public abstract class GPUKernel
 
     public GPUKernel buf_arg(Enum<?> arg, ResizableBuffer buffer)
     {
+        forget(arg);
         buffer.register(this, arg);
         kernel.ptr_arg(arg.ordinal(), buffer.pointer());
         return this;
@@ -36,66 +45,77 @@ public abstract class GPUKernel
 
     public GPUKernel buf_arg(Enum<?> arg, CL_Buffer buffer)
     {
+        forget(arg);
         kernel.ptr_arg(arg.ordinal(), buffer.ptr());
         return this;
     }
 
     public GPUKernel ptr_arg(Enum<?> arg, long pointer)
     {
+        forget(arg);
         kernel.ptr_arg(arg.ordinal(), pointer);
         return this;
     }
 
     public GPUKernel ptr_arg(Enum<?> arg, ByteBuffer buffer)
     {
+        forget(arg);
         kernel.ptr_arg(arg.ordinal(), buffer);
         return this;
     }
 
     public GPUKernel loc_arg(Enum<?> arg, long size)
     {
+        forget(arg);
         kernel.loc_arg(arg.ordinal(), size);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, double[] value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, double value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, float[] value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, float value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, short[] value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, short value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
 
     public GPUKernel set_arg(Enum<?> arg, int[] value)
     {
+        forget(arg);
         kernel.set_arg(arg.ordinal(), value);
         return this;
     }
@@ -103,9 +123,39 @@ public abstract class GPUKernel
     public GPUKernel set_arg(Enum<?> arg, int value)
     {
         kernel.set_arg(arg.ordinal(), value);
+        int index = arg.ordinal();
+        if (index >= int_args.length)
+        {
+            int old_length = int_args.length;
+            int_args = Arrays.copyOf(int_args, index + 1);
+            Arrays.fill(int_args, old_length, int_args.length, UNSET);
+        }
+        int_args[index] = value;
         return this;
     }
 
+    /**
+     * Sets an int argument only if it differs from the value last set through this kernel.
+     */
+    public GPUKernel update_arg(Enum<?> arg, int value)
+    {
+        int index = arg.ordinal();
+        if (index < int_args.length && int_args[index] == value)
+        {
+            return this;
+        }
+        return set_arg(arg, value);
+    }
+
+    private void forget(Enum<?> arg)
+    {
+        int index = arg.ordinal();
+        if (index < int_args.length)
+        {
+            int_args[index] = UNSET;
+        }
+    }
+
     public void call_task()
     {
         call(GPU.compute.global_single_size, GPU.compute.global_single_size);
@@ -132,4 +182,17 @@ public abstract class GPUKernel
 
         shared_memory_ptrs.clear();
     }
+
+    /**
+     * Enqueues this kernel with work sizes held in caller owned buffers. Used by pipelines, which replay the same
+     * kernels every sub-step. Kernels that share memory with GL must use {@link #call(long[], long[])} instead.
+     */
+    void enqueue(PointerBuffer global_work_size, PointerBuffer local_work_size)
+    {
+        if (!shared_memory_ptrs.isEmpty())
+        {
+            throw new IllegalStateException("Shared memory kernels cannot be enqueued from a pipeline");
+        }
+        GPU.CL.kernel_call(cmd_queue, kernel, global_work_size, local_work_size);
+    }
 }
@@ -0,0 +1,185 @@
+package com.controllerface.bvge.gpu.cl.kernels;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * A fixed sequence of kernel calls that is recorded once and then replayed. Each stage names a kernel, a supplier
+ * for the number of work items, and any int arguments that change between replays. The number of work items may
+ * also be given per call, for repeated stages that cover a different range on each call. Buffer arguments are set once
+ * when the kernel is initialized, and follow buffer resizes through {@link com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer#register}.
+ * <p>
+ * Replaying a stage only sets the int arguments whose values have changed since they were last set, and enqueues
+ * the kernel using work size buffers owned by the pipeline, so no per-call allocation is done on the host. Calls
+ * with no work items are skipped. When the editor is active, the enqueue time of each stage with a metric is
+ * recorded against that metric.
+ */
+public class GPUPipeline implements GPUResource
+{
+    /**
+     * Computes an int argument for one call of a repeated stage, given the call index and the number of calls.
+     */
+    @FunctionalInterface
+    public interface StepValue
+    {
+        int value(int step, int steps);
+    }
+
+    private record Binding(Enum<?> arg, StepValue value) { }
+
+    private static final class Stage
+    {
+        private final GPUKernel kernel;
+        private final StepValue work_items;
+        private final List<Binding> bindings = new ArrayList<>();
+        private IntSupplier repeat = () -> 1;
+        private Metric metric = null;
+
+        private Stage(GPUKernel kernel, StepValue work_items)
+        {
+            this.kernel = kernel;
+            this.work_items = work_items;
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final PointerBuffer global_work_size = MemoryUtil.memAllocPointer(1);
+    private final PointerBuffer local_work_size = MemoryUtil.memAllocPointer(1);
+
+    public GPUPipeline()
+    {
+        this.local_work_size.put(0, GPU.compute.preferred_work_size[0]);
+    }
+
+    /**
+     * Adds a stage that runs the given kernel over the number of work items returned by the supplier. Binding
+     * calls that follow apply to this stage.
+     */
+    public GPUPipeline stage(GPUKernel kernel, IntSupplier work_items)
+    {
+        return stage_steps(kernel, (_, _) -> work_items.getAsInt());
+    }
+
+    /**
+     * Adds a stage whose number of work items may differ for each call of a repeated stage. Binding calls that
+     * follow apply to this stage.
+     */
+    public GPUPipeline stage_steps(GPUKernel kernel, StepValue work_items)
+    {
+        stages.add(new Stage(kernel, work_items));
+        return this;
+    }
+
+    /**
+     * Adds a stage, and binds the given argument to the number of work items, which is the common pattern for
+     * kernels that take a max_* argument to discard padding work items.
+     */
+    public GPUPipeline stage(GPUKernel kernel, IntSupplier work_items, Enum<?> count_arg)
+    {
+        return stage(kernel, work_items).bind(count_arg, work_items);
+    }
+
+    /**
+     * Binds an argument of the current stage to a value that is read each time the stage is replayed.
+     */
+    public GPUPipeline bind(Enum<?> arg, IntSupplier value)
+    {
+        return bind_step(arg, (_, _) -> value.getAsInt());
+    }
+
+    /**
+     * Binds an argument of the current stage to a value that may differ for each call of a repeated stage.
+     */
+    public GPUPipeline bind_step(Enum<?> arg, StepValue value)
+    {
+        current().bindings.add(new Binding(arg, value));
+        return this;
+    }
+
+    /**
+     * Sets how many times the current stage is enqueued per replay. The count is read each replay.
+     */
+    public GPUPipeline repeat(IntSupplier times)
+    {
+        current().repeat = times;
+        return this;
+    }
+
+    /**
+     * Records the enqueue time of the current stage against the given metric, when the editor is active.
+     */
+    public GPUPipeline timed(Metric metric)
+    {
+        current().metric = metric;
+        return this;
+    }
+
+    private Stage current()
+    {
+        if (stages.isEmpty())
+        {
+            throw new IllegalStateException("No stage has been added to the pipeline");
+        }
+        return stages.getLast();
+    }
+
+    /**
+     * Enqueues every stage, in the order they were added.
+     */
+    public void replay()
+    {
+        for (int i = 0; i < stages.size(); i++)
+        {
+            var stage = stages.get(i);
+            long s = Editor.ACTIVE
+                ? System.nanoTime()
+                : 0;
+
+            int steps = stage.repeat.getAsInt();
+            int last_items = 0;
+            for (int step = 0; step < steps; step++)
+            {
+                int items = stage.work_items.value(step, steps);
+                if (items <= 0)
+                {
+                    continue;
+                }
+
+                if (items != last_items)
+                {
+                    global_work_size.put(0, GPU.compute.calculate_preferred_global_size(items));
+                    last_items = items;
+                }
+
+                for (int b = 0; b < stage.bindings.size(); b++)
+                {
+                    var binding = stage.bindings.get(b);
+                    stage.kernel.update_arg(binding.arg, binding.value.value(step, steps));
+                }
+                stage.kernel.enqueue(global_work_size, local_work_size);
+            }
+
+            if (Editor.ACTIVE && stage.metric != null && last_items > 0)
+            {
+                long e = System.nanoTime() - s;
+                Metrics.record(stage.metric, e);
+            }
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        MemoryUtil.memFree(global_work_size);
+        MemoryUtil.memFree(local_work_size);
+    }
+}
@@ -8,7 +8,10 @@ public enum KernelType
     animate_points,
     apply_reactions,
     build_key_map,
+    build_static_key_map,
     calculate_batch_offsets,
+    ccd_collide,
+    ccd_react,
     compact_entity_bones,
     compact_entities,
     compact_hull_bones,
@@ -26,6 +29,7 @@ public enum KernelType
     count_egress_entities,
     count_mesh_batches,
     count_mesh_instances,
+    count_static_keys,
     create_animation_timings,
     create_entity,
     create_entity_bone,
@@ -56,6 +60,8 @@ public enum KernelType
     calculate_hull_aabb,
     integrate_entities,
     locate_in_bounds,
+    fill_in_bounds,
+    record_bound,
     merge_point,
     merge_edge,
     merge_hull,
@@ -74,7 +80,15 @@ public enum KernelType
     read_position,
     read_entity_info,
     write_entity_info,
+    reorder_counts,
+    reorder_entities,
     resolve_constraints,
+    resolve_edge_constraints,
+    resolve_overflow_constraints,
+    measure_constraint_error,
+    color_edges,
+    count_edge_colors,
+    bucket_edge_colors,
     hull_count,
     hull_filter,
     root_hull_count,
@@ -95,6 +109,9 @@ public enum KernelType
     scan_int_multi_block_out,
     scan_int_single_block,
     scan_int_single_block_out,
+    scan_look_back,
+    scatter_ints,
+    scatter_shorts,
     set_bone_channel_table,
     sort_reactions,
     transfer_detail_data,
@@ -102,6 +119,7 @@ public enum KernelType
     update_accel,
     update_mouse_position,
     update_block_position,
+    wake_sleepers,
     write_mesh_details,
     update_select_block,
     clear_select_block,
@@ -0,0 +1,46 @@
+package com.controllerface.bvge.gpu.cl.kernels.compact;
+
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.groups.CoreBufferGroup;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class ReorderCounts_k extends GPUKernel
+{
+    public enum Args
+    {
+        order,
+        entity_hull_tables,
+        entity_bone_tables,
+        hull_point_tables,
+        hull_edge_tables,
+        hull_bone_tables,
+        object_counts,
+        entity_bone_counts,
+        max_entity,
+    }
+
+    public ReorderCounts_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.reorder_counts));
+    }
+
+    public GPUKernel init(CoreBufferGroup sector_buffers,
+                          ResizableBuffer b_order,
+                          ResizableBuffer b_object_offsets,
+                          ResizableBuffer b_entity_bone_offsets)
+    {
+        return this.buf_arg(Args.order, b_order)
+            .buf_arg(Args.entity_hull_tables, sector_buffers.buffer(ENTITY_HULL_TABLE))
+            .buf_arg(Args.entity_bone_tables, sector_buffers.buffer(ENTITY_BONE_TABLE))
+            .buf_arg(Args.hull_point_tables, sector_buffers.buffer(HULL_POINT_TABLE))
+            .buf_arg(Args.hull_edge_tables, sector_buffers.buffer(HULL_EDGE_TABLE))
+            .buf_arg(Args.hull_bone_tables, sector_buffers.buffer(HULL_BONE_TABLE))
+            .buf_arg(Args.object_counts, b_object_offsets)
+            .buf_arg(Args.entity_bone_counts, b_entity_bone_offsets);
+    }
+}
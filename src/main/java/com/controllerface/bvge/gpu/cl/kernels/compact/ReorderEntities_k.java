@@ -0,0 +1,80 @@
+package com.controllerface.bvge.gpu.cl.kernels.compact;
+
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.groups.CoreBufferGroup;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class ReorderEntities_k extends GPUKernel
+{
+    public enum Args
+    {
+        order,
+        object_offsets,
+        entity_bone_offsets,
+        entity_root_hulls,
+        entity_hull_tables,
+        entity_bone_tables,
+        hull_entity_ids,
+        hull_point_tables,
+        hull_edge_tables,
+        hull_bone_tables,
+        point_hull_indices,
+        point_bone_tables,
+        edges,
+        edge_pins,
+        hull_bind_pose_indices,
+        entity_bone_parent_ids,
+        entity_targets,
+        hull_targets,
+        point_targets,
+        edge_targets,
+        hull_bone_targets,
+        entity_bone_targets,
+        max_entity,
+    }
+
+    public ReorderEntities_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.reorder_entities));
+    }
+
+    public GPUKernel init(CoreBufferGroup sector_buffers,
+                          ResizableBuffer b_order,
+                          ResizableBuffer b_object_offsets,
+                          ResizableBuffer b_entity_bone_offsets,
+                          ResizableBuffer b_entity_targets,
+                          ResizableBuffer b_hull_targets,
+                          ResizableBuffer b_point_targets,
+                          ResizableBuffer b_edge_targets,
+                          ResizableBuffer b_hull_bone_targets,
+                          ResizableBuffer b_entity_bone_targets)
+    {
+        return this.buf_arg(Args.order, b_order)
+            .buf_arg(Args.object_offsets, b_object_offsets)
+            .buf_arg(Args.entity_bone_offsets, b_entity_bone_offsets)
+            .buf_arg(Args.entity_root_hulls, sector_buffers.buffer(ENTITY_ROOT_HULL))
+            .buf_arg(Args.entity_hull_tables, sector_buffers.buffer(ENTITY_HULL_TABLE))
+            .buf_arg(Args.entity_bone_tables, sector_buffers.buffer(ENTITY_BONE_TABLE))
+            .buf_arg(Args.hull_entity_ids, sector_buffers.buffer(HULL_ENTITY_ID))
+            .buf_arg(Args.hull_point_tables, sector_buffers.buffer(HULL_POINT_TABLE))
+            .buf_arg(Args.hull_edge_tables, sector_buffers.buffer(HULL_EDGE_TABLE))
+            .buf_arg(Args.hull_bone_tables, sector_buffers.buffer(HULL_BONE_TABLE))
+            .buf_arg(Args.point_hull_indices, sector_buffers.buffer(POINT_HULL_INDEX))
+            .buf_arg(Args.point_bone_tables, sector_buffers.buffer(POINT_BONE_TABLE))
+            .buf_arg(Args.edges, sector_buffers.buffer(EDGE))
+            .buf_arg(Args.edge_pins, sector_buffers.buffer(EDGE_PIN))
+            .buf_arg(Args.hull_bind_pose_indices, sector_buffers.buffer(HULL_BONE_BIND_POSE))
+            .buf_arg(Args.entity_bone_parent_ids, sector_buffers.buffer(ENTITY_BONE_PARENT_ID))
+            .buf_arg(Args.entity_targets, b_entity_targets)
+            .buf_arg(Args.hull_targets, b_hull_targets)
+            .buf_arg(Args.point_targets, b_point_targets)
+            .buf_arg(Args.edge_targets, b_edge_targets)
+            .buf_arg(Args.hull_bone_targets, b_hull_bone_targets)
+            .buf_arg(Args.entity_bone_targets, b_entity_bone_targets);
+    }
+}
@@ -0,0 +1,23 @@
+package com.controllerface.bvge.gpu.cl.kernels.compact;
+
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class ScatterInts_k extends GPUKernel
+{
+    public enum Args
+    {
+        source,
+        destination,
+        targets,
+        words,
+        max_object,
+    }
+
+    public ScatterInts_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.scatter_ints));
+    }
+}
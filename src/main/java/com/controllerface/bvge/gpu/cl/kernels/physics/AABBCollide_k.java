@@ -27,11 +27,15 @@ public class AABBCollide_k extends GPUKernel
         key_bank,
         key_counts,
         key_offsets,
+        static_key_map,
+        static_key_counts,
+        static_key_offsets,
         matches,
         used,
         counter,
         x_subdivisions,
         key_count_length,
+        max_match,
         max_index,
     }
 
@@ -45,6 +49,8 @@ public class AABBCollide_k extends GPUKernel
                           BufferGroup<PhysicsBufferType> key_buffers,
                           CL_Buffer ptr_counts_data,
                           CL_Buffer ptr_offsets_data,
+                          CL_Buffer static_counts_data,
+                          CL_Buffer static_offsets_data,
                           CL_Buffer svm_atomic_counter,
                           UniformGrid uniform_grid)
     {
@@ -60,6 +66,9 @@ public class AABBCollide_k extends GPUKernel
             .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
             .buf_arg(Args.key_counts, ptr_counts_data)
             .buf_arg(Args.key_offsets, ptr_offsets_data)
+            .buf_arg(Args.static_key_map, key_buffers.buffer(STATIC_KEY_MAP))
+            .buf_arg(Args.static_key_counts, static_counts_data)
+            .buf_arg(Args.static_key_offsets, static_offsets_data)
             .buf_arg(Args.counter, svm_atomic_counter)
             .set_arg(Args.x_subdivisions, uniform_grid.x_subdivisions)
             .set_arg(Args.key_count_length, uniform_grid.directory_length);
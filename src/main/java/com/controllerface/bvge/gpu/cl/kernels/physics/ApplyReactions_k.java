@@ -2,6 +2,7 @@ package com.controllerface.bvge.gpu.cl.kernels.physics;
 
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
@@ -24,6 +25,7 @@ public class ApplyReactions_k extends GPUKernel
         point_offsets,
         point_hull_indices,
         hull_flags,
+        total_reactions,
         max_point,
     }
 
@@ -32,7 +34,7 @@ public class ApplyReactions_k extends GPUKernel
         super(command_queue_ptr, program.get_kernel(KernelType.apply_reactions));
     }
 
-    public GPUKernel init(BufferGroup<PhysicsBufferType> reaction_buffers)
+    public GPUKernel init(BufferGroup<PhysicsBufferType> reaction_buffers, CL_Buffer reaction_counter)
     {
         return this.buf_arg(Args.reactions, reaction_buffers.buffer(REACTIONS_OUT))
             .buf_arg(Args.point_reactions, reaction_buffers.buffer(POINT_REACTION_COUNTS))
@@ -42,6 +44,7 @@ public class ApplyReactions_k extends GPUKernel
             .buf_arg(Args.point_flags, GPU.memory.get_buffer(POINT_FLAG))
             .buf_arg(Args.point_hit_counts, GPU.memory.get_buffer(POINT_HIT_COUNT))
             .buf_arg(Args.point_hull_indices, GPU.memory.get_buffer(POINT_HULL_INDEX))
-            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG));
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.total_reactions, reaction_counter);
     }
 }
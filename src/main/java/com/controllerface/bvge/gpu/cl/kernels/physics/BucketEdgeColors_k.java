@@ -0,0 +1,36 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class BucketEdgeColors_k extends GPUKernel
+{
+    public enum Args
+    {
+        edge_colors,
+        color_sizes,
+        color_cursors,
+        colored_edges,
+        max_edge,
+    }
+
+    public BucketEdgeColors_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.bucket_edge_colors));
+    }
+
+    public GPUKernel init(ResizableBuffer edge_colors,
+                          CL_Buffer color_sizes,
+                          CL_Buffer color_cursors,
+                          ResizableBuffer colored_edges)
+    {
+        return this.buf_arg(Args.edge_colors, edge_colors)
+            .buf_arg(Args.color_sizes, color_sizes)
+            .buf_arg(Args.color_cursors, color_cursors)
+            .buf_arg(Args.colored_edges, colored_edges);
+    }
+}
@@ -0,0 +1,58 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.types.PhysicsBufferType;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+import static com.controllerface.bvge.memory.types.PhysicsBufferType.CANDIDATES;
+
+public class CCDCollide_k extends GPUKernel
+{
+    public enum Args
+    {
+        candidates,
+        hulls,
+        hull_scales,
+        bounds,
+        hull_point_tables,
+        hull_edge_tables,
+        hull_flags,
+        points,
+        point_anti_time,
+        edges,
+        edge_flags,
+        candidate_count,
+        ccd_fraction,
+        max_index,
+    }
+
+    public CCDCollide_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.ccd_collide));
+    }
+
+    public GPUKernel init(BufferGroup<PhysicsBufferType> candidate_buffers,
+                          CL_Buffer candidate_counter,
+                          float ccd_fraction)
+    {
+        return this.buf_arg(Args.candidates, candidate_buffers.buffer(CANDIDATES))
+            .buf_arg(Args.hulls, GPU.memory.get_buffer(HULL))
+            .buf_arg(Args.hull_scales, GPU.memory.get_buffer(HULL_SCALE))
+            .buf_arg(Args.bounds, GPU.memory.get_buffer(HULL_AABB))
+            .buf_arg(Args.hull_point_tables, GPU.memory.get_buffer(HULL_POINT_TABLE))
+            .buf_arg(Args.hull_edge_tables, GPU.memory.get_buffer(HULL_EDGE_TABLE))
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.points, GPU.memory.get_buffer(POINT))
+            .buf_arg(Args.point_anti_time, GPU.memory.get_buffer(POINT_ANTI_TIME))
+            .buf_arg(Args.edges, GPU.memory.get_buffer(EDGE))
+            .buf_arg(Args.edge_flags, GPU.memory.get_buffer(EDGE_FLAG))
+            .buf_arg(Args.candidate_count, candidate_counter)
+            .set_arg(Args.ccd_fraction, ccd_fraction);
+    }
+}
@@ -21,7 +21,11 @@ public class CalculateHullAABB_k extends GPUKernel
         bounds_index_data,
         bounds_bank_data,
         hull_flags,
+        hull_entity_ids,
+        entity_flags,
         args,
+        static_cached,
+        swept_circles,
         max_hull,
     }
 
@@ -30,7 +34,7 @@ public class CalculateHullAABB_k extends GPUKernel
         super(command_queue_ptr, program.get_kernel(KernelType.calculate_hull_aabb));
     }
 
-    public GPUKernel init()
+    public GPUKernel init(int swept_circles)
     {
         return this.buf_arg(Args.hulls, GPU.memory.get_buffer(HULL))
             .buf_arg(Args.hull_scales, GPU.memory.get_buffer(HULL_SCALE))
@@ -40,6 +44,9 @@ public class CalculateHullAABB_k extends GPUKernel
             .buf_arg(Args.bounds, GPU.memory.get_buffer(HULL_AABB))
             .buf_arg(Args.bounds_index_data, GPU.memory.get_buffer(HULL_AABB_INDEX))
             .buf_arg(Args.bounds_bank_data, GPU.memory.get_buffer(HULL_AABB_KEY_TABLE))
-            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG));
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.hull_entity_ids, GPU.memory.get_buffer(HULL_ENTITY_ID))
+            .buf_arg(Args.entity_flags, GPU.memory.get_buffer(ENTITY_FLAG))
+            .set_arg(Args.swept_circles, swept_circles);
     }
 }
@@ -0,0 +1,39 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class ColorEdges_k extends GPUKernel
+{
+    public enum Args
+    {
+        hull_edge_tables,
+        edges,
+        edge_colors,
+        overflow_hulls,
+        overflow_count,
+        first_hull,
+        max_hull,
+    }
+
+    public ColorEdges_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.color_edges));
+    }
+
+    public GPUKernel init(ResizableBuffer edge_colors, ResizableBuffer overflow_hulls, CL_Buffer overflow_count)
+    {
+        return this.buf_arg(Args.hull_edge_tables, GPU.memory.get_buffer(HULL_EDGE_TABLE))
+            .buf_arg(Args.edges, GPU.memory.get_buffer(EDGE))
+            .buf_arg(Args.edge_colors, edge_colors)
+            .buf_arg(Args.overflow_hulls, overflow_hulls)
+            .buf_arg(Args.overflow_count, overflow_count);
+    }
+}
@@ -21,6 +21,7 @@ public class CountCandidates_k extends GPUKernel
         in_bounds,
         key_bank,
         key_counts,
+        static_key_counts,
         candidates,
         x_subdivisions,
         key_count_length,
@@ -35,6 +36,7 @@ public class CountCandidates_k extends GPUKernel
     public GPUKernel init(BufferGroup<PhysicsBufferType> candidate_buffers,
                           BufferGroup<PhysicsBufferType> key_buffers,
                           CL_Buffer counts_buf,
+                          CL_Buffer static_counts_buf,
                           UniformGrid uniform_grid)
     {
         return this.buf_arg(Args.candidates, candidate_buffers.buffer(CANDIDATE_COUNTS))
@@ -42,6 +44,7 @@ public class CountCandidates_k extends GPUKernel
             .buf_arg(Args.in_bounds, candidate_buffers.buffer(IN_BOUNDS))
             .buf_arg(Args.bounds_bank_data, GPU.memory.get_buffer(HULL_AABB_KEY_TABLE))
             .buf_arg(Args.key_counts, counts_buf)
+            .buf_arg(Args.static_key_counts, static_counts_buf)
             .set_arg(Args.x_subdivisions, uniform_grid.x_subdivisions)
             .set_arg(Args.key_count_length, uniform_grid.directory_length);
     }
@@ -0,0 +1,29 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class CountEdgeColors_k extends GPUKernel
+{
+    public enum Args
+    {
+        edge_colors,
+        color_sizes,
+        max_edge,
+    }
+
+    public CountEdgeColors_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.count_edge_colors));
+    }
+
+    public GPUKernel init(ResizableBuffer edge_colors, CL_Buffer color_sizes)
+    {
+        return this.buf_arg(Args.edge_colors, edge_colors)
+            .buf_arg(Args.color_sizes, color_sizes);
+    }
+}
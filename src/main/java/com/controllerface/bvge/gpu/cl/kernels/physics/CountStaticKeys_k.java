@@ -0,0 +1,44 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.physics.UniformGrid;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class CountStaticKeys_k extends GPUKernel
+{
+    public enum Args
+    {
+        hull_aabb_index,
+        hull_aabb_key_table,
+        hull_flags,
+        key_counts,
+        counter,
+        x_subdivisions,
+        key_count_length,
+        max_hull,
+    }
+
+    public CountStaticKeys_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.count_static_keys));
+    }
+
+    public GPUKernel init(CL_Buffer counts_buf,
+                          CL_Buffer counter,
+                          UniformGrid uniform_grid)
+    {
+        return this.buf_arg(Args.hull_aabb_index, GPU.memory.get_buffer(HULL_AABB_INDEX))
+            .buf_arg(Args.hull_aabb_key_table, GPU.memory.get_buffer(HULL_AABB_KEY_TABLE))
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.key_counts, counts_buf)
+            .buf_arg(Args.counter, counter)
+            .set_arg(Args.x_subdivisions, uniform_grid.x_subdivisions)
+            .set_arg(Args.key_count_length, uniform_grid.directory_length);
+    }
+}
@@ -0,0 +1,29 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.types.PhysicsBufferType;
+
+import static com.controllerface.bvge.memory.types.PhysicsBufferType.IN_BOUNDS;
+
+public class FillInBounds_k extends GPUKernel
+{
+    public enum Args
+    {
+        in_bounds,
+        max_bound,
+    }
+
+    public FillInBounds_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.fill_in_bounds));
+    }
+
+    public GPUKernel init(BufferGroup<PhysicsBufferType> candidate_buffers)
+    {
+        return this.buf_arg(Args.in_bounds, candidate_buffers.buffer(IN_BOUNDS));
+    }
+}
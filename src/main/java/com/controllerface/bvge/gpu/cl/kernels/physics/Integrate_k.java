@@ -21,6 +21,7 @@ public class Integrate_k extends GPUKernel
         hull_entity_ids,
         anti_gravity,
         args,
+        max_speed,
         max_hull,
     }
 
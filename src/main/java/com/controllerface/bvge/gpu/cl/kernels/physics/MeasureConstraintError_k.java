@@ -0,0 +1,41 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class MeasureConstraintError_k extends GPUKernel
+{
+    public enum Args
+    {
+        hull_flags,
+        point_hull_indices,
+        points,
+        edges,
+        edge_lengths,
+        edge_flags,
+        max_error,
+        max_edge,
+    }
+
+    public MeasureConstraintError_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.measure_constraint_error));
+    }
+
+    public GPUKernel init(CL_Buffer max_error)
+    {
+        return this.buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.point_hull_indices, GPU.memory.get_buffer(POINT_HULL_INDEX))
+            .buf_arg(Args.points, GPU.memory.get_buffer(POINT))
+            .buf_arg(Args.edges, GPU.memory.get_buffer(EDGE))
+            .buf_arg(Args.edge_lengths, GPU.memory.get_buffer(EDGE_LENGTH))
+            .buf_arg(Args.edge_flags, GPU.memory.get_buffer(EDGE_FLAG))
+            .buf_arg(Args.max_error, max_error);
+    }
+}
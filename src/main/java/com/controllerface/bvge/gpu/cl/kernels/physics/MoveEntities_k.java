@@ -1,6 +1,7 @@
 package com.controllerface.bvge.gpu.cl.kernels.physics;
 
 import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
@@ -13,6 +14,7 @@ public class MoveEntities_k extends GPUKernel
     public enum Args
     {
         hulls,
+        bounds,
         entities,
         entity_flags,
         entity_motion_states,
@@ -23,6 +25,12 @@ public class MoveEntities_k extends GPUKernel
         point_flags,
         point_hit_counts,
         points,
+        wake_bounds,
+        wake_count,
+        sleep_changes,
+        sleep_ticks,
+        sleep_speed,
+        max_wake,
         dt,
         max_entity,
     }
@@ -32,9 +40,16 @@ public class MoveEntities_k extends GPUKernel
         super(command_queue_ptr, program.get_kernel(KernelType.move_entities));
     }
 
-    public GPUKernel init(float time_step)
+    public GPUKernel init(float time_step,
+                          CL_Buffer wake_bounds,
+                          CL_Buffer wake_count,
+                          CL_Buffer sleep_changes,
+                          int sleep_ticks,
+                          float sleep_speed,
+                          int max_wake)
     {
         return this.buf_arg(Args.hulls, GPU.memory.get_buffer(HULL))
+            .buf_arg(Args.bounds, GPU.memory.get_buffer(HULL_AABB))
             .buf_arg(Args.entities, GPU.memory.get_buffer(ENTITY))
             .buf_arg(Args.entity_flags, GPU.memory.get_buffer(ENTITY_FLAG))
             .buf_arg(Args.entity_motion_states, GPU.memory.get_buffer(ENTITY_MOTION_STATE))
@@ -45,6 +60,12 @@ public class MoveEntities_k extends GPUKernel
             .buf_arg(Args.point_flags, GPU.memory.get_buffer(POINT_FLAG))
             .buf_arg(Args.point_hit_counts, GPU.memory.get_buffer(POINT_HIT_COUNT))
             .buf_arg(Args.points, GPU.memory.get_buffer(POINT))
+            .buf_arg(Args.wake_bounds, wake_bounds)
+            .buf_arg(Args.wake_count, wake_count)
+            .buf_arg(Args.sleep_changes, sleep_changes)
+            .set_arg(Args.sleep_ticks, sleep_ticks)
+            .set_arg(Args.sleep_speed, sleep_speed)
+            .set_arg(Args.max_wake, max_wake)
             .set_arg(Args.dt, time_step);
     }
 }
@@ -0,0 +1,28 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class RecordBound_k extends GPUKernel
+{
+    public enum Args
+    {
+        count,
+        bounds,
+        slot,
+        bound,
+    }
+
+    public RecordBound_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.record_bound));
+    }
+
+    public GPUKernel init(CL_Buffer bounds_buf)
+    {
+        return this.buf_arg(Args.bounds, bounds_buf);
+    }
+}
@@ -8,6 +8,7 @@ import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
 import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
 import com.controllerface.bvge.memory.types.PhysicsBufferType;
+import com.controllerface.bvge.physics.ContactCache;
 
 import static com.controllerface.bvge.memory.types.CoreBufferType.*;
 import static com.controllerface.bvge.memory.types.PhysicsBufferType.*;
@@ -37,6 +38,13 @@ public class SatCollide_k extends GPUKernel
         point_reactions,
         masses,
         counter,
+        candidate_count,
+        contact_partners,
+        contact_stamps,
+        contact_manifolds,
+        warm_contacts,
+        contact_step,
+        warm,
         dt,
         max_index,
     }
@@ -48,7 +56,9 @@ public class SatCollide_k extends GPUKernel
 
     public GPUKernel init(BufferGroup<PhysicsBufferType> candidate_buffers,
                           BufferGroup<PhysicsBufferType> reaction_buffers,
-                          CL_Buffer atomic_counter,
+                          CL_Buffer reaction_counter,
+                          CL_Buffer candidate_counter,
+                          ContactCache contact_cache,
                           float time_step)
     {
         return this.buf_arg(Args.hulls, GPU.memory.get_buffer(HULL))
@@ -71,7 +81,14 @@ public class SatCollide_k extends GPUKernel
             .buf_arg(Args.reactions, reaction_buffers.buffer(REACTIONS_IN))
             .buf_arg(Args.reaction_index, reaction_buffers.buffer(REACTION_INDEX))
             .buf_arg(Args.point_reactions, reaction_buffers.buffer(POINT_REACTION_COUNTS))
-            .buf_arg(Args.counter, atomic_counter)
+            .buf_arg(Args.counter, reaction_counter)
+            .buf_arg(Args.candidate_count, candidate_counter)
+            .buf_arg(Args.contact_partners, contact_cache.partners())
+            .buf_arg(Args.contact_stamps, contact_cache.stamps())
+            .buf_arg(Args.contact_manifolds, contact_cache.manifolds())
+            .buf_arg(Args.warm_contacts, contact_cache.warm_counter())
+            .set_arg(Args.contact_step, 0)
+            .set_arg(Args.warm, contact_cache.warm())
             .set_arg(Args.dt, time_step);
     }
 }
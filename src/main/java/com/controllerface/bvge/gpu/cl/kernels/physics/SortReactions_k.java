@@ -1,6 +1,7 @@
 package com.controllerface.bvge.gpu.cl.kernels.physics;
 
 import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
@@ -18,6 +19,7 @@ public class SortReactions_k extends GPUKernel
         reaction_index,
         point_reactions,
         point_offsets,
+        total_reactions,
         max_index,
     }
 
@@ -26,12 +28,13 @@ public class SortReactions_k extends GPUKernel
         super(command_queue_ptr, program.get_kernel(KernelType.sort_reactions));
     }
 
-    public GPUKernel init(BufferGroup<PhysicsBufferType> reaction_buffers)
+    public GPUKernel init(BufferGroup<PhysicsBufferType> reaction_buffers, CL_Buffer reaction_counter)
     {
         return this.buf_arg(Args.reactions_in, reaction_buffers.buffer(REACTIONS_IN))
             .buf_arg(Args.reactions_out, reaction_buffers.buffer(REACTIONS_OUT))
             .buf_arg(Args.reaction_index, reaction_buffers.buffer(REACTION_INDEX))
             .buf_arg(Args.point_reactions, reaction_buffers.buffer(POINT_REACTION_COUNTS))
-            .buf_arg(Args.point_offsets, reaction_buffers.buffer(POINT_REACTION_OFFSETS));
+            .buf_arg(Args.point_offsets, reaction_buffers.buffer(POINT_REACTION_OFFSETS))
+            .buf_arg(Args.total_reactions, reaction_counter);
     }
 }
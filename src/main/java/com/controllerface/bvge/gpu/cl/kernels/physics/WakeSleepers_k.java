@@ -0,0 +1,41 @@
+package com.controllerface.bvge.gpu.cl.kernels.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+public class WakeSleepers_k extends GPUKernel
+{
+    public enum Args
+    {
+        bounds,
+        hull_flags,
+        hull_entity_ids,
+        entity_flags,
+        wake_bounds,
+        wake_count,
+        max_wake,
+        max_hull,
+    }
+
+    public WakeSleepers_k(CL_CommandQueue command_queue_ptr, GPUProgram program)
+    {
+        super(command_queue_ptr, program.get_kernel(KernelType.wake_sleepers));
+    }
+
+    public GPUKernel init(CL_Buffer wake_bounds, CL_Buffer wake_count, int max_wake)
+    {
+        return this.buf_arg(Args.bounds, GPU.memory.get_buffer(HULL_AABB))
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(HULL_FLAG))
+            .buf_arg(Args.hull_entity_ids, GPU.memory.get_buffer(HULL_ENTITY_ID))
+            .buf_arg(Args.entity_flags, GPU.memory.get_buffer(ENTITY_FLAG))
+            .buf_arg(Args.wake_bounds, wake_bounds)
+            .buf_arg(Args.wake_count, wake_count)
+            .set_arg(Args.max_wake, max_wake);
+    }
+}
@@ -6,13 +6,16 @@ import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
 import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
 
-import static com.controllerface.bvge.memory.types.RenderBufferType.RENDER_HULL_MESH_ID;
+import static com.controllerface.bvge.memory.types.RenderBufferType.*;
 
 public class HullFilter_k extends GPUKernel
 {
     public enum Args
     {
         hull_mesh_ids,
+        hull_entity_ids,
+        entity_flags,
+        hull_flags,
         hulls_out,
         counter,
         mesh_id,
@@ -26,6 +29,9 @@ public class HullFilter_k extends GPUKernel
 
     public GPUKernel init()
     {
-        return this.buf_arg(Args.hull_mesh_ids, GPU.memory.get_buffer(RENDER_HULL_MESH_ID));
+        return this.buf_arg(Args.hull_mesh_ids, GPU.memory.get_buffer(RENDER_HULL_MESH_ID))
+            .buf_arg(Args.hull_entity_ids, GPU.memory.get_buffer(RENDER_HULL_ENTITY_ID))
+            .buf_arg(Args.entity_flags, GPU.memory.get_buffer(RENDER_ENTITY_FLAG))
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(RENDER_HULL_FLAG));
     }
 }
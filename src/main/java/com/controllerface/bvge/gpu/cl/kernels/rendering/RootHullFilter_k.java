@@ -6,8 +6,7 @@ import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.KernelType;
 import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
 
-import static com.controllerface.bvge.memory.types.RenderBufferType.RENDER_ENTITY_MODEL_ID;
-import static com.controllerface.bvge.memory.types.RenderBufferType.RENDER_ENTITY_ROOT_HULL;
+import static com.controllerface.bvge.memory.types.RenderBufferType.*;
 
 public class RootHullFilter_k extends GPUKernel
 {
@@ -15,6 +14,8 @@ public class RootHullFilter_k extends GPUKernel
     {
         entity_root_hulls,
         entity_model_indices,
+        entity_flags,
+        hull_flags,
         hulls_out,
         counter,
         model_id,
@@ -29,6 +30,8 @@ public class RootHullFilter_k extends GPUKernel
     public GPUKernel init()
     {
         return this.buf_arg(Args.entity_root_hulls, GPU.memory.get_buffer(RENDER_ENTITY_ROOT_HULL))
-            .buf_arg(Args.entity_model_indices, GPU.memory.get_buffer(RENDER_ENTITY_MODEL_ID));
+            .buf_arg(Args.entity_model_indices, GPU.memory.get_buffer(RENDER_ENTITY_MODEL_ID))
+            .buf_arg(Args.entity_flags, GPU.memory.get_buffer(RENDER_ENTITY_FLAG))
+            .buf_arg(Args.hull_flags, GPU.memory.get_buffer(RENDER_HULL_FLAG));
     }
 }
@@ -48,6 +48,7 @@ public abstract class GPUProgram implements GPUResource
     protected static String func_calculate_key_index       = GPU.CL.read_src("functions/calculate_key_index.cl");
     protected static String func_circle_collision          = GPU.CL.read_src("functions/circle_collision.cl");
     protected static String func_closest_point_circle      = GPU.CL.read_src("functions/closest_point_circle.cl");
+    protected static String func_contact_cache             = GPU.CL.read_src("functions/contact_cache.cl");
     protected static String func_do_bounds_intersect       = GPU.CL.read_src("functions/do_bounds_intersect.cl");
     protected static String func_edge_contact              = GPU.CL.read_src("functions/edge_contact.cl");
     protected static String func_exclusive_scan            = GPU.CL.read_src("functions/exclusive_scan.cl");
@@ -99,11 +100,12 @@ public abstract class GPUProgram implements GPUResource
     public abstract GPUProgram init();
 
     /**
-     * Compiles this program, making the kernels it provides ready for use in an Open CL context.
+     * Compiles this program, making the kernels it provides ready for use in an Open CL context. Programs with the
+     * same source are only built once, see {@link ProgramCache}.
      */
     protected void make_program()
     {
-        this.program = GPU.CL.new_program(GPU.compute.context, GPU.compute.device, this.src);
+        this.program = GPU.compute.programs.acquire(this.src);
     }
 
     /**
@@ -120,11 +122,12 @@ public abstract class GPUProgram implements GPUResource
     }
 
     /**
-     * Release the resources associated with this program and the kernels that were loaded from it.
+     * Release the resources associated with this program and the kernels that were loaded from it. The program
+     * itself may be shared with other instances built from the same source, and is only released with the last.
      */
     public void release()
     {
-        program.release();
+        GPU.compute.programs.release(program);
         for (var kernel : kernels.values())
         {
             kernel.release();
@@ -0,0 +1,249 @@
+package com.controllerface.bvge.gpu.cl.programs;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.contexts.CL_Context;
+import com.controllerface.bvge.gpu.cl.devices.CL_Device;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds Open CL programs, sharing one built program between all users of the same source set, and keeping the
+ * device binary of each build on disk so later runs can skip compiling from source.
+ * <p>
+ * Binaries are keyed by a hash of the program sources, the build options, and the identity of the device and
+ * driver, so any change to one of these results in a new build. A binary that the driver rejects, for example
+ * after a driver update that does not change the reported version, is rebuilt from source and replaced. Failures
+ * reading or writing the cache directory are logged and otherwise ignored, since the cache is only an optimization.
+ */
+public class ProgramCache implements GPUResource
+{
+    private static final Logger LOGGER = Logger.getLogger(ProgramCache.class.getName());
+
+    private static final String BINARY_SUFFIX = ".bin";
+
+    private static final class Entry
+    {
+        private final String key;
+        private final CL_Program program;
+        private int references = 0;
+
+        private Entry(String key, CL_Program program)
+        {
+            this.key = key;
+            this.program = program;
+        }
+    }
+
+    private final CL_Context context;
+    private final CL_Device device;
+    private final String device_identity;
+    private final Path directory;
+
+    private final Map<String, Entry> by_key = new HashMap<>();
+    private final Map<Long, Entry> by_program = new HashMap<>();
+
+    public ProgramCache(CL_Context context, CL_Device device, Path directory)
+    {
+        this.context = context;
+        this.device = device;
+        this.device_identity = GPU.CL.device_identity(device);
+        this.directory = directory;
+    }
+
+    public ProgramCache(CL_Context context, CL_Device device)
+    {
+        this(context, device, Path.of(System.getProperty("user.dir") + File.separator + "cache" + File.separator + "cl"));
+    }
+
+    /**
+     * Computes the cache key of a program. Each source is prefixed with its length, so that moving text from the
+     * end of one source to the start of the next changes the key.
+     */
+    public static String key(List<String> src, String options, String device_identity)
+    {
+        try
+        {
+            var digest = MessageDigest.getInstance("SHA-256");
+            update(digest, options);
+            update(digest, device_identity);
+            for (var source : src)
+            {
+                update(digest, source);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).flip());
+        digest.update(bytes);
+    }
+
+    /**
+     * Returns a built program for the given sources. Programs with identical sources are built once and shared,
+     * and each call must be balanced by a call to {@link #release(CL_Program)}.
+     */
+    public synchronized CL_Program acquire(List<String> src)
+    {
+        var key = key(src, GPU.CL.BUILD_OPTIONS, device_identity);
+        var entry = by_key.get(key);
+        if (entry == null)
+        {
+            entry = new Entry(key, build(key, src));
+            by_key.put(key, entry);
+            by_program.put(entry.program.ptr(), entry);
+        }
+        entry.references++;
+        return entry.program;
+    }
+
+    /**
+     * Releases one reference to a program returned by {@link #acquire(List)}. The program itself is released
+     * once no references remain.
+     */
+    public synchronized void release(CL_Program program)
+    {
+        var entry = by_program.get(program.ptr());
+        if (entry == null)
+        {
+            throw new RuntimeException("Program was not acquired from this cache: " + program);
+        }
+        if (--entry.references == 0)
+        {
+            by_key.remove(entry.key);
+            by_program.remove(program.ptr());
+            entry.program.release();
+        }
+    }
+
+    private CL_Program build(String key, List<String> src)
+    {
+        var file = directory.resolve(key + BINARY_SUFFIX);
+        var binary = read_binary(file);
+        if (binary != null)
+        {
+            try
+            {
+                var program = GPU.CL.new_program_from_binary(context, device, binary);
+                if (program != null)
+                {
+                    return program;
+                }
+                LOGGER.log(Level.INFO, "Cached program binary was rejected, rebuilding: " + file);
+            }
+            finally
+            {
+                MemoryUtil.memFree(binary);
+            }
+        }
+
+        var program = GPU.CL.new_program(context, device, src);
+        write_binary(file, program);
+        return program;
+    }
+
+    private ByteBuffer read_binary(Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return null;
+        }
+        ByteBuffer binary = null;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE)
+            {
+                return null;
+            }
+            binary = MemoryUtil.memAlloc((int) size);
+            while (binary.hasRemaining())
+            {
+                if (channel.read(binary) < 0)
+                {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            return binary.flip();
+        }
+        catch (IOException e)
+        {
+            LOGGER.log(Level.WARNING, "Could not read program binary: " + file, e);
+            if (binary != null) MemoryUtil.memFree(binary);
+            return null;
+        }
+    }
+
+    private void write_binary(Path file, CL_Program program)
+    {
+        var binary = GPU.CL.program_binary(program);
+        Path temp = null;
+        try
+        {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                while (binary.hasRemaining())
+                {
+                    channel.write(binary);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            LOGGER.log(Level.WARNING, "Could not write program binary: " + file, e);
+            delete_quietly(temp);
+        }
+        finally
+        {
+            MemoryUtil.memFree(binary);
+        }
+    }
+
+    private static void delete_quietly(Path file)
+    {
+        if (file == null) return;
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException _) { }
+    }
+
+    @Override
+    public synchronized void release()
+    {
+        for (var entry : by_key.values())
+        {
+            entry.program.release();
+        }
+        by_key.clear();
+        by_program.clear();
+    }
+}
@@ -10,12 +10,15 @@ public class BuildKeyMap extends GPUProgram
     public GPUProgram init()
     {
         src.add(prag_int32_base_atomics);
+        src.add(const_hull_flags);
         src.add(func_calculate_key_index);
         src.add(GPU.CL.read_src("programs/build_key_map.cl"));
 
         make_program();
 
         load_kernel(KernelType.build_key_map);
+        load_kernel(KernelType.count_static_keys);
+        load_kernel(KernelType.build_static_key_map);
 
         return this;
     }
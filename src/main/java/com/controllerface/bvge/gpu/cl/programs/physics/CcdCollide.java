@@ -0,0 +1,24 @@
+package com.controllerface.bvge.gpu.cl.programs.physics;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class CcdCollide extends GPUProgram
+{
+    @Override
+    public GPUProgram init()
+    {
+        src.add(const_hull_flags);
+        src.add(const_edge_flags);
+        src.add(func_vector_lerp);
+        src.add(GPU.CL.read_src("programs/ccd_collide.cl"));
+
+        make_program();
+
+        load_kernel(KernelType.ccd_collide);
+        load_kernel(KernelType.ccd_react);
+
+        return this;
+    }
+}
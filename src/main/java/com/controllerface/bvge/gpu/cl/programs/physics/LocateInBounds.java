@@ -20,6 +20,8 @@ public class LocateInBounds extends GPUProgram
         load_kernel(KernelType.locate_in_bounds);
         load_kernel(KernelType.count_candidates);
         load_kernel(KernelType.finalize_candidates);
+        load_kernel(KernelType.fill_in_bounds);
+        load_kernel(KernelType.record_bound);
 
         return this;
     }
@@ -16,6 +16,12 @@ public class ResolveConstraints extends GPUProgram
         make_program();
 
         load_kernel(KernelType.resolve_constraints);
+        load_kernel(KernelType.resolve_edge_constraints);
+        load_kernel(KernelType.resolve_overflow_constraints);
+        load_kernel(KernelType.measure_constraint_error);
+        load_kernel(KernelType.color_edges);
+        load_kernel(KernelType.count_edge_colors);
+        load_kernel(KernelType.bucket_edge_colors);
 
         return this;
     }
@@ -16,12 +16,14 @@ public class SatCollide extends GPUProgram
         src.add(const_edge_flags);
         src.add(func_angle_between);
         src.add(func_calculate_centroid);
+        src.add(func_do_bounds_intersect);
         src.add(func_closest_point_circle);
         src.add(func_point_polygon_containment);
         src.add(func_project_circle);
         src.add(func_project_polygon);
         src.add(func_polygon_distance);
         src.add(func_edge_contact);
+        src.add(func_contact_cache);
         src.add(func_circle_collision);
         src.add(func_polygon_collision);
         src.add(func_polygon_circle_collision);
@@ -36,6 +38,7 @@ public class SatCollide extends GPUProgram
         load_kernel(KernelType.apply_reactions);
         load_kernel(KernelType.move_entities);
         load_kernel(KernelType.move_hulls);
+        load_kernel(KernelType.wake_sleepers);
 
         return this;
     }
@@ -9,6 +9,8 @@ public class RootHullFilter extends GPUProgram
     @Override
     public GPUProgram init()
     {
+        src.add(const_entity_flags);
+        src.add(const_hull_flags);
         src.add(GPU.CL.read_src("programs/root_hull_filter.cl"));
 
         make_program();
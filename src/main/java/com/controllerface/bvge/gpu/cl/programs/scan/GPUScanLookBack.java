@@ -0,0 +1,149 @@
+package com.controllerface.bvge.gpu.cl.programs.scan;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.CL_Type;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.scan.ScanLookBack_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
+
+/**
+ * Exclusive scan of an int, int2, or int4 buffer in a single kernel call, using decoupled look-back between
+ * work groups instead of separate passes over the block totals. The multi-pass scans use this implementation in
+ * place of their own when {@link Mode#LOOK_BACK} is selected before they are created.
+ * <p>
+ * The tile state buffers are kept between calls and only grow, so a scan makes no allocations once it has seen
+ * its largest input, where the multi-pass scans allocate a buffer for the block totals on every multi-block call.
+ */
+public class GPUScanLookBack implements GPUResource
+{
+    public enum Mode
+    {
+        /**
+         * Scans each block, then scans the block totals, then adds the totals back into each block.
+         */
+        MULTI_PASS,
+
+        /**
+         * Scans in a single pass, see {@link GPUScanLookBack}.
+         */
+        LOOK_BACK,
+    }
+
+    public enum Element
+    {
+        INT  (cl_int,  "upsweep",      "downsweep"),
+        INT2 (cl_int2, "upsweep_vec2", "downsweep_vec2"),
+        INT4 (cl_int4, "upsweep_vec4", "downsweep_vec4"),
+
+        ;
+
+        final CL_Type type;
+        final String upsweep;
+        final String downsweep;
+
+        Element(CL_Type type, String upsweep, String downsweep)
+        {
+            this.type = type;
+            this.upsweep = upsweep;
+            this.downsweep = downsweep;
+        }
+    }
+
+    private static Mode mode = Mode.MULTI_PASS;
+
+    private final Element element;
+    private final GPUProgram p_scan_look_back;
+    private final GPUKernel k_scan_look_back;
+    private final CL_CommandQueue cmd_queue;
+
+    private CL_Buffer tile_status;
+    private CL_Buffer tile_aggregates;
+    private CL_Buffer tile_prefixes;
+    private int tile_capacity = 0;
+
+    public GPUScanLookBack(CL_CommandQueue cmd_queue, Element element)
+    {
+        this.cmd_queue = cmd_queue;
+        this.element = element;
+        this.p_scan_look_back = new ScanLookBack(element).init();
+        this.k_scan_look_back = new ScanLookBack_k(cmd_queue, p_scan_look_back);
+    }
+
+    public static void select_mode(Mode selected)
+    {
+        mode = selected;
+    }
+
+    public static Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * Creates a look-back scan for the given element type if {@link Mode#LOOK_BACK} is selected, or returns null.
+     */
+    static GPUScanLookBack if_selected(CL_CommandQueue cmd_queue, Element element)
+    {
+        return mode == Mode.LOOK_BACK
+            ? new GPUScanLookBack(cmd_queue, element)
+            : null;
+    }
+
+    private void ensure_tiles(int tiles)
+    {
+        if (tiles <= tile_capacity) return;
+
+        release_tiles();
+        tile_capacity = Math.max(tiles, tile_capacity * 2);
+        // the first status entry is the counter that numbers the tiles
+        tile_status     = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * (tile_capacity + 1));
+        tile_aggregates = GPU.CL.new_buffer(GPU.compute.context, (long) element.type.size() * tile_capacity);
+        tile_prefixes   = GPU.CL.new_buffer(GPU.compute.context, (long) element.type.size() * tile_capacity);
+    }
+
+    /**
+     * Scans n elements of the input buffer into the output buffer, which may be the same buffer.
+     */
+    public void scan(long input_ptr, long output_ptr, int n)
+    {
+        if (n <= 0) return;
+
+        int tiles = GPU.compute.work_group_count(n);
+        ensure_tiles(tiles);
+
+        GPU.CL.zero_buffer(cmd_queue, tile_status, (long) cl_int.size() * (tiles + 1));
+
+        long local_buffer_size = element.type.size() * GPU.compute.max_scan_block_size;
+        long[] global_work_size = arg_long(tiles * GPU.compute.local_work_default[0]);
+
+        k_scan_look_back
+            .ptr_arg(ScanLookBack_k.Args.input, input_ptr)
+            .ptr_arg(ScanLookBack_k.Args.output, output_ptr)
+            .loc_arg(ScanLookBack_k.Args.buffer, local_buffer_size)
+            .buf_arg(ScanLookBack_k.Args.tile_status, tile_status)
+            .buf_arg(ScanLookBack_k.Args.tile_aggregates, tile_aggregates)
+            .buf_arg(ScanLookBack_k.Args.tile_prefixes, tile_prefixes)
+            .set_arg(ScanLookBack_k.Args.n, n)
+            .call(global_work_size, GPU.compute.local_work_default);
+    }
+
+    private void release_tiles()
+    {
+        if (tile_status != null) tile_status.release();
+        if (tile_aggregates != null) tile_aggregates.release();
+        if (tile_prefixes != null) tile_prefixes.release();
+    }
+
+    @Override
+    public void release()
+    {
+        p_scan_look_back.release();
+        release_tiles();
+    }
+}
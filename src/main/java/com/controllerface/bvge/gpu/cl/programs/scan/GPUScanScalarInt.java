@@ -1,6 +1,8 @@
 package com.controllerface.bvge.gpu.cl.programs.scan;
 
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
 import com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes;
@@ -20,6 +22,7 @@ public class GPUScanScalarInt implements GPUResource
     private final GPUKernel k_scan_int_single_block;
     private final GPUKernel k_scan_int_multi_block;
     private final GPUKernel k_complete_int_multi_block;
+    private final GPUScanLookBack look_back;
 
     public GPUScanScalarInt(CL_CommandQueue cmd_queue)
     {
@@ -28,6 +31,7 @@ public class GPUScanScalarInt implements GPUResource
         k_scan_int_single_block          = new ScanIntSingleBlock_k(cmd_queue, p_scan_int_array);
         k_scan_int_multi_block           = new ScanIntMultiBlock_k(cmd_queue, p_scan_int_array);
         k_complete_int_multi_block       = new CompleteIntMultiBlock_k(cmd_queue, p_scan_int_array);
+        look_back                        = GPUScanLookBack.if_selected(cmd_queue, GPUScanLookBack.Element.INT);
     }
 
     public void scan_int(long data_ptr, int n)
@@ -39,6 +43,10 @@ public class GPUScanScalarInt implements GPUResource
         {
             scan_single_block_int(data_ptr, n);
         }
+        else if (look_back != null)
+        {
+            look_back.scan(data_ptr, data_ptr, n);
+        }
         else
         {
             scan_multi_block_int(data_ptr, n, k);
@@ -47,7 +55,7 @@ public class GPUScanScalarInt implements GPUResource
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("render_model_scan_int", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_SCAN_INT, e);
         }
     }
 
@@ -94,5 +102,6 @@ public class GPUScanScalarInt implements GPUResource
     public void release()
     {
         p_scan_int_array.release();
+        if (look_back != null) look_back.release();
     }
 }
@@ -1,6 +1,8 @@
 package com.controllerface.bvge.gpu.cl.programs.scan;
 
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
 import com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes;
@@ -22,6 +24,7 @@ public class GPUScanScalarIntOut implements GPUResource
     private final GPUKernel k_complete_int_multi_block_out;
 
     private final GPUScanScalarInt gpu_int_scan;
+    private final GPUScanLookBack look_back;
 
     private final boolean own_int_scan;
 
@@ -34,6 +37,7 @@ public class GPUScanScalarIntOut implements GPUResource
         k_scan_int_single_block_out = new ScanIntSingleBlockOut_k(ptr_queue, p_scan_int_array_out);
         k_scan_int_multi_block_out = new ScanIntMultiBlockOut_k(ptr_queue, p_scan_int_array_out);
         k_complete_int_multi_block_out = new CompleteIntMultiBlockOut_k(ptr_queue, p_scan_int_array_out);
+        look_back = GPUScanLookBack.if_selected(ptr_queue, GPUScanLookBack.Element.INT);
     }
 
     public GPUScanScalarIntOut(CL_CommandQueue cmd_queue, GPUScanScalarInt gpu_int_scan)
@@ -55,6 +59,10 @@ public class GPUScanScalarIntOut implements GPUResource
         {
             scan_single_block_int_out(data_ptr, o_data_ptr, n);
         }
+        else if (look_back != null)
+        {
+            look_back.scan(data_ptr, o_data_ptr, n);
+        }
         else
         {
             scan_multi_block_int_out(data_ptr, o_data_ptr, n, k);
@@ -63,7 +71,7 @@ public class GPUScanScalarIntOut implements GPUResource
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("render_model_scan_int_out", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_SCAN_INT_OUT, e);
         }
     }
 
@@ -112,5 +120,6 @@ public class GPUScanScalarIntOut implements GPUResource
     {
         p_scan_int_array_out.release();
         if (own_int_scan) gpu_int_scan.release();
+        if (look_back != null) look_back.release();
     }
 }
@@ -19,6 +19,7 @@ public class GPUScanVectorInt4 implements GPUResource
     private final GPUKernel k_scan_int4_single_block;
     private final GPUKernel k_scan_int4_multi_block;
     private final GPUKernel k_complete_int4_multi_block;
+    private final GPUScanLookBack look_back;
 
     public GPUScanVectorInt4(CL_CommandQueue cmd_queue)
     {
@@ -27,6 +28,7 @@ public class GPUScanVectorInt4 implements GPUResource
         k_scan_int4_single_block = new ScanInt4SingleBlock_k(cmd_queue, p_scan_int4_array);
         k_scan_int4_multi_block = new ScanInt4MultiBlock_k(cmd_queue, p_scan_int4_array);
         k_complete_int4_multi_block = new CompleteInt4MultiBlock_k(cmd_queue, p_scan_int4_array);
+        look_back = GPUScanLookBack.if_selected(cmd_queue, GPUScanLookBack.Element.INT4);
     }
 
     public void scan_int4(long data_ptr, int n)
@@ -36,6 +38,10 @@ public class GPUScanVectorInt4 implements GPUResource
         {
             scan_single_block_int4(data_ptr, n);
         }
+        else if (look_back != null)
+        {
+            look_back.scan(data_ptr, data_ptr, n);
+        }
         else
         {
             scan_multi_block_int4(data_ptr, n, k);
@@ -85,5 +91,6 @@ public class GPUScanVectorInt4 implements GPUResource
     public void release()
     {
         p_scan_int4_array.release();
+        if (look_back != null) look_back.release();
     }
 }
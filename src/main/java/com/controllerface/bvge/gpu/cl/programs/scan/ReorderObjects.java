@@ -0,0 +1,23 @@
+package com.controllerface.bvge.gpu.cl.programs.scan;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+public class ReorderObjects extends GPUProgram
+{
+    @Override
+    public GPUProgram init()
+    {
+        src.add(GPU.CL.read_src("programs/reorder_objects.cl"));
+
+        make_program();
+
+        load_kernel(KernelType.reorder_counts);
+        load_kernel(KernelType.reorder_entities);
+        load_kernel(KernelType.scatter_ints);
+        load_kernel(KernelType.scatter_shorts);
+
+        return this;
+    }
+}
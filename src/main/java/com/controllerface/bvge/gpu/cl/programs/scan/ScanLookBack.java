@@ -0,0 +1,35 @@
+package com.controllerface.bvge.gpu.cl.programs.scan;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.kernels.KernelType;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+/**
+ * Single pass scan program, built once for each element type from the same source. The element type and the
+ * matching sweep functions are defined ahead of the shared source.
+ */
+public class ScanLookBack extends GPUProgram
+{
+    private final GPUScanLookBack.Element element;
+
+    public ScanLookBack(GPUScanLookBack.Element element)
+    {
+        this.element = element;
+    }
+
+    @Override
+    public GPUProgram init()
+    {
+        src.add(func_exclusive_scan);
+        src.add("#define scan_t " + element.type.name() + "\n"
+            + "#define scan_upsweep " + element.upsweep + "\n"
+            + "#define scan_downsweep " + element.downsweep + "\n");
+        src.add(GPU.CL.read_src("programs/scan_look_back.cl"));
+
+        make_program();
+
+        load_kernel(KernelType.scan_look_back);
+
+        return this;
+    }
+}
@@ -5,6 +5,9 @@ import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.components.ComponentType;
 import com.controllerface.bvge.ecs.components.EntityIndex;
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Counter;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.events.Event;
 import com.controllerface.bvge.events.EventBus;
 import com.controllerface.bvge.game.Constants;
@@ -52,6 +55,27 @@ public class GPUCoreMemory implements GPUResource
     private static final long POINT_INIT    = 50_000L;
     private static final long DELETE_INIT   = 10_000L;
 
+    private static final ComponentType[] PINNED_COMPONENTS =
+        { ComponentType.EntityId, ComponentType.MouseCursorId, ComponentType.BlockCursorId };
+
+    /**
+     * Upper limits on device memory held by the core sector buffers and their render mirror. Buffers may still
+     * grow to whatever is required up to these limits, but growth beyond what is required is trimmed to fit.
+     */
+    private static final long SECTOR_MEMORY_BUDGET = 1536L * 1024L * 1024L;
+    private static final long RENDER_MEMORY_BUDGET = 512L * 1024L * 1024L;
+
+    /**
+     * Decides when the core buffers are reordered spatially, see {@link SectorReorderer}. Disabled by default.
+     */
+    private static ReorderSchedule reorder_schedule = ReorderSchedule.disabled();
+
+    /**
+     * Decides when deleted entities are compacted out of the core buffers, see {@link CompactionPolicy}. By default,
+     * compaction runs in every frame that deletes entities.
+     */
+    private static CompactionPolicy compaction_policy = CompactionPolicy.eager();
+
     private final GPUProgram p_gpu_crud = new GPUCrud();
 
     /**
@@ -65,6 +89,31 @@ public class GPUCoreMemory implements GPUResource
     private int last_edge_index   = 0;
     private int last_entity_index = 0;
 
+    /**
+     * Set when a change is made to core buffers that are only modified by adding, removing, or re-ordering objects.
+     * Cleared after the render mirror copies these buffers.
+     */
+    private volatile boolean render_static_dirty = true;
+
+    /**
+     * Set when hulls are added, removed, re-ordered, or placed, any of which invalidates the static hull keys held by
+     * the broad phase. Cleared when the physics simulation takes it.
+     */
+    private volatile boolean hull_layout_changed = true;
+
+    /**
+     * Advanced on every change that sets hull_layout_changed, so that more than one consumer can observe layout
+     * changes without clearing them for the others.
+     */
+    private volatile int hull_layout_version = 0;
+
+    /**
+     * Advanced whenever existing hulls may have moved to a different index, which happens when deleted hulls are
+     * compacted away, and when the buffers are reordered. Hulls that are added or placed keep the indices of all
+     * other hulls, so they do not advance it.
+     */
+    private volatile int hull_index_version = 0;
+
     private final int[] next_egress_counts = new int[8];
     private final int[] last_egress_counts = new int[8];
     private final OrderedSectorInput sector_ingress_buffer;
@@ -77,6 +126,7 @@ public class GPUCoreMemory implements GPUResource
     private final ReferenceBufferGroup reference_buffers;
     private final ReferenceController reference_controller;
     private final SectorCompactor sector_compactor;
+    private final SectorReorderer sector_reorderer;
 
     /**
      * This barrier is used to facilitate co-operation between the sector loading thread and the main loop.
@@ -99,9 +149,14 @@ public class GPUCoreMemory implements GPUResource
         this.sector_buffers       = new CoreBufferGroup(compute.physics_queue, BUF_NAME_SECTOR, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT);
         this.sector_controller    = new SectorController(compute.physics_queue, this.p_gpu_crud, this.sector_buffers);
         this.render_buffers       = new RenderBufferGroup(compute.physics_queue, BUF_NAME_RENDER, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT);
+        this.sector_buffers.set_budget(SECTOR_MEMORY_BUDGET);
+        this.render_buffers.set_budget(RENDER_MEMORY_BUDGET);
         this.reference_buffers    = new ReferenceBufferGroup(compute.physics_queue, BUF_NAME_REFERENCE);
         this.reference_controller = new ReferenceController(compute.physics_queue, this.p_gpu_crud, this.reference_buffers);
         this.sector_compactor     = new SectorCompactor(compute.physics_queue, sector_controller, sector_buffers, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT, DELETE_INIT);
+        this.sector_reorderer     = reorder_schedule.enabled()
+            ? new SectorReorderer(compute.physics_queue, sector_controller, sector_buffers, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT)
+            : null;
 
         var sector_egress_a = new UnorderedSectorOutput(compute.sector_queue, this, BUF_NAME_SECTOR_EGRESS_A, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT);
         var sector_egress_b = new UnorderedSectorOutput(compute.sector_queue, this, BUF_NAME_SECTOR_EGRESS_B, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT);
@@ -163,7 +218,19 @@ public class GPUCoreMemory implements GPUResource
 
     public void swap_render_buffers()
     {
-        render_buffers.copy_from(sector_buffers);
+        render_buffers.copy_from(sector_buffers,
+            sector_controller.next_point(),
+            sector_controller.next_edge(),
+            sector_controller.next_hull(),
+            sector_controller.next_entity(),
+            render_static_dirty);
+        render_static_dirty = false;
+
+        if (Editor.ACTIVE)
+        {
+            Metrics.record(Metric.SECTOR_MEMORY, sector_buffers.memory_used());
+            Metrics.record(Metric.RENDER_MEMORY, render_buffers.memory_used());
+        }
 
         last_edge_index   = sector_controller.next_edge();
         last_entity_index = sector_controller.next_entity();
@@ -205,9 +272,9 @@ public class GPUCoreMemory implements GPUResource
 
     public void load_entity_batch(PhysicsEntityBatch batch)
     {
-        for (var entity : batch.entities)
+        for (int entity_index = 0; entity_index < batch.entities.entity_count(); entity_index++)
         {
-            PhysicsObjects.load_entity(sector_ingress_buffer, entity);
+            PhysicsObjects.load_entity(sector_ingress_buffer, batch.entities, entity_index);
         }
         for (var block : batch.blocks)
         {
@@ -277,6 +344,8 @@ public class GPUCoreMemory implements GPUResource
         next_egress_counts[6]  = egress_counts[6];
         next_egress_counts[7]  = egress_counts[7];
 
+        compaction_policy.record_tombstones(egress_counts[SectorController.EGRESS_DELETED]);
+
         int checksum = next_egress_counts[0]
             + next_egress_counts[6]
             + next_egress_counts[7];
@@ -294,30 +363,42 @@ public class GPUCoreMemory implements GPUResource
         }
         if (next_egress_counts[7] > 0)
         {
-            object_egress_buffer.front().egress(sector_controller.next_entity(), next_egress_counts[6]);
+            object_egress_buffer.front().egress(sector_controller.next_entity(), next_egress_counts[7]);
         }
         compute.sector_queue.finish();
+
+        // egress kernels are complete, so the core buffers are safe to modify again. Reading the egress buffers
+        // back to the host happens while the physics thread moves on, and completes before the buffers flip.
+        if (next_egress_counts[0] > 0)
+        {
+            sector_egress_buffer.front().readback(next_egress_counts);
+        }
+        if (next_egress_counts[6] > 0)
+        {
+            broken_egress_buffer.front().readback(next_egress_counts[6]);
+        }
+        if (next_egress_counts[7] > 0)
+        {
+            object_egress_buffer.front().readback(next_egress_counts[7]);
+        }
     }
 
     public void unload_collected(CollectedObjectBuffer.Raw raw, int count)
     {
         raw.ensure_space(count);
         object_egress_buffer.back().unload(raw, count);
-        compute.sector_queue.finish();
     }
 
     public void unload_broken(BrokenObjectBuffer.Raw raw, int count)
     {
         raw.ensure_space(count);
         broken_egress_buffer.back().unload(raw, count);
-        compute.sector_queue.finish();
     }
 
     public void unload_sectors(UnorderedCoreBufferGroup.Raw raw, int[] egress_counts)
     {
         raw.ensure_space(egress_counts);
         sector_egress_buffer.back().unload(raw, egress_counts);
-        compute.sector_queue.finish();
     }
 
     public void swap_ingress_buffers()
@@ -333,6 +414,7 @@ public class GPUCoreMemory implements GPUResource
             {
                 if (solid == null) sector_controller.clear_block_cursor(block_cursor.index());
                 else sector_controller.update_block_cursor(block_cursor.index(), solid.mineral_number);
+                render_static_dirty = true;
             }
         }
 
@@ -371,14 +453,46 @@ public class GPUCoreMemory implements GPUResource
         compute.sector_queue.finish();
 
         sector_controller.expand(point_count, edge_count, hull_count, entity_count, hull_bone_count, armature_bone_count);
+        reorder_schedule.record_churn(entity_count);
+        render_static_dirty = true;
+        hull_layout_changed = true;
+        hull_layout_version++;
 
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - sd;
-            Editor.queue_event("sector_load", String.valueOf(e));
+            Metrics.record(Metric.SECTOR_LOAD, e);
         }
     }
 
+    /**
+     * Returns true if hulls have been added, removed, re-ordered, or placed since the last call.
+     */
+    public boolean take_hull_layout_changed()
+    {
+        boolean changed = hull_layout_changed;
+        hull_layout_changed = false;
+        return changed;
+    }
+
+    /**
+     * Returns a version number that changes whenever hulls are added, removed, re-ordered, or placed. Unlike
+     * {@link #take_hull_layout_changed()}, reading it does not clear anything.
+     */
+    public int hull_layout_version()
+    {
+        return hull_layout_version;
+    }
+
+    /**
+     * Returns a version number that changes whenever a hull index held from an earlier frame may no longer refer to
+     * the same hull.
+     */
+    public int hull_index_version()
+    {
+        return hull_index_version;
+    }
+
     public void update_mouse_position(int entity_index, float x, float y)
     {
         sector_controller.update_mouse_position(entity_index, x, y);
@@ -392,6 +506,8 @@ public class GPUCoreMemory implements GPUResource
     public void place_block(int src, int dest)
     {
         sector_controller.place_block(src, dest);
+        hull_layout_changed = true;
+        hull_layout_version++;
     }
 
     public float[] read_entity_position(int entity_index)
@@ -430,9 +546,87 @@ public class GPUCoreMemory implements GPUResource
         return sector_controller.count_egress_entities();
     }
 
+    public static void select_reorder_schedule(ReorderSchedule schedule)
+    {
+        reorder_schedule = schedule;
+    }
+
+    public static void select_compaction_policy(CompactionPolicy policy)
+    {
+        compaction_policy = policy;
+    }
+
     public void delete_and_compact()
     {
-        sector_compactor.delete_and_compact();
+        if (Editor.ACTIVE)
+        {
+            Metrics.record(Metric.PHYS_TOMBSTONES, compaction_policy.tombstones());
+        }
+
+        int removed = 0;
+        if (compaction_policy.next_frame(sector_controller.next_entity()))
+        {
+            long s = Editor.ACTIVE
+                ? System.nanoTime()
+                : 0;
+
+            removed = sector_compactor.delete_and_compact();
+            if (removed > 0)
+            {
+                render_static_dirty = true;
+                hull_layout_changed = true;
+                hull_layout_version++;
+                hull_index_version++;
+            }
+
+            if (Editor.ACTIVE)
+            {
+                long e = System.nanoTime() - s;
+                Metrics.record(Metric.PHYS_COMPACT, e);
+                Metrics.count(Counter.COMPACTIONS, 1);
+            }
+        }
+
+        if (sector_reorderer == null) return;
+
+        reorder_schedule.record_churn(removed);
+        if (!reorder_schedule.next_frame(sector_controller.next_entity())) return;
+
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        if (sector_reorderer.reorder(pinned_entities()))
+        {
+            render_static_dirty = true;
+            hull_layout_changed = true;
+            hull_layout_version++;
+            hull_index_version++;
+        }
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_REORDER, e);
+        }
+    }
+
+    /**
+     * The player and its cursors are created before any sector is loaded, and their entity indices are held by
+     * the ECS, so every entity up to the last of them must keep its position when the buffers are reordered.
+     */
+    private int pinned_entities()
+    {
+        int pinned = 0;
+        for (var type : PINNED_COMPONENTS)
+        {
+            EntityIndex index = type.forEntity(ecs, Constants.PLAYER_ID);
+            if (index != null)
+            {
+                pinned = Math.max(pinned, index.index() + 1);
+            }
+        }
+        return pinned;
     }
 
     @Override
@@ -446,6 +640,7 @@ public class GPUCoreMemory implements GPUResource
         object_egress_buffer.release();
         render_buffers.release();
         reference_buffers.release();
+        if (sector_reorderer != null) sector_reorderer.release();
         p_gpu_crud.release();
     }
 }
@@ -182,4 +182,101 @@ public class CoreBufferGroup extends BufferGroup<CoreBufferType>
         buffer(ENTITY_BONE_REFERENCE_ID).ensure_capacity(entity_bone_capacity);
         buffer(ENTITY_BONE_PARENT_ID).ensure_capacity(entity_bone_capacity);
     }
+
+    /**
+     * The type of object that each buffer in the group holds one entry per.
+     */
+    public enum ObjectKind
+    {
+        POINT,
+        EDGE,
+        HULL,
+        HULL_BONE,
+        ENTITY,
+        ENTITY_BONE,
+    }
+
+    public static ObjectKind object_kind(CoreBufferType type)
+    {
+        return switch (type)
+        {
+            case POINT,
+                 POINT_ANTI_GRAV,
+                 POINT_ANTI_TIME,
+                 POINT_BONE_TABLE,
+                 POINT_FLAG,
+                 POINT_HIT_COUNT,
+                 POINT_HULL_INDEX,
+                 POINT_VERTEX_REFERENCE -> ObjectKind.POINT;
+
+            case EDGE,
+                 EDGE_FLAG,
+                 EDGE_LENGTH,
+                 EDGE_PIN -> ObjectKind.EDGE;
+
+            case HULL,
+                 HULL_SCALE,
+                 HULL_AABB,
+                 HULL_AABB_INDEX,
+                 HULL_AABB_KEY_TABLE,
+                 HULL_ENTITY_ID,
+                 HULL_BONE_TABLE,
+                 HULL_POINT_TABLE,
+                 HULL_EDGE_TABLE,
+                 HULL_FLAG,
+                 HULL_FRICTION,
+                 HULL_RESTITUTION,
+                 HULL_INTEGRITY,
+                 HULL_MESH_ID,
+                 HULL_UV_OFFSET,
+                 HULL_ROTATION -> ObjectKind.HULL;
+
+            case HULL_BONE,
+                 HULL_BONE_BIND_POSE,
+                 HULL_BONE_INV_BIND_POSE -> ObjectKind.HULL_BONE;
+
+            case ENTITY,
+                 ENTITY_ACCEL,
+                 ENTITY_ANIM_BLEND,
+                 ENTITY_ANIM_TIME,
+                 ENTITY_PREV_TIME,
+                 ENTITY_ANIM_LAYER,
+                 ENTITY_PREV_LAYER,
+                 ENTITY_MOTION_STATE,
+                 ENTITY_TYPE,
+                 ENTITY_FLAG,
+                 ENTITY_BONE_TABLE,
+                 ENTITY_HULL_TABLE,
+                 ENTITY_MASS,
+                 ENTITY_MODEL_ID,
+                 ENTITY_ROOT_HULL,
+                 ENTITY_TRANSFORM_ID -> ObjectKind.ENTITY;
+
+            case ENTITY_BONE,
+                 ENTITY_BONE_REFERENCE_ID,
+                 ENTITY_BONE_PARENT_ID -> ObjectKind.ENTITY_BONE;
+        };
+    }
+
+    /**
+     * Gives back memory from buffers whose live range is now much smaller than their capacity, typically after
+     * a compaction has removed a large number of objects. The counts are the live object counts of each type.
+     */
+    public void shrink_all(int point_count,
+                           int edge_count,
+                           int hull_count,
+                           int entity_count,
+                           int hull_bone_count,
+                           int entity_bone_count)
+    {
+        buffers.forEach((type, buffer) -> buffer.shrink_to(switch (object_kind(type))
+        {
+            case POINT       -> point_count;
+            case EDGE        -> edge_count;
+            case HULL        -> hull_count;
+            case HULL_BONE   -> hull_bone_count;
+            case ENTITY      -> entity_count;
+            case ENTITY_BONE -> entity_bone_count;
+        }));
+    }
 }
@@ -42,28 +42,78 @@ public class RenderBufferGroup extends BufferGroup<RenderBufferType>
         init_buffer(RENDER_POINT_HULL_INDEX,       point_init);
     }
 
-    public void copy_from(BufferGroup<CoreBufferType> sector_group)
+    /**
+     * Copies the live range of each mirrored core buffer into its render buffer. Buffers that only change when
+     * objects are added, removed, or re-ordered are copied only when include_static is set, otherwise the render
+     * copy from a previous swap is still current and is left in place. The static set changes when objects are
+     * removed, so that is also when mirror buffers are checked for memory that can be given back.
+     */
+    public void copy_from(BufferGroup<CoreBufferType> sector_group,
+                          int point_count,
+                          int edge_count,
+                          int hull_count,
+                          int entity_count,
+                          boolean include_static)
     {
-        buffer(RENDER_ENTITY).copy_from(sector_group.buffer(ENTITY));
-        buffer(RENDER_ENTITY_FLAG).copy_from(sector_group.buffer(ENTITY_FLAG));
-        buffer(RENDER_ENTITY_MODEL_ID).copy_from(sector_group.buffer(ENTITY_MODEL_ID));
-        buffer(RENDER_ENTITY_ROOT_HULL).copy_from(sector_group.buffer(ENTITY_ROOT_HULL));
-        buffer(RENDER_EDGE).copy_from(sector_group.buffer(EDGE));
-        buffer(RENDER_EDGE_FLAG).copy_from(sector_group.buffer(EDGE_FLAG));
-        buffer(RENDER_HULL).copy_from(sector_group.buffer(HULL));
-        buffer(RENDER_HULL_AABB).copy_from(sector_group.buffer(HULL_AABB));
-        buffer(RENDER_HULL_FLAG).copy_from(sector_group.buffer(HULL_FLAG));
-        buffer(RENDER_HULL_ENTITY_ID).copy_from(sector_group.buffer(HULL_ENTITY_ID));
-        buffer(RENDER_HULL_MESH_ID).copy_from(sector_group.buffer(HULL_MESH_ID));
-        buffer(RENDER_HULL_UV_OFFSET).copy_from(sector_group.buffer(HULL_UV_OFFSET));
-        buffer(RENDER_HULL_INTEGRITY).copy_from(sector_group.buffer(HULL_INTEGRITY));
-        buffer(RENDER_HULL_POINT_TABLE).copy_from(sector_group.buffer(HULL_POINT_TABLE));
-        buffer(RENDER_HULL_ROTATION).copy_from(sector_group.buffer(HULL_ROTATION));
-        buffer(RENDER_HULL_SCALE).copy_from(sector_group.buffer(HULL_SCALE));
-        buffer(RENDER_POINT).copy_from(sector_group.buffer(POINT));
-        buffer(RENDER_POINT_HIT_COUNT).copy_from(sector_group.buffer(POINT_HIT_COUNT));
-        buffer(RENDER_POINT_ANTI_GRAV).copy_from(sector_group.buffer(POINT_ANTI_GRAV));
-        buffer(RENDER_POINT_VERTEX_REFERENCE).copy_from(sector_group.buffer(POINT_VERTEX_REFERENCE));
-        buffer(RENDER_POINT_HULL_INDEX).copy_from(sector_group.buffer(POINT_HULL_INDEX));
+        if (include_static)
+        {
+            shrink_all(point_count, edge_count, hull_count, entity_count);
+        }
+
+        buffer(RENDER_ENTITY).copy_from(sector_group.buffer(ENTITY), entity_count);
+        buffer(RENDER_ENTITY_FLAG).copy_from(sector_group.buffer(ENTITY_FLAG), entity_count);
+        buffer(RENDER_HULL).copy_from(sector_group.buffer(HULL), hull_count);
+        buffer(RENDER_HULL_AABB).copy_from(sector_group.buffer(HULL_AABB), hull_count);
+        buffer(RENDER_HULL_FLAG).copy_from(sector_group.buffer(HULL_FLAG), hull_count);
+        buffer(RENDER_HULL_INTEGRITY).copy_from(sector_group.buffer(HULL_INTEGRITY), hull_count);
+        buffer(RENDER_HULL_ROTATION).copy_from(sector_group.buffer(HULL_ROTATION), hull_count);
+        buffer(RENDER_POINT).copy_from(sector_group.buffer(POINT), point_count);
+        buffer(RENDER_POINT_HIT_COUNT).copy_from(sector_group.buffer(POINT_HIT_COUNT), point_count);
+        buffer(RENDER_POINT_ANTI_GRAV).copy_from(sector_group.buffer(POINT_ANTI_GRAV), point_count);
+
+        if (!include_static) return;
+
+        buffer(RENDER_ENTITY_MODEL_ID).copy_from(sector_group.buffer(ENTITY_MODEL_ID), entity_count);
+        buffer(RENDER_ENTITY_ROOT_HULL).copy_from(sector_group.buffer(ENTITY_ROOT_HULL), entity_count);
+        buffer(RENDER_EDGE).copy_from(sector_group.buffer(EDGE), edge_count);
+        buffer(RENDER_EDGE_FLAG).copy_from(sector_group.buffer(EDGE_FLAG), edge_count);
+        buffer(RENDER_HULL_ENTITY_ID).copy_from(sector_group.buffer(HULL_ENTITY_ID), hull_count);
+        buffer(RENDER_HULL_MESH_ID).copy_from(sector_group.buffer(HULL_MESH_ID), hull_count);
+        buffer(RENDER_HULL_UV_OFFSET).copy_from(sector_group.buffer(HULL_UV_OFFSET), hull_count);
+        buffer(RENDER_HULL_POINT_TABLE).copy_from(sector_group.buffer(HULL_POINT_TABLE), hull_count);
+        buffer(RENDER_HULL_SCALE).copy_from(sector_group.buffer(HULL_SCALE), hull_count);
+        buffer(RENDER_POINT_VERTEX_REFERENCE).copy_from(sector_group.buffer(POINT_VERTEX_REFERENCE), point_count);
+        buffer(RENDER_POINT_HULL_INDEX).copy_from(sector_group.buffer(POINT_HULL_INDEX), point_count);
+    }
+
+    private void shrink_all(int point_count, int edge_count, int hull_count, int entity_count)
+    {
+        buffers.forEach((type, buffer) -> buffer.shrink_to(switch (type)
+        {
+            case RENDER_POINT,
+                 RENDER_POINT_ANTI_GRAV,
+                 RENDER_POINT_HIT_COUNT,
+                 RENDER_POINT_VERTEX_REFERENCE,
+                 RENDER_POINT_HULL_INDEX -> point_count;
+
+            case RENDER_EDGE,
+                 RENDER_EDGE_FLAG -> edge_count;
+
+            case RENDER_HULL,
+                 RENDER_HULL_AABB,
+                 RENDER_HULL_ENTITY_ID,
+                 RENDER_HULL_FLAG,
+                 RENDER_HULL_MESH_ID,
+                 RENDER_HULL_UV_OFFSET,
+                 RENDER_HULL_INTEGRITY,
+                 RENDER_HULL_POINT_TABLE,
+                 RENDER_HULL_ROTATION,
+                 RENDER_HULL_SCALE -> hull_count;
+
+            case RENDER_ENTITY,
+                 RENDER_ENTITY_FLAG,
+                 RENDER_ENTITY_MODEL_ID,
+                 RENDER_ENTITY_ROOT_HULL -> entity_count;
+        }));
     }
 }
@@ -1,8 +1,8 @@
 package com.controllerface.bvge.memory.groups;
 
+import com.controllerface.bvge.gpu.cl.buffers.PinnedReadback;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 
-import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
 import static com.controllerface.bvge.memory.types.CoreBufferType.*;
 
 public class UnorderedCoreBufferGroup extends CoreBufferGroup
@@ -12,7 +12,11 @@ public class UnorderedCoreBufferGroup extends CoreBufferGroup
         super(cmd_queue, name, entity_init, hull_init, edge_init, point_init);
     }
 
-    public void unload_sectors(Raw raw, int[] counts)
+    /**
+     * Enqueues a non-blocking readback of all egress columns into the given arena. The columns must be decoded by
+     * a matching call to {@link #unload_sectors(PinnedReadback, Raw, int[])} with the same counts.
+     */
+    public void readback_sectors(PinnedReadback readback, int[] counts)
     {
         int entity_capacity = counts[0];
         int hull_capacity = counts[1];
@@ -21,79 +25,160 @@ public class UnorderedCoreBufferGroup extends CoreBufferGroup
         int hull_bone_capacity = counts[4];
         int entity_bone_capacity = counts[5];
 
+        if (hull_bone_capacity > 0)
+        {
+            readback.read(buffer(HULL_BONE), hull_bone_capacity);
+            readback.read(buffer(HULL_BONE_BIND_POSE), hull_bone_capacity);
+            readback.read(buffer(HULL_BONE_INV_BIND_POSE), hull_bone_capacity);
+        }
+
+        if (entity_bone_capacity > 0)
+        {
+            readback.read(buffer(ENTITY_BONE), entity_bone_capacity);
+            readback.read(buffer(ENTITY_BONE_REFERENCE_ID), entity_bone_capacity);
+            readback.read(buffer(ENTITY_BONE_PARENT_ID), entity_bone_capacity);
+        }
+
+        if (edge_capacity > 0)
+        {
+            readback.read(buffer(EDGE), edge_capacity);
+            readback.read(buffer(EDGE_LENGTH), edge_capacity);
+            readback.read(buffer(EDGE_FLAG), edge_capacity);
+            readback.read(buffer(EDGE_PIN), edge_capacity);
+        }
+
+        if (point_capacity > 0)
+        {
+            readback.read(buffer(POINT), point_capacity);
+            readback.read(buffer(POINT_VERTEX_REFERENCE), point_capacity);
+            readback.read(buffer(POINT_HULL_INDEX), point_capacity);
+            readback.read(buffer(POINT_HIT_COUNT), point_capacity);
+            readback.read(buffer(POINT_BONE_TABLE), point_capacity);
+            readback.read(buffer(POINT_FLAG), point_capacity);
+        }
+
+        if (hull_capacity > 0)
+        {
+            readback.read(buffer(HULL), hull_capacity);
+            readback.read(buffer(HULL_SCALE), hull_capacity);
+            readback.read(buffer(HULL_MESH_ID), hull_capacity);
+            readback.read(buffer(HULL_UV_OFFSET), hull_capacity);
+            readback.read(buffer(HULL_ROTATION), hull_capacity);
+            readback.read(buffer(HULL_INTEGRITY), hull_capacity);
+            readback.read(buffer(HULL_POINT_TABLE), hull_capacity);
+            readback.read(buffer(HULL_EDGE_TABLE), hull_capacity);
+            readback.read(buffer(HULL_FLAG), hull_capacity);
+            readback.read(buffer(HULL_BONE_TABLE), hull_capacity);
+            readback.read(buffer(HULL_ENTITY_ID), hull_capacity);
+            readback.read(buffer(HULL_FRICTION), hull_capacity);
+            readback.read(buffer(HULL_RESTITUTION), hull_capacity);
+        }
+
+        if (entity_capacity > 0)
+        {
+            readback.read(buffer(ENTITY), entity_capacity);
+            readback.read(buffer(ENTITY_TYPE), entity_capacity);
+            readback.read(buffer(ENTITY_FLAG), entity_capacity);
+            readback.read(buffer(ENTITY_ROOT_HULL), entity_capacity);
+            readback.read(buffer(ENTITY_MODEL_ID), entity_capacity);
+            readback.read(buffer(ENTITY_TRANSFORM_ID), entity_capacity);
+            readback.read(buffer(ENTITY_MASS), entity_capacity);
+            readback.read(buffer(ENTITY_ANIM_LAYER), entity_capacity);
+            readback.read(buffer(ENTITY_PREV_LAYER), entity_capacity);
+            readback.read(buffer(ENTITY_ANIM_TIME), entity_capacity);
+            readback.read(buffer(ENTITY_PREV_TIME), entity_capacity);
+            readback.read(buffer(ENTITY_MOTION_STATE), entity_capacity);
+            readback.read(buffer(ENTITY_HULL_TABLE), entity_capacity);
+            readback.read(buffer(ENTITY_BONE_TABLE), entity_capacity);
+        }
+
+        readback.submit();
+    }
+
+    public void unload_sectors(PinnedReadback readback, Raw raw, int[] counts)
+    {
+        int entity_capacity = counts[0];
+        int hull_capacity = counts[1];
+        int point_capacity = counts[2];
+        int edge_capacity = counts[3];
+        int hull_bone_capacity = counts[4];
+        int entity_bone_capacity = counts[5];
+
+        readback.await();
+
         if (hull_bone_capacity > 0)
         {
             int hull_bone_vec16 = hull_bone_capacity * 16;
-            buffer(HULL_BONE).transfer_out_float(raw.hull_bone, cl_float.size(), hull_bone_vec16);
-            buffer(HULL_BONE_BIND_POSE).transfer_out_int(raw.hull_bone_bind_pose_id, cl_int.size(), hull_bone_capacity);
-            buffer(HULL_BONE_INV_BIND_POSE).transfer_out_int(raw.hull_bone_inv_bind_pose_id, cl_int.size(), hull_bone_capacity);
+            readback.next_floats(raw.hull_bone, hull_bone_vec16);
+            readback.next_ints(raw.hull_bone_bind_pose_id, hull_bone_capacity);
+            readback.next_ints(raw.hull_bone_inv_bind_pose_id, hull_bone_capacity);
         }
 
         if (entity_bone_capacity > 0)
         {
             int entity_bone_vec16 = entity_bone_capacity * 16;
-            buffer(ENTITY_BONE).transfer_out_float(raw.entity_bone, cl_float.size(), entity_bone_vec16);
-            buffer(ENTITY_BONE_REFERENCE_ID).transfer_out_int(raw.entity_bone_reference_id, cl_int.size(), entity_bone_capacity);
-            buffer(ENTITY_BONE_PARENT_ID).transfer_out_int(raw.entity_bone_parent_id, cl_int.size(), entity_bone_capacity);
+            readback.next_floats(raw.entity_bone, entity_bone_vec16);
+            readback.next_ints(raw.entity_bone_reference_id, entity_bone_capacity);
+            readback.next_ints(raw.entity_bone_parent_id, entity_bone_capacity);
         }
 
         if (edge_capacity > 0)
         {
             int edge_vec2 = edge_capacity * 2;
-            buffer(EDGE).transfer_out_int(raw.edge, cl_int.size(), edge_vec2);
-            buffer(EDGE_LENGTH).transfer_out_float(raw.edge_length, cl_float.size(), edge_capacity);
-            buffer(EDGE_FLAG).transfer_out_int(raw.edge_flag, cl_int.size(), edge_capacity);
-            buffer(EDGE_PIN).transfer_out_int(raw.edge_pin, cl_int.size(), edge_capacity);
+            readback.next_ints(raw.edge, edge_vec2);
+            readback.next_floats(raw.edge_length, edge_capacity);
+            readback.next_ints(raw.edge_flag, edge_capacity);
+            readback.next_ints(raw.edge_pin, edge_capacity);
         }
 
         if (point_capacity > 0)
         {
             int point_vec4 = point_capacity * 4;
-            buffer(POINT).transfer_out_float(raw.point, cl_float.size(), point_vec4);
-            buffer(POINT_VERTEX_REFERENCE).transfer_out_int(raw.point_vertex_reference, cl_int.size(), point_capacity);
-            buffer(POINT_HULL_INDEX).transfer_out_int(raw.point_hull_index, cl_int.size(), point_capacity);
-            buffer(POINT_HIT_COUNT).transfer_out_short(raw.point_hit_count, cl_short.size(), point_capacity);
-            buffer(POINT_BONE_TABLE).transfer_out_int(raw.point_bone_table, cl_int.size(), point_vec4);
-            buffer(POINT_FLAG).transfer_out_int(raw.point_flag, cl_int.size(), point_capacity);
+            readback.next_floats(raw.point, point_vec4);
+            readback.next_ints(raw.point_vertex_reference, point_capacity);
+            readback.next_ints(raw.point_hull_index, point_capacity);
+            readback.next_shorts(raw.point_hit_count, point_capacity);
+            readback.next_ints(raw.point_bone_table, point_vec4);
+            readback.next_ints(raw.point_flag, point_capacity);
         }
 
         if (hull_capacity > 0)
         {
             int hull_vec2 = hull_capacity * 2;
             int hull_vec4 = hull_capacity * 4;
-            buffer(HULL).transfer_out_float(raw.hull, cl_float.size(), hull_vec4);
-            buffer(HULL_SCALE).transfer_out_float(raw.hull_scale, cl_float.size(), hull_vec2);
-            buffer(HULL_MESH_ID).transfer_out_int(raw.hull_mesh_id, cl_int.size(), hull_capacity);
-            buffer(HULL_UV_OFFSET).transfer_out_int(raw.hull_uv_offset, cl_int.size(), hull_capacity);
-            buffer(HULL_ROTATION).transfer_out_float(raw.hull_rotation, cl_float.size(), hull_vec2);
-            buffer(HULL_INTEGRITY).transfer_out_int(raw.hull_integrity, cl_int.size(), hull_capacity);
-            buffer(HULL_POINT_TABLE).transfer_out_int(raw.hull_point_table, cl_int.size(), hull_vec2);
-            buffer(HULL_EDGE_TABLE).transfer_out_int(raw.hull_edge_table, cl_int.size(), hull_vec2);
-            buffer(HULL_FLAG).transfer_out_int(raw.hull_flag, cl_int.size(), hull_capacity);
-            buffer(HULL_BONE_TABLE).transfer_out_int(raw.hull_bone_table, cl_int.size(), hull_vec2);
-            buffer(HULL_ENTITY_ID).transfer_out_int(raw.hull_entity_id, cl_int.size(), hull_capacity);
-            buffer(HULL_FRICTION).transfer_out_float(raw.hull_friction, cl_float.size(), hull_capacity);
-            buffer(HULL_RESTITUTION).transfer_out_float(raw.hull_restitution, cl_float.size(), hull_capacity);
+            readback.next_floats(raw.hull, hull_vec4);
+            readback.next_floats(raw.hull_scale, hull_vec2);
+            readback.next_ints(raw.hull_mesh_id, hull_capacity);
+            readback.next_ints(raw.hull_uv_offset, hull_capacity);
+            readback.next_floats(raw.hull_rotation, hull_vec2);
+            readback.next_ints(raw.hull_integrity, hull_capacity);
+            readback.next_ints(raw.hull_point_table, hull_vec2);
+            readback.next_ints(raw.hull_edge_table, hull_vec2);
+            readback.next_ints(raw.hull_flag, hull_capacity);
+            readback.next_ints(raw.hull_bone_table, hull_vec2);
+            readback.next_ints(raw.hull_entity_id, hull_capacity);
+            readback.next_floats(raw.hull_friction, hull_capacity);
+            readback.next_floats(raw.hull_restitution, hull_capacity);
         }
 
         if (entity_capacity > 0)
         {
             int entity_vec2 = entity_capacity * 2;
             int entity_vec4 = entity_capacity * 4;
-            buffer(ENTITY).transfer_out_float(raw.entity, cl_float.size(), entity_vec4);
-            buffer(ENTITY_TYPE).transfer_out_int(raw.entity_type, cl_int.size(), entity_capacity);
-            buffer(ENTITY_FLAG).transfer_out_int(raw.entity_flag, cl_int.size(), entity_capacity);
-            buffer(ENTITY_ROOT_HULL).transfer_out_int(raw.entity_root_hull, cl_int.size(), entity_capacity);
-            buffer(ENTITY_MODEL_ID).transfer_out_int(raw.entity_model_id, cl_int.size(), entity_capacity);
-            buffer(ENTITY_TRANSFORM_ID).transfer_out_int(raw.entity_model_transform, cl_int.size(), entity_capacity);
-            buffer(ENTITY_MASS).transfer_out_float(raw.entity_mass, cl_float.size(), entity_capacity);
-            buffer(ENTITY_ANIM_LAYER).transfer_out_int(raw.entity_anim_layers, cl_int.size(), entity_vec4);
-            buffer(ENTITY_PREV_LAYER).transfer_out_int(raw.entity_anim_previous, cl_int.size(), entity_vec4);
-            buffer(ENTITY_ANIM_TIME).transfer_out_float(raw.entity_anim_time, cl_float.size(), entity_vec4);
-            buffer(ENTITY_PREV_TIME).transfer_out_float(raw.entity_prev_time, cl_float.size(), entity_vec4);
-            buffer(ENTITY_MOTION_STATE).transfer_out_short(raw.entity_motion_state, cl_short.size(), entity_vec2);
-            buffer(ENTITY_HULL_TABLE).transfer_out_int(raw.entity_hull_table, cl_int.size(), entity_vec2);
-            buffer(ENTITY_BONE_TABLE).transfer_out_int(raw.entity_bone_table, cl_int.size(), entity_vec2);
+            readback.next_floats(raw.entity, entity_vec4);
+            readback.next_ints(raw.entity_type, entity_capacity);
+            readback.next_ints(raw.entity_flag, entity_capacity);
+            readback.next_ints(raw.entity_root_hull, entity_capacity);
+            readback.next_ints(raw.entity_model_id, entity_capacity);
+            readback.next_ints(raw.entity_model_transform, entity_capacity);
+            readback.next_floats(raw.entity_mass, entity_capacity);
+            readback.next_ints(raw.entity_anim_layers, entity_vec4);
+            readback.next_ints(raw.entity_anim_previous, entity_vec4);
+            readback.next_floats(raw.entity_anim_time, entity_vec4);
+            readback.next_floats(raw.entity_prev_time, entity_vec4);
+            readback.next_shorts(raw.entity_motion_state, entity_vec2);
+            readback.next_ints(raw.entity_hull_table, entity_vec2);
+            readback.next_ints(raw.entity_bone_table, entity_vec2);
         }
     }
 
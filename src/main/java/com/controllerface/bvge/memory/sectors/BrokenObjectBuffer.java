@@ -4,6 +4,7 @@ import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
 import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
 import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.PinnedReadback;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.egress.EgressBroken_k;
@@ -13,7 +14,6 @@ import com.controllerface.bvge.memory.GPUCoreMemory;
 import com.controllerface.bvge.memory.types.BrokenBufferType;
 
 import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
-import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_float;
 import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
 
 public class BrokenObjectBuffer implements GPUResource
@@ -23,12 +23,14 @@ public class BrokenObjectBuffer implements GPUResource
     private final BufferGroup<BrokenBufferType> broken_group;
     private final CL_CommandQueue cmd_queue;
     private final CL_Buffer ptr_egress_size;
+    private final PinnedReadback readback;
 
     public BrokenObjectBuffer(CL_CommandQueue cmd_queue, GPUCoreMemory core_memory, String name)
     {
         this.p_gpu_crud = new GPUCrud().init();
         this.cmd_queue = cmd_queue;
         this.ptr_egress_size = GPU.CL.new_pinned_int(GPU.compute.context);
+        this.readback = new PinnedReadback(cmd_queue, 4096L);
 
         broken_group = new BufferGroup<>(cmd_queue, BrokenBufferType.class, name, true);
         broken_group.init_buffer(BrokenBufferType.BROKEN_POSITIONS,    100L);
@@ -50,14 +52,27 @@ public class BrokenObjectBuffer implements GPUResource
             .call(arg_long(entity_size), GPU.compute.preferred_work_size);
     }
 
+    /**
+     * Starts reading back the objects written by the last egress call. Must be called after the egress kernel
+     * has been enqueued, and does not block.
+     */
+    public void readback(int count)
+    {
+        readback.read(broken_group.buffer(BrokenBufferType.BROKEN_POSITIONS), count);
+        readback.read(broken_group.buffer(BrokenBufferType.BROKEN_ENTITY_TYPES), count);
+        readback.read(broken_group.buffer(BrokenBufferType.BROKEN_MODEL_IDS), count);
+        readback.submit();
+    }
+
     public void unload(BrokenObjectBuffer.Raw raw, int count)
     {
         if (count > 0)
         {
             int count_vec2 = count * 2;
-            broken_group.buffer(BrokenBufferType.BROKEN_POSITIONS).transfer_out_float(raw.positions, cl_float.size(), count_vec2);
-            broken_group.buffer(BrokenBufferType.BROKEN_ENTITY_TYPES).transfer_out_int(raw.entity_types, cl_int.size(), count);
-            broken_group.buffer(BrokenBufferType.BROKEN_MODEL_IDS).transfer_out_int(raw.model_ids, cl_int.size(), count);
+            readback.await();
+            readback.next_floats(raw.positions, count_vec2);
+            readback.next_ints(raw.entity_types, count);
+            readback.next_ints(raw.model_ids, count);
         }
     }
 
@@ -92,6 +107,7 @@ public class BrokenObjectBuffer implements GPUResource
 
     public void release()
     {
+        readback.release();
         p_gpu_crud.release();
         broken_group.release();
         ptr_egress_size.release();
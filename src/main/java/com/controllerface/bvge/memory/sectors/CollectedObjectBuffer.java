@@ -4,6 +4,7 @@ import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
 import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
 import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.PinnedReadback;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
 import com.controllerface.bvge.gpu.cl.kernels.egress.EgressCollected_k;
@@ -22,12 +23,14 @@ public class CollectedObjectBuffer implements GPUResource
     private final BufferGroup<CollectedBufferType> collected_group;
     private final CL_CommandQueue cmd_queue;
     private final CL_Buffer ptr_egress_size;
+    private final PinnedReadback readback;
 
     public CollectedObjectBuffer(CL_CommandQueue cmd_queue, GPUCoreMemory core_memory, String name)
     {
         this.p_gpu_crud.init();
         this.cmd_queue = cmd_queue;
         this.ptr_egress_size = GPU.CL.new_pinned_int(GPU.compute.context);
+        this.readback = new PinnedReadback(cmd_queue, 4096L);
 
         collected_group = new BufferGroup<>(cmd_queue, CollectedBufferType.class, name, true);
         collected_group.init_buffer(CollectedBufferType.TYPES, 100L);
@@ -45,16 +48,28 @@ public class CollectedObjectBuffer implements GPUResource
             .call(arg_long(entity_size), GPU.compute.preferred_work_size);
     }
 
+    /**
+     * Starts reading back the objects written by the last egress call. Must be called after the egress kernel
+     * has been enqueued, and does not block.
+     */
+    public void readback(int count)
+    {
+        readback.read(collected_group.buffer(CollectedBufferType.TYPES), count);
+        readback.submit();
+    }
+
     public void unload(CollectedObjectBuffer.Raw raw, int count)
     {
         if (count > 0)
         {
-            collected_group.buffer(CollectedBufferType.TYPES).transfer_out_int(raw.types, cl_int.size(), count);
+            readback.await();
+            readback.next_ints(raw.types, count);
         }
     }
 
     public void release()
     {
+        readback.release();
         p_gpu_crud.release();
         collected_group.release();
         ptr_egress_size.release();
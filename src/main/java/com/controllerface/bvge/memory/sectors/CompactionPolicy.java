@@ -0,0 +1,90 @@
+package com.controllerface.bvge.memory.sectors;
+
+/**
+ * Decides when deleted entities are removed from the core buffers. Entities that are deleted are only flagged,
+ * and remain in the buffers as tombstones that the physics kernels treat as out of bounds, so they no longer move,
+ * collide, or render. Compaction removes them, but costs a scan over every entity and a pass over every object
+ * buffer, so it is deferred until enough tombstones have accumulated to be worth removing.
+ * <p>
+ * Compaction is requested once the number of tombstones reaches a fixed limit, or a fraction of all entities in
+ * the buffers, or once tombstones have been waiting for a number of frames, whichever comes first. Any trigger may
+ * be turned off by setting it to zero, but at least one must be set. No compaction is requested while there are
+ * no tombstones.
+ */
+public class CompactionPolicy
+{
+    private final int tombstone_limit;
+    private final float tombstone_ratio;
+    private final int max_deferred_frames;
+
+    private long tombstones = 0;
+    private int deferred_frames = 0;
+
+    /**
+     * @param tombstone_limit number of tombstones that triggers compaction, or 0 to ignore the count
+     * @param tombstone_ratio ratio of tombstones to all entities that triggers compaction, or 0 to ignore the ratio
+     * @param max_deferred_frames number of frames tombstones may wait before compaction, or 0 to wait indefinitely
+     */
+    public CompactionPolicy(int tombstone_limit, float tombstone_ratio, int max_deferred_frames)
+    {
+        if (tombstone_limit < 0 || tombstone_ratio < 0.0f || max_deferred_frames < 0)
+        {
+            throw new IllegalArgumentException("Invalid compaction policy: limit=" + tombstone_limit
+                + " ratio=" + tombstone_ratio + " frames=" + max_deferred_frames);
+        }
+        if (tombstone_limit == 0 && tombstone_ratio == 0.0f && max_deferred_frames == 0)
+        {
+            throw new IllegalArgumentException("Compaction policy must have at least one trigger");
+        }
+        this.tombstone_limit = tombstone_limit;
+        this.tombstone_ratio = tombstone_ratio;
+        this.max_deferred_frames = max_deferred_frames;
+    }
+
+    /**
+     * Compacts in every frame that has deleted entities, so tombstones never outlive the frame they are made in.
+     */
+    public static CompactionPolicy eager()
+    {
+        return new CompactionPolicy(1, 0.0f, 0);
+    }
+
+    /**
+     * Records entities that were deleted, and are now tombstones.
+     */
+    public void record_tombstones(int entities)
+    {
+        tombstones += entities;
+    }
+
+    public long tombstones()
+    {
+        return tombstones;
+    }
+
+    /**
+     * Advances by one frame and returns true if compaction should be done in this frame. The policy starts over
+     * each time compaction is requested.
+     *
+     * @param total_entities number of entities in the buffers, including tombstones
+     */
+    public boolean next_frame(int total_entities)
+    {
+        if (tombstones == 0) return false;
+
+        deferred_frames++;
+        boolean over_limit = tombstone_limit > 0 && tombstones >= tombstone_limit;
+        boolean over_ratio = tombstone_ratio > 0.0f
+            && total_entities > 0
+            && tombstones >= (long) Math.ceil(tombstone_ratio * total_entities);
+        boolean overdue = max_deferred_frames > 0 && deferred_frames >= max_deferred_frames;
+
+        if (over_limit || over_ratio || overdue)
+        {
+            tombstones = 0;
+            deferred_frames = 0;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package com.controllerface.bvge.memory.sectors;
+
+import java.util.Arrays;
+
+/**
+ * Computes a spatially coherent order for entities, by sorting them along a Morton (Z-order) curve through their
+ * positions. Entities that are close together in the world end up close together in the order, and so do the
+ * objects they own once the core buffers are rewritten in that order.
+ * <p>
+ * Positions are quantized onto a square grid that covers the extents of the sorted entities, so the curve adapts
+ * to however much of the world is currently loaded.
+ */
+public class MortonOrder
+{
+    private static final int AXIS_BITS = 15;
+    private static final int AXIS_MAX = (1 << AXIS_BITS) - 1;
+
+    /**
+     * Number of floats per entity in the entity buffer, the first two are the current x and y position.
+     */
+    private static final int ENTITY_STRIDE = 4;
+
+    private long[] keys = new long[0];
+
+    /**
+     * Interleaves the low 15 bits of x and y, with x in the even bits.
+     */
+    public static int interleave(int x, int y)
+    {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static int spread(int value)
+    {
+        value &= AXIS_MAX;
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+
+    /**
+     * Writes the new order of the first count entities into the order array, as the current index of the entity
+     * that belongs at each new index. Entities below the pinned index keep their current positions, which allows
+     * entities whose index is held outside the core buffers, like the player, to stay where they are.
+     *
+     * @param positions the entity buffer, {@link #ENTITY_STRIDE} floats per entity
+     * @param pinned number of leading entities that must not move
+     * @param count total number of entities
+     * @param order output, must hold at least count values
+     * @return true if the new order differs from the current one
+     */
+    public boolean sort(float[] positions, int pinned, int count, int[] order)
+    {
+        for (int i = 0; i < pinned; i++)
+        {
+            order[i] = i;
+        }
+
+        int sorted = count - pinned;
+        if (sorted < 2)
+        {
+            for (int i = pinned; i < count; i++) order[i] = i;
+            return false;
+        }
+
+        float min_x = Float.POSITIVE_INFINITY;
+        float min_y = Float.POSITIVE_INFINITY;
+        float max_x = Float.NEGATIVE_INFINITY;
+        float max_y = Float.NEGATIVE_INFINITY;
+        for (int i = pinned; i < count; i++)
+        {
+            float x = positions[i * ENTITY_STRIDE];
+            float y = positions[i * ENTITY_STRIDE + 1];
+            min_x = Math.min(min_x, x);
+            min_y = Math.min(min_y, y);
+            max_x = Math.max(max_x, x);
+            max_y = Math.max(max_y, y);
+        }
+
+        float extent = Math.max(max_x - min_x, max_y - min_y);
+        float scale = extent > 0.0f ? AXIS_MAX / extent : 0.0f;
+
+        if (keys.length < sorted)
+        {
+            keys = new long[sorted];
+        }
+
+        for (int i = pinned; i < count; i++)
+        {
+            int x = (int) ((positions[i * ENTITY_STRIDE] - min_x) * scale);
+            int y = (int) ((positions[i * ENTITY_STRIDE + 1] - min_y) * scale);
+            keys[i - pinned] = ((long) interleave(x, y) << 32) | i;
+        }
+
+        Arrays.sort(keys, 0, sorted);
+
+        boolean changed = false;
+        for (int i = pinned; i < count; i++)
+        {
+            int entity = (int) keys[i - pinned];
+            order[i] = entity;
+            changed |= entity != i;
+        }
+        return changed;
+    }
+}
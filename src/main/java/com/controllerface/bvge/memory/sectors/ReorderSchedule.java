@@ -0,0 +1,73 @@
+package com.controllerface.bvge.memory.sectors;
+
+/**
+ * Decides when the core buffers should be reordered spatially. Compaction keeps the buffers dense, but as sectors
+ * stream in and out, entities that are neighbours in the world end up scattered through the buffers. A reorder
+ * is requested either every fixed number of frames, or once the number of entities added and removed since the
+ * last reorder reaches a fraction of the live entity count, whichever comes first. Either trigger may be turned
+ * off by setting it to zero.
+ */
+public class ReorderSchedule
+{
+    private final int interval;
+    private final float churn_threshold;
+
+    private int frames = 0;
+    private long churn = 0;
+
+    /**
+     * @param interval number of frames between reorders, or 0 to only reorder on churn
+     * @param churn_threshold ratio of entities added or removed to live entities that triggers a reorder, or 0
+     *                        to only reorder on the interval
+     */
+    public ReorderSchedule(int interval, float churn_threshold)
+    {
+        if (interval < 0 || churn_threshold < 0.0f)
+        {
+            throw new IllegalArgumentException("Invalid reorder schedule: interval=" + interval + " churn=" + churn_threshold);
+        }
+        this.interval = interval;
+        this.churn_threshold = churn_threshold;
+    }
+
+    public static ReorderSchedule disabled()
+    {
+        return new ReorderSchedule(0, 0.0f);
+    }
+
+    public boolean enabled()
+    {
+        return interval > 0 || churn_threshold > 0.0f;
+    }
+
+    /**
+     * Records entities that were added to or removed from the core buffers.
+     */
+    public void record_churn(int entities)
+    {
+        churn += entities;
+    }
+
+    /**
+     * Advances by one frame and returns true if a reorder should be done in this frame. The schedule starts over
+     * each time a reorder is requested.
+     */
+    public boolean next_frame(int live_entities)
+    {
+        if (!enabled()) return false;
+
+        frames++;
+        boolean periodic = interval > 0 && frames >= interval;
+        boolean churned = churn_threshold > 0.0f
+            && live_entities > 0
+            && churn >= (long) Math.ceil(churn_threshold * live_entities);
+
+        if (periodic || churned)
+        {
+            frames = 0;
+            churn = 0;
+            return true;
+        }
+        return false;
+    }
+}
@@ -61,6 +61,7 @@ public class SectorCompactor implements GPUResource
 
     private final CL_Buffer delete_sizes_buf;
     private final SectorController controller;
+    private final CoreBufferGroup sector_buffers;
 
     private final GPUScanVectorInt2 gpu_int2_scan;
     private final GPUScanVectorInt4 gpu_int4_scan;
@@ -81,6 +82,7 @@ public class SectorCompactor implements GPUResource
         this.gpu_int2_scan = new GPUScanVectorInt2(cmd_queue);
         this.gpu_int4_scan = new GPUScanVectorInt4(cmd_queue);
         this.controller = controller;
+        this.sector_buffers = sector_buffers;
         delete_sizes_buf = GPU.CL.new_pinned_buffer(GPU.compute.context, DELETE_COUNTERS_SIZE);
 
         b_hull_shift        = new TransientBuffer(cmd_queue, cl_int.size(),  hull_init);
@@ -203,7 +205,10 @@ public class SectorCompactor implements GPUResource
         }
     }
 
-    public void delete_and_compact()
+    /**
+     * Removes deleted objects and compacts all buffers. Returns the number of entities that were removed.
+     */
+    public int delete_and_compact()
     {
         b_delete_1.ensure_capacity(controller.next_entity());
         b_delete_2.ensure_capacity(controller.next_entity());
@@ -212,7 +217,7 @@ public class SectorCompactor implements GPUResource
 
         if (shift_counts[4] == 0)
         {
-            return;
+            return 0;
         }
 
         b_hull_shift.ensure_capacity(controller.next_hull());
@@ -239,11 +244,18 @@ public class SectorCompactor implements GPUResource
         linearize_kernel(k_compact_armature_bones, controller.next_entity_bone());
 
         compact_buffers(shift_counts);
+        return shift_counts[4];
     }
 
     private void compact_buffers(int[] shift_counts)
     {
         controller.compact(shift_counts);
+        sector_buffers.shrink_all(controller.next_point(),
+            controller.next_edge(),
+            controller.next_hull(),
+            controller.next_entity(),
+            controller.next_hull_bone(),
+            controller.next_entity_bone());
     }
 
     public void release()
@@ -16,11 +16,16 @@ import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
 
 public class SectorController implements SectorContainer, GPUResource
 {
-    private static final int EGRESS_COUNTERS = 8;
+    private static final int EGRESS_COUNTERS = 9;
     private static final int EGRESS_COUNTERS_SIZE = cl_int.size() * EGRESS_COUNTERS;
 
     public static final int ENTITY_INFO_WIDTH = 33;
 
+    /**
+     * Index of the egress counter that holds the number of entities deleted in the current frame, for any reason.
+     */
+    public static final int EGRESS_DELETED = 8;
+
     private final CoreBufferGroup sector_buffers;
 
     private final GPUKernel k_create_point;
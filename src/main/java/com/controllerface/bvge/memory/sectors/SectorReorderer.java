@@ -0,0 +1,259 @@
+package com.controllerface.bvge.memory.sectors;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.buffers.TransientBuffer;
+import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.compact.*;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.gpu.cl.programs.scan.GPUScanScalarInt;
+import com.controllerface.bvge.gpu.cl.programs.scan.GPUScanVectorInt4;
+import com.controllerface.bvge.gpu.cl.programs.scan.ReorderObjects;
+import com.controllerface.bvge.memory.groups.CoreBufferGroup;
+import com.controllerface.bvge.memory.types.CoreBufferType;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
+
+/**
+ * Rewrites the core buffers so that entities, and all the objects they own, are stored in Morton order of entity
+ * position. Compaction only closes the gaps left by deleted objects, so after sectors have streamed in and out for
+ * a while, entities that are neighbours in the world are scattered through the buffers, and the kernels that walk
+ * neighbouring objects, like collision and constraint resolution, read memory at random.
+ * <p>
+ * The order is computed on the host from the entity positions, then applied on the device in three steps that
+ * mirror compaction. The objects owned by each entity are counted in the new order, and scanned to find the new
+ * start of each entity's objects. Each entity then updates the indices its objects hold and records where each
+ * object is going. Finally, each core buffer is copied aside and scattered back into place.
+ * <p>
+ * This is a full rewrite of the core buffers, so it is intended to run occasionally, as decided by a
+ * {@link ReorderSchedule}, right after compaction, while no other work is using the core buffers.
+ */
+public class SectorReorderer implements GPUResource
+{
+    private static final int ENTITY_FLOATS = cl_float4.size() / cl_float.size();
+
+    private final GPUProgram p_reorder_objects;
+
+    private final GPUKernel k_reorder_counts;
+    private final GPUKernel k_reorder_entities;
+    private final GPUKernel k_scatter_ints;
+    private final GPUKernel k_scatter_shorts;
+
+    private final ResizableBuffer b_order;
+    private final ResizableBuffer b_object_offsets;
+    private final ResizableBuffer b_entity_bone_offsets;
+    private final ResizableBuffer b_entity_targets;
+    private final ResizableBuffer b_hull_targets;
+    private final ResizableBuffer b_point_targets;
+    private final ResizableBuffer b_edge_targets;
+    private final ResizableBuffer b_hull_bone_targets;
+    private final ResizableBuffer b_entity_bone_targets;
+    private final ResizableBuffer b_scratch;
+
+    private final GPUScanVectorInt4 gpu_int4_scan;
+    private final GPUScanScalarInt gpu_int_scan;
+
+    private final CL_CommandQueue cmd_queue;
+    private final SectorController controller;
+    private final CoreBufferGroup sector_buffers;
+    private final MortonOrder morton_order = new MortonOrder();
+
+    private float[] positions = new float[0];
+    private int[] order = new int[0];
+    private ByteBuffer order_upload = MemoryUtil.memAlloc(cl_int.size());
+
+    public SectorReorderer(CL_CommandQueue cmd_queue,
+                           SectorController controller,
+                           CoreBufferGroup sector_buffers,
+                           long entity_init,
+                           long hull_init,
+                           long edge_init,
+                           long point_init)
+    {
+        this.p_reorder_objects = new ReorderObjects().init();
+        this.cmd_queue = cmd_queue;
+        this.controller = controller;
+        this.sector_buffers = sector_buffers;
+        this.gpu_int4_scan = new GPUScanVectorInt4(cmd_queue);
+        this.gpu_int_scan = new GPUScanScalarInt(cmd_queue);
+
+        b_order               = new TransientBuffer(cmd_queue, cl_int.size(),  entity_init);
+        b_object_offsets      = new TransientBuffer(cmd_queue, cl_int4.size(), entity_init);
+        b_entity_bone_offsets = new TransientBuffer(cmd_queue, cl_int.size(),  entity_init);
+        b_entity_targets      = new TransientBuffer(cmd_queue, cl_int.size(),  entity_init);
+        b_hull_targets        = new TransientBuffer(cmd_queue, cl_int.size(),  hull_init);
+        b_point_targets       = new TransientBuffer(cmd_queue, cl_int.size(),  point_init);
+        b_edge_targets        = new TransientBuffer(cmd_queue, cl_int.size(),  edge_init);
+        b_hull_bone_targets   = new TransientBuffer(cmd_queue, cl_int.size(),  hull_init);
+        b_entity_bone_targets = new TransientBuffer(cmd_queue, cl_int.size(),  entity_init);
+        b_scratch             = new TransientBuffer(cmd_queue, cl_int.size(),  point_init);
+
+        k_reorder_counts = new ReorderCounts_k(cmd_queue, p_reorder_objects)
+            .init(sector_buffers, b_order, b_object_offsets, b_entity_bone_offsets);
+
+        k_reorder_entities = new ReorderEntities_k(cmd_queue, p_reorder_objects)
+            .init(sector_buffers,
+                b_order,
+                b_object_offsets,
+                b_entity_bone_offsets,
+                b_entity_targets,
+                b_hull_targets,
+                b_point_targets,
+                b_edge_targets,
+                b_hull_bone_targets,
+                b_entity_bone_targets);
+
+        k_scatter_ints = new ScatterInts_k(cmd_queue, p_reorder_objects);
+        k_scatter_shorts = new ScatterShorts_k(cmd_queue, p_reorder_objects);
+    }
+
+    /**
+     * Reorders the core buffers. Entities below the pinned index keep their positions, so indices held outside the
+     * core buffers, like the player entity, remain valid.
+     *
+     * @param pinned number of leading entities that must not move
+     * @return true if the buffers were rewritten, false if they were already in order
+     */
+    public boolean reorder(int pinned)
+    {
+        int entity_count = controller.next_entity();
+        if (entity_count - pinned < 2)
+        {
+            return false;
+        }
+
+        if (order.length < entity_count)
+        {
+            positions = new float[entity_count * ENTITY_FLOATS];
+            order = new int[entity_count];
+        }
+
+        sector_buffers.buffer(CoreBufferType.ENTITY).transfer_out_float(positions, cl_float.size(), entity_count * ENTITY_FLOATS);
+        if (!morton_order.sort(positions, pinned, entity_count, order))
+        {
+            return false;
+        }
+
+        upload_order(entity_count);
+
+        b_object_offsets.ensure_capacity(entity_count);
+        b_entity_bone_offsets.ensure_capacity(entity_count);
+        b_entity_targets.ensure_capacity(entity_count);
+        b_hull_targets.ensure_capacity(controller.next_hull());
+        b_point_targets.ensure_capacity(controller.next_point());
+        b_edge_targets.ensure_capacity(controller.next_edge());
+        b_hull_bone_targets.ensure_capacity(controller.next_hull_bone());
+        b_entity_bone_targets.ensure_capacity(controller.next_entity_bone());
+
+        long[] entity_size = arg_long(GPU.compute.calculate_preferred_global_size(entity_count));
+
+        k_reorder_counts
+            .set_arg(ReorderCounts_k.Args.max_entity, entity_count)
+            .call(entity_size, GPU.compute.preferred_work_size);
+
+        gpu_int4_scan.scan_int4(b_object_offsets.pointer(), entity_count);
+        gpu_int_scan.scan_int(b_entity_bone_offsets.pointer(), entity_count);
+
+        k_reorder_entities
+            .set_arg(ReorderEntities_k.Args.max_entity, entity_count)
+            .call(entity_size, GPU.compute.preferred_work_size);
+
+        sector_buffers.for_each(this::scatter);
+
+        // the order upload is not blocking, and the host copy must stay untouched until it has been read
+        cmd_queue.finish();
+        return true;
+    }
+
+    private void upload_order(int entity_count)
+    {
+        int byte_count = entity_count * cl_int.size();
+        if (order_upload.capacity() < byte_count)
+        {
+            order_upload = MemoryUtil.memRealloc(order_upload, byte_count);
+        }
+        order_upload.clear();
+        order_upload.asIntBuffer().put(order, 0, entity_count);
+        order_upload.limit(byte_count);
+
+        b_order.ensure_capacity(entity_count);
+        b_order.transfer_in(order_upload);
+    }
+
+    private void scatter(CoreBufferType type, ResizableBuffer buffer)
+    {
+        var targets = switch (CoreBufferGroup.object_kind(type))
+        {
+            case POINT       -> b_point_targets;
+            case EDGE        -> b_edge_targets;
+            case HULL        -> b_hull_targets;
+            case HULL_BONE   -> b_hull_bone_targets;
+            case ENTITY      -> b_entity_targets;
+            case ENTITY_BONE -> b_entity_bone_targets;
+        };
+
+        int count = switch (CoreBufferGroup.object_kind(type))
+        {
+            case POINT       -> controller.next_point();
+            case EDGE        -> controller.next_edge();
+            case HULL        -> controller.next_hull();
+            case HULL_BONE   -> controller.next_hull_bone();
+            case ENTITY      -> controller.next_entity();
+            case ENTITY_BONE -> controller.next_entity_bone();
+        };
+
+        if (count == 0) return;
+
+        long[] global_size = arg_long(GPU.compute.calculate_preferred_global_size(count));
+        int item_size = type.data_type().size();
+
+        buffer.copy_to(b_scratch, count);
+
+        if (item_size % cl_int.size() == 0)
+        {
+            k_scatter_ints
+                .ptr_arg(ScatterInts_k.Args.source, b_scratch.pointer())
+                .ptr_arg(ScatterInts_k.Args.destination, buffer.pointer())
+                .ptr_arg(ScatterInts_k.Args.targets, targets.pointer())
+                .set_arg(ScatterInts_k.Args.words, item_size / cl_int.size())
+                .set_arg(ScatterInts_k.Args.max_object, count)
+                .call(global_size, GPU.compute.preferred_work_size);
+        }
+        else
+        {
+            k_scatter_shorts
+                .ptr_arg(ScatterShorts_k.Args.source, b_scratch.pointer())
+                .ptr_arg(ScatterShorts_k.Args.destination, buffer.pointer())
+                .ptr_arg(ScatterShorts_k.Args.targets, targets.pointer())
+                .set_arg(ScatterShorts_k.Args.words, item_size / cl_short.size())
+                .set_arg(ScatterShorts_k.Args.max_object, count)
+                .call(global_size, GPU.compute.preferred_work_size);
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        p_reorder_objects.release();
+        gpu_int4_scan.release();
+        gpu_int_scan.release();
+
+        b_order.release();
+        b_object_offsets.release();
+        b_entity_bone_offsets.release();
+        b_entity_targets.release();
+        b_hull_targets.release();
+        b_point_targets.release();
+        b_edge_targets.release();
+        b_hull_bone_targets.release();
+        b_entity_bone_targets.release();
+        b_scratch.release();
+        MemoryUtil.memFree(order_upload);
+    }
+}
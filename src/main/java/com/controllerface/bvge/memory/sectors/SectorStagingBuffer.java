@@ -0,0 +1,279 @@
+package com.controllerface.bvge.memory.sectors;
+
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.memory.SectorContainer;
+import com.controllerface.bvge.memory.groups.CoreBufferGroup;
+import com.controllerface.bvge.memory.types.CoreBufferType;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+/**
+ * Host side staging area for objects being loaded into a sector. Objects are written into off-heap columns that
+ * match the layout of the {@link CoreBufferType} buffers they are destined for, so a whole batch of objects can be
+ * uploaded with a single write per buffer, instead of one kernel call per object.
+ */
+public class SectorStagingBuffer implements SectorContainer, GPUResource
+{
+    private static final int INITIAL_ITEMS = 1024;
+
+    private static final CoreBufferType[] STAGED_BUFFERS =
+        {
+            POINT, POINT_VERTEX_REFERENCE, POINT_HULL_INDEX, POINT_HIT_COUNT, POINT_FLAG, POINT_BONE_TABLE,
+            EDGE, EDGE_LENGTH, EDGE_FLAG, EDGE_PIN,
+            HULL, HULL_SCALE, HULL_ROTATION, HULL_FRICTION, HULL_RESTITUTION, HULL_POINT_TABLE, HULL_EDGE_TABLE,
+            HULL_BONE_TABLE, HULL_ENTITY_ID, HULL_FLAG, HULL_MESH_ID, HULL_UV_OFFSET, HULL_INTEGRITY,
+            ENTITY, ENTITY_ANIM_TIME, ENTITY_PREV_TIME, ENTITY_MOTION_STATE, ENTITY_ANIM_LAYER, ENTITY_PREV_LAYER,
+            ENTITY_HULL_TABLE, ENTITY_BONE_TABLE, ENTITY_MASS, ENTITY_ROOT_HULL, ENTITY_MODEL_ID,
+            ENTITY_TRANSFORM_ID, ENTITY_TYPE, ENTITY_FLAG,
+            HULL_BONE, HULL_BONE_BIND_POSE, HULL_BONE_INV_BIND_POSE,
+            ENTITY_BONE, ENTITY_BONE_REFERENCE_ID, ENTITY_BONE_PARENT_ID,
+        };
+
+    private final Map<CoreBufferType, ByteBuffer> columns = new EnumMap<>(CoreBufferType.class);
+
+    private int point_index       = 0;
+    private int edge_index        = 0;
+    private int hull_index        = 0;
+    private int entity_index      = 0;
+    private int hull_bone_index   = 0;
+    private int entity_bone_index = 0;
+
+    public SectorStagingBuffer()
+    {
+        for (var buffer_type : STAGED_BUFFERS)
+        {
+            columns.put(buffer_type, MemoryUtil.memAlloc(buffer_type.data_type().size() * INITIAL_ITEMS));
+        }
+    }
+
+    /**
+     * Returns the staging column for the given buffer type, ensuring it has space for at least one more item.
+     */
+    private ByteBuffer column(CoreBufferType buffer_type)
+    {
+        var column = columns.get(buffer_type);
+        int item_size = buffer_type.data_type().size();
+        if (column.remaining() < item_size)
+        {
+            column = MemoryUtil.memRealloc(column, column.capacity() * 2);
+            columns.put(buffer_type, column);
+        }
+        return column;
+    }
+
+    /**
+     * Enqueues uploads of all staged data into the given buffer group. Uploads are non-blocking, so the staged data
+     * must not be modified or reset until the queue of the target buffers has been finished.
+     *
+     * @param target_buffers buffer group that will receive the staged data, starting at index 0 of each buffer
+     */
+    public void upload(CoreBufferGroup target_buffers)
+    {
+        target_buffers.ensure_capacity_all(point_index,
+            edge_index,
+            hull_index,
+            entity_index,
+            hull_bone_index,
+            entity_bone_index);
+
+        for (var buffer_type : STAGED_BUFFERS)
+        {
+            var column = columns.get(buffer_type);
+            if (column.position() == 0) continue;
+            target_buffers.buffer(buffer_type).transfer_in(column.duplicate().flip());
+        }
+    }
+
+    public void reset()
+    {
+        for (var column : columns.values())
+        {
+            column.clear();
+        }
+        point_index       = 0;
+        edge_index        = 0;
+        hull_index        = 0;
+        entity_index      = 0;
+        hull_bone_index   = 0;
+        entity_bone_index = 0;
+    }
+
+    @Override
+    public int next_point()
+    {
+        return point_index;
+    }
+
+    @Override
+    public int next_edge()
+    {
+        return edge_index;
+    }
+
+    @Override
+    public int next_hull()
+    {
+        return hull_index;
+    }
+
+    @Override
+    public int next_entity()
+    {
+        return entity_index;
+    }
+
+    @Override
+    public int next_hull_bone()
+    {
+        return hull_bone_index;
+    }
+
+    @Override
+    public int next_entity_bone()
+    {
+        return entity_bone_index;
+    }
+
+    @Override
+    public int create_point(float[] position, int[] bone_ids, int vertex_index, int hull_index, int hit_count, int flags)
+    {
+        boolean short_position = position.length == 2;
+        column(POINT)
+            .putFloat(position[0])
+            .putFloat(position[1])
+            .putFloat(short_position ? position[0] : position[2])
+            .putFloat(short_position ? position[1] : position[3]);
+        column(POINT_VERTEX_REFERENCE).putInt(vertex_index);
+        column(POINT_HULL_INDEX).putInt(hull_index);
+        column(POINT_HIT_COUNT).putShort((short) hit_count);
+        column(POINT_FLAG).putInt(flags);
+        column(POINT_BONE_TABLE)
+            .putInt(bone_ids[0])
+            .putInt(bone_ids[1])
+            .putInt(bone_ids[2])
+            .putInt(bone_ids[3]);
+
+        return point_index++;
+    }
+
+    @Override
+    public int create_edge(int p1, int p2, float l, int flags, int edge_pin)
+    {
+        column(EDGE).putInt(p1).putInt(p2);
+        column(EDGE_LENGTH).putFloat(l);
+        column(EDGE_FLAG).putInt(flags);
+        column(EDGE_PIN).putInt(edge_pin);
+
+        return edge_index++;
+    }
+
+    @Override
+    public int create_hull(int mesh_id,
+                           float[] position,
+                           float[] scale,
+                           float[] rotation,
+                           int[] point_table,
+                           int[] edge_table,
+                           int[] bone_table,
+                           float friction,
+                           float restitution,
+                           int entity_id,
+                           int uv_offset,
+                           int flags)
+    {
+        boolean short_position = position.length == 2;
+        column(HULL)
+            .putFloat(position[0])
+            .putFloat(position[1])
+            .putFloat(short_position ? position[0] : position[2])
+            .putFloat(short_position ? position[1] : position[3]);
+        column(HULL_SCALE).putFloat(scale[0]).putFloat(scale[1]);
+        column(HULL_ROTATION).putFloat(rotation[0]).putFloat(rotation[1]);
+        column(HULL_FRICTION).putFloat(friction);
+        column(HULL_RESTITUTION).putFloat(restitution);
+        column(HULL_POINT_TABLE).putInt(point_table[0]).putInt(point_table[1]);
+        column(HULL_EDGE_TABLE).putInt(edge_table[0]).putInt(edge_table[1]);
+        column(HULL_BONE_TABLE).putInt(bone_table[0]).putInt(bone_table[1]);
+        column(HULL_ENTITY_ID).putInt(entity_id);
+        column(HULL_FLAG).putInt(flags);
+        column(HULL_MESH_ID).putInt(mesh_id);
+        column(HULL_UV_OFFSET).putInt(uv_offset);
+        column(HULL_INTEGRITY).putInt(100);
+
+        return hull_index++;
+    }
+
+    @Override
+    public int create_entity(float x, float y, float z, float w,
+                             int[] hull_table,
+                             int[] bone_table,
+                             float mass,
+                             int anim_index,
+                             float anim_time,
+                             int root_hull,
+                             int model_id,
+                             int model_transform_id,
+                             int type,
+                             int flags)
+    {
+        column(ENTITY).putFloat(x).putFloat(y).putFloat(z).putFloat(w);
+        column(ENTITY_ANIM_TIME).putFloat(anim_time).putFloat(0.0f).putFloat(0.0f).putFloat(0.0f);
+        column(ENTITY_PREV_TIME).putFloat(0.0f).putFloat(0.0f).putFloat(0.0f).putFloat(0.0f);
+        column(ENTITY_MOTION_STATE).putShort((short) 0).putShort((short) 0);
+        column(ENTITY_ANIM_LAYER).putInt(anim_index).putInt(0).putInt(0).putInt(0);
+        column(ENTITY_PREV_LAYER).putInt(-1).putInt(-1).putInt(-1).putInt(-1);
+        column(ENTITY_HULL_TABLE).putInt(hull_table[0]).putInt(hull_table[1]);
+        column(ENTITY_BONE_TABLE).putInt(bone_table[0]).putInt(bone_table[1]);
+        column(ENTITY_MASS).putFloat(mass);
+        column(ENTITY_ROOT_HULL).putInt(root_hull);
+        column(ENTITY_MODEL_ID).putInt(model_id);
+        column(ENTITY_TRANSFORM_ID).putInt(model_transform_id);
+        column(ENTITY_TYPE).putInt(type);
+        column(ENTITY_FLAG).putInt(flags);
+
+        return entity_index++;
+    }
+
+    @Override
+    public int create_hull_bone(float[] bone_data, int bind_pose_id, int inv_bind_pose_id)
+    {
+        var bone_column = column(HULL_BONE);
+        for (int i = 0; i < 16; i++)
+        {
+            bone_column.putFloat(bone_data[i]);
+        }
+        column(HULL_BONE_BIND_POSE).putInt(bind_pose_id);
+        column(HULL_BONE_INV_BIND_POSE).putInt(inv_bind_pose_id);
+
+        return hull_bone_index++;
+    }
+
+    @Override
+    public int create_entity_bone(int bone_reference, int bone_parent_id, float[] bone_data)
+    {
+        var bone_column = column(ENTITY_BONE);
+        for (int i = 0; i < 16; i++)
+        {
+            bone_column.putFloat(bone_data[i]);
+        }
+        column(ENTITY_BONE_REFERENCE_ID).putInt(bone_reference);
+        column(ENTITY_BONE_PARENT_ID).putInt(bone_parent_id);
+
+        return entity_bone_index++;
+    }
+
+    @Override
+    public void release()
+    {
+        for (var column : columns.values())
+        {
+            MemoryUtil.memFree(column);
+        }
+        columns.clear();
+    }
+}
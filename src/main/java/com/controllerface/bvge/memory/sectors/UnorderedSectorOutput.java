@@ -3,6 +3,7 @@ package com.controllerface.bvge.memory.sectors;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.GPUResource;
 import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.PinnedReadback;
 import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
 import com.controllerface.bvge.gpu.cl.buffers.TransientBuffer;
 import com.controllerface.bvge.gpu.cl.contexts.CL_CommandQueue;
@@ -22,6 +23,7 @@ public class UnorderedSectorOutput implements GPUResource
     private static final long HULL_INIT   = 1_000L;
     private static final long EDGE_INIT   = 2_400L;
     private static final long POINT_INIT  = 5_000L;
+    private static final long READBACK_INIT = 1024L * 1024L;
 
     private final GPUProgram p_gpu_crud;
     private final GPUKernel k_egress_entities;
@@ -34,6 +36,7 @@ public class UnorderedSectorOutput implements GPUResource
     private final CL_Buffer egress_sizes_buf;
     private final UnorderedCoreBufferGroup sector_buffers;
     private final GPUCoreMemory core_memory;
+    private final PinnedReadback readback;
 
     private final ResizableBuffer b_entity_bone_shift;
     private final ResizableBuffer b_hull_bone_shift;
@@ -54,6 +57,7 @@ public class UnorderedSectorOutput implements GPUResource
         this.egress_sizes_buf = GPU.CL.new_pinned_buffer(GPU.compute.context, (long)cl_int.size() * 6);
         this.sector_buffers   = new UnorderedCoreBufferGroup(name, this.cmd_queue, ENTITY_INIT, HULL_INIT, EDGE_INIT, POINT_INIT);
         this.p_gpu_crud       = new GPUCrud().init();
+        this.readback         = new PinnedReadback(cmd_queue, READBACK_INIT);
 
         b_hull_shift        = new TransientBuffer(cmd_queue, cl_int.size(), hull_init);
         b_edge_shift        = new TransientBuffer(cmd_queue, cl_int.size(), edge_init);
@@ -142,13 +146,23 @@ public class UnorderedSectorOutput implements GPUResource
             .call(arg_long(entity_bone_size), GPU.compute.preferred_work_size);
     }
 
+    /**
+     * Starts reading back the objects written by the last egress call. Must be called after the egress kernels
+     * have been enqueued, and does not block.
+     */
+    public void readback(int[] counts)
+    {
+        sector_buffers.readback_sectors(readback, counts);
+    }
+
     public void unload(UnorderedCoreBufferGroup.Raw raw_sectors, int[] counts)
     {
-        sector_buffers.unload_sectors(raw_sectors, counts);
+        sector_buffers.unload_sectors(readback, raw_sectors, counts);
     }
 
     public void release()
     {
+        readback.release();
         p_gpu_crud.release();
         sector_buffers.release();
         egress_sizes_buf.release();
@@ -13,6 +13,7 @@ public enum PhysicsBufferType implements BufferType
     REACTION_INDEX(cl_int),
     KEY_MAP(cl_int),
     KEY_BANK(cl_int),
+    STATIC_KEY_MAP(cl_int),
     IN_BOUNDS(cl_int),
     CANDIDATES(cl_int2),
     CANDIDATE_COUNTS(cl_int2),
@@ -688,7 +688,7 @@ public class ModelRegistry
 
     private static void load_textures(AIScene aiScene, List<GL_Texture2D> textures)
     {
-        if (aiScene.mNumTextures() <= 0)
+        if (aiScene.mNumTextures() <= 0 || GPU.headless())
         {
             return;
         }
@@ -802,7 +802,9 @@ public class ModelRegistry
 
     public static void init()
     {
-        var texture = GPU.GL.new_texture("/img/blocks.png");
+        var texture = GPU.headless()
+            ? null
+            : GPU.GL.new_texture("/img/blocks.png");
         loaded_models.put(CURSOR, Model.fromBasicMesh(MeshRegistry.get_mesh_by_index(MeshRegistry.CIRCLE_MESH)));
         loaded_models.put(CIRCLE_PARTICLE, Model.fromBasicMesh(MeshRegistry.get_mesh_by_index(MeshRegistry.CIRCLE_MESH)));
         loaded_models.put(LINE_PARTICLE, Model.fromBasicMesh(MeshRegistry.get_mesh_by_index(MeshRegistry.LINE_MESH)));
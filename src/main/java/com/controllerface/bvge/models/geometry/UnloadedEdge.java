@@ -1,3 +0,0 @@
-package com.controllerface.bvge.models.geometry;
-
-public record UnloadedEdge(int p1, int p2, float length, int flags, int pin) { }
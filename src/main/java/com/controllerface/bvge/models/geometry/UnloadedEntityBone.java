@@ -1,3 +0,0 @@
-package com.controllerface.bvge.models.geometry;
-
-public record UnloadedEntityBone(float[] bone, int bone_reference, int bone_parent) { }
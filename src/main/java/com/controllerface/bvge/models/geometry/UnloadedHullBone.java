@@ -1,5 +0,0 @@
-package com.controllerface.bvge.models.geometry;
-
-public record UnloadedHullBone(float[] bone_data, int bind_id, int inv_bind_id)
-{
-}
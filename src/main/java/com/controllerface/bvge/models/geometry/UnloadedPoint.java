@@ -1,8 +0,0 @@
-package com.controllerface.bvge.models.geometry;
-
-public record UnloadedPoint(float x, float y, float z, float w,
-                            int bone_1, int bone_2, int bone_3, int bone_4,
-                            int vertex_reference, int hull_index,
-                            short hit_count, int flags)
-{
-}
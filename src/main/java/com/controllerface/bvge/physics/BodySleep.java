@@ -0,0 +1,190 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.physics.WakeSleepers_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_float4;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+
+/**
+ * Lets dynamic bodies that have come to rest fall asleep, so they cost almost nothing until something disturbs them.
+ * <p>
+ * Each entity keeps a rest counter on device, in the REST_TICKS bits of its flags, which is advanced in every
+ * sub-step in which none of its hulls moved faster than {@link #SLEEP_SPEED}, and cleared whenever one does. Once
+ * the counter reaches {@link #SLEEP_TICKS}, the hulls of the entity are flagged as sleeping, and are then skipped by
+ * integration and constraint solving, and handled like static hulls by the broad and narrow phases, so sleeping
+ * hulls are never paired with static hulls or with each other. When static hull keys are cached, sleeping hulls are
+ * held in the static key layer too, so they are not keyed again while they sleep. Entities that fall asleep or wake
+ * are counted on device, and the count is read back once per frame, so the layer can be rebuilt when it changes.
+ * Only entities without bones can sleep, so players and other animated entities are always awake.
+ * <p>
+ * A sleeping entity is woken when a hull of a moving entity comes near one of its hulls, and when a block near one
+ * of its hulls breaks, as it may have been holding the entity up. Woken entities can wake other sleeping entities
+ * in turn once they start to move, so a disturbance spreads through a pile of sleeping bodies only as far as it
+ * moves them. Broken blocks are recorded when entities are moved, and sleeping hulls near them are woken once per
+ * frame by {@link #wake_sleepers(int)}.
+ * <p>
+ * When sleep is turned off, the rest counters stay at zero, and any hull that was sleeping when it was stored is
+ * woken the first time entities are moved.
+ */
+public class BodySleep implements GPUResource
+{
+    public enum Mode
+    {
+        /**
+         * Bodies are always awake.
+         */
+        ALWAYS_AWAKE,
+
+        /**
+         * Bodies that are at rest fall asleep.
+         */
+        SLEEP_AT_REST,
+    }
+
+    /**
+     * Number of sub-steps an entity must be at rest before it falls asleep. The counter is held in seven bits of the
+     * entity flags, so this may not be more than 127.
+     */
+    public static final int SLEEP_TICKS = 90;
+
+    /**
+     * Speed, in units per second, below which a hull counts as resting. A resting body still moves a little in
+     * each sub-step, as gravity pulls it into whatever holds it up, so this is a little more than the speed gravity
+     * adds in one sub-step.
+     */
+    public static final float SLEEP_SPEED = 12.0f;
+
+    /**
+     * Number of broken blocks that are recorded in a frame. If more break, every sleeping body is woken.
+     */
+    public static final int MAX_WAKE_BOUNDS = 256;
+
+    private final Mode mode;
+    private final CL_Buffer wake_bounds;
+    private final CL_Buffer wake_count;
+    private final CL_Buffer sleep_changes;
+    private final GPUKernel k_wake_sleepers;
+
+    public BodySleep(Mode mode, GPUProgram p_sat_collide)
+    {
+        this.mode = mode;
+
+        wake_bounds = GPU.CL.new_buffer(GPU.compute.context, (long) cl_float4.size() * MAX_WAKE_BOUNDS);
+        wake_count = GPU.CL.new_buffer(GPU.compute.context, cl_int.size());
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, wake_count, cl_int.size());
+        sleep_changes = GPU.CL.new_pinned_int(GPU.compute.context);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, sleep_changes, cl_int.size());
+
+        k_wake_sleepers = new WakeSleepers_k(GPU.compute.physics_queue, p_sat_collide)
+            .init(wake_bounds, wake_count, MAX_WAKE_BOUNDS);
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * Buffer the bounds of broken blocks are written to when entities are moved.
+     */
+    public CL_Buffer wake_bounds()
+    {
+        return wake_bounds;
+    }
+
+    /**
+     * Buffer that counts the broken blocks recorded since sleeping hulls were last woken.
+     */
+    public CL_Buffer wake_count()
+    {
+        return wake_count;
+    }
+
+    /**
+     * Buffer that counts the entities that fell asleep or woke since the count was last taken.
+     */
+    public CL_Buffer sleep_changes()
+    {
+        return sleep_changes;
+    }
+
+    /**
+     * Returns true if any entity fell asleep or woke since the last call, and clears the count. This reads the count
+     * back, so it should be called at most once per frame.
+     */
+    public boolean take_sleep_changed()
+    {
+        if (mode == Mode.ALWAYS_AWAKE)
+        {
+            return false;
+        }
+
+        int changes = GPU.CL.read_pinned_int(GPU.compute.physics_queue, sleep_changes);
+        if (changes == 0)
+        {
+            return false;
+        }
+
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, sleep_changes, cl_int.size());
+        return true;
+    }
+
+    /**
+     * Number of sub-steps at rest after which an entity falls asleep, or zero when bodies are always awake.
+     */
+    public int sleep_ticks()
+    {
+        return mode == Mode.SLEEP_AT_REST
+            ? SLEEP_TICKS
+            : 0;
+    }
+
+    /**
+     * Wakes sleeping hulls near the blocks that broke in this frame, and clears the recorded blocks. The wake kernel
+     * is launched in every frame, with one work item per hull, as the number of broken blocks is only known on
+     * device. In frames in which no blocks broke, each work item returns as soon as it reads the count, and nothing
+     * is read back.
+     */
+    public void wake_sleepers(int hull_count)
+    {
+        if (mode == Mode.ALWAYS_AWAKE || hull_count == 0)
+        {
+            return;
+        }
+
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
+
+        k_wake_sleepers
+            .set_arg(WakeSleepers_k.Args.max_hull, hull_count)
+            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, wake_count, cl_int.size());
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_WAKE_SLEEPERS, e);
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        wake_bounds.release();
+        wake_count.release();
+        sleep_changes.release();
+    }
+}
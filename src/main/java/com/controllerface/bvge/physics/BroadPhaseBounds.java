@@ -0,0 +1,179 @@
+package com.controllerface.bvge.physics;
+
+/**
+ * Decides how the broad phase buffers are sized for each physics frame. In exact mode, every variable sized stage
+ * reads its count back from the GPU before the next stage is sized, which drains the queue several times per
+ * sub-step. In bounded mode, buffers and dispatches are instead sized from upper bounds derived from the largest
+ * counts seen in the previous frame. Kernels keep their writes inside those bounds, and record the actual counts
+ * and an overflow flag on the device, which are read back once per frame.
+ * <p>
+ * Sub-steps cannot be replayed, because integration updates the core buffers in place, so work beyond a bound is
+ * dropped for the frame that overflowed. When that happens, the next frame is run in exact mode to measure the true
+ * counts, and bounded frames resume from there with bounds grown to fit.
+ * <p>
+ * Bounds taken from the previous frame say nothing about hulls that were not there yet, so any frame that starts
+ * with more hulls than the last one, or after hulls were added, removed, placed, or re-ordered, is also run in exact
+ * mode, rather than being allowed to overflow and drop work.
+ */
+public class BroadPhaseBounds
+{
+    public enum Mode
+    {
+        EXACT,
+        BOUNDED,
+    }
+
+    /**
+     * Total size of the key bank, in ints.
+     */
+    public static final int BANK = 0;
+
+    /**
+     * Total size of the match table, as computed by the candidate scan.
+     */
+    public static final int MATCH = 1;
+
+    /**
+     * Number of candidate pairs forwarded to the narrow phase.
+     */
+    public static final int CANDIDATE = 2;
+
+    public static final int SLOTS = 3;
+
+    /**
+     * Size of the device side state: one int holding the overflow flags, one bit per slot, then one peak per slot.
+     */
+    public static final int STATE_SIZE = SLOTS + 1;
+
+    /**
+     * A bound is only reduced when the peak count falls below 1/SHRINK_RATIO of it, so that counts that move
+     * around from frame to frame do not cause the bounds to change every frame.
+     */
+    private static final int SHRINK_RATIO = 4;
+
+    private final Mode mode;
+    private final float headroom;
+    private final int minimum;
+
+    private final int[] bounds = new int[SLOTS];
+    private final int[] observed = new int[SLOTS];
+
+    private boolean bounded_frame = false;
+    private boolean overflowed = false;
+
+    private int last_hull_count = 0;
+    private int last_layout_version = 0;
+
+    public BroadPhaseBounds(Mode mode, float headroom, int minimum)
+    {
+        if (headroom < 1.0f || minimum < 1)
+        {
+            throw new IllegalArgumentException("Invalid broad phase bounds: headroom=" + headroom + " minimum=" + minimum);
+        }
+        this.mode     = mode;
+        this.headroom = headroom;
+        this.minimum  = minimum;
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * True if the current frame is sized from bounds. Bounded mode always starts with an exact frame, because
+     * there are no counts to derive bounds from yet.
+     */
+    public boolean bounded()
+    {
+        return bounded_frame;
+    }
+
+    /**
+     * True if any count in the most recent bounded frame exceeded its bound.
+     */
+    public boolean overflowed()
+    {
+        return overflowed;
+    }
+
+    public int bound(int slot)
+    {
+        return bounds[slot];
+    }
+
+    /**
+     * Starts a frame, switching it to exact mode if the hull count grew, or the hull layout version changed, since
+     * the previous frame.
+     */
+    public void begin_frame(int hull_count, int layout_version)
+    {
+        if (mode == Mode.EXACT)
+        {
+            return;
+        }
+
+        boolean grown = hull_count > last_hull_count;
+        boolean changed = layout_version != last_layout_version;
+        last_hull_count = hull_count;
+        last_layout_version = layout_version;
+
+        if (grown || changed)
+        {
+            bounded_frame = false;
+        }
+    }
+
+    /**
+     * Records a count that was read back during an exact frame. Bounded frames record their counts on the device.
+     */
+    public void observe(int slot, long count)
+    {
+        int value = (int) Math.min(count, Integer.MAX_VALUE);
+        observed[slot] = Math.max(observed[slot], value);
+    }
+
+    /**
+     * Completes a frame and picks the sizing for the next one. For a bounded frame, the device state must hold the
+     * overflow flags followed by the peak of each slot, in the layout described by {@link #STATE_SIZE}. For an exact
+     * frame, the counts passed to {@link #observe(int, long)} are used, and the device state is ignored.
+     */
+    public void end_frame(int[] device_state)
+    {
+        if (mode == Mode.EXACT)
+        {
+            return;
+        }
+
+        int[] peaks = observed;
+        overflowed = false;
+        if (bounded_frame)
+        {
+            overflowed = device_state[0] != 0;
+            peaks = new int[SLOTS];
+            System.arraycopy(device_state, 1, peaks, 0, SLOTS);
+        }
+
+        for (int slot = 0; slot < SLOTS; slot++)
+        {
+            bounds[slot] = next_bound(bounds[slot], peaks[slot]);
+            observed[slot] = 0;
+        }
+
+        bounded_frame = !overflowed;
+    }
+
+    private int next_bound(int current, int peak)
+    {
+        long required = Math.max(minimum, (long) Math.ceil(peak * (double) headroom));
+        if (required > current)
+        {
+            return (int) Math.min(required, Integer.MAX_VALUE);
+        }
+        if ((long) peak * SHRINK_RATIO < current)
+        {
+            return (int) required;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,250 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.PersistentBuffer;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.physics.MeasureConstraintError_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_float4;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+
+/**
+ * Keeps the contact manifolds found by the narrow phase between sub-steps and frames, so contacts between polygons
+ * that persist from one sub-step to the next are warm started from the manifold they settled on, rather than being
+ * found from scratch.
+ * <p>
+ * Contacts are keyed by hull pair, and held in a fixed number of slots for each hull, so the cache grows with the
+ * hull buffers. A resting contact, like a block in a stack or the player standing on terrain, then pushes its hulls
+ * apart in the same direction in every sub-step. Only the contact normal is carried over, the depth is always the
+ * one measured in the current sub-step, as the previous one has already been corrected.
+ * <p>
+ * Contacts that push in a steady direction leave the edge constraints closer to their rest lengths, so fewer
+ * constraint passes are needed to settle them. To show whether that holds, and to use it, the constraint error left
+ * after the last constraint pass of each frame is measured, as the largest difference between an edge's length and
+ * its rest length relative to the rest length. In warm mode the error is measured every frame, and the number of
+ * constraint passes starts at a configured count and is lowered while the error stays well under
+ * {@link #CONVERGENCE_TOLERANCE}, and raised again, up to the configured count, when it goes over. In cold mode the
+ * full pass count is always used, and the error is only measured when the editor is active, so both modes report
+ * the error and the pass count side by side.
+ * <p>
+ * Hull indices are stable while hulls are only added, so a slot for a hull is valid until hulls are compacted or
+ * reordered, at which point the whole cache is cleared. Hulls deleted while compaction is deferred are never paired
+ * again, so their contacts are simply not renewed, and their slots are taken by other contacts as they age.
+ */
+public class ContactCache implements GPUResource
+{
+    public enum Mode
+    {
+        /**
+         * Every contact is found from scratch in every sub-step.
+         */
+        COLD,
+
+        /**
+         * Persistent contacts are warm started from the previous sub-step.
+         */
+        WARM,
+    }
+
+    /**
+     * Number of contacts each hull can hold in the cache. Must match CONTACT_SLOTS in contact_cache.cl.
+     */
+    public static final int SLOTS_PER_HULL = 4;
+
+    /**
+     * Largest relative edge length error that is accepted after the constraint passes of a frame.
+     */
+    public static final float CONVERGENCE_TOLERANCE = 0.001f;
+
+    /**
+     * Number of constraint passes per sub-step warm mode starts with by default, which is the number the fixed
+     * sub-step schedule runs.
+     */
+    public static final int DEFAULT_WARM_EDGE_STEPS = 16;
+
+    /**
+     * Fewest constraint passes per sub-step that warm mode will lower the pass count to.
+     */
+    public static final int MIN_WARM_EDGE_STEPS = 4;
+
+    private final Mode mode;
+    private final ResizableBuffer partners;
+    private final ResizableBuffer stamps;
+    private final ResizableBuffer manifolds;
+    private final CL_Buffer warm_counter;
+    private final CL_Buffer error_buffer;
+    private final GPUKernel k_measure_constraint_error;
+    private final int max_warm_edge_steps;
+
+    private int step = 0;
+    private int index_version;
+    private int warm_edge_steps;
+
+    /**
+     * @param warm_edge_steps number of constraint passes per sub-step that warm mode starts with, and never goes over
+     */
+    public ContactCache(Mode mode, int warm_edge_steps, GPUProgram p_resolve_constraints)
+    {
+        this.mode = mode;
+        this.max_warm_edge_steps = Math.max(warm_edge_steps, MIN_WARM_EDGE_STEPS);
+        this.warm_edge_steps = this.max_warm_edge_steps;
+
+        partners     = new PersistentBuffer(GPU.compute.physics_queue, cl_int.size());
+        stamps       = new PersistentBuffer(GPU.compute.physics_queue, cl_int.size());
+        manifolds    = new PersistentBuffer(GPU.compute.physics_queue, cl_float4.size());
+        warm_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, warm_counter, cl_int.size());
+        error_buffer = GPU.CL.new_pinned_int(GPU.compute.context);
+
+        k_measure_constraint_error = new MeasureConstraintError_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(error_buffer);
+
+        index_version = GPU.memory.hull_index_version();
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    public ResizableBuffer partners()
+    {
+        return partners;
+    }
+
+    public ResizableBuffer stamps()
+    {
+        return stamps;
+    }
+
+    public ResizableBuffer manifolds()
+    {
+        return manifolds;
+    }
+
+    public CL_Buffer warm_counter()
+    {
+        return warm_counter;
+    }
+
+    /**
+     * One if contacts are warm started, or zero if they are not.
+     */
+    public int warm()
+    {
+        return mode == Mode.WARM
+            ? 1
+            : 0;
+    }
+
+    /**
+     * Number of constraint passes to run per sub-step, given the number the sub-step schedule asks for. Cold mode
+     * always runs the scheduled passes, warm mode runs at most the number its convergence measure has settled on.
+     */
+    public int edge_steps(int scheduled_steps)
+    {
+        return mode == Mode.WARM
+            ? Math.min(scheduled_steps, warm_edge_steps)
+            : scheduled_steps;
+    }
+
+    /**
+     * Sizes the cache for the current hulls, and clears it if hulls have moved to different indices since the
+     * last frame.
+     */
+    public void begin_frame(int hull_count)
+    {
+        if (mode == Mode.COLD)
+        {
+            return;
+        }
+
+        // growing keeps the slots of existing hulls, and zeroes the new ones
+        long slot_count = (long) Math.max(hull_count, 1) * SLOTS_PER_HULL;
+        partners.ensure_capacity(slot_count);
+        stamps.ensure_capacity(slot_count);
+        manifolds.ensure_capacity(slot_count);
+
+        int next_version = GPU.memory.hull_index_version();
+        if (next_version != index_version)
+        {
+            partners.clear();
+            index_version = next_version;
+        }
+    }
+
+    /**
+     * Advances the sub-step counter the cached contacts are stamped with, and returns the new value.
+     */
+    public int next_step()
+    {
+        return ++step;
+    }
+
+    /**
+     * Measures the constraint error left by the frame that just ran, and in warm mode adjusts the number of
+     * constraint passes from it. Also records the number of contacts that were warm started. The error is read back
+     * every frame in warm mode, as the pass count depends on it, and in cold mode only when the editor is active.
+     * Nothing is measured in frames that ran no sub-steps.
+     */
+    public void end_frame(int edge_count, boolean stepped)
+    {
+        if (stepped && edge_count > 0 && (mode == Mode.WARM || Editor.ACTIVE))
+        {
+            float error = measure_error(edge_count);
+            if (mode == Mode.WARM)
+            {
+                if (error > CONVERGENCE_TOLERANCE)
+                {
+                    warm_edge_steps = Math.min(warm_edge_steps + 1, max_warm_edge_steps);
+                }
+                else if (error < CONVERGENCE_TOLERANCE * 0.5f)
+                {
+                    warm_edge_steps = Math.max(warm_edge_steps - 1, MIN_WARM_EDGE_STEPS);
+                }
+            }
+            if (Editor.ACTIVE)
+            {
+                // recorded in millionths of the rest length, as metrics are whole numbers
+                Metrics.record(Metric.PHYS_CONSTRAINT_ERROR, (long) (error * 1_000_000.0f));
+            }
+        }
+
+        if (mode == Mode.COLD || !Editor.ACTIVE)
+        {
+            return;
+        }
+
+        Metrics.record(Metric.PHYS_WARM_CONTACTS, GPU.CL.read_pinned_int(GPU.compute.physics_queue, warm_counter));
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, warm_counter, cl_int.size());
+    }
+
+    private float measure_error(int edge_count)
+    {
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, error_buffer, cl_int.size());
+        int edge_size = GPU.compute.calculate_preferred_global_size(edge_count);
+        k_measure_constraint_error
+            .set_arg(MeasureConstraintError_k.Args.max_edge, edge_count)
+            .call(arg_long(edge_size), GPU.compute.preferred_work_size);
+        return Float.intBitsToFloat(GPU.CL.read_pinned_int(GPU.compute.physics_queue, error_buffer));
+    }
+
+    @Override
+    public void release()
+    {
+        partners.release();
+        stamps.release();
+        manifolds.release();
+        warm_counter.release();
+        error_buffer.release();
+    }
+}
@@ -0,0 +1,122 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.physics.CCDCollide_k;
+import com.controllerface.bvge.gpu.cl.kernels.physics.CCDReact_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.types.PhysicsBufferType;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+
+/**
+ * Stops fast moving hulls from passing through static and sleeping obstacles within a single sub-step.
+ * <p>
+ * Without it, tunnelling is avoided only by running enough sub-steps that no hull can move further than the
+ * thickness of a wall in one of them, and every sub-step runs the whole pipeline for every hull. With it, the
+ * candidates found by the broad phase are also checked for hulls that moved more than {@link #SWEEP_FRACTION} of
+ * their own extent in the sub-step. The broad phase bounds of a polygon already cover the path it swept, and in the
+ * swept mode the bounds of circles are extended to cover it as well, so these candidates include every obstacle
+ * along the path. A hull that would have passed into an obstacle is moved back
+ * to just short of where it hit, and stopped, before the narrow phase runs. Only the few hulls moving that fast do
+ * any real work, so fewer sub-steps can be run, which is what the swept mode does.
+ */
+public class ContinuousCollision
+{
+    public enum Mode
+    {
+        /**
+         * Hulls are not swept, and tunnelling is avoided by the sub-step count alone.
+         */
+        OFF,
+
+        /**
+         * Fast moving hulls are swept against obstacles, and fewer sub-steps are run.
+         */
+        SWEPT,
+    }
+
+    /**
+     * Fraction of its own extent a hull must move in one sub-step before it is swept. Slower hulls cannot get far
+     * enough into an obstacle in one sub-step for the narrow phase to push them out the wrong side.
+     */
+    public static final float SWEEP_FRACTION = 0.25f;
+
+    /**
+     * Number of sub-steps per tick when hulls are swept.
+     */
+    public static final int SWEPT_SUB_STEPS = 4;
+
+    private final Mode mode;
+    private final GPUKernel k_ccd_collide;
+    private final GPUKernel k_ccd_react;
+
+    public ContinuousCollision(Mode mode,
+                               GPUProgram p_ccd_collide,
+                               BufferGroup<PhysicsBufferType> candidate_buffers,
+                               CL_Buffer candidate_counter)
+    {
+        this.mode = mode;
+
+        k_ccd_collide = new CCDCollide_k(GPU.compute.physics_queue, p_ccd_collide)
+            .init(candidate_buffers, candidate_counter, SWEEP_FRACTION);
+
+        k_ccd_react = new CCDReact_k(GPU.compute.physics_queue, p_ccd_collide).init();
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * Number of sub-steps to run per tick, which is the given default unless hulls are swept.
+     */
+    public int sub_steps(int default_sub_steps)
+    {
+        return mode == Mode.SWEPT
+            ? SWEPT_SUB_STEPS
+            : default_sub_steps;
+    }
+
+    /**
+     * Sweeps fast moving hulls in the current candidate pairs, and rewinds any that hit an obstacle. Must run after
+     * the candidates are finalized, and before the narrow phase.
+     *
+     * @param candidate_pair_count number of candidate pairs the broad phase may have written
+     * @param hull_count           number of hulls in the core buffers
+     */
+    public void collide(int candidate_pair_count, int hull_count)
+    {
+        if (mode == Mode.OFF || candidate_pair_count == 0)
+        {
+            return;
+        }
+
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        int candidate_size = GPU.compute.calculate_preferred_global_size(candidate_pair_count);
+        int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
+
+        k_ccd_collide
+            .set_arg(CCDCollide_k.Args.max_index, candidate_pair_count)
+            .call(arg_long(candidate_size), GPU.compute.preferred_work_size);
+
+        k_ccd_react
+            .set_arg(CCDReact_k.Args.max_hull, hull_count)
+            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_CCD_COLLIDE, e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.buffers.PersistentBuffer;
+import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.physics.BucketEdgeColors_k;
+import com.controllerface.bvge.gpu.cl.kernels.physics.ColorEdges_k;
+import com.controllerface.bvge.gpu.cl.kernels.physics.CountEdgeColors_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+
+/**
+ * Colours the edges of every hull, so edge constraints can be resolved with one work item per edge instead of one
+ * per hull.
+ * <p>
+ * The default solver walks the edge table of each hull on a single work item, so the cost of a constraint pass is
+ * set by the hull with the most edges. Most hulls are blocks with a handful of edges, but the hulls of armature
+ * driven models have many more, and the lanes that handle them run long after the rest have finished. When edges
+ * are coloured, no two edges of a hull that share a point have the same colour, so all edges of one colour can be
+ * resolved at once, and a constraint pass becomes one call per colour, with a cost that scales with the number of
+ * edges rather than with the largest hull. Greedy colouring of the shapes used in practice needs only a few colours.
+ * <p>
+ * Colours are kept in a buffer indexed like the edge buffer, and are computed on device as hulls are added. Edge
+ * indices are stable while hulls are only added, so hulls that already have colours keep them, and only new hulls
+ * are coloured. When hulls are compacted or reordered, every hull is coloured again. After colouring, edge indices
+ * are grouped by colour into a second buffer, so the call for each colour covers only the edges of that colour. The
+ * size of each group is read back only when colours are computed, which is at most once per frame.
+ * <p>
+ * A hull with a point shared by more edges than there are colours cannot be coloured. Its edges are left out of the
+ * colour groups, and the hull is added to an overflow list, which is resolved with one work item per hull in the
+ * same way as the default solver.
+ */
+public class EdgeColoring implements GPUResource
+{
+    public enum Mode
+    {
+        /**
+         * Edge constraints are resolved with one work item per hull.
+         */
+        PER_HULL,
+
+        /**
+         * Edge constraints are resolved with one work item per edge, one colour at a time.
+         */
+        PER_EDGE,
+    }
+
+    /**
+     * Largest number of colours an edge can be given, which must match MAX_EDGE_COLORS in the kernel source.
+     */
+    public static final int MAX_EDGE_COLORS = 32;
+
+    private final Mode mode;
+    private final ResizableBuffer colors;
+    private final ResizableBuffer colored_edges;
+    private final ResizableBuffer overflow_hulls;
+    private final CL_Buffer overflow_counter;
+    private final CL_Buffer color_sizes;
+    private final CL_Buffer color_cursors;
+    private final GPUKernel k_color_edges;
+    private final GPUKernel k_count_edge_colors;
+    private final GPUKernel k_bucket_edge_colors;
+
+    private final int[] color_offsets = new int[MAX_EDGE_COLORS];
+    private int[] color_edge_counts = new int[MAX_EDGE_COLORS];
+    private int color_count = 1;
+    private int overflow_count = 0;
+    private int colored_hull_count = 0;
+    private int index_version;
+
+    public EdgeColoring(Mode mode, GPUProgram p_resolve_constraints)
+    {
+        this.mode = mode;
+
+        colors           = new PersistentBuffer(GPU.compute.physics_queue, cl_int.size());
+        colored_edges    = new PersistentBuffer(GPU.compute.physics_queue, cl_int.size());
+        overflow_hulls   = new PersistentBuffer(GPU.compute.physics_queue, cl_int.size());
+        overflow_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        color_sizes      = GPU.CL.new_pinned_buffer(GPU.compute.context, (long) cl_int.size() * MAX_EDGE_COLORS);
+        color_cursors    = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * MAX_EDGE_COLORS);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, overflow_counter, cl_int.size());
+
+        k_color_edges = new ColorEdges_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(colors, overflow_hulls, overflow_counter);
+
+        k_count_edge_colors = new CountEdgeColors_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(colors, color_sizes);
+
+        k_bucket_edge_colors = new BucketEdgeColors_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(colors, color_sizes, color_cursors, colored_edges);
+
+        index_version = GPU.memory.hull_index_version();
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * Edge indices grouped by colour, with the edges of each colour starting at the offset of that colour.
+     */
+    public ResizableBuffer colored_edges()
+    {
+        return colored_edges;
+    }
+
+    /**
+     * Number of colours the edges of the current hulls were given, which is the number of calls a constraint pass
+     * takes when edges are resolved one colour at a time.
+     */
+    public int color_count()
+    {
+        return color_count;
+    }
+
+    /**
+     * Hulls that could not be coloured, which are resolved with one work item per hull.
+     */
+    public ResizableBuffer overflow_hulls()
+    {
+        return overflow_hulls;
+    }
+
+    /**
+     * Number of hulls in the overflow list.
+     */
+    public int overflow_count()
+    {
+        return overflow_count;
+    }
+
+    /**
+     * Index of the first edge of the given colour within the grouped edge buffer.
+     */
+    public int color_offset(int color)
+    {
+        return color_offsets[color];
+    }
+
+    /**
+     * Number of edges that have the given colour.
+     */
+    public int color_size(int color)
+    {
+        return color_edge_counts[color];
+    }
+
+    /**
+     * Colours the edges of any hulls that do not have colours yet, or of every hull if hulls have moved to
+     * different indices since colours were last computed.
+     */
+    public void update(int hull_count, int edge_count)
+    {
+        if (mode == Mode.PER_HULL)
+        {
+            return;
+        }
+
+        int next_version = GPU.memory.hull_index_version();
+        boolean recolor = next_version != index_version;
+        if (!recolor && hull_count == colored_hull_count)
+        {
+            return;
+        }
+
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        // growing keeps the colours of existing edges
+        colors.ensure_capacity(Math.max(edge_count, 1));
+        colored_edges.ensure_capacity(Math.max(edge_count, 1));
+        overflow_hulls.ensure_capacity(Math.max(hull_count, 1));
+
+        int first_hull = recolor
+            ? 0
+            : colored_hull_count;
+
+        if (recolor)
+        {
+            GPU.CL.zero_buffer(GPU.compute.physics_queue, overflow_counter, cl_int.size());
+        }
+
+        int new_hulls = hull_count - first_hull;
+        if (new_hulls > 0)
+        {
+            int hull_size = GPU.compute.calculate_preferred_global_size(new_hulls);
+
+            k_color_edges
+                .set_arg(ColorEdges_k.Args.first_hull, first_hull)
+                .set_arg(ColorEdges_k.Args.max_hull, hull_count)
+                .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+        }
+
+        // new edges may take any colour, so every edge is grouped again
+        long counter_size = (long) cl_int.size() * MAX_EDGE_COLORS;
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, color_sizes, counter_size);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, color_cursors, counter_size);
+        if (edge_count > 0)
+        {
+            int edge_size = GPU.compute.calculate_preferred_global_size(edge_count);
+
+            k_count_edge_colors
+                .set_arg(CountEdgeColors_k.Args.max_edge, edge_count)
+                .call(arg_long(edge_size), GPU.compute.preferred_work_size);
+
+            k_bucket_edge_colors
+                .set_arg(BucketEdgeColors_k.Args.max_edge, edge_count)
+                .call(arg_long(edge_size), GPU.compute.preferred_work_size);
+        }
+
+        color_edge_counts = GPU.CL.read_pinned_int_buffer(GPU.compute.physics_queue,
+            color_sizes, cl_int.size(), MAX_EDGE_COLORS);
+
+        overflow_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, overflow_counter);
+
+        int offset = 0;
+        color_count = 1;
+        for (int color = 0; color < MAX_EDGE_COLORS; color++)
+        {
+            color_offsets[color] = offset;
+            offset += color_edge_counts[color];
+            if (color_edge_counts[color] > 0)
+            {
+                color_count = color + 1;
+            }
+        }
+
+        colored_hull_count = hull_count;
+        index_version = next_version;
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_COLOR_EDGES, e);
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        colors.release();
+        colored_edges.release();
+        overflow_hulls.release();
+        overflow_counter.release();
+        color_sizes.release();
+        color_cursors.release();
+    }
+}
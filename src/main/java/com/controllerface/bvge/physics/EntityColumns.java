@@ -0,0 +1,408 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.memory.groups.UnorderedCoreBufferGroup;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage for entities that have been unloaded from the physics simulation. Data is held in primitive
+ * arrays that use the same layout as the core memory buffers the entities were read from, and all entities in a
+ * batch share one set of columns, so unloading an entity is a handful of bulk array copies, with no per-object
+ * allocations.
+ * -
+ * Tables are rebased as entities are appended. Entity hull and bone tables, and hull point, edge, and bone tables
+ * are indices into the columns of this object. References that are resolved when an entity is loaded back into
+ * the simulation, edge points, point bones, bone parents, bind poses, and root hulls, are relative to the hull or
+ * entity that owns them.
+ */
+public class EntityColumns
+{
+    private static final int INITIAL_ENTITIES = 16;
+    private static final int INITIAL_ELEMENTS = 64;
+
+    private int entity_count      = 0;
+    private int hull_count        = 0;
+    private int point_count       = 0;
+    private int edge_count        = 0;
+    private int hull_bone_count   = 0;
+    private int entity_bone_count = 0;
+
+    public float[] entity               = new float[INITIAL_ENTITIES * 4];
+    public float[] entity_anim_time     = new float[INITIAL_ENTITIES * 4];
+    public float[] entity_prev_time     = new float[INITIAL_ENTITIES * 4];
+    public short[] entity_motion_state  = new short[INITIAL_ENTITIES * 2];
+    public int[] entity_anim_layers     = new int[INITIAL_ENTITIES * 4];
+    public int[] entity_anim_previous   = new int[INITIAL_ENTITIES * 4];
+    public int[] entity_model_id        = new int[INITIAL_ENTITIES];
+    public int[] entity_model_transform = new int[INITIAL_ENTITIES];
+    public float[] entity_mass          = new float[INITIAL_ENTITIES];
+    public int[] entity_root_hull       = new int[INITIAL_ENTITIES];
+    public int[] entity_type            = new int[INITIAL_ENTITIES];
+    public int[] entity_flag            = new int[INITIAL_ENTITIES];
+    public int[] entity_hull_table      = new int[INITIAL_ENTITIES * 2];
+    public int[] entity_bone_table      = new int[INITIAL_ENTITIES * 2];
+
+    public float[] hull             = new float[INITIAL_ELEMENTS * 4];
+    public float[] hull_scale       = new float[INITIAL_ELEMENTS * 2];
+    public float[] hull_rotation    = new float[INITIAL_ELEMENTS * 2];
+    public float[] hull_friction    = new float[INITIAL_ELEMENTS];
+    public float[] hull_restitution = new float[INITIAL_ELEMENTS];
+    public int[] hull_integrity     = new int[INITIAL_ELEMENTS];
+    public int[] hull_mesh_id       = new int[INITIAL_ELEMENTS];
+    public int[] hull_entity_id     = new int[INITIAL_ELEMENTS];
+    public int[] hull_uv_offset     = new int[INITIAL_ELEMENTS];
+    public int[] hull_flag          = new int[INITIAL_ELEMENTS];
+    public int[] hull_point_table   = new int[INITIAL_ELEMENTS * 2];
+    public int[] hull_edge_table    = new int[INITIAL_ELEMENTS * 2];
+    public int[] hull_bone_table    = new int[INITIAL_ELEMENTS * 2];
+
+    public float[] point                = new float[INITIAL_ELEMENTS * 4];
+    public int[] point_bone_table       = new int[INITIAL_ELEMENTS * 4];
+    public int[] point_vertex_reference = new int[INITIAL_ELEMENTS];
+    public int[] point_hull_index       = new int[INITIAL_ELEMENTS];
+    public short[] point_hit_count      = new short[INITIAL_ELEMENTS];
+    public int[] point_flag             = new int[INITIAL_ELEMENTS];
+
+    public int[] edge          = new int[INITIAL_ELEMENTS * 2];
+    public float[] edge_length = new float[INITIAL_ELEMENTS];
+    public int[] edge_flag     = new int[INITIAL_ELEMENTS];
+    public int[] edge_pin      = new int[INITIAL_ELEMENTS];
+
+    public float[] hull_bone                = new float[INITIAL_ELEMENTS * 16];
+    public int[] hull_bone_bind_pose_id     = new int[INITIAL_ELEMENTS];
+    public int[] hull_bone_inv_bind_pose_id = new int[INITIAL_ELEMENTS];
+
+    public float[] entity_bone            = new float[INITIAL_ELEMENTS * 16];
+    public int[] entity_bone_reference_id = new int[INITIAL_ELEMENTS];
+    public int[] entity_bone_parent_id    = new int[INITIAL_ELEMENTS];
+
+    public EntityColumns() {}
+
+    /**
+     * Creates a copy of the given columns, which can be appended to without changing the source.
+     */
+    public EntityColumns(EntityColumns source)
+    {
+        entity_count      = source.entity_count;
+        hull_count        = source.hull_count;
+        point_count       = source.point_count;
+        edge_count        = source.edge_count;
+        hull_bone_count   = source.hull_bone_count;
+        entity_bone_count = source.entity_bone_count;
+
+        entity                     = source.entity.clone();
+        entity_anim_time           = source.entity_anim_time.clone();
+        entity_prev_time           = source.entity_prev_time.clone();
+        entity_motion_state        = source.entity_motion_state.clone();
+        entity_anim_layers         = source.entity_anim_layers.clone();
+        entity_anim_previous       = source.entity_anim_previous.clone();
+        entity_model_id            = source.entity_model_id.clone();
+        entity_model_transform     = source.entity_model_transform.clone();
+        entity_mass                = source.entity_mass.clone();
+        entity_root_hull           = source.entity_root_hull.clone();
+        entity_type                = source.entity_type.clone();
+        entity_flag                = source.entity_flag.clone();
+        entity_hull_table          = source.entity_hull_table.clone();
+        entity_bone_table          = source.entity_bone_table.clone();
+        hull                       = source.hull.clone();
+        hull_scale                 = source.hull_scale.clone();
+        hull_rotation              = source.hull_rotation.clone();
+        hull_friction              = source.hull_friction.clone();
+        hull_restitution           = source.hull_restitution.clone();
+        hull_integrity             = source.hull_integrity.clone();
+        hull_mesh_id               = source.hull_mesh_id.clone();
+        hull_entity_id             = source.hull_entity_id.clone();
+        hull_uv_offset             = source.hull_uv_offset.clone();
+        hull_flag                  = source.hull_flag.clone();
+        hull_point_table           = source.hull_point_table.clone();
+        hull_edge_table            = source.hull_edge_table.clone();
+        hull_bone_table            = source.hull_bone_table.clone();
+        point                      = source.point.clone();
+        point_bone_table           = source.point_bone_table.clone();
+        point_vertex_reference     = source.point_vertex_reference.clone();
+        point_hull_index           = source.point_hull_index.clone();
+        point_hit_count            = source.point_hit_count.clone();
+        point_flag                 = source.point_flag.clone();
+        edge                       = source.edge.clone();
+        edge_length                = source.edge_length.clone();
+        edge_flag                  = source.edge_flag.clone();
+        edge_pin                   = source.edge_pin.clone();
+        hull_bone                  = source.hull_bone.clone();
+        hull_bone_bind_pose_id     = source.hull_bone_bind_pose_id.clone();
+        hull_bone_inv_bind_pose_id = source.hull_bone_inv_bind_pose_id.clone();
+        entity_bone                = source.entity_bone.clone();
+        entity_bone_reference_id   = source.entity_bone_reference_id.clone();
+        entity_bone_parent_id      = source.entity_bone_parent_id.clone();
+    }
+
+    public int entity_count()
+    {
+        return entity_count;
+    }
+
+    /**
+     * Returns the number of items stored in each group of columns, in the same order that is used for egress counts:
+     * entities, hulls, points, edges, hull bones, and entity bones.
+     */
+    public int[] counts()
+    {
+        return new int[]{ entity_count, hull_count, point_count, edge_count, hull_bone_count, entity_bone_count };
+    }
+
+    /**
+     * Sets the number of items stored in each group of columns, growing the columns as needed. Any existing data
+     * within the new counts is retained, this is used to fill the columns directly, e.g. when decoding stored data.
+     *
+     * @param counts item counts, in the order described by {@link #counts()}
+     */
+    public void resize(int[] counts)
+    {
+        ensure_entities(counts[0]);
+        ensure_hulls(counts[1]);
+        ensure_points(counts[2]);
+        ensure_edges(counts[3]);
+        ensure_hull_bones(counts[4]);
+        ensure_entity_bones(counts[5]);
+        entity_count      = counts[0];
+        hull_count        = counts[1];
+        point_count       = counts[2];
+        edge_count        = counts[3];
+        hull_bone_count   = counts[4];
+        entity_bone_count = counts[5];
+    }
+
+    public void clear()
+    {
+        entity_count      = 0;
+        hull_count        = 0;
+        point_count       = 0;
+        edge_count        = 0;
+        hull_bone_count   = 0;
+        entity_bone_count = 0;
+    }
+
+    /**
+     * Copies a single entity, along with all of its hulls, points, edges, and bones, out of a raw egress snapshot and
+     * appends it to these columns.
+     *
+     * @param raw           raw buffer data read back from the egress buffers
+     * @param entity_offset index of the entity within the raw data
+     */
+    public void append(UnorderedCoreBufferGroup.Raw raw, int entity_offset)
+    {
+        int entity_2 = entity_offset * 2;
+        int entity_4 = entity_offset * 4;
+
+        int raw_hull_start = raw.entity_hull_table[entity_2];
+        int raw_hull_end   = raw.entity_hull_table[entity_2 + 1];
+        int raw_bone_start = raw.entity_bone_table[entity_2];
+        int raw_bone_end   = raw.entity_bone_table[entity_2 + 1];
+        int hulls          = raw_hull_end - raw_hull_start + 1;
+        int bones          = raw_bone_end - raw_bone_start + 1;
+
+        if (bones > 0 && raw.entity_bone.length == 0)
+        {
+            throw new RuntimeException("unexpected bone table size: " + bones);
+        }
+
+        ensure_entities(entity_count + 1);
+        ensure_hulls(hull_count + hulls);
+        ensure_entity_bones(entity_bone_count + bones);
+
+        int next_2 = entity_count * 2;
+        int next_4 = entity_count * 4;
+
+        System.arraycopy(raw.entity, entity_4, entity, next_4, 4);
+        System.arraycopy(raw.entity_anim_time, entity_4, entity_anim_time, next_4, 4);
+        System.arraycopy(raw.entity_prev_time, entity_4, entity_prev_time, next_4, 4);
+        System.arraycopy(raw.entity_motion_state, entity_2, entity_motion_state, next_2, 2);
+        System.arraycopy(raw.entity_anim_layers, entity_4, entity_anim_layers, next_4, 4);
+        System.arraycopy(raw.entity_anim_previous, entity_4, entity_anim_previous, next_4, 4);
+        entity_model_id[entity_count]        = raw.entity_model_id[entity_offset];
+        entity_model_transform[entity_count] = raw.entity_model_transform[entity_offset];
+        entity_mass[entity_count]            = raw.entity_mass[entity_offset];
+        entity_root_hull[entity_count]       = raw.entity_root_hull[entity_offset] - raw_hull_start;
+        entity_type[entity_count]            = raw.entity_type[entity_offset];
+        entity_flag[entity_count]            = raw.entity_flag[entity_offset];
+        entity_hull_table[next_2]            = hull_count;
+        entity_hull_table[next_2 + 1]        = hull_count + hulls - 1;
+        entity_bone_table[next_2]            = entity_bone_count;
+        entity_bone_table[next_2 + 1]        = entity_bone_count + bones - 1;
+
+        if (bones > 0)
+        {
+            System.arraycopy(raw.entity_bone, raw_bone_start * 16, entity_bone, entity_bone_count * 16, bones * 16);
+            System.arraycopy(raw.entity_bone_reference_id, raw_bone_start, entity_bone_reference_id, entity_bone_count, bones);
+            System.arraycopy(raw.entity_bone_parent_id, raw_bone_start, entity_bone_parent_id, entity_bone_count, bones);
+            entity_bone_count += bones;
+        }
+
+        if (hulls > 0)
+        {
+            System.arraycopy(raw.hull, raw_hull_start * 4, hull, hull_count * 4, hulls * 4);
+            System.arraycopy(raw.hull_scale, raw_hull_start * 2, hull_scale, hull_count * 2, hulls * 2);
+            System.arraycopy(raw.hull_rotation, raw_hull_start * 2, hull_rotation, hull_count * 2, hulls * 2);
+            System.arraycopy(raw.hull_friction, raw_hull_start, hull_friction, hull_count, hulls);
+            System.arraycopy(raw.hull_restitution, raw_hull_start, hull_restitution, hull_count, hulls);
+            System.arraycopy(raw.hull_integrity, raw_hull_start, hull_integrity, hull_count, hulls);
+            System.arraycopy(raw.hull_mesh_id, raw_hull_start, hull_mesh_id, hull_count, hulls);
+            System.arraycopy(raw.hull_entity_id, raw_hull_start, hull_entity_id, hull_count, hulls);
+            System.arraycopy(raw.hull_uv_offset, raw_hull_start, hull_uv_offset, hull_count, hulls);
+            System.arraycopy(raw.hull_flag, raw_hull_start, hull_flag, hull_count, hulls);
+        }
+
+        for (int raw_hull = raw_hull_start; raw_hull <= raw_hull_end; raw_hull++)
+        {
+            append_hull_elements(raw, raw_hull, hull_count++);
+        }
+
+        entity_count++;
+    }
+
+    private void append_hull_elements(UnorderedCoreBufferGroup.Raw raw, int raw_hull, int hull_index)
+    {
+        int raw_hull_2 = raw_hull * 2;
+        int hull_2 = hull_index * 2;
+
+        int raw_point_start = raw.hull_point_table[raw_hull_2];
+        int raw_edge_start  = raw.hull_edge_table[raw_hull_2];
+        int raw_bone_start  = raw.hull_bone_table[raw_hull_2];
+        int points          = raw.hull_point_table[raw_hull_2 + 1] - raw_point_start + 1;
+        int edges           = raw.hull_edge_table[raw_hull_2 + 1] - raw_edge_start + 1;
+        int bones           = raw.hull_bone_table[raw_hull_2 + 1] - raw_bone_start + 1;
+
+        ensure_points(point_count + points);
+        ensure_edges(edge_count + edges);
+        ensure_hull_bones(hull_bone_count + bones);
+
+        hull_point_table[hull_2]     = point_count;
+        hull_point_table[hull_2 + 1] = point_count + points - 1;
+        hull_edge_table[hull_2]      = edge_count;
+        hull_edge_table[hull_2 + 1]  = edge_count + edges - 1;
+        hull_bone_table[hull_2]      = hull_bone_count;
+        hull_bone_table[hull_2 + 1]  = hull_bone_count + bones - 1;
+
+        if (points > 0)
+        {
+            System.arraycopy(raw.point, raw_point_start * 4, point, point_count * 4, points * 4);
+            System.arraycopy(raw.point_bone_table, raw_point_start * 4, point_bone_table, point_count * 4, points * 4);
+            System.arraycopy(raw.point_vertex_reference, raw_point_start, point_vertex_reference, point_count, points);
+            System.arraycopy(raw.point_hull_index, raw_point_start, point_hull_index, point_count, points);
+            System.arraycopy(raw.point_hit_count, raw_point_start, point_hit_count, point_count, points);
+            System.arraycopy(raw.point_flag, raw_point_start, point_flag, point_count, points);
+            point_count += points;
+        }
+
+        if (edges > 0)
+        {
+            for (int raw_edge = raw_edge_start; raw_edge < raw_edge_start + edges; raw_edge++)
+            {
+                int raw_edge_2 = raw_edge * 2;
+                int edge_2 = edge_count * 2;
+                edge[edge_2]     = raw.edge[raw_edge_2] - raw_point_start;
+                edge[edge_2 + 1] = raw.edge[raw_edge_2 + 1] - raw_point_start;
+                edge_count++;
+            }
+            int edge_start = edge_count - edges;
+            System.arraycopy(raw.edge_length, raw_edge_start, edge_length, edge_start, edges);
+            System.arraycopy(raw.edge_flag, raw_edge_start, edge_flag, edge_start, edges);
+            System.arraycopy(raw.edge_pin, raw_edge_start, edge_pin, edge_start, edges);
+        }
+
+        if (bones > 0)
+        {
+            System.arraycopy(raw.hull_bone, raw_bone_start * 16, hull_bone, hull_bone_count * 16, bones * 16);
+            System.arraycopy(raw.hull_bone_bind_pose_id, raw_bone_start, hull_bone_bind_pose_id, hull_bone_count, bones);
+            System.arraycopy(raw.hull_bone_inv_bind_pose_id, raw_bone_start, hull_bone_inv_bind_pose_id, hull_bone_count, bones);
+            hull_bone_count += bones;
+        }
+    }
+
+    //#region Column Growth
+
+    private static int grow(int current, int required)
+    {
+        return Math.max(required, current * 2);
+    }
+
+    private void ensure_entities(int required)
+    {
+        if (entity_mass.length >= required) return;
+        int capacity = grow(entity_mass.length, required);
+        entity                 = Arrays.copyOf(entity, capacity * 4);
+        entity_anim_time       = Arrays.copyOf(entity_anim_time, capacity * 4);
+        entity_prev_time       = Arrays.copyOf(entity_prev_time, capacity * 4);
+        entity_motion_state    = Arrays.copyOf(entity_motion_state, capacity * 2);
+        entity_anim_layers     = Arrays.copyOf(entity_anim_layers, capacity * 4);
+        entity_anim_previous   = Arrays.copyOf(entity_anim_previous, capacity * 4);
+        entity_model_id        = Arrays.copyOf(entity_model_id, capacity);
+        entity_model_transform = Arrays.copyOf(entity_model_transform, capacity);
+        entity_mass            = Arrays.copyOf(entity_mass, capacity);
+        entity_root_hull       = Arrays.copyOf(entity_root_hull, capacity);
+        entity_type            = Arrays.copyOf(entity_type, capacity);
+        entity_flag            = Arrays.copyOf(entity_flag, capacity);
+        entity_hull_table      = Arrays.copyOf(entity_hull_table, capacity * 2);
+        entity_bone_table      = Arrays.copyOf(entity_bone_table, capacity * 2);
+    }
+
+    private void ensure_hulls(int required)
+    {
+        if (hull_flag.length >= required) return;
+        int capacity = grow(hull_flag.length, required);
+        hull             = Arrays.copyOf(hull, capacity * 4);
+        hull_scale       = Arrays.copyOf(hull_scale, capacity * 2);
+        hull_rotation    = Arrays.copyOf(hull_rotation, capacity * 2);
+        hull_friction    = Arrays.copyOf(hull_friction, capacity);
+        hull_restitution = Arrays.copyOf(hull_restitution, capacity);
+        hull_integrity   = Arrays.copyOf(hull_integrity, capacity);
+        hull_mesh_id     = Arrays.copyOf(hull_mesh_id, capacity);
+        hull_entity_id   = Arrays.copyOf(hull_entity_id, capacity);
+        hull_uv_offset   = Arrays.copyOf(hull_uv_offset, capacity);
+        hull_flag        = Arrays.copyOf(hull_flag, capacity);
+        hull_point_table = Arrays.copyOf(hull_point_table, capacity * 2);
+        hull_edge_table  = Arrays.copyOf(hull_edge_table, capacity * 2);
+        hull_bone_table  = Arrays.copyOf(hull_bone_table, capacity * 2);
+    }
+
+    private void ensure_points(int required)
+    {
+        if (point_flag.length >= required) return;
+        int capacity = grow(point_flag.length, required);
+        point                  = Arrays.copyOf(point, capacity * 4);
+        point_bone_table       = Arrays.copyOf(point_bone_table, capacity * 4);
+        point_vertex_reference = Arrays.copyOf(point_vertex_reference, capacity);
+        point_hull_index       = Arrays.copyOf(point_hull_index, capacity);
+        point_hit_count        = Arrays.copyOf(point_hit_count, capacity);
+        point_flag             = Arrays.copyOf(point_flag, capacity);
+    }
+
+    private void ensure_edges(int required)
+    {
+        if (edge_flag.length >= required) return;
+        int capacity = grow(edge_flag.length, required);
+        edge        = Arrays.copyOf(edge, capacity * 2);
+        edge_length = Arrays.copyOf(edge_length, capacity);
+        edge_flag   = Arrays.copyOf(edge_flag, capacity);
+        edge_pin    = Arrays.copyOf(edge_pin, capacity);
+    }
+
+    private void ensure_hull_bones(int required)
+    {
+        if (hull_bone_bind_pose_id.length >= required) return;
+        int capacity = grow(hull_bone_bind_pose_id.length, required);
+        hull_bone                  = Arrays.copyOf(hull_bone, capacity * 16);
+        hull_bone_bind_pose_id     = Arrays.copyOf(hull_bone_bind_pose_id, capacity);
+        hull_bone_inv_bind_pose_id = Arrays.copyOf(hull_bone_inv_bind_pose_id, capacity);
+    }
+
+    private void ensure_entity_bones(int required)
+    {
+        if (entity_bone_reference_id.length >= required) return;
+        int capacity = grow(entity_bone_reference_id.length, required);
+        entity_bone              = Arrays.copyOf(entity_bone, capacity * 16);
+        entity_bone_reference_id = Arrays.copyOf(entity_bone_reference_id, capacity);
+        entity_bone_parent_id    = Arrays.copyOf(entity_bone_parent_id, capacity);
+    }
+
+    //#endregion
+}
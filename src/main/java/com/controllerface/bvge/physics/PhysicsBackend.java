@@ -0,0 +1,12 @@
+package com.controllerface.bvge.physics;
+
+/**
+ * Selects where the per sub-step physics stages are executed. The GPU backend runs every stage as an Open CL kernel,
+ * the CPU backend runs the collision and constraint stages on the host against a mirror of the core buffers, and is
+ * intended as a reference for validating kernel changes.
+ */
+public enum PhysicsBackend
+{
+    GPU,
+    CPU,
+}
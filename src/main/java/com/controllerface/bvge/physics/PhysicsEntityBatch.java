@@ -1,6 +1,6 @@
 package com.controllerface.bvge.physics;
 
-import com.controllerface.bvge.models.geometry.UnloadedEntity;
+import com.controllerface.bvge.memory.groups.UnorderedCoreBufferGroup;
 import com.controllerface.bvge.substances.Liquid;
 import com.controllerface.bvge.substances.Solid;
 
@@ -17,9 +17,23 @@ public class PhysicsEntityBatch
     public final List<Shard> shards = new ArrayList<>();
     public final List<Fluid> fluids = new ArrayList<>();
 
-    public final List<UnloadedEntity> entities = new ArrayList<>();
+    public final EntityColumns entities;
 
-    public PhysicsEntityBatch() {}
+    public PhysicsEntityBatch()
+    {
+        this.entities = new EntityColumns();
+    }
+
+    /**
+     * Creates a copy of the given batch, which can be added to without changing the source.
+     */
+    public PhysicsEntityBatch(PhysicsEntityBatch source)
+    {
+        this.blocks.addAll(source.blocks);
+        this.shards.addAll(source.shards);
+        this.fluids.addAll(source.fluids);
+        this.entities = new EntityColumns(source.entities);
+    }
 
     public void new_block(float x, float y, float size, float mass, float friction, float restitution, int entity_flags, int hull_flags, Solid block_material, int[] hits)
     {
@@ -36,8 +50,8 @@ public class PhysicsEntityBatch
         fluids.add(new Fluid(x, y, size, mass, friction, restitution, entity_flags, hull_flags, point_flags, particle_fluid));
     }
 
-    public void new_entity(UnloadedEntity entity)
+    public void new_entity(UnorderedCoreBufferGroup.Raw raw, int entity_offset)
     {
-        entities.add(entity);
+        entities.append(raw, entity_offset);
     }
 }
@@ -6,7 +6,6 @@ import com.controllerface.bvge.memory.SectorContainer;
 import com.controllerface.bvge.models.bones.BoneBindPose;
 import com.controllerface.bvge.models.geometry.Mesh;
 import com.controllerface.bvge.models.geometry.ModelRegistry;
-import com.controllerface.bvge.models.geometry.UnloadedEntity;
 import com.controllerface.bvge.models.geometry.Vertex;
 import com.controllerface.bvge.substances.Liquid;
 import com.controllerface.bvge.substances.Solid;
@@ -709,71 +708,102 @@ public class PhysicsObjects
             : ids[offset];
     }
 
-    public static void load_entity(SectorContainer world, UnloadedEntity entity)
+    /**
+     * Loads a single entity that was previously unloaded, along with all of its hulls, points, edges, and bones, into
+     * the given container. Entity relative references stored in the columns are resolved to the new object ids that
+     * the container assigns as each object is created.
+     *
+     * @param world        container the entity will be created in
+     * @param columns      columns holding the unloaded entity data
+     * @param entity_index index of the entity within the columns
+     */
+    public static void load_entity(SectorContainer world, EntityColumns columns, int entity_index)
     {
-        int entity_hull_index = 0;
-        int entity_bone_index = 0;
+        int entity_2 = entity_index * 2;
+        int entity_4 = entity_index * 4;
 
-        int[] entity_hull_ids = new int[entity.hulls().length];
-        int[] entity_bone_ids = new int[entity.bones().length];
+        int entity_hull_start = columns.entity_hull_table[entity_2];
+        int entity_hull_end   = columns.entity_hull_table[entity_2 + 1];
+        int entity_bone_start = columns.entity_bone_table[entity_2];
+        int entity_bone_end   = columns.entity_bone_table[entity_2 + 1];
 
-        for (var bone : entity.bones())
+        int[] entity_hull_ids = new int[entity_hull_end - entity_hull_start + 1];
+        int[] entity_bone_ids = new int[entity_bone_end - entity_bone_start + 1];
+
+        // containers copy argument data as objects are created, so these are safely reused for every object
+        float[] bone_data = new float[16];
+        float[] position  = new float[4];
+        float[] scale     = new float[2];
+        float[] rotation  = new float[2];
+        int[] bone_table  = new int[4];
+
+        for (int bone = entity_bone_start; bone <= entity_bone_end; bone++)
         {
-            int parent_id = get_index(bone.bone_parent(), entity_bone_ids);
-            entity_bone_ids[entity_bone_index++] = world.create_entity_bone(bone.bone_reference(), parent_id, bone.bone());
+            System.arraycopy(columns.entity_bone, bone * 16, bone_data, 0, 16);
+            int parent_id = get_index(columns.entity_bone_parent_id[bone], entity_bone_ids);
+            entity_bone_ids[bone - entity_bone_start] = world.create_entity_bone(columns.entity_bone_reference_id[bone], parent_id, bone_data);
         }
-        for (var hull : entity.hulls())
+        for (int hull = entity_hull_start; hull <= entity_hull_end; hull++)
         {
-            int hull_point_index = 0;
-            int hull_edge_index = 0;
-            int hull_bone_index = 0;
+            int hull_2 = hull * 2;
+            int hull_4 = hull * 4;
+
+            int hull_point_start = columns.hull_point_table[hull_2];
+            int hull_point_end   = columns.hull_point_table[hull_2 + 1];
+            int hull_edge_start  = columns.hull_edge_table[hull_2];
+            int hull_edge_end    = columns.hull_edge_table[hull_2 + 1];
+            int hull_bone_start  = columns.hull_bone_table[hull_2];
+            int hull_bone_end    = columns.hull_bone_table[hull_2 + 1];
 
-            int[] hull_point_ids = new int[hull.points().length];
-            int[] hull_edge_ids = new int[hull.edges().length];
-            int[] hull_bone_ids = new int[hull.bones().length];
+            int[] hull_point_ids = new int[hull_point_end - hull_point_start + 1];
+            int[] hull_edge_ids = new int[hull_edge_end - hull_edge_start + 1];
+            int[] hull_bone_ids = new int[hull_bone_end - hull_bone_start + 1];
 
-            for (var bone : hull.bones())
+            for (int bone = hull_bone_start; bone <= hull_bone_end; bone++)
             {
-                int bind_id = entity_bone_ids[bone.bind_id()];
-                hull_bone_ids[hull_bone_index++] = world.create_hull_bone(bone.bone_data(), bind_id, bone.inv_bind_id());
+                System.arraycopy(columns.hull_bone, bone * 16, bone_data, 0, 16);
+                int bind_id = entity_bone_ids[columns.hull_bone_bind_pose_id[bone]];
+                hull_bone_ids[bone - hull_bone_start] = world.create_hull_bone(bone_data, bind_id, columns.hull_bone_inv_bind_pose_id[bone]);
             }
-            for (var point : hull.points())
+            for (int point = hull_point_start; point <= hull_point_end; point++)
             {
-                int[] bone_table = new int[]
-                    {
-                        get_index(point.bone_1(), hull_bone_ids),
-                        get_index(point.bone_2(), hull_bone_ids),
-                        get_index(point.bone_3(), hull_bone_ids),
-                        get_index(point.bone_4(), hull_bone_ids),
-                    };
-                float[] position = new float[]{point.x(), point.y(), point.z(), point.w()};
-                hull_point_ids[hull_point_index++] = world.create_point(position, bone_table, point.vertex_reference(),
-                    world.next_hull(), point.hit_count(), point.flags());
+                int point_4 = point * 4;
+                bone_table[0] = get_index(columns.point_bone_table[point_4], hull_bone_ids);
+                bone_table[1] = get_index(columns.point_bone_table[point_4 + 1], hull_bone_ids);
+                bone_table[2] = get_index(columns.point_bone_table[point_4 + 2], hull_bone_ids);
+                bone_table[3] = get_index(columns.point_bone_table[point_4 + 3], hull_bone_ids);
+                System.arraycopy(columns.point, point_4, position, 0, 4);
+                hull_point_ids[point - hull_point_start] = world.create_point(position, bone_table, columns.point_vertex_reference[point],
+                    world.next_hull(), columns.point_hit_count[point], columns.point_flag[point]);
             }
-            for (var edge : hull.edges())
+            for (int edge = hull_edge_start; edge <= hull_edge_end; edge++)
             {
-                hull_edge_ids[hull_edge_index++] = world.create_edge(hull_point_ids[edge.p1()], hull_point_ids[edge.p2()], edge.length(), edge.flags(), edge.pin());
+                int edge_2 = edge * 2;
+                hull_edge_ids[edge - hull_edge_start] = world.create_edge(hull_point_ids[columns.edge[edge_2]], hull_point_ids[columns.edge[edge_2 + 1]],
+                    columns.edge_length[edge], columns.edge_flag[edge], columns.edge_pin[edge]);
             }
 
             int[] hull_point_table = make_table(hull_point_ids);
             int[] hull_edge_table = make_table(hull_edge_ids);
             int[] hull_bone_table = make_table(hull_bone_ids);
 
-            float[] position = new float[]{hull.x(), hull.y(), hull.z(), hull.w()};
-            float[] scale = new float[]{hull.scale_x(), hull.scale_y()};
-            float[] rotation = new float[]{hull.rotation_x(), hull.rotation_y()};
+            System.arraycopy(columns.hull, hull_4, position, 0, 4);
+            System.arraycopy(columns.hull_scale, hull_2, scale, 0, 2);
+            System.arraycopy(columns.hull_rotation, hull_2, rotation, 0, 2);
 
-            entity_hull_ids[entity_hull_index++] = world.create_hull(hull.mesh_id(), position, scale, rotation,
-                hull_point_table, hull_edge_table, hull_bone_table, hull.friction(), hull.restitution(),
-                world.next_entity(), hull.uv_offset(), hull.flags());
+            entity_hull_ids[hull - entity_hull_start] = world.create_hull(columns.hull_mesh_id[hull], position, scale, rotation,
+                hull_point_table, hull_edge_table, hull_bone_table, columns.hull_friction[hull], columns.hull_restitution[hull],
+                world.next_entity(), columns.hull_uv_offset[hull], columns.hull_flag[hull]);
         }
 
         int[] entity_hull_table = make_table(entity_hull_ids);
         int[] entity_bone_table = make_table(entity_bone_ids);
 
-        world.create_entity(entity.x(), entity.y(), entity.z(), entity.w(),
-            entity_hull_table, entity_bone_table, entity.mass(), entity.anim_layer_x(), entity.anim_time_x(),
-            entity_hull_ids[entity.root_hull()], entity.model_id(), entity.model_transform_id(), entity.type(), entity.flags());
+        world.create_entity(columns.entity[entity_4], columns.entity[entity_4 + 1], columns.entity[entity_4 + 2], columns.entity[entity_4 + 3],
+            entity_hull_table, entity_bone_table, columns.entity_mass[entity_index],
+            columns.entity_anim_layers[entity_4], columns.entity_anim_time[entity_4],
+            entity_hull_ids[columns.entity_root_hull[entity_index]], columns.entity_model_id[entity_index],
+            columns.entity_model_transform[entity_index], columns.entity_type[entity_index], columns.entity_flag[entity_index]);
     }
 
     private static int find_bone_index(Map<String, Integer> bone_map, String[] bone_names, int index)
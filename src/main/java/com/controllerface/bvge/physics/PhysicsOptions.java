@@ -0,0 +1,93 @@
+package com.controllerface.bvge.physics;
+
+/**
+ * The optional simulation features selected at start up, one mode per feature, along with the number of constraint
+ * passes warm started contacts begin with. Options are collected from the command line, then resolved once against
+ * the backend when the simulation is created.
+ */
+public record PhysicsOptions(PhysicsBackend backend,
+                             SubStepScheduler.Mode sub_steps,
+                             BroadPhaseBounds.Mode broad_phase,
+                             StaticKeyLayer.Mode static_keys,
+                             BodySleep.Mode sleep,
+                             ContinuousCollision.Mode ccd,
+                             ContactCache.Mode contacts,
+                             EdgeColoring.Mode constraints,
+                             int warm_edge_steps)
+{
+    public static final PhysicsOptions DEFAULTS = new PhysicsOptions(PhysicsBackend.GPU,
+        SubStepScheduler.Mode.FIXED,
+        BroadPhaseBounds.Mode.EXACT,
+        StaticKeyLayer.Mode.EVERY_STEP,
+        BodySleep.Mode.ALWAYS_AWAKE,
+        ContinuousCollision.Mode.OFF,
+        ContactCache.Mode.COLD,
+        EdgeColoring.Mode.PER_HULL,
+        ContactCache.DEFAULT_WARM_EDGE_STEPS);
+
+    /**
+     * Returns the options the simulation actually runs with. The CPU backend replaces the GPU integration, broad
+     * phase, narrow phase, and constraint stages with its own, and is used as a reference, so every other option
+     * is reset to its default when it is selected.
+     */
+    public PhysicsOptions resolve()
+    {
+        return backend == PhysicsBackend.CPU
+            ? DEFAULTS.with_backend(PhysicsBackend.CPU)
+            : this;
+    }
+
+    public PhysicsOptions with_backend(PhysicsBackend mode)
+    {
+        return new PhysicsOptions(mode, sub_steps, broad_phase, static_keys, sleep, ccd, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_sub_steps(SubStepScheduler.Mode mode)
+    {
+        return new PhysicsOptions(backend, mode, broad_phase, static_keys, sleep, ccd, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_broad_phase(BroadPhaseBounds.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, mode, static_keys, sleep, ccd, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_static_keys(StaticKeyLayer.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, mode, sleep, ccd, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_sleep(BodySleep.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, static_keys, mode, ccd, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_ccd(ContinuousCollision.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, static_keys, sleep, mode, contacts, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_contacts(ContactCache.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, static_keys, sleep, ccd, mode, constraints,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_constraints(EdgeColoring.Mode mode)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, static_keys, sleep, ccd, contacts, mode,
+            warm_edge_steps);
+    }
+
+    public PhysicsOptions with_warm_edge_steps(int steps)
+    {
+        return new PhysicsOptions(backend, sub_steps, broad_phase, static_keys, sleep, ccd, contacts, constraints,
+            steps);
+    }
+}
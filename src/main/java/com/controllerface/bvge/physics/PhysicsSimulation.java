@@ -3,6 +3,9 @@ package com.controllerface.bvge.physics;
 import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.GameSystem;
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Counter;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.game.state.PlayerController;
 import com.controllerface.bvge.gpu.GPU;
 import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
@@ -10,6 +13,7 @@ import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
 import com.controllerface.bvge.gpu.cl.buffers.PersistentBuffer;
 import com.controllerface.bvge.gpu.cl.buffers.ResizableBuffer;
 import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.GPUPipeline;
 import com.controllerface.bvge.gpu.cl.kernels.animation.AnimateBones_k;
 import com.controllerface.bvge.gpu.cl.kernels.animation.AnimateEntities_k;
 import com.controllerface.bvge.gpu.cl.kernels.animation.AnimatePoints_k;
@@ -22,9 +26,11 @@ import com.controllerface.bvge.gpu.cl.programs.scan.ScanKeyBank;
 import com.controllerface.bvge.gpu.cl.programs.scan.ScanKeyCandidates;
 import com.controllerface.bvge.memory.types.CoreBufferType;
 import com.controllerface.bvge.memory.types.PhysicsBufferType;
+import com.controllerface.bvge.physics.cpu.CPUPhysicsBackend;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.SynchronousQueue;
+import java.util.function.IntSupplier;
 
 import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
 import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
@@ -39,6 +45,16 @@ public class PhysicsSimulation extends GameSystem
     private static final int MAX_SUB_STEPS = 8;
     private static final int EDGE_STEPS = 16;
 
+    // bounds and latency budget used when sub-steps are scheduled adaptively
+    private static final int MIN_ADAPTIVE_SUB_STEPS = 3;
+    private static final int MAX_ADAPTIVE_SUB_STEPS = 12;
+    private static final int MIN_EDGE_STEPS = 6;
+    private static final long SUB_STEP_BUDGET_NS = 8_000_000L;
+
+    // headroom over the previous frame's peak counts, and the smallest bound, used when the broad phase is bounded
+    private static final float BROAD_PHASE_HEADROOM = 2.0f;
+    private static final int MIN_BROAD_PHASE_BOUND = 4096;
+
     public static final float FIXED_TIME_STEP = TICK_RATE / TARGET_SUB_STEPS;
 
     // todo: gravity should not be a constant but calculated based on proximity next to planets and other large bodies
@@ -73,6 +89,7 @@ public class PhysicsSimulation extends GameSystem
     private final GPUProgram p_scan_key_candidates      = new ScanKeyCandidates();
     private final GPUProgram p_aabb_collide             = new AabbCollide();
     private final GPUProgram p_sat_collide              = new SatCollide();
+    private final GPUProgram p_ccd_collide              = new CcdCollide();
     private final GPUProgram p_animate_hulls            = new AnimateHulls();
     private final GPUProgram p_resolve_constraints      = new ResolveConstraints();
 
@@ -85,6 +102,7 @@ public class PhysicsSimulation extends GameSystem
     private final GPUKernel k_complete_bounds_multi_block;
     private final GPUKernel k_complete_candidates_multi_block_out;
     private final GPUKernel k_count_candidates;
+    private final GPUKernel k_fill_in_bounds;
     private final GPUKernel k_finalize_candidates;
     private final GPUKernel k_build_key_bank;
     private final GPUKernel k_integrate;
@@ -93,7 +111,10 @@ public class PhysicsSimulation extends GameSystem
     private final GPUKernel k_locate_in_bounds;
     private final GPUKernel k_move_entities;
     private final GPUKernel k_move_hulls;
+    private final GPUKernel k_record_bound;
     private final GPUKernel k_resolve_constraints;
+    private final GPUKernel k_resolve_edge_constraints;
+    private final GPUKernel k_resolve_overflow_constraints;
     private final GPUKernel k_sat_collide;
     private final GPUKernel k_scan_bounds_multi_block;
     private final GPUKernel k_scan_bounds_single_block;
@@ -109,6 +130,10 @@ public class PhysicsSimulation extends GameSystem
     private final CL_Buffer counts_buf;
     private final CL_Buffer offsets_buf;
     private final CL_Buffer atomic_counter;
+    private final CL_Buffer speed_counter;
+    private final CL_Buffer candidate_counter;
+    private final CL_Buffer reaction_counter;
+    private final CL_Buffer bounds_buf;
 
     public final ResizableBuffer b_control_point_flags;
     public final ResizableBuffer b_control_point_indices;
@@ -130,6 +155,24 @@ public class PhysicsSimulation extends GameSystem
 
     private float time_accumulator = 0.0f;
 
+    private static PhysicsOptions selected_options = PhysicsOptions.DEFAULTS;
+
+    private final PhysicsOptions options;
+
+    private final CPUPhysicsBackend cpu_backend;
+    private final SubStepScheduler scheduler;
+    private final BroadPhaseBounds broad_phase;
+    private final StaticKeyLayer static_keys;
+    private final BodySleep body_sleep;
+    private final ContinuousCollision continuous_collision;
+    private final ContactCache contact_cache;
+    private final EdgeColoring edge_coloring;
+
+    private float time_step = FIXED_TIME_STEP;
+    private float velocity_scale = 1.0f;
+    private int edge_steps = EDGE_STEPS;
+    private int edge_colors = 1;
+
     //#endregion
 
     //#region Thread & Sync
@@ -146,6 +189,8 @@ public class PhysicsSimulation extends GameSystem
     private final BufferGroup<PhysicsBufferType> candidate_buffers;
     private final BufferGroup<PhysicsBufferType> match_buffers;
 
+    private final GPUPipeline sub_step_pipeline;
+
     private final Thread physics_simulation = Thread.ofVirtual().name("Physics-Simulation").start(() ->
     {
         try
@@ -181,6 +226,7 @@ public class PhysicsSimulation extends GameSystem
         super(ecs);
         this.uniform_grid = uniform_grid;
         this.player_controller = player_controller;
+        this.options = selected_options.resolve();
 
         gpu_int_scan = new GPUScanScalarInt(GPU.compute.physics_queue);
         gpu_int_scan_out = new GPUScanScalarIntOut(GPU.compute.physics_queue, gpu_int_scan);
@@ -188,6 +234,10 @@ public class PhysicsSimulation extends GameSystem
         grid_buffer_size = (long) cl_int.size() * this.uniform_grid.directory_length;
 
         atomic_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        speed_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        candidate_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        reaction_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        bounds_buf = GPU.CL.new_pinned_buffer(GPU.compute.context, (long) cl_int.size() * BroadPhaseBounds.STATE_SIZE);
         counts_buf = GPU.CL.new_buffer(GPU.compute.context, grid_buffer_size);
         offsets_buf = GPU.CL.new_buffer(GPU.compute.context, grid_buffer_size);
 
@@ -201,6 +251,7 @@ public class PhysicsSimulation extends GameSystem
         key_buffers = new BufferGroup<>(GPU.compute.physics_queue, PhysicsBufferType.class, KEY_BANK_BUFFER_NAME, false);
         key_buffers.init_buffer(PhysicsBufferType.KEY_MAP, INIT_BUFFER_SIZE);
         key_buffers.init_buffer(PhysicsBufferType.KEY_BANK, INIT_BUFFER_SIZE);
+        key_buffers.init_buffer(PhysicsBufferType.STATIC_KEY_MAP, INIT_BUFFER_SIZE);
 
         candidate_buffers = new BufferGroup<>(GPU.compute.physics_queue, PhysicsBufferType.class, CANDIDATE_BUFFER_NAME, false);
         candidate_buffers.init_buffer(PhysicsBufferType.IN_BOUNDS, INIT_BUFFER_SIZE);
@@ -229,12 +280,15 @@ public class PhysicsSimulation extends GameSystem
         p_scan_key_candidates.init();
         p_aabb_collide.init();
         p_sat_collide.init();
+        p_ccd_collide.init();
         p_animate_hulls.init();
         p_resolve_constraints.init();
 
         k_integrate = new Integrate_k(GPU.compute.physics_queue, p_integrate).init();
         k_integrate_entities = new IntegrateEntities_k(GPU.compute.physics_queue, p_integrate).init();
-        k_calculate_hull_aabb = new CalculateHullAABB_k(GPU.compute.physics_queue, p_integrate).init();
+        // circle bounds only cover the path swept in a sub-step when there is a sweep to find obstacles along it
+        int swept_circles = options.ccd() == ContinuousCollision.Mode.SWEPT ? 1 : 0;
+        k_calculate_hull_aabb = new CalculateHullAABB_k(GPU.compute.physics_queue, p_integrate).init(swept_circles);
 
         k_build_key_bank = new BuildKeyBank_k(GPU.compute.physics_queue, p_build_key_bank)
             .init(key_buffers, counts_buf, uniform_grid);
@@ -242,31 +296,65 @@ public class PhysicsSimulation extends GameSystem
         k_build_key_map = new BuildKeyMap_k(GPU.compute.physics_queue, p_build_key_map)
             .init(key_buffers, offsets_buf, counts_buf, uniform_grid);
 
+        static_keys = new StaticKeyLayer(options.static_keys(), uniform_grid, p_build_key_map, key_buffers, gpu_int_scan_out);
+
         k_locate_in_bounds = (new LocateInBounds_k(GPU.compute.physics_queue, p_locate_in_bounds)).init(candidate_buffers);
+        k_fill_in_bounds = new FillInBounds_k(GPU.compute.physics_queue, p_locate_in_bounds).init(candidate_buffers);
+        k_record_bound = new RecordBound_k(GPU.compute.physics_queue, p_locate_in_bounds).init(bounds_buf);
 
         k_count_candidates = new CountCandidates_k(GPU.compute.physics_queue, p_locate_in_bounds)
-            .init(candidate_buffers, key_buffers, counts_buf, uniform_grid);
+            .init(candidate_buffers, key_buffers, counts_buf, static_keys.counts(), uniform_grid);
 
         k_aabb_collide = new AABBCollide_k(GPU.compute.physics_queue, p_aabb_collide)
-            .init(match_buffers, candidate_buffers, key_buffers, counts_buf, offsets_buf, atomic_counter, uniform_grid);
+            .init(match_buffers,
+                candidate_buffers,
+                key_buffers,
+                counts_buf,
+                offsets_buf,
+                static_keys.counts(),
+                static_keys.offsets(),
+                atomic_counter,
+                uniform_grid);
 
         k_finalize_candidates = new FinalizeCandidates_k(GPU.compute.physics_queue, p_locate_in_bounds)
             .init(match_buffers, candidate_buffers);
 
+        contact_cache = new ContactCache(options.contacts(), options.warm_edge_steps(), p_resolve_constraints);
+
         k_sat_collide = new SatCollide_k(GPU.compute.physics_queue, p_sat_collide)
-            .init(candidate_buffers, reaction_buffers, atomic_counter, FIXED_TIME_STEP);
+            .init(candidate_buffers, reaction_buffers, reaction_counter, candidate_counter, contact_cache, FIXED_TIME_STEP);
+
+        continuous_collision = new ContinuousCollision(options.ccd(), p_ccd_collide, candidate_buffers, candidate_counter);
 
-        k_sort_reactions = new SortReactions_k(GPU.compute.physics_queue, p_sat_collide).init(reaction_buffers);
-        k_apply_reactions = new ApplyReactions_k(GPU.compute.physics_queue, p_sat_collide).init(reaction_buffers);
+        k_sort_reactions = new SortReactions_k(GPU.compute.physics_queue, p_sat_collide).init(reaction_buffers, reaction_counter);
+        k_apply_reactions = new ApplyReactions_k(GPU.compute.physics_queue, p_sat_collide).init(reaction_buffers, reaction_counter);
 
         k_move_hulls = new MoveHulls_k(GPU.compute.physics_queue, p_sat_collide).init();
-        k_move_entities = new MoveEntities_k(GPU.compute.physics_queue, p_sat_collide).init(FIXED_TIME_STEP);
+
+        body_sleep = new BodySleep(options.sleep(), p_sat_collide);
+
+        k_move_entities = new MoveEntities_k(GPU.compute.physics_queue, p_sat_collide)
+            .init(FIXED_TIME_STEP,
+                body_sleep.wake_bounds(),
+                body_sleep.wake_count(),
+                body_sleep.sleep_changes(),
+                body_sleep.sleep_ticks(),
+                BodySleep.SLEEP_SPEED,
+                BodySleep.MAX_WAKE_BOUNDS);
 
         k_animate_entities = new AnimateEntities_k(GPU.compute.physics_queue, p_animate_hulls).init();
         k_animate_bones = new AnimateBones_k(GPU.compute.physics_queue, p_animate_hulls).init();
         k_animate_points = new AnimatePoints_k(GPU.compute.physics_queue, p_animate_hulls).init();
         k_resolve_constraints = new ResolveConstraints_k(GPU.compute.physics_queue, p_resolve_constraints).init();
 
+        edge_coloring = new EdgeColoring(options.constraints(), p_resolve_constraints);
+
+        k_resolve_edge_constraints = new ResolveEdgeConstraints_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(edge_coloring.colored_edges());
+
+        k_resolve_overflow_constraints = new ResolveOverflowConstraints_k(GPU.compute.physics_queue, p_resolve_constraints)
+            .init(edge_coloring.overflow_hulls());
+
         k_scan_bounds_single_block = new ScanBoundsSingleBlock_k(GPU.compute.physics_queue, p_scan_key_bank);
         k_scan_bounds_multi_block = new ScanBoundsMultiBlock_k(GPU.compute.physics_queue, p_scan_key_bank);
         k_complete_bounds_multi_block = new CompleteBoundsMultiBlock_k(GPU.compute.physics_queue, p_scan_key_bank);
@@ -274,6 +362,33 @@ public class PhysicsSimulation extends GameSystem
         k_scan_candidates_single_block_out = new ScanCandidatesSingleBlockOut_k(GPU.compute.physics_queue, p_scan_key_candidates);
         k_scan_candidates_multi_block_out = new ScanCandidatesMultiBlockOut_k(GPU.compute.physics_queue, p_scan_key_candidates);
         k_complete_candidates_multi_block_out = new CompleteCandidatesMultiBlockOut_k(GPU.compute.physics_queue, p_scan_key_candidates);
+
+        cpu_backend = options.backend() == PhysicsBackend.CPU
+            ? new CPUPhysicsBackend(uniform_grid, FIXED_TIME_STEP, GRAVITY_X, GRAVITY_Y, MOTION_DAMPING)
+            : null;
+
+        scheduler = new SubStepScheduler(options.sub_steps(), TICK_RATE,
+            continuous_collision.sub_steps(TARGET_SUB_STEPS), MIN_ADAPTIVE_SUB_STEPS, MAX_ADAPTIVE_SUB_STEPS,
+            EDGE_STEPS, MIN_EDGE_STEPS, EDGE_STEPS,
+            SUB_STEP_BUDGET_NS);
+
+        // when hulls are swept, the first schedule runs fewer sub-steps, so each one is longer than the fixed step
+        time_step = scheduler.time_step();
+        k_sat_collide.set_arg(SatCollide_k.Args.dt, time_step);
+        k_move_entities.set_arg(MoveEntities_k.Args.dt, time_step);
+
+        broad_phase = new BroadPhaseBounds(options.broad_phase(), BROAD_PHASE_HEADROOM, MIN_BROAD_PHASE_BOUND);
+
+        sub_step_pipeline = record_sub_step_pipeline();
+    }
+
+    /**
+     * Selects the backend and optional features the simulation runs with. Must be called before the simulation is
+     * created.
+     */
+    public static void select_options(PhysicsOptions physics_options)
+    {
+        selected_options = physics_options;
     }
 
     //#region Input & Integration
@@ -286,7 +401,7 @@ public class PhysicsSimulation extends GameSystem
 
         float[] args =
             {
-                FIXED_TIME_STEP,
+                time_step,
                 GRAVITY_X,
                 GRAVITY_Y,
                 MOTION_DAMPING,
@@ -294,8 +409,13 @@ public class PhysicsSimulation extends GameSystem
                 uniform_grid.sector_origin_y(),
                 uniform_grid.sector_width(),
                 uniform_grid.sector_height(),
+                velocity_scale,
+                time_step / FIXED_TIME_STEP,
             };
 
+        // the velocity correction for a changed step size only applies to the first step at the new size
+        velocity_scale = 1.0f;
+
         var arg_mem_buf = GPU.CL.new_cpu_copy_buffer(GPU.compute.context, args);
 
         int hull_count = GPU.memory.sector_container().next_hull();
@@ -305,6 +425,7 @@ public class PhysicsSimulation extends GameSystem
 
         k_integrate
             .buf_arg(Integrate_k.Args.args, arg_mem_buf)
+            .buf_arg(Integrate_k.Args.max_speed, speed_counter)
             .set_arg(Integrate_k.Args.max_hull, hull_count)
             .call(arg_long(hull_size), GPU.compute.preferred_work_size);
 
@@ -318,7 +439,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_integrate", String.valueOf(e));
+            Metrics.record(Metric.PHYS_INTEGRATE, e);
         }
     }
 
@@ -348,8 +469,15 @@ public class PhysicsSimulation extends GameSystem
         int hull_count = GPU.memory.sector_container().next_hull();
         int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
 
+        // static and sleeping hulls keep their bounds and keys while the static layer is current, otherwise they
+        // are keyed along with all other hulls, and the static layer is rebuilt from their keys
+        float x_origin = args[2];
+        float y_origin = args[3];
+        boolean static_current = static_keys.is_current(hull_count, x_origin, y_origin);
+
         k_calculate_hull_aabb
             .buf_arg(CalculateHullAABB_k.Args.args, arg_mem_buf)
+            .set_arg(CalculateHullAABB_k.Args.static_cached, static_current ? 1 : 0)
             .set_arg(CalculateHullAABB_k.Args.max_hull, hull_count)
             .call(arg_long(hull_size), GPU.compute.preferred_work_size);
 
@@ -358,7 +486,12 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_calculate_hull_aabb", String.valueOf(e));
+            Metrics.record(Metric.PHYS_CALCULATE_HULL_AABB, e);
+        }
+
+        if (static_keys.mode() == StaticKeyLayer.Mode.CACHED && !static_current)
+        {
+            static_keys.build(hull_count, x_origin, y_origin);
         }
     }
 
@@ -371,16 +504,52 @@ public class PhysicsSimulation extends GameSystem
         long s = Editor.ACTIVE
             ? System.nanoTime()
             : 0;
-        int bank_size = scan_key_bounds(GPU.memory.get_buffer(CoreBufferType.HULL_AABB_KEY_TABLE).pointer(), GPU.memory.sector_container().next_hull());
-        uniform_grid.resizeBank(bank_size);
+        int hull_count = GPU.memory.sector_container().next_hull();
+        scan_key_bounds(GPU.memory.get_buffer(CoreBufferType.HULL_AABB_KEY_TABLE).pointer(), hull_count);
+        if (broad_phase.bounded())
+        {
+            // hulls with keys beyond the bound are dropped when the key bank is built
+            int bank_bound = hull_count == 0
+                ? 0
+                : broad_phase.bound(BroadPhaseBounds.BANK);
+            record_bound(atomic_counter, BroadPhaseBounds.BANK, bank_bound);
+            uniform_grid.resizeBank(bank_bound);
+        }
+        else
+        {
+            long sr = Editor.ACTIVE
+                ? System.nanoTime()
+                : 0;
+            int bank_size = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+            if (Editor.ACTIVE)
+            {
+                long e = System.nanoTime() - sr;
+                Metrics.record(Metric.PHYS_BANK_READ_PINNED, e);
+            }
+            broad_phase.observe(BroadPhaseBounds.BANK, bank_size);
+            uniform_grid.resizeBank(bank_size);
+        }
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_bank_offset", String.valueOf(e));
+            Metrics.record(Metric.PHYS_BANK_OFFSET, e);
         }
     }
 
-    private int scan_bounds_single_block(long data_ptr, int n)
+    /**
+     * Records the count held in the given buffer as a peak for the given bounds slot, and raises the overflow flag
+     * for the slot if the count exceeds the bound that was used for the current sub-step.
+     */
+    private void record_bound(CL_Buffer count, int slot, int bound)
+    {
+        k_record_bound
+            .buf_arg(RecordBound_k.Args.count, count)
+            .set_arg(RecordBound_k.Args.slot, slot)
+            .set_arg(RecordBound_k.Args.bound, bound)
+            .call_task();
+    }
+
+    private void scan_bounds_single_block(long data_ptr, int n)
     {
         long local_buffer_size = cl_int.size() * GPU.compute.max_scan_block_size;
 
@@ -392,11 +561,9 @@ public class PhysicsSimulation extends GameSystem
             .loc_arg(ScanBoundsSingleBlock_k.Args.buffer, local_buffer_size)
             .set_arg(ScanBoundsSingleBlock_k.Args.n, n)
             .call(GPU.compute.local_work_default, GPU.compute.local_work_default);
-
-        return GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
     }
 
-    private int scan_bounds_multi_block(long data_ptr, int n, int k)
+    private void scan_bounds_multi_block(long data_ptr, int n, int k)
     {
         long s = Editor.ACTIVE
             ? System.nanoTime()
@@ -419,7 +586,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_bank_scan_bounds", String.valueOf(e));
+            Metrics.record(Metric.PHYS_BANK_SCAN_BOUNDS, e);
         }
 
         gpu_int_scan.scan_int(p_data.ptr(), part_size);
@@ -443,32 +610,23 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_bank_complete_bounds", String.valueOf(e));
+            Metrics.record(Metric.PHYS_BANK_COMPLETE_BOUNDS, e);
         }
-
-        s = Editor.ACTIVE
-            ? System.nanoTime()
-            : 0;
-        int r = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
-        if (Editor.ACTIVE)
-        {
-            long e = System.nanoTime() - s;
-            Editor.queue_event("phys_bank_read_pinned", String.valueOf(e));
-        }
-
-        return r;
     }
 
-    private int scan_key_bounds(long data_ptr, int n)
+    /**
+     * Scans the key bank sizes of all hulls, leaving the total bank size in the atomic counter.
+     */
+    private void scan_key_bounds(long data_ptr, int n)
     {
         int k = GPU.compute.work_group_count(n);
         if (k == 1)
         {
-            return scan_bounds_single_block(data_ptr, n);
+            scan_bounds_single_block(data_ptr, n);
         }
         else
         {
-            return scan_bounds_multi_block(data_ptr, n, k);
+            scan_bounds_multi_block(data_ptr, n, k);
         }
     }
 
@@ -494,7 +652,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_gen_keys", String.valueOf(e));
+            Metrics.record(Metric.PHYS_GEN_KEYS, e);
         }
     }
 
@@ -513,7 +671,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_key_map", String.valueOf(e));
+            Metrics.record(Metric.PHYS_KEY_MAP, e);
         }
     }
 
@@ -525,18 +683,31 @@ public class PhysicsSimulation extends GameSystem
         int hull_count = GPU.memory.sector_container().next_hull();
         int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
         candidate_buffers.buffer(PhysicsBufferType.IN_BOUNDS).ensure_capacity(hull_count);
-        GPU.CL.zero_buffer(GPU.compute.physics_queue, atomic_counter, cl_int.size());
 
-        k_locate_in_bounds
-            .buf_arg(LocateInBounds_k.Args.counter, atomic_counter)
-            .set_arg(LocateInBounds_k.Args.max_bound, hull_count)
-            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+        if (broad_phase.bounded())
+        {
+            // every hull is considered, hulls that are out of bounds have empty key banks and find no candidates
+            k_fill_in_bounds
+                .set_arg(FillInBounds_k.Args.max_bound, hull_count)
+                .call(arg_long(hull_size), GPU.compute.preferred_work_size);
 
-        candidate_buffer_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+            candidate_buffer_count = hull_count;
+        }
+        else
+        {
+            GPU.CL.zero_buffer(GPU.compute.physics_queue, atomic_counter, cl_int.size());
+
+            k_locate_in_bounds
+                .buf_arg(LocateInBounds_k.Args.counter, atomic_counter)
+                .set_arg(LocateInBounds_k.Args.max_bound, hull_count)
+                .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+
+            candidate_buffer_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+        }
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_locate_inbounds", String.valueOf(e));
+            Metrics.record(Metric.PHYS_LOCATE_INBOUNDS, e);
         }
     }
 
@@ -553,11 +724,11 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_match_candidates", String.valueOf(e));
+            Metrics.record(Metric.PHYS_MATCH_CANDIDATES, e);
         }
     }
 
-    private int scan_single_block_candidates_out(long data_ptr, long o_data_ptr, int n)
+    private void scan_single_block_candidates_out(long data_ptr, long o_data_ptr, int n)
     {
         long local_buffer_size = cl_int.size() * GPU.compute.max_scan_block_size;
 
@@ -570,11 +741,9 @@ public class PhysicsSimulation extends GameSystem
             .loc_arg(ScanCandidatesSingleBlockOut_k.Args.buffer, local_buffer_size)
             .set_arg(ScanCandidatesSingleBlockOut_k.Args.n, n)
             .call(GPU.compute.local_work_default, GPU.compute.local_work_default);
-
-        return GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
     }
 
-    private int scan_multi_block_candidates_out(long data_ptr, long o_data_ptr, int n, int k)
+    private void scan_multi_block_candidates_out(long data_ptr, long o_data_ptr, int n, int k)
     {
         long local_buffer_size = cl_int.size() * GPU.compute.max_scan_block_size;
 
@@ -606,20 +775,21 @@ public class PhysicsSimulation extends GameSystem
             .call(global_work_size, GPU.compute.local_work_default);
 
         p_data.release();
-
-        return GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
     }
 
-    private int scan_key_candidates(long data_ptr, long o_data_ptr, int n)
+    /**
+     * Scans the candidate counts of all in bounds hulls, leaving the total match table size in the atomic counter.
+     */
+    private void scan_key_candidates(long data_ptr, long o_data_ptr, int n)
     {
         int k = GPU.compute.work_group_count(n);
         if (k == 1)
         {
-            return scan_single_block_candidates_out(data_ptr, o_data_ptr, n);
+            scan_single_block_candidates_out(data_ptr, o_data_ptr, n);
         }
         else
         {
-            return scan_multi_block_candidates_out(data_ptr, o_data_ptr, n, k);
+            scan_multi_block_candidates_out(data_ptr, o_data_ptr, n, k);
         }
     }
 
@@ -631,11 +801,22 @@ public class PhysicsSimulation extends GameSystem
         candidate_buffers.buffer(PhysicsBufferType.CANDIDATE_OFFSETS).ensure_capacity(candidate_buffer_count);
         long counts_ptr = candidate_buffers.buffer(PhysicsBufferType.CANDIDATE_COUNTS).pointer();
         long offsets_ptr = candidate_buffers.buffer(PhysicsBufferType.CANDIDATE_OFFSETS).pointer();
-        match_buffer_count = scan_key_candidates(counts_ptr, offsets_ptr, (int) candidate_buffer_count);
+        scan_key_candidates(counts_ptr, offsets_ptr, (int) candidate_buffer_count);
+        if (broad_phase.bounded())
+        {
+            // hulls with matches beyond the bound are skipped by the AABB check
+            match_buffer_count = broad_phase.bound(BroadPhaseBounds.MATCH);
+            record_bound(atomic_counter, BroadPhaseBounds.MATCH, (int) match_buffer_count);
+        }
+        else
+        {
+            match_buffer_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+            broad_phase.observe(BroadPhaseBounds.MATCH, match_buffer_count);
+        }
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_match_offsets", String.valueOf(e));
+            Metrics.record(Metric.PHYS_MATCH_OFFSETS, e);
         }
     }
 
@@ -649,13 +830,21 @@ public class PhysicsSimulation extends GameSystem
         match_buffers.buffer(PhysicsBufferType.MATCHES_USED).ensure_capacity(candidate_buffer_count);
         GPU.CL.zero_buffer(GPU.compute.physics_queue, atomic_counter, cl_int.size());
         k_aabb_collide
+            .set_arg(AABBCollide_k.Args.max_match, (int) match_buffer_count)
             .set_arg(AABBCollide_k.Args.max_index, (int) candidate_buffer_count)
             .call(arg_long(candidate_size), GPU.compute.preferred_work_size);
-        candidate_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+        if (!broad_phase.bounded())
+        {
+            candidate_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+        }
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_aabb_collide", String.valueOf(e));
+            Metrics.record(Metric.PHYS_AABB_COLLIDE, e);
+            if (!broad_phase.bounded())
+            {
+                Metrics.record(Metric.PHYS_CANDIDATE_COUNT, candidate_count);
+            }
         }
     }
 
@@ -664,32 +853,43 @@ public class PhysicsSimulation extends GameSystem
         long s = Editor.ACTIVE
             ? System.nanoTime()
             : 0;
-        if (candidate_count <= 0)
+        boolean bounded = broad_phase.bounded();
+        if (!bounded && candidate_count <= 0)
         {
             return;
         }
 
-        long buffer_size = (long) cl_int2.size() * candidate_count;
-
-        candidate_buffers.buffer(PhysicsBufferType.CANDIDATES).ensure_capacity(candidate_count);
+        // there can be no more candidates than matches, so the match bound is a safe capacity when bounded
+        long candidate_capacity = bounded
+            ? match_buffer_count
+            : candidate_count;
 
-        int[] counter = new int[]{0};
-        var counter_buf = GPU.CL.new_int_arg_buffer(GPU.compute.context, counter);
-
-        candidate_buffer_size = buffer_size;
+        candidate_buffers.buffer(PhysicsBufferType.CANDIDATES).ensure_capacity(candidate_capacity);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, candidate_counter, cl_int.size());
 
         int candidate_size = GPU.compute.calculate_preferred_global_size((int) candidate_buffer_count);
 
         k_finalize_candidates
-            .buf_arg(FinalizeCandidates_k.Args.counter, counter_buf)
+            .buf_arg(FinalizeCandidates_k.Args.counter, candidate_counter)
             .set_arg(FinalizeCandidates_k.Args.max_index, (int) candidate_buffer_count)
             .call(arg_long(candidate_size), GPU.compute.preferred_work_size);
 
-        counter_buf.release();
+        if (bounded)
+        {
+            // candidates beyond the bound are not dispatched to the narrow phase
+            candidate_count = Math.min(broad_phase.bound(BroadPhaseBounds.CANDIDATE), candidate_capacity);
+            record_bound(candidate_counter, BroadPhaseBounds.CANDIDATE, (int) candidate_count);
+        }
+        else
+        {
+            broad_phase.observe(BroadPhaseBounds.CANDIDATE, candidate_count);
+        }
+
+        candidate_buffer_size = (long) cl_int2.size() * candidate_count;
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_finalize_candidates", String.valueOf(e));
+            Metrics.record(Metric.PHYS_FINALIZE_CANDIDATES, e);
         }
     }
     //#endregion
@@ -703,7 +903,7 @@ public class PhysicsSimulation extends GameSystem
             : 0;
         int candidate_pair_size = (int) candidate_buffer_size / cl_int2.size();
         int candidate_size = GPU.compute.calculate_preferred_global_size(candidate_pair_size);
-        GPU.CL.zero_buffer(GPU.compute.physics_queue, atomic_counter, cl_int.size());
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, reaction_counter, cl_int.size());
 
         long max_point_count = candidate_buffer_size
             * 2  // there are two bodies per collision pair
@@ -715,13 +915,21 @@ public class PhysicsSimulation extends GameSystem
         reaction_buffers.buffer(PhysicsBufferType.POINT_REACTION_COUNTS).ensure_capacity(GPU.memory.sector_container().next_point());
         reaction_buffers.buffer(PhysicsBufferType.POINT_REACTION_OFFSETS).ensure_capacity(GPU.memory.sector_container().next_point());
         k_sat_collide
+            .set_arg(SatCollide_k.Args.contact_step, contact_cache.next_step())
             .set_arg(SatCollide_k.Args.max_index, candidate_pair_size)
             .call(arg_long(candidate_size), GPU.compute.preferred_work_size);
-        reaction_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, atomic_counter);
+        // when bounded, the reaction buffers are sized for the worst case, and later stages read the count on the device
+        reaction_count = broad_phase.bounded()
+            ? max_point_count
+            : GPU.CL.read_pinned_int(GPU.compute.physics_queue, reaction_counter);
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_sat_collide", String.valueOf(e));
+            Metrics.record(Metric.PHYS_SAT_COLLIDE, e);
+            if (!broad_phase.bounded())
+            {
+                Metrics.record(Metric.PHYS_REACTION_COUNT, reaction_count);
+            }
         }
     }
 
@@ -737,7 +945,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_sat_scan_reactions", String.valueOf(e));
+            Metrics.record(Metric.PHYS_SAT_SCAN_REACTIONS, e);
         }
     }
 
@@ -753,7 +961,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_sat_sort_reactions", String.valueOf(e));
+            Metrics.record(Metric.PHYS_SAT_SORT_REACTIONS, e);
         }
     }
 
@@ -770,7 +978,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_sat_apply_reactions", String.valueOf(e));
+            Metrics.record(Metric.PHYS_SAT_APPLY_REACTIONS, e);
         }
     }
     //#endregion
@@ -791,7 +999,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_animate_entities", String.valueOf(e));
+            Metrics.record(Metric.PHYS_ANIMATE_ENTITIES, e);
         }
     }
 
@@ -808,7 +1016,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_animate_bones", String.valueOf(e));
+            Metrics.record(Metric.PHYS_ANIMATE_BONES, e);
         }
     }
 
@@ -825,7 +1033,7 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_animate_points", String.valueOf(e));
+            Metrics.record(Metric.PHYS_ANIMATE_POINTS, e);
         }
     }
 
@@ -833,66 +1041,92 @@ public class PhysicsSimulation extends GameSystem
 
     //#region Constraint Resolvers
 
-    private void resolve_constraints(int steps)
+    /**
+     * Records the stages that run after collision in every GPU sub-step. These always run in the same order, with
+     * the same buffers, so they are recorded once and replayed, which avoids setting every argument and allocating
+     * work sizes for each call.
+     */
+    private GPUPipeline record_sub_step_pipeline()
     {
-        long s = Editor.ACTIVE
-            ? System.nanoTime()
-            : 0;
-        boolean last_step;
-        int hull_count = GPU.memory.sector_container().next_hull();
-        int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
-        long[] hull_global_size = arg_long(hull_size);
-
-        for (int i = 0; i < steps; i++)
-        {
-            last_step = i == steps - 1;
-            int n = last_step
-                ? 1
-                : 0;
-
-            k_resolve_constraints
-                .set_arg(ResolveConstraints_k.Args.process_all, n)
-                .set_arg(ResolveConstraints_k.Args.max_hull, hull_count)
-                .call(hull_global_size, GPU.compute.preferred_work_size);
-        }
-        if (Editor.ACTIVE)
-        {
-            long e = System.nanoTime() - s;
-            Editor.queue_event("phys_resolve_constraints", String.valueOf(e));
-        }
+        IntSupplier hull_count   = () -> GPU.memory.sector_container().next_hull();
+        IntSupplier entity_count = () -> GPU.memory.sector_container().next_entity();
+        IntSupplier point_count  = () -> GPU.memory.sector_container().next_point();
+
+        var pipeline = new GPUPipeline();
+
+        // a single constraint pass settles points moved by collision reactions
+        record_constraint_passes(pipeline, () -> 1);
+
+        pipeline
+            .stage(k_move_hulls, hull_count, MoveHulls_k.Args.max_hull)
+            .timed(Metric.PHYS_MOVE_HULLS)
+
+            // Once all points have been relocated, all hulls are in their required positions for this frame.
+            // Movements applied to hulls are now accumulated and applied to their parent entities.
+            .stage(k_move_entities, entity_count, MoveEntities_k.Args.max_entity)
+            .timed(Metric.PHYS_MOVE_ENTITIES)
+
+            // Now we make a call to animate the vertices of bone-tracked hulls. This ensures that all tracked
+            // objects that have animation will have their hulls moved into position for the current tick. It
+            // may seem odd to process animations as part of physics and not rendering, however this is required
+            // as the animated objects need to be accounted for in physical space. The hulls representing the
+            // rendered meshes are what is actually moved, and the result of the hull movement is used to position
+            // the original mesh for rendering. This separation is necessary as model geometry is too complex to
+            // use as a collision boundary.
+            .stage(k_animate_points, point_count, AnimatePoints_k.Args.max_point)
+            .timed(Metric.PHYS_ANIMATE_POINTS);
+
+        // Once positions are adjusted, edge constraints are enforced to ensure that rigid bodies maintain
+        // their defined shapes. Without this step, the individual points of the tracked physics hulls will
+        // deform on impact, possibly to non-convex shapes and typically causing simulation failure. The
+        // number of steps that are performed each tick has an impact on the accuracy of the hull boundaries
+        // within the simulation.
+        record_constraint_passes(pipeline, () -> edge_steps);
+
+        return pipeline;
     }
 
-    private void resolve_entities()
+    /**
+     * Records a set of constraint passes with the selected solver. Only the last pass in each set processes hulls
+     * that are outside the key bank. When edges are coloured, each pass is one call per colour, sized to the edges
+     * of that colour, and hulls that could not be coloured are resolved one work item per hull. These hulls share no
+     * points with coloured edges, so their passes do not need to be interleaved with the colour calls.
+     */
+    private void record_constraint_passes(GPUPipeline pipeline, IntSupplier passes)
     {
-        long s = Editor.ACTIVE
-            ? System.nanoTime()
-            : 0;
-        int entity_count = GPU.memory.sector_container().next_entity();
-        int entity_size = GPU.compute.calculate_preferred_global_size(entity_count);
-        k_move_entities
-            .set_arg(MoveEntities_k.Args.max_entity, entity_count)
-            .call(arg_long(entity_size), GPU.compute.preferred_work_size);
-        if (Editor.ACTIVE)
+        if (edge_coloring.mode() == EdgeColoring.Mode.PER_HULL)
         {
-            long e = System.nanoTime() - s;
-            Editor.queue_event("phys_move_entities", String.valueOf(e));
+            IntSupplier hull_count = () -> GPU.memory.sector_container().next_hull();
+
+            pipeline
+                .stage(k_resolve_constraints, hull_count, ResolveConstraints_k.Args.max_hull)
+                .bind_step(ResolveConstraints_k.Args.process_all, (step, steps) -> step == steps - 1
+                    ? 1
+                    : 0)
+                .repeat(passes)
+                .timed(Metric.PHYS_RESOLVE_CONSTRAINTS);
         }
-    }
-
-    private void resolve_hulls()
-    {
-        long s = Editor.ACTIVE
-            ? System.nanoTime()
-            : 0;
-        int hull_count = GPU.memory.sector_container().next_hull();
-        int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
-        k_move_hulls
-            .set_arg(MoveHulls_k.Args.max_hull, hull_count)
-            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
-        if (Editor.ACTIVE)
+        else
         {
-            long e = System.nanoTime() - s;
-            Editor.queue_event("phys_move_hulls", String.valueOf(e));
+            GPUPipeline.StepValue color_size   = (step, _) -> edge_coloring.color_size(step % edge_colors);
+            GPUPipeline.StepValue color_offset = (step, _) -> edge_coloring.color_offset(step % edge_colors);
+
+            pipeline
+                .stage_steps(k_resolve_edge_constraints, color_size)
+                .bind_step(ResolveEdgeConstraints_k.Args.max_edge, color_size)
+                .bind_step(ResolveEdgeConstraints_k.Args.color_offset, color_offset)
+                .bind_step(ResolveEdgeConstraints_k.Args.process_all, (step, steps) -> step >= steps - edge_colors
+                    ? 1
+                    : 0)
+                .repeat(() -> passes.getAsInt() * edge_colors)
+                .timed(Metric.PHYS_RESOLVE_CONSTRAINTS)
+
+                .stage(k_resolve_overflow_constraints, edge_coloring::overflow_count, ResolveOverflowConstraints_k.Args.max_hull)
+                .bind_step(ResolveOverflowConstraints_k.Args.process_all, (step, steps) -> step == steps - 1
+                    ? 1
+                    : 0)
+                .repeat(passes)
+                .timed(Metric.PHYS_RESOLVE_CONSTRAINTS);
         }
     }
 
@@ -988,7 +1222,7 @@ public class PhysicsSimulation extends GameSystem
         calculate_match_offsets();
         if (Editor.ACTIVE)
         {
-            Editor.queue_event("phys_match_buffer_count", String.valueOf(match_buffer_count));
+            Metrics.record(Metric.PHYS_MATCH_BUFFER_COUNT, match_buffer_count);
         }
         if (match_buffer_count > 100_000_000)
         {
@@ -1027,6 +1261,10 @@ public class PhysicsSimulation extends GameSystem
         are moved together as a unit. Without this step, armature based entities will not collide correctly.
         */
 
+        // Hulls that moved far enough in this sub-step to have passed into or through an obstacle are swept against
+        // the obstacles they were paired with, and moved back to where they first hit one.
+        continuous_collision.collide((int) candidate_buffer_size / cl_int2.size(), GPU.memory.sector_container().next_hull());
+
         // Using the candidates generated by the AABB checks, we now do a full collision check. For any objects
         // that are found to be colliding, appropriate reaction vectors are generated and stored.
         sat_collide();
@@ -1052,6 +1290,94 @@ public class PhysicsSimulation extends GameSystem
         //shift_origins(true);
     }
 
+    /**
+     * Runs one sub-step with the CPU backend. Core buffers are mirrored to the host, simulated, and written back, so
+     * point animation can run on the GPU between the first and final constraint passes, as it does in a GPU sub-step.
+     */
+    private void cpu_sub_step()
+    {
+        cpu_backend.download();
+        cpu_backend.tick_simulation();
+        cpu_backend.resolve_constraints(1);
+        cpu_backend.resolve_hulls();
+        cpu_backend.resolve_entities();
+        cpu_backend.upload();
+
+        animate_points();
+
+        cpu_backend.download_points();
+        cpu_backend.resolve_constraints(EDGE_STEPS);
+        cpu_backend.upload_points();
+    }
+
+    /**
+     * Length of the current sub-step. This is the fixed step unless sub-steps are scheduled adaptively, in which case
+     * it changes with the schedule, so anything that converts a per-step displacement to a velocity must use it.
+     */
+    public float time_step()
+    {
+        return time_step;
+    }
+
+    /**
+     * Passes the measurements of the sub-step loop that just completed to the scheduler, and applies the schedule
+     * it picks for the next frame. When the step size changes, kernels that depend on it are updated, and the next
+     * integration step rescales point velocities so motion is preserved across the change.
+     */
+    private void update_schedule(long loop_start, int sub_ticks_run)
+    {
+        if (scheduler.mode() == SubStepScheduler.Mode.FIXED)
+        {
+            return;
+        }
+
+        // reading the counter blocks until the physics queue is idle, so the loop time includes all queued work
+        float max_speed = Float.intBitsToFloat(GPU.CL.read_pinned_int(GPU.compute.physics_queue, speed_counter));
+        long loop_time = System.nanoTime() - loop_start;
+        scheduler.update(loop_time, sub_ticks_run, max_speed);
+
+        float next_time_step = scheduler.time_step();
+        if (next_time_step != time_step)
+        {
+            velocity_scale = next_time_step / time_step;
+            time_step = next_time_step;
+            k_sat_collide.set_arg(SatCollide_k.Args.dt, time_step);
+            k_move_entities.set_arg(MoveEntities_k.Args.dt, time_step);
+        }
+
+        if (Editor.ACTIVE)
+        {
+            Metrics.record(Metric.PHYS_SUB_STEPS, scheduler.sub_steps());
+            if (scheduler.budget_limited())
+            {
+                Metrics.count(Counter.BUDGET_LIMITED_FRAMES, 1);
+            }
+        }
+    }
+
+    /**
+     * Completes the broad phase bounds for the frame that just ran. In a bounded frame, this is the only point at
+     * which the physics queue is drained for broad phase counts.
+     */
+    private void update_broad_phase()
+    {
+        if (broad_phase.mode() == BroadPhaseBounds.Mode.EXACT)
+        {
+            return;
+        }
+
+        int[] device_state = broad_phase.bounded()
+            ? GPU.CL.read_pinned_int_buffer(GPU.compute.physics_queue, bounds_buf, cl_int.size(), BroadPhaseBounds.STATE_SIZE)
+            : null;
+
+        broad_phase.end_frame(device_state);
+
+        if (Editor.ACTIVE && broad_phase.overflowed())
+        {
+            Metrics.count(Counter.BOUNDS_OVERFLOWS, 1);
+        }
+    }
+
     private void simulate(float dt)
     {
         long s = Editor.ACTIVE
@@ -1079,65 +1405,83 @@ public class PhysicsSimulation extends GameSystem
         // Simulation Loop //
         //-----------------//
 
+        long loop_start = System.nanoTime();
+        if (scheduler.mode() == SubStepScheduler.Mode.ADAPTIVE)
+        {
+            GPU.CL.zero_buffer(GPU.compute.physics_queue, speed_counter, cl_int.size());
+        }
+        broad_phase.begin_frame(GPU.memory.sector_container().next_hull(), GPU.memory.hull_layout_version());
+        if (broad_phase.bounded())
+        {
+            GPU.CL.zero_buffer(GPU.compute.physics_queue, bounds_buf, (long) cl_int.size() * BroadPhaseBounds.STATE_SIZE);
+        }
+
+        contact_cache.begin_frame(GPU.memory.sector_container().next_hull());
+        edge_coloring.update(GPU.memory.sector_container().next_hull(), GPU.memory.sector_container().next_edge());
+        edge_colors = edge_coloring.color_count();
+
+        int sub_steps = scheduler.sub_steps();
+        edge_steps = contact_cache.edge_steps(scheduler.edge_steps());
+        if (Editor.ACTIVE)
+        {
+            Metrics.record(Metric.PHYS_EDGE_STEPS, edge_steps);
+        }
+        int max_sub_ticks = sub_steps * MAX_SUB_STEPS / TARGET_SUB_STEPS;
+
         this.time_accumulator += dt;
         int sub_ticks = 0;
-        float dropped_time;
+        int sub_ticks_run = 0;
         while (this.time_accumulator >= TICK_RATE)
         {
-            for (int i = 0; i < TARGET_SUB_STEPS; i++)
+            for (int i = 0; i < sub_steps; i++)
             {
                 sub_ticks++;
 
                 // if we end up doing more sub ticks than is ideal, we will avoid ticking the simulation anymore
                 // for this frame. This forces slower hardware to slow down a bit, which is less than ideal, but
                 // is better than the alternative, which is system lockup.
-                if (sub_ticks <= MAX_SUB_STEPS)
+                if (sub_ticks <= max_sub_ticks)
                 {
-                    this.time_accumulator -= FIXED_TIME_STEP;
+                    sub_ticks_run++;
+                    this.time_accumulator -= time_step;
 
                     // Before the GPU begins the step cycle, player input is handled and the memory structures
                     // in the GPU are updated with the proper values.
-                    player_controller.update_player_state();
+                    player_controller.update_player_state(time_step());
+
+                    if (cpu_backend != null)
+                    {
+                        cpu_sub_step();
+                        continue;
+                    }
 
                     // perform one tick of the simulation
                     this.tick_simulation();
 
-                    resolve_constraints(1);
-
-                    resolve_hulls();
-
-                    // Once all points have been relocated, all hulls are in their required positions for this frame.
-                    // Movements applied to hulls are now accumulated and applied to their parent entities.
-                    resolve_entities();
-
-                    // Now we make a call to animate the vertices of bone-tracked hulls. This ensures that all tracked
-                    // objects that have animation will have their hulls moved into position for the current tick. It
-                    // may seem odd to process animations as part of physics and not rendering, however this is required
-                    // as the animated objects need to be accounted for in physical space. The hulls representing the
-                    // rendered meshes are what is actually moved, and the result of the hull movement is used to position
-                    // the original mesh for rendering. This separation is necessary as model geometry is too complex to
-                    // use as a collision boundary.
-                    animate_points();
-
-                    // Once positions are adjusted, edge constraints are enforced to ensure that rigid bodies maintain
-                    // their defined shapes. Without this step, the individual points of the tracked physics hulls will
-                    // deform on impact, possibly to non-convex shapes and typically causing simulation failure. The
-                    // number of steps that are performed each tick has an impact on the accuracy of the hull boundaries
-                    // within the simulation.
-                    resolve_constraints(EDGE_STEPS);
+                    // constraint resolution, hull and entity movement, and point animation, which are recorded in
+                    // record_sub_step_pipeline()
+                    sub_step_pipeline.replay();
                 }
                 else
                 {
-                    dropped_time = this.time_accumulator;
                     if (Editor.ACTIVE)
                     {
-                        Editor.queue_event("dropped", String.format("%f", dropped_time));
+                        Metrics.count(Counter.DROPPED_SUB_STEPS, 1);
                     }
                     this.time_accumulator = 0;
                 }
             }
         }
 
+        update_schedule(loop_start, sub_ticks_run);
+        update_broad_phase();
+        body_sleep.wake_sleepers(GPU.memory.sector_container().next_hull());
+        if (static_keys.mode() == StaticKeyLayer.Mode.CACHED && body_sleep.take_sleep_changed())
+        {
+            static_keys.invalidate();
+        }
+        contact_cache.end_frame(GPU.memory.sector_container().next_edge(), sub_ticks_run > 0 && cpu_backend == null);
+
         //-------------------------//
         // Post Simulation Cleanup //
         //-------------------------//
@@ -1159,27 +1503,20 @@ public class PhysicsSimulation extends GameSystem
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - se;
-            Editor.queue_event("phys_egress", String.valueOf(e));
+            Metrics.record(Metric.PHYS_EGRESS, e);
         }
 
-        // Deletion of objects happens only once per simulation tick, instead of every sub-step
-        // to ensure buffer compaction happens as infrequently as possible.
-        long sd = Editor.ACTIVE
-            ? System.nanoTime()
-            : 0;
+        // Deletion of objects happens at most once per simulation tick, instead of every sub-step,
+        // and is deferred further by the compaction policy, so deleted objects may remain as
+        // tombstones for several ticks before buffer compaction removes them.
         GPU.memory.delete_and_compact();
-        if (Editor.ACTIVE)
-        {
-            long e = System.nanoTime() - sd;
-            Editor.queue_event("phys_compact", String.valueOf(e));
-        }
 
         animate_points();
 
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("phys_cycle", String.valueOf(e));
+            Metrics.record(Metric.PHYS_CYCLE, e);
         }
     }
 
@@ -1233,12 +1570,13 @@ public class PhysicsSimulation extends GameSystem
             GPU.memory.swap_render_buffers();
 
             GPU.compute.physics_queue.finish();       // QUEUE: current sector processing complete
+            GPU.compute.trim_pools();
 
             next_phys_time.put(dt);                     // STATE: physics   -> unblock
 
             if (Editor.ACTIVE)
             {
-                Editor.queue_event("phys", String.valueOf(phys_time));
+                Metrics.record(Metric.PHYS_FRAME, phys_time);
             }
         }
         catch (InterruptedException e)
@@ -1262,6 +1600,16 @@ public class PhysicsSimulation extends GameSystem
 
         gpu_int_scan.release();
         gpu_int_scan_out.release();
+        sub_step_pipeline.release();
+        static_keys.release();
+        body_sleep.release();
+        contact_cache.release();
+        edge_coloring.release();
+
+        if (cpu_backend != null)
+        {
+            cpu_backend.release();
+        }
 
         candidate_buffers.release();
         key_buffers.release();
@@ -1279,12 +1627,17 @@ public class PhysicsSimulation extends GameSystem
         p_scan_key_candidates.release();
         p_aabb_collide.release();
         p_sat_collide.release();
+        p_ccd_collide.release();
         p_animate_hulls.release();
         p_resolve_constraints.release();
 
         debug();
 
         atomic_counter.release();
+        speed_counter.release();
+        candidate_counter.release();
+        reaction_counter.release();
+        bounds_buf.release();
         counts_buf.release();
         offsets_buf.release();
     }
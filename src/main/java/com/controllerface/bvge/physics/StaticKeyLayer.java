@@ -0,0 +1,198 @@
+package com.controllerface.bvge.physics;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.gpu.cl.buffers.BufferGroup;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.kernels.GPUKernel;
+import com.controllerface.bvge.gpu.cl.kernels.physics.BuildStaticKeyMap_k;
+import com.controllerface.bvge.gpu.cl.kernels.physics.CountStaticKeys_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.gpu.cl.programs.scan.GPUScanScalarIntOut;
+import com.controllerface.bvge.memory.types.PhysicsBufferType;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+
+/**
+ * Holds the uniform grid keys of static hulls between sub-steps. Almost all hulls in a loaded world are static
+ * terrain, which never moves, yet the broad phase would otherwise compute bounds and keys for every one of them on
+ * every sub-step, only for static/static pairs to be discarded during the AABB check.
+ * <p>
+ * Static hulls are instead keyed into a separate static layer of the key map, with its own key counts and offsets,
+ * and are given empty key banks so the key bank and key map that are rebuilt every sub-step only hold the other
+ * hulls. Those hulls find static candidates by searching both layers. Static hulls are never targets themselves,
+ * which is safe because static/static pairs are never matched. Sleeping hulls do not move either, and are matched
+ * as if they were static, so they are held in the static layer in the same way.
+ * <p>
+ * Keys are relative to the grid origin, which follows the camera, so the layer is valid only while the origin and
+ * the static hulls are unchanged. It is rebuilt when hulls are added, removed, re-ordered, or placed, when hulls
+ * fall asleep or wake, or when the origin moves, which is at most once per frame. Until then, hulls that fell asleep
+ * keep being keyed every sub-step, and hulls that woke are keyed again and skipped when found in the static layer.
+ * Static hulls deleted while the layer is in use are left in it as out of bounds hulls, and are skipped as
+ * candidates until compaction removes them.
+ * <p>
+ * When the layer is not in use, its key counts remain zero, so the kernels that search it find nothing there.
+ */
+public class StaticKeyLayer implements GPUResource
+{
+    public enum Mode
+    {
+        /**
+         * Static hulls are keyed along with all other hulls on every sub-step.
+         */
+        EVERY_STEP,
+
+        /**
+         * Static hull keys are kept in the static layer until it is invalidated.
+         */
+        CACHED,
+    }
+
+    private final Mode mode;
+    private final UniformGrid uniform_grid;
+    private final BufferGroup<PhysicsBufferType> key_buffers;
+    private final GPUScanScalarIntOut gpu_int_scan_out;
+    private final long grid_buffer_size;
+
+    private final GPUKernel k_count_static_keys;
+    private final GPUKernel k_build_static_key_map;
+
+    private final CL_Buffer counts_buf;
+    private final CL_Buffer offsets_buf;
+    private final CL_Buffer key_counter;
+
+    private boolean built = false;
+    private int built_hull_count = 0;
+    private float built_x_origin = 0;
+    private float built_y_origin = 0;
+
+    public StaticKeyLayer(Mode mode,
+                          UniformGrid uniform_grid,
+                          GPUProgram p_build_key_map,
+                          BufferGroup<PhysicsBufferType> key_buffers,
+                          GPUScanScalarIntOut gpu_int_scan_out)
+    {
+        this.mode = mode;
+        this.uniform_grid = uniform_grid;
+        this.key_buffers = key_buffers;
+        this.gpu_int_scan_out = gpu_int_scan_out;
+
+        grid_buffer_size = (long) cl_int.size() * uniform_grid.directory_length;
+        counts_buf = GPU.CL.new_buffer(GPU.compute.context, grid_buffer_size);
+        offsets_buf = GPU.CL.new_buffer(GPU.compute.context, grid_buffer_size);
+        key_counter = GPU.CL.new_pinned_int(GPU.compute.context);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, counts_buf, grid_buffer_size);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, offsets_buf, grid_buffer_size);
+
+        k_count_static_keys = new CountStaticKeys_k(GPU.compute.physics_queue, p_build_key_map)
+            .init(counts_buf, key_counter, uniform_grid);
+
+        k_build_static_key_map = new BuildStaticKeyMap_k(GPU.compute.physics_queue, p_build_key_map)
+            .init(key_buffers, offsets_buf, counts_buf, uniform_grid);
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    /**
+     * Marks the static layer as out of date, so it is rebuilt in the next sub-step.
+     */
+    public void invalidate()
+    {
+        built = false;
+    }
+
+    public CL_Buffer counts()
+    {
+        return counts_buf;
+    }
+
+    public CL_Buffer offsets()
+    {
+        return offsets_buf;
+    }
+
+    /**
+     * Checks whether the static layer can be used for the current sub-step. When it cannot, static hulls must be
+     * keyed by the hull AABB pass of this sub-step, and the layer rebuilt from those keys with
+     * {@link #build(int, float, float)}.
+     *
+     * @param hull_count number of hulls in the core buffers
+     * @param x_origin   grid origin used to key hulls in this sub-step
+     * @param y_origin   grid origin used to key hulls in this sub-step
+     * @return true if static hulls may keep the bounds and keys they already have
+     */
+    public boolean is_current(int hull_count, float x_origin, float y_origin)
+    {
+        if (mode == Mode.EVERY_STEP)
+        {
+            return false;
+        }
+
+        // the change flag is always taken, so a change made while the layer was already invalid is not carried over
+        boolean hulls_changed = GPU.memory.take_hull_layout_changed();
+
+        return built
+            && !hulls_changed
+            && hull_count == built_hull_count
+            && x_origin == built_x_origin
+            && y_origin == built_y_origin;
+    }
+
+    /**
+     * Rebuilds the static layer from the keys that were just computed for all hulls, and empties the key banks of
+     * static and sleeping hulls, so they are left out of the rest of the broad phase for this sub-step.
+     */
+    public void build(int hull_count, float x_origin, float y_origin)
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        int hull_size = GPU.compute.calculate_preferred_global_size(hull_count);
+
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, counts_buf, grid_buffer_size);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, key_counter, cl_int.size());
+
+        k_count_static_keys
+            .set_arg(CountStaticKeys_k.Args.max_hull, hull_count)
+            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+
+        // the layer is rebuilt at most once per frame, so the size is read back rather than bounded
+        int key_count = GPU.CL.read_pinned_int(GPU.compute.physics_queue, key_counter);
+        key_buffers.buffer(PhysicsBufferType.STATIC_KEY_MAP).ensure_capacity(Math.max(key_count, 1));
+
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, offsets_buf, grid_buffer_size);
+        gpu_int_scan_out.scan_int_out(counts_buf.ptr(), offsets_buf.ptr(), uniform_grid.directory_length);
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, counts_buf, grid_buffer_size);
+
+        k_build_static_key_map
+            .set_arg(BuildStaticKeyMap_k.Args.max_hull, hull_count)
+            .call(arg_long(hull_size), GPU.compute.preferred_work_size);
+
+        built = true;
+        built_hull_count = hull_count;
+        built_x_origin = x_origin;
+        built_y_origin = y_origin;
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_STATIC_KEYS, e);
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        counts_buf.release();
+        offsets_buf.release();
+        key_counter.release();
+    }
+}
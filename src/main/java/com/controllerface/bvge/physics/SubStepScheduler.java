@@ -0,0 +1,167 @@
+package com.controllerface.bvge.physics;
+
+/**
+ * Decides how many simulation sub-steps, and how many constraint iterations per sub-step, are run for each physics
+ * frame. In fixed mode, the counts never change. In adaptive mode, the counts for the next frame are chosen from
+ * the maximum point speed and the cost measured for the previous frame. Fast moving points require more sub-steps
+ * to avoid tunneling, and calm scenes can use fewer sub-steps and iterations. The cost of the chosen schedule is
+ * then kept under a latency budget by reducing iterations first and sub-steps second, but never below the quality
+ * floor set by the minimum counts.
+ */
+public class SubStepScheduler
+{
+    public enum Mode
+    {
+        FIXED,
+        ADAPTIVE,
+    }
+
+    /**
+     * Distance in world units a point may travel in a single sub-step before more sub-steps are requested.
+     */
+    private static final float MAX_STEP_DISTANCE = 2.0f;
+
+    /**
+     * Speed at or above which the maximum constraint iterations are used, in world units per second.
+     */
+    private static final float FULL_ITERATION_SPEED = 600.0f;
+
+    /**
+     * Estimated share of the cost of one sub-step that does not depend on the number of constraint iterations.
+     * Used only to predict how the cost of a sub-step changes when the iteration count changes.
+     */
+    private static final float FIXED_COST_SHARE = 0.5f;
+
+    /**
+     * Weight given to the newest cost measurement in the moving average.
+     */
+    private static final float COST_SMOOTHING = 0.25f;
+
+    private final Mode mode;
+    private final float tick_rate;
+    private final int min_sub_steps;
+    private final int max_sub_steps;
+    private final int min_edge_steps;
+    private final int max_edge_steps;
+    private final long budget_ns;
+
+    private int sub_steps;
+    private int edge_steps;
+    private boolean budget_limited = false;
+
+    /**
+     * Average cost of one sub-step, measured at the edge step count in {@link #cost_edge_steps}
+     */
+    private float step_cost_ns = 0;
+    private int cost_edge_steps;
+
+    public SubStepScheduler(Mode mode, float tick_rate,
+                            int sub_steps, int min_sub_steps, int max_sub_steps,
+                            int edge_steps, int min_edge_steps, int max_edge_steps,
+                            long budget_ns)
+    {
+        if (min_sub_steps < 1 || min_sub_steps > max_sub_steps || sub_steps < min_sub_steps || sub_steps > max_sub_steps)
+        {
+            throw new IllegalArgumentException("Invalid sub-step range: " + min_sub_steps + ".." + max_sub_steps);
+        }
+        if (min_edge_steps < 1 || min_edge_steps > max_edge_steps || edge_steps < min_edge_steps || edge_steps > max_edge_steps)
+        {
+            throw new IllegalArgumentException("Invalid edge step range: " + min_edge_steps + ".." + max_edge_steps);
+        }
+        this.mode            = mode;
+        this.tick_rate       = tick_rate;
+        this.sub_steps       = sub_steps;
+        this.min_sub_steps   = min_sub_steps;
+        this.max_sub_steps   = max_sub_steps;
+        this.edge_steps      = edge_steps;
+        this.min_edge_steps  = min_edge_steps;
+        this.max_edge_steps  = max_edge_steps;
+        this.budget_ns       = budget_ns;
+        this.cost_edge_steps = edge_steps;
+    }
+
+    public Mode mode()
+    {
+        return mode;
+    }
+
+    public int sub_steps()
+    {
+        return sub_steps;
+    }
+
+    public int edge_steps()
+    {
+        return edge_steps;
+    }
+
+    public float time_step()
+    {
+        return tick_rate / sub_steps;
+    }
+
+    /**
+     * True if the most recent schedule was reduced to fit the latency budget.
+     */
+    public boolean budget_limited()
+    {
+        return budget_limited;
+    }
+
+    /**
+     * Updates the schedule using measurements from the frame that just completed. The frame cost should cover only
+     * the sub-step loop, and max_speed is the largest distance any point moved in one sub-step of that frame.
+     */
+    public void update(long frame_cost_ns, int steps_run, float max_speed)
+    {
+        if (mode == Mode.FIXED || steps_run == 0)
+        {
+            return;
+        }
+
+        float measured = (float) frame_cost_ns / steps_run;
+        step_cost_ns = step_cost_ns == 0
+            ? measured
+            : step_cost_ns + (measured - step_cost_ns) * COST_SMOOTHING;
+        cost_edge_steps = edge_steps;
+
+        float speed = max_speed / time_step();
+
+        int desired_sub_steps = (int) Math.ceil(speed * tick_rate / MAX_STEP_DISTANCE);
+        desired_sub_steps = Math.clamp(desired_sub_steps, min_sub_steps, max_sub_steps);
+
+        float speed_ratio = Math.min(speed / FULL_ITERATION_SPEED, 1.0f);
+        int desired_edge_steps = min_edge_steps + Math.round((max_edge_steps - min_edge_steps) * speed_ratio);
+
+        budget_limited = false;
+        while (estimate_cost(desired_sub_steps, desired_edge_steps) > budget_ns)
+        {
+            if (desired_edge_steps > min_edge_steps)
+            {
+                desired_edge_steps--;
+            }
+            else if (desired_sub_steps > min_sub_steps)
+            {
+                desired_sub_steps--;
+            }
+            else
+            {
+                break;
+            }
+            budget_limited = true;
+        }
+
+        sub_steps = desired_sub_steps;
+        edge_steps = desired_edge_steps;
+    }
+
+    /**
+     * Predicts the cost of a frame with the given counts, based on the average measured cost of a sub-step.
+     */
+    long estimate_cost(int sub_steps, int edge_steps)
+    {
+        float edge_scale = (float) edge_steps / cost_edge_steps;
+        float step_cost = step_cost_ns * (FIXED_COST_SHARE + (1.0f - FIXED_COST_SHARE) * edge_scale);
+        return (long) (step_cost * sub_steps);
+    }
+}
@@ -0,0 +1,82 @@
+package com.controllerface.bvge.physics.cpu;
+
+import com.controllerface.bvge.game.Constants.EdgeFlags;
+import com.controllerface.bvge.game.Constants.EntityFlags;
+import com.controllerface.bvge.game.Constants.HullFlags;
+import com.controllerface.bvge.game.Constants.PointFlags;
+
+/**
+ * Flag bits and thresholds used by the CPU physics stages, unpacked into plain constants so they can be used in
+ * tight loops the same way the Open CL source uses its generated defines.
+ */
+final class CPUConstants
+{
+    private CPUConstants() { }
+
+    static final int IS_STATIC     = HullFlags.IS_STATIC.bits;
+    static final int IS_CIRCLE     = HullFlags.IS_CIRCLE.bits;
+    static final int IS_POLYGON    = HullFlags.IS_POLYGON.bits;
+    static final int NO_BONES      = HullFlags.NO_BONES.bits;
+    static final int OUT_OF_BOUNDS = HullFlags.OUT_OF_BOUNDS.bits;
+    static final int IS_SENSOR     = HullFlags.IS_SENSOR.bits;
+    static final int IS_FOOT       = HullFlags.IS_FOOT.bits;
+    static final int IS_LIQUID     = HullFlags.IS_LIQUID.bits;
+    static final int IN_LIQUID     = HullFlags.IN_LIQUID.bits;
+    static final int TOUCH_ALIKE   = HullFlags.TOUCH_ALIKE.bits;
+    static final int IS_BLOCK      = HullFlags.IS_BLOCK.bits;
+    static final int IN_PERIMETER  = HullFlags.IN_PERIMETER.bits;
+    static final int IS_CURSOR     = HullFlags.IS_CURSOR.bits;
+    static final int CURSOR_OVER   = HullFlags.CURSOR_OVER.bits;
+    static final int IN_RANGE      = HullFlags.IN_RANGE.bits;
+    static final int CURSOR_HIT    = HullFlags.CURSOR_HIT.bits;
+    static final int GHOST_HULL    = HullFlags.GHOST_HULL.bits;
+    static final int SENSOR_HIT    = HullFlags.SENSOR_HIT.bits;
+    static final int ENTITY_SENSOR = HullFlags.ENTITY_SENSOR.bits;
+
+    static final int SENSOR_EDGE   = EdgeFlags.SENSOR_EDGE.bits;
+    static final int E_SENSOR      = EdgeFlags.E_SENSOR.bits;
+
+    static final int P_INTERIOR    = PointFlags.P_INTERIOR.bits;
+    static final int HIT_FLOOR     = PointFlags.HIT_FLOOR.bits;
+    static final int FLOW_LEFT     = PointFlags.FLOW_LEFT.bits;
+
+    static final int DELETED       = EntityFlags.DELETED.bits;
+    static final int CAN_JUMP      = EntityFlags.CAN_JUMP.bits;
+    static final int IS_WET        = EntityFlags.IS_WET.bits;
+    static final int SECTOR_OUT    = EntityFlags.SECTOR_OUT.bits;
+    static final int ATTACKING     = EntityFlags.ATTACKING.bits;
+    static final int BROKEN        = EntityFlags.BROKEN.bits;
+    static final int CAN_COLLECT   = EntityFlags.CAN_COLLECT.bits;
+    static final int COLLECTED     = EntityFlags.COLLECTED.bits;
+    static final int COLLECTABLE   = EntityFlags.COLLECTABLE.bits;
+    static final int GHOST_ACTIVE  = EntityFlags.GHOST_ACTIVE.bits;
+    static final int JUMPING       = EntityFlags.JUMPING.bits;
+
+    // mirrors cl/constants/hit_thresholds.cl
+    static final int HIT_LOW_THRESHOLD      = 100;
+    static final int HIT_LOW_MID_THRESHOLD  = 1000;
+    static final int HIT_MID_THRESHOLD      = 2000;
+    static final int HIT_HIGH_MID_THRESHOLD = 3000;
+    static final int HIT_TOP_THRESHOLD      = 4000;
+
+    /**
+     * Returns the reciprocal of the length of the given vector, or zero for a zero length vector. Multiplying by the
+     * result gives the same value as fast_normalize, without producing NaN values for degenerate input.
+     */
+    static float inv_length(float x, float y)
+    {
+        float length = (float) Math.sqrt(x * x + y * y);
+        return length == 0.0f ? 0.0f : 1.0f / length;
+    }
+
+    static float length(float x, float y)
+    {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+
+    static float angle_between(float l1_x, float l1_y, float l1_z, float l1_w,
+                               float l2_x, float l2_y, float l2_z, float l2_w)
+    {
+        return (float) (Math.atan2(l1_y - l1_w, l1_x - l1_z) - Math.atan2(l2_y - l2_w, l2_x - l2_z));
+    }
+}
@@ -0,0 +1,875 @@
+package com.controllerface.bvge.physics.cpu;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import static com.controllerface.bvge.physics.cpu.CPUConstants.*;
+
+/**
+ * CPU implementation of the sat_collide kernel and the collision functions it dispatches to. Each candidate pair
+ * owns a fixed block of {@link #SLOTS_PER_PAIR} reaction slots, which replaces the atomic reaction counter used by
+ * the kernel, so pairs can be processed on any thread and reactions always come out in the same order. Flag and
+ * integrity updates that the kernel makes with plain or atomic writes are done with atomic bitwise operations.
+ */
+class CPUNarrowPhase
+{
+    /**
+     * Largest number of reactions a single pair can generate, a block collision with an extended vertex.
+     */
+    static final int SLOTS_PER_PAIR = 4;
+
+    static final int REACTION_WIDTH = 8;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final CPUPhysicsState state;
+    private final float dt;
+
+    float[] reactions = new float[0];
+    int[] reaction_index = new int[0];
+
+    CPUNarrowPhase(CPUPhysicsState state, float dt)
+    {
+        this.state = state;
+        this.dt = dt;
+    }
+
+    /**
+     * Prepares reaction slots for the given number of candidate pairs. Unused slots keep a reaction index of -1.
+     */
+    void reset(int pair_count)
+    {
+        int slot_count = pair_count * SLOTS_PER_PAIR;
+        if (reaction_index.length < slot_count)
+        {
+            reaction_index = new int[slot_count];
+            reactions = new float[slot_count * REACTION_WIDTH];
+        }
+        Arrays.fill(reaction_index, 0, slot_count, -1);
+    }
+
+    private void emit(int slot, int point,
+                      float collision_x, float collision_y,
+                      float opposing_x, float opposing_y,
+                      float friction_x, float friction_y,
+                      float restitution_x, float restitution_y)
+    {
+        int r = slot * REACTION_WIDTH;
+        reactions[r]     = collision_x;
+        reactions[r + 1] = collision_y;
+        reactions[r + 2] = opposing_x;
+        reactions[r + 3] = opposing_y;
+        reactions[r + 4] = friction_x;
+        reactions[r + 5] = friction_y;
+        reactions[r + 6] = restitution_x;
+        reactions[r + 7] = restitution_y;
+        reaction_index[slot] = point;
+    }
+
+    private static void or_flags(int[] flags, int index, int bits)
+    {
+        INTS.getAndBitwiseOr(flags, index, bits);
+    }
+
+    //#region Dispatch
+
+    void sat_collide(int pair, int b1_id, int b2_id)
+    {
+        int hull_1_flags = state.hull_flags[b1_id];
+        int hull_2_flags = state.hull_flags[b2_id];
+
+        boolean b1_is_circle  = (hull_1_flags & IS_CIRCLE) != 0;
+        boolean b2_is_circle  = (hull_2_flags & IS_CIRCLE) != 0;
+        boolean b1_is_block   = (hull_1_flags & IS_BLOCK) != 0;
+        boolean b2_is_block   = (hull_2_flags & IS_BLOCK) != 0;
+        boolean b1_is_polygon = (hull_1_flags & IS_POLYGON) != 0;
+        boolean b2_is_polygon = (hull_2_flags & IS_POLYGON) != 0;
+        boolean b1_is_sensor  = (hull_1_flags & ENTITY_SENSOR) != 0;
+        boolean b2_is_sensor  = (hull_2_flags & ENTITY_SENSOR) != 0;
+
+        int c_id = b1_is_circle ? b1_id : b2_id;
+        int p_id = b1_is_circle ? b2_id : b1_id;
+        int e_id = b1_is_sensor ? b1_id : b2_id;
+        int s_id = b1_is_sensor ? b2_id : b1_id;
+
+        int slot = pair * SLOTS_PER_PAIR;
+
+        if (b1_is_block && b2_is_block)
+        {
+            block_collision(b1_id, b2_id, slot);
+        }
+        else if (b1_is_polygon && b2_is_polygon && !b1_is_sensor && !b2_is_sensor)
+        {
+            polygon_collision(b1_id, b2_id, slot);
+        }
+        else if (b1_is_circle && b2_is_circle)
+        {
+            circle_collision(b1_id, b2_id, slot);
+        }
+        else if ((b1_is_sensor || b2_is_sensor) && !b1_is_circle && !b2_is_circle)
+        {
+            polygon_sensor_collision(s_id, e_id, slot);
+        }
+        else
+        {
+            polygon_circle_collision(p_id, c_id, slot);
+        }
+    }
+
+    //#endregion
+
+    //#region Projection
+
+    /**
+     * Projects the non-interior points of the hull with the given point table onto the normal. Output is min, max,
+     * and the index of the point with the minimum value, matching project_polygon.
+     */
+    private void project_polygon(int hull_id, float normal_x, float normal_y, float[] result)
+    {
+        int start = state.hull_point_tables[hull_id * 2];
+        int end   = state.hull_point_tables[hull_id * 2 + 1];
+        result[0] = 0;
+        result[1] = 0;
+        result[2] = 0;
+        boolean min_yet = false;
+        boolean max_yet = false;
+        for (int n = start; n <= end; n++)
+        {
+            if ((state.point_flags[n] & P_INTERIOR) != 0) continue;
+            float proj = state.points[n * 4] * normal_x + state.points[n * 4 + 1] * normal_y;
+            if (proj < result[0] || !min_yet)
+            {
+                result[0] = proj;
+                result[2] = n;
+                min_yet = true;
+            }
+            if (proj > result[1] || !max_yet)
+            {
+                result[1] = proj;
+                max_yet = true;
+            }
+        }
+    }
+
+    private static void project_circle(float circle_x, float circle_y, float circle_size,
+                                       float normal_x, float normal_y, float[] result)
+    {
+        float inv = inv_length(normal_x, normal_y);
+        float half = circle_size / 2;
+        float dir_x = normal_x * inv * half;
+        float dir_y = normal_y * inv * half;
+        float min = (circle_x + dir_x) * normal_x + (circle_y + dir_y) * normal_y;
+        float max = (circle_x - dir_x) * normal_x + (circle_y - dir_y) * normal_y;
+        if (min > max)
+        {
+            float t = min;
+            min = max;
+            max = t;
+        }
+        result[0] = min;
+        result[1] = max;
+        result[2] = 0;
+    }
+
+    private static float polygon_distance(float[] proj_a, float[] proj_b)
+    {
+        return proj_a[0] < proj_b[0]
+            ? proj_b[0] - proj_a[1]
+            : proj_a[0] - proj_b[1];
+    }
+
+    private static float edge_contact(float e1_x, float e1_y, float e2_x, float e2_y,
+                                      float vertex_x, float vertex_y,
+                                      float vector_x, float vector_y)
+    {
+        float x_dist = e1_x - e2_x;
+        float y_dist = e1_y - e2_y;
+        return Math.abs(x_dist) > Math.abs(y_dist)
+            ? (vertex_x - vector_x - e1_x) / (e2_x - e1_x)
+            : (vertex_y - vector_y - e1_y) / (e2_y - e1_y);
+    }
+
+    //#endregion
+
+    //#region Separating Axis
+
+    /**
+     * Result of a separating axis test between two polygonal hulls, holding the axis of minimum penetration and
+     * the hull/edge that produced it.
+     */
+    private final class SeparatingAxis
+    {
+        final float[] proj_a = new float[3];
+        final float[] proj_b = new float[3];
+
+        float min_distance = Float.MAX_VALUE;
+        float normal_x;
+        float normal_y;
+        boolean invert_hull_order;
+        int vert_hull_id = -1;
+        int edge_hull_id = -1;
+        int edge_index_a = -1;
+        int edge_index_b = -1;
+        int vert_index   = -1;
+
+        /**
+         * Tests the edges of both hulls, returning false if any axis separates them. When true is returned, the
+         * collision normal has been oriented away from the edge hull and the colliding vertex has been located.
+         */
+        boolean test(int hull_1_id, int hull_2_id, int max_axis_1, int max_axis_2)
+        {
+            if (!test_edges(hull_1_id, hull_1_id, hull_2_id, max_axis_1, true)) return false;
+            if (!test_edges(hull_2_id, hull_1_id, hull_2_id, max_axis_2, false)) return false;
+            if (edge_index_a < 0) return false;
+
+            float inv = inv_length(normal_x, normal_y);
+            normal_x *= inv;
+            normal_y *= inv;
+
+            int hull_a_index = invert_hull_order ? hull_2_id : hull_1_id;
+            int hull_b_index = invert_hull_order ? hull_1_id : hull_2_id;
+            float direction_x = state.hulls[hull_a_index * 4]     - state.hulls[hull_b_index * 4];
+            float direction_y = state.hulls[hull_a_index * 4 + 1] - state.hulls[hull_b_index * 4 + 1];
+            if (direction_x * normal_x + direction_y * normal_y < 0)
+            {
+                normal_x = -normal_x;
+                normal_y = -normal_y;
+            }
+
+            project_polygon(vert_hull_id, normal_x, normal_y, proj_a);
+            vert_index = (int) proj_a[2];
+            float normal_length = length(normal_x, normal_y);
+            min_distance = normal_length == 0.0f ? min_distance : min_distance / normal_length;
+            return true;
+        }
+
+        private boolean test_edges(int edge_hull, int hull_1_id, int hull_2_id, int max_axis, boolean invert)
+        {
+            int start = state.hull_edge_tables[edge_hull * 2];
+            int end   = state.hull_edge_tables[edge_hull * 2 + 1];
+            int this_axis = 0;
+            for (int edge_index = start; edge_index <= end; edge_index++)
+            {
+                // the kernels test `edge_flag && E_INTERIOR`, which skips every flagged edge, not only interior ones
+                if (state.edge_flags[edge_index] != 0 || this_axis >= max_axis) continue;
+                this_axis++;
+
+                int a_index = state.edges[edge_index * 2];
+                int b_index = state.edges[edge_index * 2 + 1];
+
+                float dx = state.points[b_index * 4]     - state.points[a_index * 4];
+                float dy = state.points[b_index * 4 + 1] - state.points[a_index * 4 + 1];
+                float inv = inv_length(dy, -dx);
+                float axis_x = dy * inv;
+                float axis_y = -dx * inv;
+
+                project_polygon(hull_1_id, axis_x, axis_y, proj_a);
+                project_polygon(hull_2_id, axis_x, axis_y, proj_b);
+                float distance = polygon_distance(proj_a, proj_b);
+
+                if (distance > 0) return false;
+
+                float abs_distance = Math.abs(distance);
+                if (abs_distance < min_distance)
+                {
+                    invert_hull_order = invert;
+                    vert_hull_id = invert ? hull_2_id : hull_1_id;
+                    edge_hull_id = invert ? hull_1_id : hull_2_id;
+                    normal_x = axis_x;
+                    normal_y = axis_y;
+                    min_distance = abs_distance;
+                    edge_index_a = a_index;
+                    edge_index_b = b_index;
+                }
+            }
+            return true;
+        }
+    }
+
+    //#endregion
+
+    //#region Collision Functions
+
+    private void polygon_collision(int hull_1_id, int hull_2_id, int slot)
+    {
+        var s = state;
+        int hull_1_flags = s.hull_flags[hull_1_id];
+        int hull_2_flags = s.hull_flags[hull_2_id];
+
+        if ((hull_1_flags & GHOST_HULL) != 0 && (s.entity_flags[s.hull_entity_ids[hull_1_id]] & GHOST_ACTIVE) == 0) return;
+        if ((hull_2_flags & GHOST_HULL) != 0 && (s.entity_flags[s.hull_entity_ids[hull_2_id]] & GHOST_ACTIVE) == 0) return;
+
+        int hull_1_edge_count = s.hull_edge_tables[hull_1_id * 2 + 1] - s.hull_edge_tables[hull_1_id * 2] + 1;
+
+        // hull 2 is limited by hull 1's edge count, as it is in the kernel
+        int max_axis_1 = (hull_1_flags & IS_BLOCK) != 0 ? 2 : hull_1_edge_count;
+        int max_axis_2 = (hull_2_flags & IS_BLOCK) != 0 ? 2 : hull_1_edge_count;
+
+        var sat = new SeparatingAxis();
+        if (!sat.test(hull_1_id, hull_2_id, max_axis_1, max_axis_2)) return;
+
+        int vert_hull_id = sat.vert_hull_id;
+        int edge_hull_id = sat.edge_hull_id;
+
+        float h1_x = s.hulls[hull_1_id * 4];
+        float h1_y = s.hulls[hull_1_id * 4 + 1];
+        float h2_x = s.hulls[hull_2_id * 4];
+        float h2_y = s.hulls[hull_2_id * 4 + 1];
+
+        float vert_opposing_x = vert_hull_id == hull_1_id ? h2_x - h1_x : h1_x - h2_x;
+        float vert_opposing_y = vert_hull_id == hull_1_id ? h2_y - h1_y : h1_y - h2_y;
+        float edge_opposing_x = edge_hull_id == hull_1_id ? h2_x - h1_x : h1_x - h2_x;
+        float edge_opposing_y = edge_hull_id == hull_1_id ? h2_y - h1_y : h1_y - h2_y;
+
+        int vert_hull_flags = s.hull_flags[vert_hull_id];
+        int edge_hull_flags = s.hull_flags[edge_hull_id];
+        float vert_hull_mass = s.masses[s.hull_entity_ids[vert_hull_id]];
+        float edge_hull_mass = s.masses[s.hull_entity_ids[edge_hull_id]];
+        float total_mass = vert_hull_mass + edge_hull_mass;
+        float vert_magnitude = edge_hull_mass / total_mass;
+        float edge_magnitude = vert_hull_mass / total_mass;
+
+        boolean sensor_vert = (vert_hull_flags & IS_SENSOR) != 0;
+        boolean sensor_edge = (edge_hull_flags & IS_SENSOR) != 0;
+        boolean e_sensor_vert = (vert_hull_flags & ENTITY_SENSOR) != 0;
+        boolean e_sensor_edge = (edge_hull_flags & ENTITY_SENSOR) != 0;
+
+        if (sensor_vert && sensor_edge) return;
+
+        if (sensor_vert || sensor_edge)
+        {
+            or_flags(s.hull_flags, sensor_vert ? vert_hull_id : edge_hull_id, SENSOR_HIT);
+            if (!e_sensor_vert && !e_sensor_edge) return;
+        }
+
+        boolean ghost_vert = (vert_hull_flags & GHOST_HULL) != 0;
+        boolean ghost_edge = (edge_hull_flags & GHOST_HULL) != 0;
+        boolean static_vert = e_sensor_edge || (vert_hull_flags & IS_STATIC) != 0;
+        boolean static_edge = e_sensor_vert || (edge_hull_flags & IS_STATIC) != 0;
+        boolean any_static = static_vert || static_edge;
+
+        vert_magnitude = any_static ? static_vert ? 0.0f : 1.0f : vert_magnitude;
+        edge_magnitude = any_static ? static_edge ? 0.0f : 1.0f : edge_magnitude;
+
+        float friction = any_static
+            ? static_vert ? s.hull_frictions[vert_hull_id] : s.hull_frictions[edge_hull_id]
+            : Math.max(s.hull_frictions[vert_hull_id], s.hull_frictions[edge_hull_id]);
+
+        float restitution = any_static
+            ? static_vert ? s.hull_restitutions[vert_hull_id] : s.hull_restitutions[edge_hull_id]
+            : Math.max(s.hull_restitutions[vert_hull_id], s.hull_restitutions[edge_hull_id]);
+
+        edge_reactions(sat, slot, false, -1,
+            vert_magnitude, edge_magnitude, friction, restitution,
+            vert_opposing_x, vert_opposing_y, edge_opposing_x, edge_opposing_y,
+            !static_vert && !ghost_edge, !static_edge && !ghost_vert);
+    }
+
+    private void block_collision(int hull_1_id, int hull_2_id, int slot)
+    {
+        var s = state;
+
+        var sat = new SeparatingAxis();
+        if (!sat.test(hull_1_id, hull_2_id, 2, 2)) return;
+
+        int vert_hull_id = sat.vert_hull_id;
+        int edge_hull_id = sat.edge_hull_id;
+
+        float h1_x = s.hulls[hull_1_id * 4];
+        float h1_y = s.hulls[hull_1_id * 4 + 1];
+        float h2_x = s.hulls[hull_2_id * 4];
+        float h2_y = s.hulls[hull_2_id * 4 + 1];
+
+        float vert_opposing_x = vert_hull_id == hull_1_id ? h2_x - h1_x : h1_x - h2_x;
+        float vert_opposing_y = vert_hull_id == hull_1_id ? h2_y - h1_y : h1_y - h2_y;
+        float edge_opposing_x = edge_hull_id == hull_1_id ? h2_x - h1_x : h1_x - h2_x;
+        float edge_opposing_y = edge_hull_id == hull_1_id ? h2_y - h1_y : h1_y - h2_y;
+
+        int vert_hull_flags = s.hull_flags[vert_hull_id];
+        int edge_hull_flags = s.hull_flags[edge_hull_id];
+        float vert_hull_mass = s.masses[s.hull_entity_ids[vert_hull_id]];
+        float edge_hull_mass = s.masses[s.hull_entity_ids[edge_hull_id]];
+        float total_mass = vert_hull_mass + edge_hull_mass;
+        float vert_magnitude = edge_hull_mass / total_mass;
+        float edge_magnitude = vert_hull_mass / total_mass;
+
+        boolean static_vert = (vert_hull_flags & IS_STATIC) != 0;
+        boolean static_edge = (edge_hull_flags & IS_STATIC) != 0;
+        boolean ghost_vert  = (vert_hull_flags & GHOST_HULL) != 0;
+        boolean ghost_edge  = (edge_hull_flags & GHOST_HULL) != 0;
+        boolean block_vert  = (vert_hull_flags & IS_BLOCK) != 0;
+        boolean block_edge  = (edge_hull_flags & IS_BLOCK) != 0;
+
+        if (block_vert && block_edge)
+        {
+            or_flags(s.hull_flags, vert_hull_id, TOUCH_ALIKE);
+            or_flags(s.hull_flags, edge_hull_id, TOUCH_ALIKE);
+        }
+
+        boolean any_static = static_vert || static_edge;
+        vert_magnitude = any_static ? static_vert ? 0.0f : 1.0f : vert_magnitude;
+        edge_magnitude = any_static ? static_edge ? 0.0f : 1.0f : edge_magnitude;
+
+        int vert_index = sat.vert_index;
+        int table_start = s.hull_point_tables[vert_hull_id * 2];
+        int table_end   = s.hull_point_tables[vert_hull_id * 2 + 1];
+        int v_l = table_start == vert_index ? table_end : vert_index - 1;
+        int v_r = table_end == vert_index ? table_start : vert_index + 1;
+
+        float[] p = s.points;
+        int e1 = sat.edge_index_a * 4;
+        int e2 = sat.edge_index_b * 4;
+        float a_l = angle_between(p[vert_index * 4], p[vert_index * 4 + 1], p[v_l * 4], p[v_l * 4 + 1],
+            p[e1], p[e1 + 1], p[e2], p[e2 + 1]);
+        float a_r = angle_between(p[vert_index * 4], p[vert_index * 4 + 1], p[v_r * 4], p[v_r * 4 + 1],
+            p[e1], p[e1 + 1], p[e2], p[e2 + 1]);
+
+        boolean l_c = Math.abs(a_l) < .001;
+        boolean r_c = Math.abs(a_r) < .001;
+        int vertex_ex_index = l_c ? v_l : r_c ? v_r : -1;
+
+        float friction = any_static
+            ? static_vert ? s.hull_frictions[vert_hull_id] : s.hull_frictions[edge_hull_id]
+            : Math.max(s.hull_frictions[vert_hull_id], s.hull_frictions[edge_hull_id]);
+
+        float restitution = any_static
+            ? static_vert ? s.hull_restitutions[vert_hull_id] : s.hull_restitutions[edge_hull_id]
+            : Math.max(s.hull_restitutions[vert_hull_id], s.hull_restitutions[edge_hull_id]);
+
+        edge_reactions(sat, slot, vertex_ex_index != -1, vertex_ex_index,
+            vert_magnitude, edge_magnitude, friction, restitution,
+            vert_opposing_x, vert_opposing_y, edge_opposing_x, edge_opposing_y,
+            !static_vert && !ghost_edge, !static_edge && !ghost_vert);
+    }
+
+    /**
+     * Shared reaction calculation for vertex/edge contacts between two polygons. When the vertex is extended, as
+     * happens when a block face lies flat against an edge, the edge points are pushed evenly and the neighbouring
+     * vertex receives a copy of the vertex reaction.
+     */
+    private void edge_reactions(SeparatingAxis sat, int slot, boolean v_extend, int vertex_ex_index,
+                                float vert_magnitude, float edge_magnitude,
+                                float friction_coefficient, float restitution_coefficient,
+                                float vert_opposing_x, float vert_opposing_y,
+                                float edge_opposing_x, float edge_opposing_y,
+                                boolean react_vert, boolean react_edge)
+    {
+        float[] p = state.points;
+        int v  = sat.vert_index * 4;
+        int e1 = sat.edge_index_a * 4;
+        int e2 = sat.edge_index_b * 4;
+        float n_x = sat.normal_x;
+        float n_y = sat.normal_y;
+
+        float vector_x = n_x * sat.min_distance;
+        float vector_y = n_y * sat.min_distance;
+
+        float e1_collision_x, e1_collision_y, e2_collision_x, e2_collision_y;
+        if (v_extend)
+        {
+            e1_collision_x = vector_x * -edge_magnitude;
+            e1_collision_y = vector_y * -edge_magnitude;
+            e2_collision_x = e1_collision_x;
+            e2_collision_y = e1_collision_y;
+        }
+        else
+        {
+            float contact = edge_contact(p[e1], p[e1 + 1], p[e2], p[e2 + 1], p[v], p[v + 1], vector_x, vector_y);
+            float inverse_contact = 1.0f - contact;
+            float edge_scale = 1.0f / (contact * contact + inverse_contact * inverse_contact);
+            e1_collision_x = -vector_x * (inverse_contact * edge_magnitude * edge_scale);
+            e1_collision_y = -vector_y * (inverse_contact * edge_magnitude * edge_scale);
+            e2_collision_x = -vector_x * (contact * edge_magnitude * edge_scale);
+            e2_collision_y = -vector_y * (contact * edge_magnitude * edge_scale);
+        }
+        float v_collision_x = vector_x * vert_magnitude;
+        float v_collision_y = vector_y * vert_magnitude;
+
+        // friction
+        float v_rel_x  = (p[v] - p[v + 2]) / dt - vector_x;
+        float v_rel_y  = (p[v + 1] - p[v + 3]) / dt - vector_y;
+        float e1_rel_x = (p[e1] - p[e1 + 2]) / dt - vector_x;
+        float e1_rel_y = (p[e1 + 1] - p[e1 + 3]) / dt - vector_y;
+        float e2_rel_x = (p[e2] - p[e2 + 2]) / dt - vector_x;
+        float e2_rel_y = (p[e2 + 1] - p[e2 + 3]) / dt - vector_y;
+
+        float v_dot  = v_rel_x * n_x + v_rel_y * n_y;
+        float e1_dot = e1_rel_x * n_x + e1_rel_y * n_y;
+        float e2_dot = e2_rel_x * n_x + e2_rel_y * n_y;
+        float v_tan_x  = v_rel_x - v_dot * n_x;
+        float v_tan_y  = v_rel_y - v_dot * n_y;
+        float e1_tan_x = e1_rel_x - e1_dot * n_x;
+        float e1_tan_y = e1_rel_y - e1_dot * n_y;
+        float e2_tan_x = e2_rel_x - e2_dot * n_x;
+        float e2_tan_y = e2_rel_y - e2_dot * n_y;
+        float v_inv  = inv_length(v_tan_x, v_tan_y);
+        float e1_inv = inv_length(e1_tan_x, e1_tan_y);
+        float e2_inv = inv_length(e2_tan_x, e2_tan_y);
+
+        float v_friction_x  = -friction_coefficient * v_tan_x * v_inv * vert_magnitude;
+        float v_friction_y  = -friction_coefficient * v_tan_y * v_inv * vert_magnitude;
+        float e1_friction_x = -friction_coefficient * e1_tan_x * e1_inv * edge_magnitude;
+        float e1_friction_y = -friction_coefficient * e1_tan_y * e1_inv * edge_magnitude;
+        float e2_friction_x = -friction_coefficient * e2_tan_x * e2_inv * edge_magnitude;
+        float e2_friction_y = -friction_coefficient * e2_tan_y * e2_inv * edge_magnitude;
+
+        // restitution
+        float v_applied_x  = (p[v] + v_collision_x - p[v + 2]) / dt;
+        float v_applied_y  = (p[v + 1] + v_collision_y - p[v + 3]) / dt;
+        float e1_applied_x = (p[e1] + e1_collision_x - p[e1 + 2]) / dt;
+        float e1_applied_y = (p[e1 + 1] + e1_collision_y - p[e1 + 3]) / dt;
+        float e2_applied_x = (p[e2] + e2_collision_x - p[e2 + 2]) / dt;
+        float e2_applied_y = (p[e2 + 1] + e2_collision_y - p[e2 + 3]) / dt;
+
+        float v_rest  = restitution_coefficient * (v_applied_x * n_x + v_applied_y * n_y);
+        float e1_rest = restitution_coefficient * (e1_applied_x * -n_x + e1_applied_y * -n_y);
+        float e2_rest = restitution_coefficient * (e2_applied_x * -n_x + e2_applied_y * -n_y);
+
+        if (react_vert)
+        {
+            emit(slot++, sat.vert_index,
+                v_collision_x, v_collision_y, vert_opposing_x, vert_opposing_y,
+                v_friction_x, v_friction_y, v_rest * n_x, v_rest * n_y);
+            if (v_extend)
+            {
+                emit(slot++, vertex_ex_index,
+                    v_collision_x, v_collision_y, vert_opposing_x, vert_opposing_y,
+                    v_friction_x, v_friction_y, v_rest * n_x, v_rest * n_y);
+            }
+        }
+        if (react_edge)
+        {
+            emit(slot++, sat.edge_index_a,
+                e1_collision_x, e1_collision_y, edge_opposing_x, edge_opposing_y,
+                e1_friction_x, e1_friction_y, e1_rest * -n_x, e1_rest * -n_y);
+            emit(slot, sat.edge_index_b,
+                e2_collision_x, e2_collision_y, edge_opposing_x, edge_opposing_y,
+                e2_friction_x, e2_friction_y, e2_rest * -n_x, e2_rest * -n_y);
+        }
+    }
+
+    private void circle_collision(int hull_1_id, int hull_2_id, int slot)
+    {
+        var s = state;
+        float h1_x = s.hulls[hull_1_id * 4];
+        float h1_y = s.hulls[hull_1_id * 4 + 1];
+        float h2_x = s.hulls[hull_2_id * 4];
+        float h2_y = s.hulls[hull_2_id * 4 + 1];
+        float hull_1_radius = s.hull_scales[hull_1_id * 2 + 1];
+        float hull_2_radius = s.hull_scales[hull_2_id * 2 + 1];
+
+        float center_distance = length(h1_x - h2_x, h1_y - h2_y);
+        float radii_sum = hull_1_radius + hull_2_radius;
+        if (center_distance >= radii_sum) return;
+
+        int hull_1_flags = s.hull_flags[hull_1_id];
+        int hull_2_flags = s.hull_flags[hull_2_id];
+
+        // cursor collision causes early exit
+        boolean cursor_1 = (hull_1_flags & IS_CURSOR) != 0;
+        boolean cursor_2 = (hull_2_flags & IS_CURSOR) != 0;
+        if (cursor_1 || cursor_2)
+        {
+            or_flags(s.hull_flags, cursor_1 ? hull_2_id : hull_1_id, CURSOR_OVER);
+            return;
+        }
+
+        or_flags(s.hull_flags, hull_1_id, TOUCH_ALIKE);
+        or_flags(s.hull_flags, hull_2_id, TOUCH_ALIKE);
+
+        int c1 = s.hull_point_tables[hull_1_id * 2];
+        int c2 = s.hull_point_tables[hull_2_id * 2];
+        float[] p = s.points;
+
+        float hull_1_mass = s.masses[s.hull_entity_ids[hull_1_id]];
+        float hull_2_mass = s.masses[s.hull_entity_ids[hull_2_id]];
+
+        float h1_opposing_x = h2_x - h1_x;
+        float h1_opposing_y = h2_y - h1_y;
+        float h2_opposing_x = h1_x - h2_x;
+        float h2_opposing_y = h1_y - h2_y;
+        float inv = inv_length(h2_opposing_x, h2_opposing_y);
+        float n_x = h2_opposing_x * inv;
+        float n_y = h2_opposing_y * inv;
+        float depth = radii_sum - center_distance;
+        float total_mass = hull_1_mass + hull_2_mass;
+        float h1_magnitude = hull_2_mass / total_mass;
+        float h2_magnitude = hull_1_mass / total_mass;
+        float vector_x = depth * n_x;
+        float vector_y = depth * n_y;
+        float h1_collision_x = h1_magnitude * vector_x;
+        float h1_collision_y = h1_magnitude * vector_y;
+        float h2_collision_x = -h2_magnitude * vector_x;
+        float h2_collision_y = -h2_magnitude * vector_y;
+
+        // friction
+        float h1_rel_x = (p[c1 * 4] - p[c1 * 4 + 2]) / dt - vector_x;
+        float h1_rel_y = (p[c1 * 4 + 1] - p[c1 * 4 + 3]) / dt - vector_y;
+        float h2_rel_x = (p[c2 * 4] - p[c2 * 4 + 2]) / dt - vector_x;
+        float h2_rel_y = (p[c2 * 4 + 1] - p[c2 * 4 + 3]) / dt - vector_y;
+        float friction = Math.max(s.hull_frictions[hull_1_id], s.hull_frictions[hull_2_id]);
+        float h1_dot = h1_rel_x * n_x + h1_rel_y * n_y;
+        float h2_dot = h2_rel_x * n_x + h2_rel_y * n_y;
+        float h1_tan_x = h1_rel_x - h1_dot * n_x;
+        float h1_tan_y = h1_rel_y - h1_dot * n_y;
+        float h2_tan_x = h2_rel_x - h2_dot * n_x;
+        float h2_tan_y = h2_rel_y - h2_dot * n_y;
+        float h1_inv = inv_length(h1_tan_x, h1_tan_y);
+        float h2_inv = inv_length(h2_tan_x, h2_tan_y);
+        float h1_friction_x = -friction * h1_tan_x * h1_inv * h1_magnitude;
+        float h1_friction_y = -friction * h1_tan_y * h1_inv * h1_magnitude;
+        float h2_friction_x = -friction * h2_tan_x * h2_inv * -h2_magnitude;
+        float h2_friction_y = -friction * h2_tan_y * h2_inv * -h2_magnitude;
+
+        // restitution
+        float h1_applied_x = (p[c1 * 4] + h1_collision_x - p[c1 * 4 + 2]) / dt;
+        float h1_applied_y = (p[c1 * 4 + 1] + h1_collision_y - p[c1 * 4 + 3]) / dt;
+        float h2_applied_x = (p[c2 * 4] + h2_collision_x - p[c2 * 4 + 2]) / dt;
+        float h2_applied_y = (p[c2 * 4 + 1] + h2_collision_y - p[c2 * 4 + 3]) / dt;
+        float restitution = Math.max(s.hull_restitutions[hull_1_id], s.hull_restitutions[hull_2_id]);
+        float h1_rest = restitution * (h1_applied_x * n_x + h1_applied_y * n_y);
+        float h2_rest = restitution * (h2_applied_x * -n_x + h2_applied_y * -n_y);
+
+        emit(slot, c1,
+            h1_collision_x, h1_collision_y, h1_opposing_x, h1_opposing_y,
+            h1_friction_x, h1_friction_y, h1_rest * n_x, h1_rest * n_y);
+        emit(slot + 1, c2,
+            h2_collision_x, h2_collision_y, h2_opposing_x, h2_opposing_y,
+            h2_friction_x, h2_friction_y, h2_rest * -n_x, h2_rest * -n_y);
+    }
+
+    private boolean point_polygon_containment(int polygon_id, float test_x, float test_y)
+    {
+        int start = state.hull_edge_tables[polygon_id * 2];
+        int end   = state.hull_edge_tables[polygon_id * 2 + 1];
+        float initial_sign = 0;
+        for (int edge_index = start; edge_index <= end; edge_index++)
+        {
+            if (state.edge_flags[edge_index] != 0) continue;
+            int a = state.edges[edge_index * 2] * 4;
+            int b = state.edges[edge_index * 2 + 1] * 4;
+            float va_x = state.points[a];
+            float va_y = state.points[a + 1];
+            float vb_x = state.points[b];
+            float vb_y = state.points[b + 1];
+            float c = (vb_x - va_x) * (test_y - va_y) - (vb_y - va_y) * (test_x - va_x);
+            if (c != 0)
+            {
+                if (initial_sign == 0) initial_sign = c;
+                else if (initial_sign * c < 0) return false;
+            }
+        }
+        return true;
+    }
+
+    private float calculate_displacement(int polygon_id, float test_x, float test_y)
+    {
+        int start = state.hull_edge_tables[polygon_id * 2];
+        int end   = state.hull_edge_tables[polygon_id * 2 + 1];
+        float min_displacement = Float.MAX_VALUE;
+        for (int edge_index = start; edge_index <= end; edge_index++)
+        {
+            if (state.edge_flags[edge_index] != 0) continue;
+            int a = state.edges[edge_index * 2] * 4;
+            int b = state.edges[edge_index * 2 + 1] * 4;
+            float a_x = state.points[a];
+            float a_y = state.points[a + 1];
+            float dx = state.points[b] - a_x;
+            float dy = state.points[b + 1] - a_y;
+            float t = ((test_x - a_x) * dx + (test_y - a_y) * dy) / (dx * dx + dy * dy);
+            t = t < 0 ? 0 : t > 1 ? 1 : t;
+            float distance_y = test_y - (a_y + t * dy);
+            float displacement = distance_y > 0 ? distance_y : Float.MAX_VALUE;
+            if (displacement >= 0 && displacement < min_displacement)
+            {
+                min_displacement = displacement;
+            }
+        }
+        return min_displacement == Float.MAX_VALUE ? 0 : min_displacement;
+    }
+
+    private void polygon_sensor_collision(int polygon_id, int sensor_id, int slot)
+    {
+        var s = state;
+        int sensor_point = s.hull_point_tables[sensor_id * 2];
+        float point_x = s.points[sensor_point * 4];
+        float point_y = s.points[sensor_point * 4 + 1];
+
+        if (!point_polygon_containment(polygon_id, point_x, point_y)) return;
+
+        or_flags(s.hull_flags, sensor_id, SENSOR_HIT);
+
+        float opposing_x = s.hulls[polygon_id * 4]     - s.hulls[sensor_id * 4];
+        float opposing_y = s.hulls[polygon_id * 4 + 1] - s.hulls[sensor_id * 4 + 1];
+        float displacement = calculate_displacement(polygon_id, point_x, point_y);
+
+        emit(slot, sensor_point, 0.0f, displacement, opposing_x, opposing_y, 0.0f, 0.0f, 0.0f, 0.0f);
+    }
+
+    private void polygon_circle_collision(int polygon_id, int circle_id, int slot)
+    {
+        var s = state;
+        float circle_x = s.hulls[circle_id * 4];
+        float circle_y = s.hulls[circle_id * 4 + 1];
+        float circle_size = s.hull_scales[circle_id * 2];
+        int circle_point = s.hull_point_tables[circle_id * 2];
+        int polygon_start = s.hull_point_tables[polygon_id * 2];
+        int polygon_end   = s.hull_point_tables[polygon_id * 2 + 1];
+        int edge_start = s.hull_edge_tables[polygon_id * 2];
+        int edge_end   = s.hull_edge_tables[polygon_id * 2 + 1];
+        int polygon_edge_count = edge_end - edge_start + 1;
+
+        boolean polygon_is_block = (s.hull_flags[polygon_id] & IS_BLOCK) != 0;
+
+        var proj_a = new float[3];
+        var proj_b = new float[3];
+        float min_distance = Float.MAX_VALUE;
+        float n_x = 0;
+        float n_y = 0;
+        int max_axis = polygon_is_block ? 2 : polygon_edge_count;
+        int this_axis = 0;
+
+        for (int edge_index = edge_start; edge_index <= edge_end; edge_index++)
+        {
+            if (s.edge_flags[edge_index] != 0 || this_axis >= max_axis) continue;
+            this_axis++;
+            int a = s.edges[edge_index * 2] * 4;
+            int b = s.edges[edge_index * 2 + 1] * 4;
+            float dx = s.points[b] - s.points[a];
+            float dy = s.points[b + 1] - s.points[a + 1];
+            float inv = inv_length(dy, -dx);
+            float axis_x = dy * inv;
+            float axis_y = -dx * inv;
+
+            project_polygon(polygon_id, axis_x, axis_y, proj_a);
+            project_circle(circle_x, circle_y, circle_size, axis_x, axis_y, proj_b);
+            float distance = polygon_distance(proj_a, proj_b);
+            if (distance > 0) return;
+
+            float abs_distance = Math.abs(distance);
+            if (abs_distance < min_distance)
+            {
+                n_x = axis_x;
+                n_y = axis_y;
+                min_distance = abs_distance;
+            }
+        }
+
+        // circle check, closest_point_circle returns an index relative to the point table, and the kernel uses it
+        // directly as a point index. That behaviour is preserved so both backends select the same point.
+        int cp_index = -1;
+        float closest = Float.MAX_VALUE;
+        for (int n = polygon_start; n <= polygon_end; n++)
+        {
+            if ((s.point_flags[n] & P_INTERIOR) != 0) continue;
+            float d = length(s.points[n * 4] - circle_x, s.points[n * 4 + 1] - circle_y);
+            if (d < closest)
+            {
+                closest = d;
+                cp_index = n - polygon_start;
+            }
+        }
+        if (cp_index < 0) return;
+
+        float cp_x = s.points[cp_index * 4]     - s.points[circle_point * 4];
+        float cp_y = s.points[cp_index * 4 + 1] - s.points[circle_point * 4 + 1];
+        float cp_inv = inv_length(cp_x, cp_y);
+        float axis_x = cp_x * cp_inv;
+        float axis_y = cp_y * cp_inv;
+        project_polygon(polygon_id, axis_x, axis_y, proj_a);
+        project_circle(circle_x, circle_y, circle_size, axis_x, axis_y, proj_b);
+        float circle_distance = polygon_distance(proj_b, proj_a) / (circle_size / 2);
+        if (circle_distance > 0) return;
+
+        int vert_hull_flags = s.hull_flags[circle_id];
+        int edge_hull_flags = s.hull_flags[polygon_id];
+        int vert_entity_id = s.hull_entity_ids[circle_id];
+        int edge_entity_id = s.hull_entity_ids[polygon_id];
+        float polygon_x = s.hulls[polygon_id * 4];
+        float polygon_y = s.hulls[polygon_id * 4 + 1];
+
+        if ((edge_hull_flags & IS_SENSOR) != 0) return;
+
+        boolean cursor_v = (vert_hull_flags & IS_CURSOR) != 0;
+        boolean ghost_e  = (edge_hull_flags & GHOST_HULL) != 0;
+
+        if (cursor_v && ghost_e) return;
+
+        if (cursor_v)
+        {
+            int cursor_owner_id = s.entity_model_transforms[vert_entity_id];
+            int cursor_owner_entity_id = s.hull_entity_ids[cursor_owner_id];
+            if (cursor_owner_entity_id == edge_entity_id) return;
+
+            int cursor_owner_entity_flags = s.entity_flags[cursor_owner_entity_id];
+            int edge_entity_flags = s.entity_flags[edge_entity_id];
+            boolean atk = (cursor_owner_entity_flags & ATTACKING) != 0;
+            boolean collect = (cursor_owner_entity_flags & CAN_COLLECT) != 0;
+            boolean hit = point_polygon_containment(polygon_id, circle_x, circle_y);
+            boolean collectable = (edge_entity_flags & COLLECTABLE) != 0;
+
+            int cursor_bits = CURSOR_OVER | IN_RANGE;
+            if (hit) cursor_bits |= CURSOR_HIT;
+            if (atk && hit) INTS.getAndAdd(s.hull_integrity, polygon_id, -100);
+            if (collect && collectable) or_flags(s.entity_flags, edge_entity_id, COLLECTED);
+            or_flags(s.hull_flags, polygon_id, cursor_bits);
+            return;
+        }
+
+        float abs_distance = Math.abs(circle_distance);
+        if (abs_distance < min_distance)
+        {
+            n_x = axis_x;
+            n_y = axis_y;
+            min_distance = abs_distance;
+        }
+
+        float inv = inv_length(n_x, n_y);
+        n_x *= inv;
+        n_y *= inv;
+
+        if ((circle_x - polygon_x) * n_x + (circle_y - polygon_y) * n_y < 0)
+        {
+            n_x = -n_x;
+            n_y = -n_y;
+        }
+
+        float normal_length = length(n_x, n_y);
+        min_distance = normal_length == 0.0f ? min_distance : min_distance / normal_length;
+
+        float opposing_x = polygon_x - circle_x;
+        float opposing_y = polygon_y - circle_y;
+
+        if ((vert_hull_flags & IS_LIQUID) != 0)
+        {
+            or_flags(s.hull_flags, polygon_id, IN_LIQUID);
+        }
+
+        boolean static_vert = (vert_hull_flags & IS_STATIC) != 0;
+        boolean static_edge = (edge_hull_flags & IS_STATIC) != 0;
+        boolean any_static = static_vert || static_edge;
+        float vert_magnitude = any_static ? static_vert ? 0.0f : 1.0f : 1.0f;
+
+        float vector_x = n_x * min_distance;
+        float vector_y = n_y * min_distance;
+        float v_collision_x = vector_x * vert_magnitude;
+        float v_collision_y = vector_y * vert_magnitude;
+
+        int v = circle_point * 4;
+        float v_applied_x = (s.points[v] + v_collision_x - s.points[v + 2]) / dt;
+        float v_applied_y = (s.points[v + 1] + v_collision_y - s.points[v + 3]) / dt;
+
+        float restitution_coefficient = 0.0003f;
+        float v_rest = restitution_coefficient * (v_applied_x * n_x + v_applied_y * n_y);
+
+        if (!static_vert)
+        {
+            emit(slot, circle_point,
+                v_collision_x, v_collision_y, opposing_x, opposing_y,
+                0.0f, 0.0f, v_rest * n_x, v_rest * n_y);
+        }
+    }
+
+    //#endregion
+}
@@ -0,0 +1,1192 @@
+package com.controllerface.bvge.physics.cpu;
+
+import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.physics.UniformGrid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import static com.controllerface.bvge.physics.cpu.CPUConstants.*;
+
+/**
+ * Reference implementation of the physics simulation stages in plain Java. Every stage mirrors the Open CL kernel
+ * of the same name, operating on the same structure-of-arrays layout held in a {@link CPUPhysicsState}. Work that
+ * the kernels spread across one work item per hull, point, entity, or candidate pair is split into ranges and run
+ * on a fork/join pool. Steps that rely on atomic counters on the GPU, like building the key map and sorting
+ * reactions, are done serially, so results do not depend on thread scheduling.
+ */
+public class CPUPhysicsBackend implements GPUResource
+{
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+    private final CPUPhysicsState state;
+    private final CPUNarrowPhase narrow_phase;
+    private final UniformGrid uniform_grid;
+
+    private final float time_step;
+    private final float gravity_x;
+    private final float gravity_y;
+    private final float damping;
+
+    //#region Broad Phase Data
+
+    private int[] key_bank          = new int[0];
+    private int[] key_counts;
+    private int[] key_offsets;
+    private int[] key_fill;
+    private int[] key_map           = new int[0];
+    private int[] in_bounds         = new int[0];
+    private int[] candidate_counts  = new int[0];
+    private int[] candidate_offsets = new int[0];
+    private int[] matches           = new int[0];
+    private int[] matches_used      = new int[0];
+    private int[] candidates        = new int[0];
+
+    private int key_bank_size   = 0;
+    private int in_bounds_count = 0;
+    private int candidate_count = 0;
+
+    //#endregion
+
+    //#region Reaction Data
+
+    private int[] point_reaction_counts  = new int[0];
+    private int[] point_reaction_offsets = new int[0];
+    private int[] point_reaction_fill    = new int[0];
+    private float[] sorted_reactions     = new float[0];
+
+    private int reaction_count = 0;
+
+    //#endregion
+
+    public CPUPhysicsBackend(UniformGrid uniform_grid, float time_step, float gravity_x, float gravity_y, float damping)
+    {
+        this(new CPUPhysicsState(), uniform_grid, time_step, gravity_x, gravity_y, damping);
+    }
+
+    public CPUPhysicsBackend(CPUPhysicsState state, UniformGrid uniform_grid,
+                             float time_step, float gravity_x, float gravity_y, float damping)
+    {
+        this.state        = state;
+        this.uniform_grid = uniform_grid;
+        this.time_step    = time_step;
+        this.gravity_x    = gravity_x;
+        this.gravity_y    = gravity_y;
+        this.damping      = damping;
+        this.narrow_phase = new CPUNarrowPhase(state, time_step);
+        this.pool         = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.key_counts   = new int[uniform_grid.directory_length];
+        this.key_offsets  = new int[uniform_grid.directory_length];
+        this.key_fill     = new int[uniform_grid.directory_length];
+    }
+
+    public CPUPhysicsState state()
+    {
+        return state;
+    }
+
+    //#region Parallel Helpers
+
+    private static final class RangeTask extends RecursiveAction
+    {
+        private final int start;
+        private final int end;
+        private final IntConsumer body;
+
+        private RangeTask(int start, int end, IntConsumer body)
+        {
+            this.start = start;
+            this.end   = end;
+            this.body  = body;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start <= SPLIT_THRESHOLD)
+            {
+                for (int i = start; i < end; i++)
+                {
+                    body.accept(i);
+                }
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new RangeTask(start, mid, body), new RangeTask(mid, end, body));
+        }
+    }
+
+    private void parallel_for(int count, IntConsumer body)
+    {
+        if (count <= 0) return;
+        pool.invoke(new RangeTask(0, count, body));
+    }
+
+    private static int[] ensure(int[] array, int length)
+    {
+        return array.length >= length ? array : new int[Math.max(length, array.length * 2)];
+    }
+
+    private static float[] ensure(float[] array, int length)
+    {
+        return array.length >= length ? array : new float[Math.max(length, array.length * 2)];
+    }
+
+    //#endregion
+
+    //#region Simulation Functions
+
+    /**
+     * Advances the simulation one sub-step, running the same sequence of stages as the GPU tick: integration,
+     * bounding boxes, the broad phase, the narrow phase, and finally reaction sorting and application.
+     */
+    public void tick_simulation()
+    {
+        integrate();
+        calculate_hull_aabb();
+
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        calculate_bank_offsets();
+        if (key_bank_size == 0)
+        {
+            return;
+        }
+        build_key_bank();
+        build_key_map();
+        locate_in_bounds();
+        aabb_collide();
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_AABB_COLLIDE, e);
+            Metrics.record(Metric.PHYS_CANDIDATE_COUNT, candidate_count);
+        }
+
+        if (candidate_count <= 0)
+        {
+            return;
+        }
+
+        sat_collide();
+
+        if (reaction_count == 0)
+        {
+            return;
+        }
+
+        sort_reactions();
+        apply_reactions();
+    }
+
+    //#endregion
+
+    //#region Input & Integration
+
+    private void integrate()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        parallel_for(state.hull_count, this::integrate);
+        parallel_for(state.entity_count, this::integrate_entity);
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_INTEGRATE, e);
+        }
+    }
+
+    private void integrate(int current_hull)
+    {
+        var s = state;
+        float dt_2 = time_step * time_step;
+
+        int start = s.hull_point_tables[current_hull * 2];
+        int end   = s.hull_point_tables[current_hull * 2 + 1];
+        int hull_1_flags = s.hull_flags[current_hull];
+        int hull_entity_id = s.hull_entity_ids[current_hull];
+        float acc_x = s.entity_accel[hull_entity_id * 2];
+        float acc_y = s.entity_accel[hull_entity_id * 2 + 1];
+
+        boolean is_cursor     = (hull_1_flags & IS_CURSOR) != 0;
+        boolean is_sensor     = (hull_1_flags & IS_SENSOR) != 0;
+        boolean is_ghost      = (hull_1_flags & GHOST_HULL) != 0;
+        boolean is_static     = (hull_1_flags & IS_STATIC) != 0;
+        boolean in_liquid     = (hull_1_flags & IN_LIQUID) != 0;
+        boolean is_liquid     = (hull_1_flags & IS_LIQUID) != 0;
+        boolean touch_alike   = (hull_1_flags & TOUCH_ALIKE) != 0;
+        boolean out_of_bounds = (hull_1_flags & OUT_OF_BOUNDS) != 0;
+        boolean in_perimeter  = (hull_1_flags & IN_PERIMETER) != 0;
+
+        // wipe all ephemeral flags
+        hull_1_flags &= ~(OUT_OF_BOUNDS | IN_PERIMETER | IN_LIQUID | TOUCH_ALIKE
+            | CURSOR_OVER | IN_RANGE | CURSOR_HIT | SENSOR_HIT);
+
+        float g_x = in_perimeter ? 0.0f : in_liquid ? gravity_x * 1.5f : gravity_x;
+        float g_y = in_perimeter ? 0.0f : in_liquid ? gravity_y * 1.5f : gravity_y;
+
+        if (!is_static)
+        {
+            acc_x += g_x;
+            acc_y += g_y;
+        }
+        acc_x *= dt_2;
+        acc_y *= dt_2;
+
+        float anti_grav_scale = 0;
+        for (int i = start; i <= end; i++)
+        {
+            anti_grav_scale = Math.max(s.anti_gravity[i], anti_grav_scale);
+            s.anti_gravity[i] = 0;
+        }
+
+        float i_acc_x = -g_x * anti_grav_scale * dt_2;
+        float i_acc_y = -g_y * anti_grav_scale * dt_2;
+
+        float y_damping = in_liquid ? .920f : 1.0f;
+        float x_threshold = is_liquid ? 1.0f : 5.0f;
+        float y_threshold = is_liquid ? 0.25f : 1.0f;
+
+        for (int i = start; i <= end; i++)
+        {
+            int p = i * 4;
+            float pos_x = s.points[p];
+            float pos_y = s.points[p + 1];
+            float prv_x = in_perimeter || out_of_bounds ? pos_x : s.points[p + 2];
+            float prv_y = in_perimeter || out_of_bounds ? pos_y : s.points[p + 3];
+
+            float vel_x = pos_x - prv_x;
+            float vel_y = pos_y - prv_y;
+            boolean s_x = Math.abs(vel_x) > x_threshold;
+            boolean s_y = in_liquid && Math.abs(vel_y) > y_threshold;
+            float sign_x = vel_x < 0 ? -1 : 1;
+
+            prv_x = s_x ? pos_x - sign_x * x_threshold : prv_x;
+
+            if (is_cursor || is_ghost)
+            {
+                s.points[p + 2] = s.points[p];
+                s.points[p + 3] = s.points[p + 1];
+            }
+
+            if (!is_static && !out_of_bounds && !is_cursor && !is_ghost && !is_sensor)
+            {
+                boolean flow_left = (s.point_flags[i] & FLOW_LEFT) != 0;
+                int hit_count = s.point_hit_counts[i];
+                boolean high_density = hit_count >= HIT_LOW_MID_THRESHOLD;
+                boolean max_density = hit_count >= HIT_TOP_THRESHOLD;
+
+                float g = touch_alike
+                    ? high_density ? 0.1f : max_density ? 0.3f : 0.0f
+                    : 0.0f;
+
+                float w_acc_x = is_liquid ? (flow_left ? -g_y * g : g_y * g) * dt_2 : 0.0f;
+                float w_acc_y = is_liquid ? g_y * g * dt_2 : 0.0f;
+
+                float diff_x = w_acc_x + acc_x + i_acc_x + (pos_x - prv_x);
+                float diff_y = w_acc_y + acc_y + i_acc_y + (pos_y - prv_y);
+
+                diff_x = is_liquid ? diff_x : diff_x * Math.min(y_damping, damping);
+                diff_y = s_y ? diff_y * y_damping : diff_y;
+                diff_y = diff_y > 0 ? diff_y * damping : diff_y;
+
+                s.points[p]     = pos_x + diff_x;
+                s.points[p + 1] = pos_y + diff_y;
+                s.points[p + 2] = pos_x;
+                s.points[p + 3] = pos_y;
+            }
+        }
+
+        s.hull_flags[current_hull] = hull_1_flags;
+    }
+
+    private void integrate_entity(int current_entity)
+    {
+        var s = state;
+        int e = current_entity * 4;
+        int flags = s.entity_flags[current_entity];
+        if ((flags & DELETED) != 0) return;
+
+        boolean is_wet = (flags & IS_WET) != 0;
+        int root_hull_flags = s.hull_flags[s.entity_root_hulls[current_entity]];
+
+        boolean is_static = (root_hull_flags & IS_STATIC) != 0;
+        boolean no_bones  = (root_hull_flags & NO_BONES) != 0;
+        boolean is_cursor = (root_hull_flags & IS_CURSOR) != 0;
+        boolean is_ghost  = (root_hull_flags & GHOST_HULL) != 0;
+
+        float g_x = is_wet ? gravity_x * 0.3f : gravity_x;
+        float g_y = is_wet ? gravity_y * 0.3f : gravity_y;
+        float y_damping = is_wet ? .985f : 1.0f;
+
+        float acc_x = s.entity_accel[current_entity * 2];
+        float acc_y = s.entity_accel[current_entity * 2 + 1];
+        if (!is_static)
+        {
+            acc_x += g_x;
+            acc_y += g_y;
+        }
+        acc_x *= time_step * time_step;
+        acc_y *= time_step * time_step;
+
+        float pos_x = s.entities[e];
+        float pos_y = s.entities[e + 1];
+
+        if (!is_static && !no_bones)
+        {
+            float diff_x = (acc_x + pos_x - s.entities[e + 2]) * damping;
+            float diff_y = (acc_y + pos_y - s.entities[e + 3]) * y_damping;
+            diff_y = diff_y > 0 ? diff_y * damping : diff_y;
+
+            s.entities[e + 2] = pos_x;
+            s.entities[e + 3] = pos_y;
+            pos_x += diff_x;
+            pos_y += diff_y;
+            s.entities[e]     = pos_x;
+            s.entities[e + 1] = pos_y;
+        }
+
+        float origin_x = uniform_grid.sector_origin_x();
+        float origin_y = uniform_grid.sector_origin_y();
+        boolean sector_in = is_cursor || is_ghost
+            || (pos_x >= origin_x && pos_x <= origin_x + uniform_grid.sector_width()
+            && pos_y >= origin_y && pos_y <= origin_y + uniform_grid.sector_height());
+
+        if (!sector_in)
+        {
+            s.entity_flags[current_entity] = flags | SECTOR_OUT;
+        }
+    }
+
+    private void calculate_hull_aabb()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        parallel_for(state.hull_count, this::calculate_hull_aabb);
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_CALCULATE_HULL_AABB, e);
+        }
+    }
+
+    private static boolean is_box_in_bounds(float a_x, float a_y, float a_w, float a_h,
+                                            float x, float y, float w, float h)
+    {
+        return a_x < x + w
+            && a_x + a_w > x
+            && a_y < y + h
+            && a_y + a_h > y;
+    }
+
+    private void calculate_hull_aabb(int current_hull)
+    {
+        var s = state;
+        var grid = uniform_grid;
+        int start = s.hull_point_tables[current_hull * 2];
+        int end   = s.hull_point_tables[current_hull * 2 + 1];
+        int hull_1_flags = s.hull_flags[current_hull];
+
+        boolean is_liquid = (hull_1_flags & IS_LIQUID) != 0;
+        boolean is_cursor = (hull_1_flags & IS_CURSOR) != 0;
+        boolean is_sensor = (hull_1_flags & IS_SENSOR) != 0;
+        boolean is_ghost  = (hull_1_flags & GHOST_HULL) != 0;
+        boolean is_circle = (hull_1_flags & IS_CIRCLE) != 0;
+
+        float x_sum = 0;
+        float y_sum = 0;
+        float min_x = Float.MAX_VALUE;
+        float max_x = -Float.MAX_VALUE;
+        float min_y = Float.MAX_VALUE;
+        float max_y = -Float.MAX_VALUE;
+
+        for (int i = start; i <= end; i++)
+        {
+            int p = i * 4;
+            float x = s.points[p];
+            float y = s.points[p + 1];
+            float z = s.points[p + 2];
+            float w = s.points[p + 3];
+            x_sum += x;
+            y_sum += y;
+
+            // previous position is also included, to account for possible CCD correction
+            min_x = Math.min(min_x, Math.min(x, z));
+            max_x = Math.max(max_x, Math.max(x, z));
+            min_y = Math.min(min_y, Math.min(y, w));
+            max_y = Math.max(max_y, Math.max(y, w));
+        }
+
+        int point_count = end - start + 1;
+        float hull_x = x_sum / point_count;
+        float hull_y = y_sum / point_count;
+        s.hulls[current_hull * 4]     = hull_x;
+        s.hulls[current_hull * 4 + 1] = hull_y;
+
+        if (is_circle)
+        {
+            float size = is_liquid
+                ? s.hull_scales[current_hull * 2 + 1] * 3
+                : s.hull_scales[current_hull * 2 + 1];
+            min_x = hull_x - size;
+            max_x = hull_x + size;
+            min_y = hull_y - size;
+            max_y = hull_y + size;
+        }
+
+        if (is_sensor)
+        {
+            min_x -= 0.5f;
+            min_y -= 0.5f;
+            max_x += 0.5f;
+            max_y += 0.5f;
+        }
+
+        float box_w = Math.abs(max_x - min_x);
+        float box_h = Math.abs(max_y - min_y);
+        int b = current_hull * 4;
+        s.bounds[b]     = min_x;
+        s.bounds[b + 1] = min_y;
+        s.bounds[b + 2] = box_w;
+        s.bounds[b + 3] = box_h;
+
+        // key extents, the four corner keys reduce to the keys of the min and max corners
+        float x_origin = grid.x_origin();
+        float y_origin = grid.y_origin();
+        int key_min_x = (int) Math.floor((min_x - x_origin) / grid.x_spacing);
+        int key_max_x = (int) Math.floor((max_x - x_origin) / grid.x_spacing);
+        int key_min_y = (int) Math.floor((min_y - y_origin) / grid.y_spacing);
+        int key_max_y = (int) Math.floor((max_y - y_origin) / grid.y_spacing);
+        s.bounds_index_data[b]     = Math.min(key_min_x, key_max_x);
+        s.bounds_index_data[b + 1] = Math.max(key_min_x, key_max_x);
+        s.bounds_index_data[b + 2] = Math.min(key_min_y, key_max_y);
+        s.bounds_index_data[b + 3] = Math.max(key_min_y, key_max_y);
+
+        boolean deleted = (s.entity_flags[s.hull_entity_ids[current_hull]] & DELETED) != 0;
+        boolean in_bounds = !deleted && is_box_in_bounds(min_x, min_y, box_w, box_h, x_origin, y_origin, grid.width, grid.height);
+        if (in_bounds)
+        {
+            int x_count = (s.bounds_index_data[b + 1] - s.bounds_index_data[b]) + 1;
+            int y_count = (s.bounds_index_data[b + 3] - s.bounds_index_data[b + 2]) + 1;
+            s.bounds_bank_data[current_hull * 2 + 1] = x_count * y_count * 2;
+
+            boolean in_perimeter = !is_box_in_bounds(min_x, min_y, box_w, box_h,
+                grid.inner_x_origin(), grid.inner_y_origin(), grid.inner_width, grid.inner_height);
+            if (in_perimeter)
+            {
+                hull_1_flags |= IN_PERIMETER;
+            }
+        }
+        else
+        {
+            s.bounds_bank_data[current_hull * 2 + 1] = 0;
+            if (!is_cursor && !is_ghost)
+            {
+                hull_1_flags |= OUT_OF_BOUNDS;
+            }
+        }
+
+        // rotation relative to the reference angle taken at object creation
+        int ref = start * 4;
+        float r_x = angle_between(hull_x, hull_y, hull_x, hull_y + 1,
+            hull_x, hull_y, s.points[ref], s.points[ref + 1]);
+        s.hull_rotations[current_hull * 2] = s.hull_rotations[current_hull * 2 + 1] - r_x;
+
+        s.hull_flags[current_hull] = hull_1_flags;
+    }
+
+    //#endregion
+
+    //#region AABB Collision
+
+    private void calculate_bank_offsets()
+    {
+        int offset = 0;
+        for (int current_hull = 0; current_hull < state.hull_count; current_hull++)
+        {
+            state.bounds_bank_data[current_hull * 2] = offset / 2;
+            offset += state.bounds_bank_data[current_hull * 2 + 1];
+        }
+        key_bank_size = offset;
+        uniform_grid.resizeBank(offset);
+    }
+
+    private static int calculate_key_index(int x_subdivisions, int x, int y)
+    {
+        return x_subdivisions * y + x;
+    }
+
+    /**
+     * Writes the keys of every in-bounds hull into its slice of the key bank. Keys that fall outside the grid are
+     * skipped, and the unused tail of the slice is filled with -1, which never maps to a valid key index.
+     */
+    private void build_key_bank()
+    {
+        key_bank = ensure(key_bank, key_bank_size);
+        parallel_for(state.hull_count, current_hull ->
+        {
+            var s = state;
+            int bank_offset = s.bounds_bank_data[current_hull * 2] * 2;
+            int bank_size   = s.bounds_bank_data[current_hull * 2 + 1];
+            if (bank_size == 0) return;
+
+            int b = current_hull * 4;
+            int current_index = bank_offset;
+            for (int current_x = s.bounds_index_data[b]; current_x <= s.bounds_index_data[b + 1]; current_x++)
+            {
+                for (int current_y = s.bounds_index_data[b + 2]; current_y <= s.bounds_index_data[b + 3]; current_y++)
+                {
+                    int key_index = calculate_key_index(uniform_grid.x_subdivisions, current_x, current_y);
+                    if (key_index < 0 || key_index >= uniform_grid.directory_length) continue;
+                    key_bank[current_index++] = current_x;
+                    key_bank[current_index++] = current_y;
+                }
+            }
+            Arrays.fill(key_bank, current_index, bank_offset + bank_size, -1);
+        });
+    }
+
+    private void build_key_map()
+    {
+        Arrays.fill(key_counts, 0);
+        for (int current_hull = 0; current_hull < state.hull_count; current_hull++)
+        {
+            int bank_offset = state.bounds_bank_data[current_hull * 2] * 2;
+            int bank_end = bank_offset + state.bounds_bank_data[current_hull * 2 + 1];
+            for (int i = bank_offset; i < bank_end; i += 2)
+            {
+                if (key_bank[i] < 0) break;
+                key_counts[calculate_key_index(uniform_grid.x_subdivisions, key_bank[i], key_bank[i + 1])]++;
+            }
+        }
+
+        int offset = 0;
+        for (int key_index = 0; key_index < key_counts.length; key_index++)
+        {
+            key_offsets[key_index] = offset;
+            offset += key_counts[key_index];
+        }
+
+        key_map = ensure(key_map, offset);
+        Arrays.fill(key_fill, 0);
+        for (int current_hull = 0; current_hull < state.hull_count; current_hull++)
+        {
+            int bank_offset = state.bounds_bank_data[current_hull * 2] * 2;
+            int bank_end = bank_offset + state.bounds_bank_data[current_hull * 2 + 1];
+            for (int i = bank_offset; i < bank_end; i += 2)
+            {
+                if (key_bank[i] < 0) break;
+                int key_index = calculate_key_index(uniform_grid.x_subdivisions, key_bank[i], key_bank[i + 1]);
+                key_map[key_offsets[key_index] + key_fill[key_index]++] = current_hull;
+            }
+        }
+    }
+
+    private void locate_in_bounds()
+    {
+        in_bounds = ensure(in_bounds, state.hull_count);
+        in_bounds_count = 0;
+        for (int current_hull = 0; current_hull < state.hull_count; current_hull++)
+        {
+            if (state.bounds_bank_data[current_hull * 2 + 1] > 0)
+            {
+                in_bounds[in_bounds_count++] = current_hull;
+            }
+        }
+    }
+
+    private void aabb_collide()
+    {
+        // count candidates
+        candidate_counts = ensure(candidate_counts, in_bounds_count);
+        parallel_for(in_bounds_count, current_candidate ->
+        {
+            int hull = in_bounds[current_candidate];
+            int bank_offset = state.bounds_bank_data[hull * 2] * 2;
+            int bank_end = bank_offset + state.bounds_bank_data[hull * 2 + 1];
+            int size = 0;
+            for (int i = bank_offset; i < bank_end; i += 2)
+            {
+                if (key_bank[i] < 0) break;
+                size += key_counts[calculate_key_index(uniform_grid.x_subdivisions, key_bank[i], key_bank[i + 1])];
+            }
+            candidate_counts[current_candidate] = size;
+        });
+
+        // match offsets
+        candidate_offsets = ensure(candidate_offsets, in_bounds_count);
+        int match_buffer_count = 0;
+        for (int i = 0; i < in_bounds_count; i++)
+        {
+            candidate_offsets[i] = match_buffer_count;
+            match_buffer_count += candidate_counts[i];
+        }
+        if (match_buffer_count > 100_000_000)
+        {
+            throw new RuntimeException("collision buffer too large:" + match_buffer_count);
+        }
+
+        // broad phase check
+        matches = ensure(matches, match_buffer_count);
+        matches_used = ensure(matches_used, in_bounds_count);
+        parallel_for(in_bounds_count, this::aabb_collide);
+
+        // finalize candidates
+        int total = 0;
+        for (int i = 0; i < in_bounds_count; i++)
+        {
+            total += matches_used[i];
+        }
+        candidates = ensure(candidates, total * 2);
+        candidate_count = 0;
+        for (int current_candidate = 0; current_candidate < in_bounds_count; current_candidate++)
+        {
+            int index = in_bounds[current_candidate];
+            int offset = candidate_offsets[current_candidate];
+            int used = matches_used[current_candidate];
+            for (int i = offset; i < offset + used; i++)
+            {
+                int next = matches[i];
+                candidates[candidate_count * 2]     = Math.max(next, index);
+                candidates[candidate_count * 2 + 1] = Math.min(next, index);
+                candidate_count++;
+            }
+        }
+    }
+
+    private void aabb_collide(int current_candidate)
+    {
+        var s = state;
+        int target_hull = in_bounds[current_candidate];
+        int match_offset = candidate_offsets[current_candidate];
+
+        int b = target_hull * 4;
+        float bound_x = s.bounds[b];
+        float bound_y = s.bounds[b + 1];
+        float bound_w = s.bounds[b + 2];
+        float bound_h = s.bounds[b + 3];
+        int flags = s.hull_flags[target_hull];
+        int entity_id = s.hull_entity_ids[target_hull];
+        boolean target_static = (flags & IS_STATIC) != 0;
+        boolean target_sensor = (flags & IS_SENSOR) != 0;
+
+        int bank_offset = s.bounds_bank_data[target_hull * 2] * 2;
+        int bank_end = bank_offset + s.bounds_bank_data[target_hull * 2 + 1];
+
+        int current_offset = match_offset;
+        for (int bank_index = bank_offset; bank_index < bank_end; bank_index += 2)
+        {
+            if (key_bank[bank_index] < 0) break;
+            int key_index = calculate_key_index(uniform_grid.x_subdivisions, key_bank[bank_index], key_bank[bank_index + 1]);
+            int key_offset = key_offsets[key_index];
+            int count = key_counts[key_index];
+
+            for (int map_index = key_offset; map_index < key_offset + count; map_index++)
+            {
+                int candidate_hull = key_map[map_index];
+
+                // no mirror or self-matches
+                if (target_hull >= candidate_hull) continue;
+
+                // no collisions between hulls that are part of the same entity
+                if (s.hull_entity_ids[candidate_hull] == entity_id) continue;
+
+                int candidate_flags = s.hull_flags[candidate_hull];
+
+                // no static/static or sensor/sensor collision permitted
+                if (target_static && (candidate_flags & IS_STATIC) != 0) continue;
+                if (target_sensor && (candidate_flags & IS_SENSOR) != 0) continue;
+
+                int c = candidate_hull * 4;
+                if (!is_box_in_bounds(bound_x, bound_y, bound_w, bound_h,
+                    s.bounds[c], s.bounds[c + 1], s.bounds[c + 2], s.bounds[c + 3])) continue;
+
+                boolean dupe = false;
+                for (int match_index = match_offset; match_index < current_offset; match_index++)
+                {
+                    if (matches[match_index] == candidate_hull)
+                    {
+                        dupe = true;
+                        break;
+                    }
+                }
+                if (dupe) continue;
+
+                matches[current_offset++] = candidate_hull;
+            }
+        }
+
+        matches_used[current_candidate] = current_offset - match_offset;
+    }
+
+    //#endregion
+
+    //#region SAT Collision
+
+    private void sat_collide()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        narrow_phase.reset(candidate_count);
+        parallel_for(candidate_count, pair ->
+            narrow_phase.sat_collide(pair, candidates[pair * 2], candidates[pair * 2 + 1]));
+
+        point_reaction_counts = ensure(point_reaction_counts, state.point_count);
+        Arrays.fill(point_reaction_counts, 0, state.point_count, 0);
+        reaction_count = 0;
+        int slot_count = candidate_count * CPUNarrowPhase.SLOTS_PER_PAIR;
+        for (int slot = 0; slot < slot_count; slot++)
+        {
+            int point = narrow_phase.reaction_index[slot];
+            if (point < 0) continue;
+            point_reaction_counts[point]++;
+            reaction_count++;
+        }
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_SAT_COLLIDE, e);
+            Metrics.record(Metric.PHYS_REACTION_COUNT, reaction_count);
+        }
+    }
+
+    /**
+     * Scans reaction counts into per-point offsets, then copies reactions into a buffer ordered by point index.
+     * Reactions for the same point keep the order of the pairs that generated them.
+     */
+    private void sort_reactions()
+    {
+        point_reaction_offsets = ensure(point_reaction_offsets, state.point_count);
+        point_reaction_fill = ensure(point_reaction_fill, state.point_count);
+        int offset = 0;
+        for (int point = 0; point < state.point_count; point++)
+        {
+            point_reaction_offsets[point] = offset;
+            point_reaction_fill[point] = 0;
+            offset += point_reaction_counts[point];
+        }
+
+        int width = CPUNarrowPhase.REACTION_WIDTH;
+        sorted_reactions = ensure(sorted_reactions, reaction_count * width);
+        int slot_count = candidate_count * CPUNarrowPhase.SLOTS_PER_PAIR;
+        for (int slot = 0; slot < slot_count; slot++)
+        {
+            int point = narrow_phase.reaction_index[slot];
+            if (point < 0) continue;
+            int next = point_reaction_offsets[point] + point_reaction_fill[point]++;
+            System.arraycopy(narrow_phase.reactions, slot * width, sorted_reactions, next * width, width);
+        }
+    }
+
+    private void apply_reactions()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        parallel_for(state.point_count, this::apply_reactions);
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_SAT_APPLY_REACTIONS, e);
+        }
+    }
+
+    private static float scale_reaction(float dot_a, float dot_b)
+    {
+        return 1 - dot_a / (dot_a + Math.abs(dot_b));
+    }
+
+    private void apply_reactions(int current_point)
+    {
+        var s = state;
+        int reaction_count = point_reaction_counts[current_point];
+        int flags = s.point_flags[current_point];
+        int hit_count = s.point_hit_counts[current_point];
+
+        int h_flags = s.hull_flags[s.point_hull_indices[current_point]];
+        boolean is_static = (h_flags & IS_STATIC) != 0;
+        boolean is_liquid = (h_flags & IS_LIQUID) != 0;
+
+        if (reaction_count == 0)
+        {
+            if (!is_static)
+            {
+                if (!is_liquid)
+                {
+                    hit_count = hit_count == 0 ? 0
+                        : hit_count <= 3 ? hit_count
+                        : hit_count <= HIT_LOW_THRESHOLD ? hit_count - 3
+                        : hit_count <= HIT_LOW_MID_THRESHOLD ? hit_count - 2
+                        : hit_count <= HIT_MID_THRESHOLD ? hit_count - 1
+                        : hit_count;
+                }
+                else
+                {
+                    hit_count = hit_count == 0 ? 0
+                        : hit_count <= HIT_LOW_THRESHOLD ? hit_count - 1
+                        : hit_count <= HIT_LOW_MID_THRESHOLD ? hit_count - 2
+                        : hit_count <= HIT_MID_THRESHOLD ? hit_count - 3
+                        : hit_count <= HIT_HIGH_MID_THRESHOLD ? hit_count - 4
+                        : hit_count - 5;
+                }
+            }
+            s.point_hit_counts[current_point] = (short) hit_count;
+            return;
+        }
+
+        hit_count = hit_count >= HIT_TOP_THRESHOLD ? HIT_TOP_THRESHOLD : hit_count + reaction_count;
+        hit_count = hit_count > HIT_MID_THRESHOLD && reaction_count == 1 ? hit_count - 2 : hit_count;
+
+        // sum all reactions for this point
+        int width = CPUNarrowPhase.REACTION_WIDTH;
+        float[] r = new float[width];
+        int reaction_offset = point_reaction_offsets[current_point] * width;
+        for (int i = 0; i < reaction_count * width; i++)
+        {
+            r[i % width] += sorted_reactions[reaction_offset + i];
+        }
+
+        int p = current_point * 4;
+        float x = s.points[p];
+        float y = s.points[p + 1];
+        float z = s.points[p + 2];
+        float w = s.points[p + 3];
+
+        float initial_tail_x = z;
+        float initial_tail_y = w;
+        float initial_dist = length(x - z, y - w);
+
+        // apply the cumulative reaction
+        x += r[0];
+        y += r[1];
+
+        // apply friction and adjust if necessary
+        float dot_a = (x + r[4] - z) * r[4] + (y + r[5] - w) * r[5];
+        float dot_b = (x - z) * r[4] + (y - w) * r[5];
+        float friction_scale = (dot_a >= 0.0f) == (dot_b >= 0.0f) ? 1.0f : scale_reaction(dot_a, dot_b);
+        x += r[4] * friction_scale;
+        y += r[5] * friction_scale;
+
+        // re-adjust the previous position to preserve the initial velocity
+        float offset_x = x - initial_tail_x;
+        float offset_y = y - initial_tail_y;
+        float new_len = length(offset_x, offset_y);
+        if (new_len != 0.0f)
+        {
+            offset_x /= new_len;
+            offset_y /= new_len;
+        }
+        z = x - initial_dist * offset_x;
+        w = y - initial_dist * offset_y;
+
+        // apply restitution and adjust if necessary
+        dot_a = (z + r[6] - x) * r[6] + (w + r[7] - y) * r[7];
+        dot_b = (z - x) * r[6] + (w - y) * r[7];
+        float restitution_scale = (dot_a >= 0.0f) == (dot_b >= 0.0f) ? 1.0f : scale_reaction(dot_a, dot_b);
+        z += r[6] * restitution_scale;
+        w += r[7] * restitution_scale;
+
+        // anti-gravity, with a fixed downward gravity direction as in the kernel
+        float heading_x = r[2];
+        float heading_y = r[3];
+        float ag = is_liquid ? 0.0f : -heading_y / length(heading_x, heading_y);
+
+        flags = ag > 0.0f ? flags | HIT_FLOOR : flags;
+        ag = ag <= 0.0f ? 0.0f : 1.0f;
+
+        s.points[p]     = x;
+        s.points[p + 1] = y;
+        s.points[p + 2] = z;
+        s.points[p + 3] = w;
+        s.anti_gravity[current_point] = ag;
+        s.point_flags[current_point] = flags;
+        s.point_hit_counts[current_point] = (short) hit_count;
+    }
+
+    //#endregion
+
+    //#region Constraint Resolvers
+
+    /**
+     * Resolves edge constraints for the given number of steps. Hulls outside the key bank are only resolved on the
+     * final step, matching the process_all argument of the kernel.
+     */
+    public void resolve_constraints(int steps)
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        for (int i = 0; i < steps; i++)
+        {
+            boolean process_all = i == steps - 1;
+            parallel_for(state.hull_count, current_hull -> resolve_constraints(current_hull, process_all));
+        }
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_RESOLVE_CONSTRAINTS, e);
+        }
+    }
+
+    private void resolve_constraints(int current_hull, boolean process_all)
+    {
+        var s = state;
+        if ((s.hull_flags[current_hull] & IS_STATIC) != 0) return;
+        int bank_size = s.bounds_bank_data[current_hull * 2 + 1];
+        if (bank_size <= 0 && !process_all) return;
+
+        int start = s.hull_edge_tables[current_hull * 2];
+        int end   = s.hull_edge_tables[current_hull * 2 + 1];
+        for (int current_edge = start; current_edge <= end; current_edge++)
+        {
+            int flags = s.edge_flags[current_edge];
+            if ((flags & E_SENSOR) != 0) resolve_pin_constraint(s.entities, current_edge, 1.0f);
+            else if ((flags & SENSOR_EDGE) != 0) resolve_pin_constraint(s.hulls, current_edge, -1.0f);
+            else resolve_length_constraint(current_edge);
+        }
+    }
+
+    private void resolve_length_constraint(int current_edge)
+    {
+        var s = state;
+        int p1 = s.edges[current_edge * 2] * 4;
+        int p2 = s.edges[current_edge * 2 + 1] * 4;
+        float constraint = s.edge_lengths[current_edge];
+
+        float d_x   = s.points[p2] - s.points[p1];
+        float d_y   = s.points[p2 + 1] - s.points[p1 + 1];
+        float d_p_x = s.points[p2 + 2] - s.points[p1 + 2];
+        float d_p_y = s.points[p2 + 3] - s.points[p1 + 3];
+
+        float length   = length(d_x, d_y);
+        float length_p = length(d_p_x, d_p_y);
+        float scale   = (length - constraint) * 0.5f * inv_length(d_x, d_y);
+        float scale_p = (length_p - constraint) * 0.5f * inv_length(d_p_x, d_p_y);
+
+        s.points[p1]     += d_x * scale;
+        s.points[p1 + 1] += d_y * scale;
+        s.points[p2]     -= d_x * scale;
+        s.points[p2 + 1] -= d_y * scale;
+        s.points[p1 + 2] += d_p_x * scale_p;
+        s.points[p1 + 3] += d_p_y * scale_p;
+        s.points[p2 + 2] -= d_p_x * scale_p;
+        s.points[p2 + 3] -= d_p_y * scale_p;
+    }
+
+    /**
+     * Pins both points of an edge to an anchor, the second point offset vertically by the edge length. Hull pins
+     * hang below the anchor, entity pins extend above it.
+     */
+    private void resolve_pin_constraint(float[] anchors, int current_edge, float direction)
+    {
+        var s = state;
+        int p1 = s.edges[current_edge * 2] * 4;
+        int p2 = s.edges[current_edge * 2 + 1] * 4;
+        int a = s.edge_pins[current_edge] * 4;
+        float offset = s.edge_lengths[current_edge] * direction;
+        System.arraycopy(anchors, a, s.points, p1, 4);
+        s.points[p2]     = anchors[a];
+        s.points[p2 + 1] = anchors[a + 1] + offset;
+        s.points[p2 + 2] = anchors[a + 2];
+        s.points[p2 + 3] = anchors[a + 3] + offset;
+    }
+
+    public void resolve_hulls()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        parallel_for(state.hull_count, current_hull ->
+        {
+            int h = current_hull * 4;
+            int start = state.hull_point_tables[current_hull * 2];
+            int end   = state.hull_point_tables[current_hull * 2 + 1];
+            float x_sum = 0;
+            float y_sum = 0;
+            for (int i = start; i <= end; i++)
+            {
+                x_sum += state.points[i * 4];
+                y_sum += state.points[i * 4 + 1];
+            }
+            int vert_count = end - start + 1;
+            state.hulls[h + 2] = state.hulls[h];
+            state.hulls[h + 3] = state.hulls[h + 1];
+            state.hulls[h]     = x_sum / vert_count;
+            state.hulls[h + 1] = y_sum / vert_count;
+        });
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_MOVE_HULLS, e);
+        }
+    }
+
+    public void resolve_entities()
+    {
+        long s = Editor.ACTIVE
+            ? System.nanoTime()
+            : 0;
+
+        parallel_for(state.entity_count, this::move_entity);
+
+        if (Editor.ACTIVE)
+        {
+            long e = System.nanoTime() - s;
+            Metrics.record(Metric.PHYS_MOVE_ENTITIES, e);
+        }
+    }
+
+    private void move_entity(int current_entity)
+    {
+        var s = state;
+        int e = current_entity * 4;
+        int flags = s.entity_flags[current_entity];
+        int start = s.entity_hull_tables[current_entity * 2];
+        int end   = s.entity_hull_tables[current_entity * 2 + 1];
+
+        int hull_flags_0 = s.hull_flags[start];
+        boolean is_block = (hull_flags_0 & IS_BLOCK) != 0;
+        boolean jumping = (flags & JUMPING) != 0;
+        boolean destroy = start == end && s.hull_integrity[start] <= 0;
+
+        float diff_x = 0;
+        float diff_y = 0;
+        float last_center_x = 0;
+        float last_center_y = 0;
+        int point_flags = 0;
+        int hull_flags = 0;
+        boolean had_bones = false;
+        boolean had_touch = false;
+
+        for (int n = start; n <= end; n++)
+        {
+            int hull_flag = s.hull_flags[n];
+            if ((hull_flag & IS_SENSOR) != 0)
+            {
+                had_touch |= (hull_flag & SENSOR_HIT) != 0;
+                if ((hull_flag & ENTITY_SENSOR) == 0) continue;
+            }
+
+            hull_flags |= hull_flag;
+            if ((hull_flag & NO_BONES) == 0) had_bones = true;
+
+            last_center_x = s.hulls[n * 4];
+            last_center_y = s.hulls[n * 4 + 1];
+            diff_x += last_center_x - s.hulls[n * 4 + 2];
+            diff_y += last_center_y - s.hulls[n * 4 + 3];
+
+            // consume point flags, the floor flag must not persist to the next tick
+            int consumed = 0;
+            int point_start = s.hull_point_tables[n * 2];
+            int point_end   = s.hull_point_tables[n * 2 + 1];
+            for (int i = point_start; i <= point_end; i++)
+            {
+                consumed |= s.point_flags[i];
+                s.point_flags[i] &= ~HIT_FLOOR;
+            }
+            if ((hull_flag & IS_FOOT) != 0 || is_block)
+            {
+                point_flags |= consumed;
+            }
+        }
+
+        boolean hit_floor = (point_flags & HIT_FLOOR) != 0;
+        boolean hit_water = (hull_flags & IN_LIQUID) != 0;
+
+        if (!jumping && hit_floor && had_touch)
+        {
+            s.entities[e + 3] = s.entities[e + 1];
+        }
+
+        float initial_tail_x = s.entities[e + 2];
+        float initial_tail_y = s.entities[e + 3];
+        float initial_dist = length(s.entities[e] - initial_tail_x, s.entities[e + 1] - initial_tail_y);
+
+        float x = had_bones ? s.entities[e] + diff_x : last_center_x;
+        float y = had_bones ? s.entities[e + 1] + diff_y : last_center_y;
+
+        float offset_x = x - initial_tail_x;
+        float offset_y = y - initial_tail_y;
+        float new_len = length(offset_x, offset_y);
+        if (new_len != 0.0f)
+        {
+            offset_x /= new_len;
+            offset_y /= new_len;
+        }
+
+        s.entities[e]     = x;
+        s.entities[e + 1] = y;
+        s.entities[e + 2] = x - initial_dist * offset_x;
+        s.entities[e + 3] = y - initial_dist * offset_y;
+
+        flags = had_touch ? flags | CAN_JUMP : flags & ~CAN_JUMP;
+        flags = hit_water ? flags | IS_WET : flags & ~IS_WET;
+        flags = destroy ? flags | BROKEN : flags & ~BROKEN;
+        s.entity_flags[current_entity] = flags;
+
+        float threshold = 10.0f;
+        float vel_y = (y - s.entities[e + 3]) / time_step;
+        int m = current_entity * 2;
+        int falling = vel_y < -threshold ? s.entity_motion_states[m] + 1 : 0;
+        int rising  = vel_y > threshold ? s.entity_motion_states[m + 1] + 1 : 0;
+        s.entity_motion_states[m]     = (short) Math.min(falling, 1000);
+        s.entity_motion_states[m + 1] = (short) Math.min(rising, 1000);
+    }
+
+    //#endregion
+
+    //#region Device Transfer
+
+    public void download()
+    {
+        state.download();
+    }
+
+    public void upload()
+    {
+        state.upload();
+    }
+
+    public void download_points()
+    {
+        state.download_points();
+    }
+
+    public void upload_points()
+    {
+        state.upload_points();
+    }
+
+    //#endregion
+
+    @Override
+    public void release()
+    {
+        pool.shutdown();
+        state.release();
+    }
+}
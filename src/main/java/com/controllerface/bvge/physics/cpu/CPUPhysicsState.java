@@ -0,0 +1,316 @@
+package com.controllerface.bvge.physics.cpu;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.GPUResource;
+import com.controllerface.bvge.memory.types.CoreBufferType;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.*;
+import static com.controllerface.bvge.memory.types.CoreBufferType.*;
+
+/**
+ * Host side mirror of the core buffers used by the physics simulation. Each array has exactly the same layout as
+ * the {@link CoreBufferType} it mirrors, vector types are flattened in component order, so a float4 buffer of N
+ * items becomes a float array of 4N values. Array names match the kernel argument names used for the same buffers,
+ * so CPU stages can be read side by side with the Open CL source they mirror.
+ */
+public class CPUPhysicsState implements GPUResource
+{
+    //#region Points
+
+    public float[] points                = new float[0];
+    public int[]   point_flags           = new int[0];
+    public short[] point_hit_counts      = new short[0];
+    public float[] anti_gravity          = new float[0];
+    public int[]   point_hull_indices    = new int[0];
+
+    //#endregion
+
+    //#region Edges
+
+    public int[]   edges                 = new int[0];
+    public int[]   edge_flags            = new int[0];
+    public float[] edge_lengths          = new float[0];
+    public int[]   edge_pins             = new int[0];
+
+    //#endregion
+
+    //#region Hulls
+
+    public float[] hulls                 = new float[0];
+    public float[] hull_scales           = new float[0];
+    public float[] hull_rotations        = new float[0];
+    public int[]   hull_point_tables     = new int[0];
+    public int[]   hull_edge_tables      = new int[0];
+    public int[]   hull_flags            = new int[0];
+    public int[]   hull_entity_ids       = new int[0];
+    public float[] hull_frictions        = new float[0];
+    public float[] hull_restitutions     = new float[0];
+    public int[]   hull_integrity        = new int[0];
+    public float[] bounds                = new float[0];
+    public int[]   bounds_index_data     = new int[0];
+    public int[]   bounds_bank_data      = new int[0];
+
+    //#endregion
+
+    //#region Entities
+
+    public float[] entities              = new float[0];
+    public float[] entity_accel          = new float[0];
+    public int[]   entity_flags          = new int[0];
+    public int[]   entity_root_hulls     = new int[0];
+    public int[]   entity_hull_tables    = new int[0];
+    public float[] masses                = new float[0];
+    public short[] entity_motion_states  = new short[0];
+    public int[]   entity_model_transforms = new int[0];
+
+    //#endregion
+
+    public int point_count  = 0;
+    public int edge_count   = 0;
+    public int hull_count   = 0;
+    public int entity_count = 0;
+
+    private final Map<CoreBufferType, ByteBuffer> staging = new EnumMap<>(CoreBufferType.class);
+
+    /**
+     * Sizes all mirror arrays to hold at least the given object counts. Existing data is discarded when an array
+     * grows, so this is only intended to be called before the arrays are filled.
+     */
+    public void resize(int point_count, int edge_count, int hull_count, int entity_count)
+    {
+        this.point_count  = point_count;
+        this.edge_count   = edge_count;
+        this.hull_count   = hull_count;
+        this.entity_count = entity_count;
+
+        points               = ensure(points, point_count * 4);
+        point_flags          = ensure(point_flags, point_count);
+        point_hit_counts     = ensure(point_hit_counts, point_count);
+        anti_gravity         = ensure(anti_gravity, point_count);
+        point_hull_indices   = ensure(point_hull_indices, point_count);
+
+        edges                = ensure(edges, edge_count * 2);
+        edge_flags           = ensure(edge_flags, edge_count);
+        edge_lengths         = ensure(edge_lengths, edge_count);
+        edge_pins            = ensure(edge_pins, edge_count);
+
+        hulls                = ensure(hulls, hull_count * 4);
+        hull_scales          = ensure(hull_scales, hull_count * 2);
+        hull_rotations       = ensure(hull_rotations, hull_count * 2);
+        hull_point_tables    = ensure(hull_point_tables, hull_count * 2);
+        hull_edge_tables     = ensure(hull_edge_tables, hull_count * 2);
+        hull_flags           = ensure(hull_flags, hull_count);
+        hull_entity_ids      = ensure(hull_entity_ids, hull_count);
+        hull_frictions       = ensure(hull_frictions, hull_count);
+        hull_restitutions    = ensure(hull_restitutions, hull_count);
+        hull_integrity       = ensure(hull_integrity, hull_count);
+        bounds               = ensure(bounds, hull_count * 4);
+        bounds_index_data    = ensure(bounds_index_data, hull_count * 4);
+        bounds_bank_data     = ensure(bounds_bank_data, hull_count * 2);
+
+        entities             = ensure(entities, entity_count * 4);
+        entity_accel         = ensure(entity_accel, entity_count * 2);
+        entity_flags         = ensure(entity_flags, entity_count);
+        entity_root_hulls    = ensure(entity_root_hulls, entity_count);
+        entity_hull_tables   = ensure(entity_hull_tables, entity_count * 2);
+        masses               = ensure(masses, entity_count);
+        entity_motion_states = ensure(entity_motion_states, entity_count * 2);
+        entity_model_transforms = ensure(entity_model_transforms, entity_count);
+    }
+
+    //#region Device Transfer
+
+    /**
+     * Reads the current contents of all mirrored core buffers from the device. Any outstanding work on the physics
+     * queue is completed first, so the mirror reflects all previously enqueued kernels.
+     */
+    public void download()
+    {
+        GPU.compute.physics_queue.finish();
+
+        var container = GPU.memory.sector_container();
+        resize(container.next_point(), container.next_edge(), container.next_hull(), container.next_entity());
+
+        read_float(POINT, points, point_count);
+        read_int(POINT_FLAG, point_flags, point_count);
+        read_short(POINT_HIT_COUNT, point_hit_counts, point_count);
+        read_float(POINT_ANTI_GRAV, anti_gravity, point_count);
+        read_int(POINT_HULL_INDEX, point_hull_indices, point_count);
+
+        read_int(EDGE, edges, edge_count);
+        read_int(EDGE_FLAG, edge_flags, edge_count);
+        read_float(EDGE_LENGTH, edge_lengths, edge_count);
+        read_int(EDGE_PIN, edge_pins, edge_count);
+
+        read_float(HULL, hulls, hull_count);
+        read_float(HULL_SCALE, hull_scales, hull_count);
+        read_float(HULL_ROTATION, hull_rotations, hull_count);
+        read_int(HULL_POINT_TABLE, hull_point_tables, hull_count);
+        read_int(HULL_EDGE_TABLE, hull_edge_tables, hull_count);
+        read_int(HULL_FLAG, hull_flags, hull_count);
+        read_int(HULL_ENTITY_ID, hull_entity_ids, hull_count);
+        read_float(HULL_FRICTION, hull_frictions, hull_count);
+        read_float(HULL_RESTITUTION, hull_restitutions, hull_count);
+        read_int(HULL_INTEGRITY, hull_integrity, hull_count);
+        read_float(HULL_AABB, bounds, hull_count);
+        read_int(HULL_AABB_INDEX, bounds_index_data, hull_count);
+        read_int(HULL_AABB_KEY_TABLE, bounds_bank_data, hull_count);
+
+        read_float(ENTITY, entities, entity_count);
+        read_float(ENTITY_ACCEL, entity_accel, entity_count);
+        read_int(ENTITY_FLAG, entity_flags, entity_count);
+        read_int(ENTITY_ROOT_HULL, entity_root_hulls, entity_count);
+        read_int(ENTITY_HULL_TABLE, entity_hull_tables, entity_count);
+        read_float(ENTITY_MASS, masses, entity_count);
+        read_short(ENTITY_MOTION_STATE, entity_motion_states, entity_count);
+        read_int(ENTITY_TRANSFORM_ID, entity_model_transforms, entity_count);
+    }
+
+    /**
+     * Writes every mirrored buffer that a CPU physics stage may modify back to the device. Buffers that are only
+     * read by the physics stages, like tables and material properties, are not written.
+     */
+    public void upload()
+    {
+        write_float(POINT, points, point_count);
+        write_int(POINT_FLAG, point_flags, point_count);
+        write_short(POINT_HIT_COUNT, point_hit_counts, point_count);
+        write_float(POINT_ANTI_GRAV, anti_gravity, point_count);
+
+        write_float(HULL, hulls, hull_count);
+        write_float(HULL_ROTATION, hull_rotations, hull_count);
+        write_int(HULL_FLAG, hull_flags, hull_count);
+        write_int(HULL_INTEGRITY, hull_integrity, hull_count);
+        write_float(HULL_AABB, bounds, hull_count);
+        write_int(HULL_AABB_INDEX, bounds_index_data, hull_count);
+        write_int(HULL_AABB_KEY_TABLE, bounds_bank_data, hull_count);
+
+        write_float(ENTITY, entities, entity_count);
+        write_int(ENTITY_FLAG, entity_flags, entity_count);
+        write_short(ENTITY_MOTION_STATE, entity_motion_states, entity_count);
+
+        GPU.compute.physics_queue.finish();
+    }
+
+    /**
+     * Reads only point positions from the device. Used after GPU side animation, which moves points but leaves all
+     * other mirrored data untouched.
+     */
+    public void download_points()
+    {
+        GPU.compute.physics_queue.finish();
+        read_float(POINT, points, point_count);
+    }
+
+    public void upload_points()
+    {
+        write_float(POINT, points, point_count);
+        GPU.compute.physics_queue.finish();
+    }
+
+    //#endregion
+
+    //#region Transfer Helpers
+
+    private static int width(CoreBufferType buffer_type, CL_Type component)
+    {
+        return buffer_type.data_type().size() / component.size();
+    }
+
+    private static void read_float(CoreBufferType buffer_type, float[] dst, int items)
+    {
+        int count = items * width(buffer_type, cl_float);
+        if (count == 0) return;
+        GPU.memory.get_buffer(buffer_type).transfer_out_float(dst, cl_float.size(), count);
+    }
+
+    private static void read_int(CoreBufferType buffer_type, int[] dst, int items)
+    {
+        int count = items * width(buffer_type, cl_int);
+        if (count == 0) return;
+        GPU.memory.get_buffer(buffer_type).transfer_out_int(dst, cl_int.size(), count);
+    }
+
+    private static void read_short(CoreBufferType buffer_type, short[] dst, int items)
+    {
+        int count = items * width(buffer_type, cl_short);
+        if (count == 0) return;
+        GPU.memory.get_buffer(buffer_type).transfer_out_short(dst, cl_short.size(), count);
+    }
+
+    private ByteBuffer staging(CoreBufferType buffer_type, int byte_count)
+    {
+        var buffer = staging.get(buffer_type);
+        if (buffer == null)
+        {
+            buffer = MemoryUtil.memAlloc(byte_count);
+            staging.put(buffer_type, buffer);
+        }
+        else if (buffer.capacity() < byte_count)
+        {
+            buffer = MemoryUtil.memRealloc(buffer, byte_count);
+            staging.put(buffer_type, buffer);
+        }
+        buffer.clear().limit(byte_count);
+        return buffer;
+    }
+
+    private void write_float(CoreBufferType buffer_type, float[] src, int items)
+    {
+        int count = items * width(buffer_type, cl_float);
+        if (count == 0) return;
+        var buffer = staging(buffer_type, count * cl_float.size());
+        buffer.asFloatBuffer().put(src, 0, count);
+        GPU.memory.get_buffer(buffer_type).transfer_in(buffer);
+    }
+
+    private void write_int(CoreBufferType buffer_type, int[] src, int items)
+    {
+        int count = items * width(buffer_type, cl_int);
+        if (count == 0) return;
+        var buffer = staging(buffer_type, count * cl_int.size());
+        buffer.asIntBuffer().put(src, 0, count);
+        GPU.memory.get_buffer(buffer_type).transfer_in(buffer);
+    }
+
+    private void write_short(CoreBufferType buffer_type, short[] src, int items)
+    {
+        int count = items * width(buffer_type, cl_short);
+        if (count == 0) return;
+        var buffer = staging(buffer_type, count * cl_short.size());
+        buffer.asShortBuffer().put(src, 0, count);
+        GPU.memory.get_buffer(buffer_type).transfer_in(buffer);
+    }
+
+    private static float[] ensure(float[] array, int length)
+    {
+        return array.length >= length ? array : new float[Math.max(length, array.length * 2)];
+    }
+
+    private static int[] ensure(int[] array, int length)
+    {
+        return array.length >= length ? array : new int[Math.max(length, array.length * 2)];
+    }
+
+    private static short[] ensure(short[] array, int length)
+    {
+        return array.length >= length ? array : new short[Math.max(length, array.length * 2)];
+    }
+
+    //#endregion
+
+    @Override
+    public void release()
+    {
+        for (var buffer : staging.values())
+        {
+            MemoryUtil.memFree(buffer);
+        }
+        staging.clear();
+    }
+}
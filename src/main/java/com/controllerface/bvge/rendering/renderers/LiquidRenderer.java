@@ -4,6 +4,8 @@ import com.controllerface.bvge.core.Window;
 import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.components.ComponentType;
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.game.Constants;
 import com.controllerface.bvge.game.PlayerInput;
 import com.controllerface.bvge.gpu.GPU;
@@ -141,7 +143,7 @@ public class LiquidRenderer implements Renderer
 
         if (Editor.ACTIVE)
         {
-            Editor.queue_event("render_liquid_count", String.valueOf(circle_hulls.count()));
+            Metrics.record(Metric.RENDER_LIQUID_COUNT, circle_hulls.count());
         }
 
         if (circle_hulls.count() == 0) return;
@@ -4,6 +4,8 @@ import com.controllerface.bvge.core.Window;
 import com.controllerface.bvge.ecs.ECS;
 import com.controllerface.bvge.ecs.components.ComponentType;
 import com.controllerface.bvge.editor.Editor;
+import com.controllerface.bvge.editor.Metrics;
+import com.controllerface.bvge.editor.Metrics.Metric;
 import com.controllerface.bvge.game.Constants;
 import com.controllerface.bvge.game.PlayerInput;
 import com.controllerface.bvge.gpu.GPU;
@@ -228,7 +230,7 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_model_count_meshes", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_COUNT_MESHES, e);
         }
 
         gpu_int_scan_out.scan_int_out(counter_buf.ptr(), offset_buf.ptr(), mesh_count);
@@ -241,7 +243,7 @@ public class ModelRenderer implements Renderer
 
         if (Editor.ACTIVE)
         {
-            Editor.queue_event("render_instance_count", String.valueOf(total_instances));
+            Metrics.record(Metric.RENDER_INSTANCE_COUNT, total_instances);
         }
 
         long details_size = (long)total_instances * CL_DataTypes.cl_int4.size();
@@ -258,7 +260,7 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_model_write_details", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_WRITE_DETAILS, e);
         }
 
         si = Editor.ACTIVE ? System.nanoTime() : 0;
@@ -269,13 +271,13 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_model_count_batches", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_COUNT_BATCHES, e);
         }
 
         int total_batches = GPU.CL.read_pinned_int(GPU.compute.render_queue, total_buf);
         if (Editor.ACTIVE)
         {
-            Editor.queue_event("render_batch_count", String.valueOf(total_batches));
+            Metrics.record(Metric.RENDER_BATCH_COUNT, total_batches);
         }
         long batch_index_size = (long) total_batches * CL_DataTypes.cl_int.size();
 
@@ -291,7 +293,7 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_model_batch_offsets", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_BATCH_OFFSETS, e);
         }
 
         si = Editor.ACTIVE ? System.nanoTime() : 0;
@@ -300,12 +302,12 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_buffer_read", String.valueOf(e));
+            Metrics.record(Metric.RENDER_BUFFER_READ, e);
         }
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("render_cl_cycle", String.valueOf(e));
+            Metrics.record(Metric.RENDER_CL_CYCLE, e);
         }
         return new BatchData(raw_offsets, total_instances, mesh_details_ptr, mesh_texture_ptr);
     }
@@ -351,7 +353,7 @@ public class ModelRenderer implements Renderer
             if (Editor.ACTIVE)
             {
                 long e = System.nanoTime() - st;
-                Editor.queue_event("render_detail_transfer", String.valueOf(e));
+                Metrics.record(Metric.RENDER_DETAIL_TRANSFER, e);
             }
 
             gpu_int2_scan.scan_int2(mesh_transfer_buf.ptr(), count);
@@ -374,7 +376,7 @@ public class ModelRenderer implements Renderer
             if (Editor.ACTIVE)
             {
                 long e = System.nanoTime() - st;
-                Editor.queue_event("render_data_transfer", String.valueOf(e));
+                Metrics.record(Metric.RENDER_DATA_TRANSFER, e);
             }
 
             glMultiDrawElementsIndirect(GL_TRIANGLES, GL_UNSIGNED_INT, 0, count, 0);
@@ -383,7 +385,7 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - si;
-            Editor.queue_event("render_model_batch_loop", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL_BATCH_LOOP, e);
         }
 
         shader.detach();
@@ -406,7 +408,7 @@ public class ModelRenderer implements Renderer
         if (Editor.ACTIVE)
         {
             long e = System.nanoTime() - s;
-            Editor.queue_event("render_model", String.valueOf(e));
+            Metrics.record(Metric.RENDER_MODEL, e);
         }
     }
 
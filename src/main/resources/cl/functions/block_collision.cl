@@ -19,6 +19,12 @@ void block_collision(int hull_1_id,
                             __global int *reaction_counts,
                             __global float *masses,
                             __global int *counter,
+                            __global int *contact_partners,
+                            __global int *contact_stamps,
+                            __global float4 *contact_manifolds,
+                            __global int *warm_contacts,
+                            int contact_step,
+                            int warm,
                             float dt)
 {
 
@@ -197,8 +203,8 @@ void block_collision(int hull_1_id,
     float vert_magnitude = native_divide(edge_hull_mass, total_mass);
     float edge_magnitude = native_divide(vert_hull_mass, total_mass);
 
-    bool static_vert = (vert_hull_flags & IS_STATIC) !=0;
-    bool static_edge = (edge_hull_flags & IS_STATIC) !=0;
+    bool static_vert = (vert_hull_flags & (IS_STATIC | IS_SLEEPING)) !=0;
+    bool static_edge = (edge_hull_flags & (IS_STATIC | IS_SLEEPING)) !=0;
 
     bool ghost_vert = (vert_hull_flags & GHOST_HULL) !=0;
     bool ghost_edge = (edge_hull_flags & GHOST_HULL) !=0;
@@ -228,6 +234,15 @@ void block_collision(int hull_1_id,
         ? static_edge ? 0.0f : 1.0f
         : edge_magnitude;
 
+    warm_start_contact(vert_hull_id, edge_hull_id, static_vert, static_edge,
+        &collision_normal,
+        contact_partners,
+        contact_stamps,
+        contact_manifolds,
+        warm_contacts,
+        contact_step,
+        warm);
+
     float4 vertex_point = points[vert_index];
     float4 edge_point_1 = points[edge_index_a];
     float4 edge_point_2 = points[edge_index_b];
@@ -75,6 +75,19 @@ void circle_collision(int hull_1_id,
     float total_mass = hull_1_mass + hull_2_mass;
     float hull_1_magnitude = native_divide(hull_2_mass, total_mass);
     float hull_2_magnitude = native_divide(hull_1_mass, total_mass);
+
+    // a sleeping circle is held in place like a static hull, until it is woken
+    bool sleeping_1 = (hull_1_flags & IS_SLEEPING) !=0;
+    bool sleeping_2 = (hull_2_flags & IS_SLEEPING) !=0;
+    bool any_sleeping = (sleeping_1 || sleeping_2);
+
+    hull_1_magnitude = any_sleeping
+        ? sleeping_1 ? 0.0f : 1.0f
+        : hull_1_magnitude;
+
+    hull_2_magnitude = any_sleeping
+        ? sleeping_2 ? 0.0f : 1.0f
+        : hull_2_magnitude;
     float2 collision_reaction = collision_depth * collision_normal;
     float2 hull_1_collision = hull_1_magnitude * collision_reaction;
     float2 hull_2_collision = -hull_2_magnitude * collision_reaction;
@@ -108,16 +121,22 @@ void circle_collision(int hull_1_id,
     float2 hull_2_restitution_f = restituion_coefficient * dot(hull_2_applied_vel, collision_invert) * collision_invert;
 
     // store results
-    float8 hull_1_reactions = (float8)(hull_1_collision, hull_1_opposing, hull_1_friction_f, hull_1_restitution_f);
-    float8 hull_2_reactions = (float8)(hull_2_collision, hull_2_opposing, hull_2_friction_f, hull_2_restitution_f);
-    int hull_1_reaction_index = atomic_inc(&counter[0]);
-    int hull_2_reaction_index = atomic_inc(&counter[0]);
-    reactions[hull_1_reaction_index] = hull_1_reactions;
-    reactions[hull_2_reaction_index] = hull_2_reactions;
-    reaction_index[hull_1_reaction_index] = hull_1_table.x;
-    reaction_index[hull_2_reaction_index] = hull_2_table.x;
-    atomic_inc(&reaction_counts[hull_1_table.x]);
-    atomic_inc(&reaction_counts[hull_2_table.x]);
+    if (!sleeping_1)
+    {
+        float8 hull_1_reactions = (float8)(hull_1_collision, hull_1_opposing, hull_1_friction_f, hull_1_restitution_f);
+        int hull_1_reaction_index = atomic_inc(&counter[0]);
+        reactions[hull_1_reaction_index] = hull_1_reactions;
+        reaction_index[hull_1_reaction_index] = hull_1_table.x;
+        atomic_inc(&reaction_counts[hull_1_table.x]);
+    }
+    if (!sleeping_2)
+    {
+        float8 hull_2_reactions = (float8)(hull_2_collision, hull_2_opposing, hull_2_friction_f, hull_2_restitution_f);
+        int hull_2_reaction_index = atomic_inc(&counter[0]);
+        reactions[hull_2_reaction_index] = hull_2_reactions;
+        reaction_index[hull_2_reaction_index] = hull_2_table.x;
+        atomic_inc(&reaction_counts[hull_2_table.x]);
+    }
     hull_flags[hull_1_id] = hull_1_flags;
     hull_flags[hull_2_id] = hull_2_flags;
 }
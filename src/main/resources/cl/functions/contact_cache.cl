@@ -0,0 +1,103 @@
+/**
+Number of cached contacts each hull can own. Must match ContactCache.SLOTS_PER_HULL.
+ */
+#define CONTACT_SLOTS 4
+
+/**
+Smallest cosine between the cached and the new normal of a contact for it to count as the same contact.
+ */
+#define CONTACT_NORMAL_DOT 0.9f
+
+/**
+Weight given to the cached normal when a persistent contact is warm started.
+ */
+#define CONTACT_BLEND 0.5f
+
+/**
+Warm starts a contact between two polygons from the manifold cached for the same pair of hulls in the previous
+sub-step, and caches the resulting manifold for the next one.
+
+Contacts are owned by the hull that moves, or by the lower indexed hull when both do, and are kept in a small set
+of slots per owner, keyed by the partner hull. A cached contact is only used if it was written in the previous
+sub-step and its normal still points the same way. The normal of the new contact is then blended with the cached
+one, so a resting contact pushes the same way from one sub-step to the next, rather than switching between the
+axes that are nearly tied in a resting pose. Those switches twist resting hulls out of shape. Only the normal is
+warm started. The depth is always the one measured in this sub-step, because the previous depth has already been
+pushed out, and applying any part of it again would push resting hulls apart further than they overlap.
+
+Slots are claimed without locks. If two contacts race for the same slot, one of them may start cold in the next
+sub-step, which is the worst that can happen.
+
+Normals are cached pointing towards the owner, and are passed in and out pointing towards the vertex hull.
+ */
+inline void warm_start_contact(int vert_hull_id,
+                               int edge_hull_id,
+                               bool static_vert,
+                               bool static_edge,
+                               float2 *normal,
+                               __global int *contact_partners,
+                               __global int *contact_stamps,
+                               __global float4 *contact_manifolds,
+                               __global int *warm_contacts,
+                               int contact_step,
+                               int warm)
+{
+    if (warm == 0) return;
+
+    int owner = static_vert
+        ? edge_hull_id
+        : static_edge
+            ? vert_hull_id
+            : min(vert_hull_id, edge_hull_id);
+
+    int partner = owner == vert_hull_id
+        ? edge_hull_id
+        : vert_hull_id;
+
+    float2 owner_normal = owner == vert_hull_id
+        ? *normal
+        : -*normal;
+
+    // partners are stored one higher than their index, so cleared slots are empty
+    int key = partner + 1;
+    int base = owner * CONTACT_SLOTS;
+    int slot = -1;
+    for (int i = 0; i < CONTACT_SLOTS && slot == -1; i++)
+    {
+        if (contact_partners[base + i] == key) slot = base + i;
+    }
+
+    if (slot != -1)
+    {
+        float4 cached = contact_manifolds[slot];
+        bool persistent = contact_stamps[slot] == contact_step - 1
+            && dot(owner_normal, cached.xy) >= CONTACT_NORMAL_DOT;
+        if (persistent)
+        {
+            owner_normal = fast_normalize(mix(owner_normal, cached.xy, CONTACT_BLEND));
+            atomic_inc(&warm_contacts[0]);
+        }
+    }
+    else
+    {
+        // slots not written in the previous sub-step hold contacts that have ended, and can be taken
+        for (int i = 0; i < CONTACT_SLOTS && slot == -1; i++)
+        {
+            int current = contact_partners[base + i];
+            bool free = current == 0 || contact_stamps[base + i] < contact_step - 1;
+            if (free && atomic_cmpxchg(&contact_partners[base + i], current, key) == current)
+            {
+                slot = base + i;
+            }
+        }
+    }
+
+    if (slot == -1) return;
+
+    atomic_xchg(&contact_stamps[slot], contact_step);
+    contact_manifolds[slot] = (float4)(owner_normal, 0.0f, 0.0f);
+
+    *normal = owner == vert_hull_id
+        ? owner_normal
+        : -owner_normal;
+}
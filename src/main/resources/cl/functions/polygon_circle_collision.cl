@@ -200,8 +200,8 @@ void polygon_circle_collision(int polygon_id,
     float total_mass = vert_hull_mass + edge_hull_mass;
     float vert_magnitude = native_divide(edge_hull_mass, total_mass);
     float edge_magnitude = native_divide(vert_hull_mass, total_mass);
-    bool static_vert = (vert_hull_flags & IS_STATIC) !=0;
-    bool static_edge = (edge_hull_flags & IS_STATIC) !=0;
+    bool static_vert = (vert_hull_flags & (IS_STATIC | IS_SLEEPING)) !=0;
+    bool static_edge = (edge_hull_flags & (IS_STATIC | IS_SLEEPING)) !=0;
     bool any_static = (static_vert || static_edge);
     float2 collision_vector = collision_normal * min_distance;
 
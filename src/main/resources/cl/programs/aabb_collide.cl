@@ -1,5 +1,12 @@
 /**
 Performs axis-aligned bounding box collision detection as part of a broad phase collision step.
+
+Candidates are found in the key map, and in the static layer of the key map, which holds static and sleeping hulls
+when they are not keyed every sub-step. Hulls in the static layer are never targets, so every match with one of 
+them is made by the other hull, and the usual check that keeps mirrored matches out does not apply to them. A hull
+that woke since the layer was built is keyed again, and is found in the key map instead.
+
+Sleeping hulls are matched as if they were static, so pairs of hulls that are all static or sleeping are left out.
  */
 __kernel void aabb_collide(__global float4 *bounds,
                            __global int2 *bounds_bank_data,
@@ -11,11 +18,15 @@ __kernel void aabb_collide(__global float4 *bounds,
                            __global int *key_bank,
                            __global int *key_counts,
                            __global int *key_offsets,
+                           __global int *static_key_map,
+                           __global int *static_key_counts,
+                           __global int *static_key_offsets,
                            __global int *matches,
                            __global int *used,
                            __global int *counter,
                            int x_subdivisions,
                            int key_count_length,
+                           int max_match,
                            int max_index)
 {
     int gid = get_global_id(0);
@@ -24,6 +35,13 @@ __kernel void aabb_collide(__global float4 *bounds,
     int size = candidates[gid].y;
     int match_offset = match_offsets[gid];
 
+    // hulls whose matches do not fit in the match table are skipped
+    if (match_offset + size > max_match)
+    {
+        used[gid] = 0;
+        return;
+    }
+
     float4 bound = bounds[target_hull];
     int2 bounds_bank = bounds_bank_data[target_hull];
     int flags = hull_flags[target_hull];
@@ -37,7 +55,7 @@ __kernel void aabb_collide(__global float4 *bounds,
     int current_offset = match_offset;
     int slots_used = 0;
 
-    bool target_static = (flags & IS_STATIC) !=0;
+    bool target_static = (flags & (IS_STATIC | IS_SLEEPING)) !=0;
     bool target_sensor = (flags & IS_SENSOR) !=0;
 
     // loop through all the keys for this hull
@@ -51,80 +69,106 @@ __kernel void aabb_collide(__global float4 *bounds,
         {
             continue;
         }
-        int count = key_counts[key_index];
-        if (count == 0)
-        {
-            continue;
-        }
-
-        int key_offset = key_offsets[key_index];
 
-        // loop through all the candidates at this key
-        for (int map_index = key_offset; map_index < key_offset + count; map_index++)
+        // the key map is searched first, then the static layer
+        for (int layer = 0; layer < 2; layer++)
         {
-            int candidate_hull = key_map[map_index];
-            int candidate_entity_id = hull_entity_ids[candidate_hull];
-            int candidate_flags = hull_flags[candidate_hull];
-            bool candidate_static = (candidate_flags & IS_STATIC) !=0;
-            bool candidate_sensor = (candidate_flags & IS_SENSOR) !=0;
-
-            // no mirror or self-matches
-            if (target_hull >= candidate_hull)
+            bool static_layer = layer == 1;
+            int count = static_layer
+                ? static_key_counts[key_index]
+                : key_counts[key_index];
+            if (count == 0)
             {
                 continue;
             }
 
-            // no collisions between hulls that are part of the same entity
-            if (candidate_entity_id == entity_id)
-            {
-                continue;
-            }
+            int key_offset = static_layer
+                ? static_key_offsets[key_index]
+                : key_offsets[key_index];
 
-            // no static/static collision permitted
-            if (target_static && candidate_static)
-            {
-                continue;
-            }
+            __global int *layer_map = static_layer
+                ? static_key_map
+                : key_map;
 
-            //no sensor/sensor collision permitted
-            if (target_sensor && candidate_sensor)
+            // loop through all the candidates at this key
+            for (int map_index = key_offset; map_index < key_offset + count; map_index++)
             {
-                continue;
-            }
+                int candidate_hull = layer_map[map_index];
+                int candidate_entity_id = hull_entity_ids[candidate_hull];
+                int candidate_flags = hull_flags[candidate_hull];
+                bool candidate_static = (candidate_flags & (IS_STATIC | IS_SLEEPING)) !=0;
+                bool candidate_sensor = (candidate_flags & IS_SENSOR) !=0;
+
+                // no mirror or self-matches
+                if (!static_layer && target_hull >= candidate_hull)
+                {
+                    continue;
+                }
 
-            // broad phase collision check
-            float4 candidate = bounds[candidate_hull];
-            bool near = do_bounds_intersect(bound, candidate);
+                // static hulls deleted since the static layer was built are out of bounds until compacted away
+                if (static_layer && (candidate_flags & OUT_OF_BOUNDS) !=0)
+                {
+                    continue;
+                }
 
-            // hulls are not near each other
-            if (!near)
-            {
-                continue;
-            }
+                // hulls that woke since the static layer was built have keys again, and are matched in the key map
+                if (static_layer && bounds_bank_data[candidate_hull].y != 0)
+                {
+                    continue;
+                }
 
-            // we need to be "set-like" so any candidate we already matched 
-            // with need to be dropped. This does mean that this loop size grows
-            // with the number of matches, 
-            if (slots_used > 0)
-            {
-                bool dupe = false;
-                for (int match_index = match_offset; match_index < current_offset; match_index++)
+                // no collisions between hulls that are part of the same entity
+                if (candidate_entity_id == entity_id)
                 {
-                    if (matches[match_index] == candidate_hull)
-                    {
-                        dupe = true;
-                        break;
-                    }
+                    continue;
                 }
-                if (dupe)
+
+                // no static/static collision permitted, sleeping hulls count as static
+                if (target_static && candidate_static)
+                {
+                    continue;
+                }
+
+                //no sensor/sensor collision permitted
+                if (target_sensor && candidate_sensor)
                 {
                     continue;
                 }
-            }
 
-            // broad phase collision detected
-            matches[current_offset++] = candidate_hull;
-            slots_used++;
+                // broad phase collision check
+                float4 candidate = bounds[candidate_hull];
+                bool near = do_bounds_intersect(bound, candidate);
+
+                // hulls are not near each other
+                if (!near)
+                {
+                    continue;
+                }
+
+                // we need to be "set-like" so any candidate we already matched 
+                // with need to be dropped. This does mean that this loop size grows
+                // with the number of matches, 
+                if (slots_used > 0)
+                {
+                    bool dupe = false;
+                    for (int match_index = match_offset; match_index < current_offset; match_index++)
+                    {
+                        if (matches[match_index] == candidate_hull)
+                        {
+                            dupe = true;
+                            break;
+                        }
+                    }
+                    if (dupe)
+                    {
+                        continue;
+                    }
+                }
+
+                // broad phase collision detected
+                matches[current_offset++] = candidate_hull;
+                slots_used++;
+            }
         }
     }
 
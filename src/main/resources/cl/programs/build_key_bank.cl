@@ -18,6 +18,13 @@ __kernel void build_key_bank(__global int4 *hull_aabb_index,
 
     int offset = bounds_bank.x * 2;
 
+    // hulls whose keys do not fit in the bank are removed from this tick's broad phase
+    if (offset + bounds_bank.y > key_bank_length)
+    {
+        hull_aabb_key_table[current_hull].y = 0;
+        return;
+    }
+
     int min_x = bounds_bank.y == 0 ? INT_MAX : bounds_index.x; // ensure out of bounds hulls never enter the loop
     int max_x = bounds_index.y;
     int min_y = bounds_index.z;
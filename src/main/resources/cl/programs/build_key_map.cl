@@ -36,3 +36,84 @@ __kernel void build_key_map(__global int4 *hull_aabb_index,
         }
     }
 }
+
+
+/**
+Counts the keys of each in bounds static or sleeping hull into the static key counts, and the total number of 
+static keys into the counter, so the static layer of the key map can be sized. Static and sleeping hulls do not 
+move, so the static layer is built once and kept across sub-steps until hulls are added, removed, or moved in the 
+buffers, hulls fall asleep or wake, or the grid itself moves.
+ */
+__kernel void count_static_keys(__global int4 *hull_aabb_index,
+                                __global int2 *hull_aabb_key_table,
+                                __global int *hull_flags,
+                                __global int *key_counts,
+                                __global int *counter,
+                                int x_subdivisions,
+                                int key_count_length,
+                                int max_hull)
+{
+    int current_hull = get_global_id(0);
+    if (current_hull >= max_hull) return;
+    bool is_static = (hull_flags[current_hull] & (IS_STATIC | IS_SLEEPING)) != 0;
+    int2 bounds_bank = hull_aabb_key_table[current_hull];
+    if (!is_static || bounds_bank.y == 0) return;
+
+    int4 bounds_index = hull_aabb_index[current_hull];
+
+    int count = 0;
+    for (int current_x = bounds_index.x; current_x <= bounds_index.y; current_x++)
+    {
+        for (int current_y = bounds_index.z; current_y <= bounds_index.w; current_y++)
+        {
+            int key_index = calculate_key_index(x_subdivisions, current_x, current_y);
+            if (key_index < 0 || key_index >= key_count_length)
+            {
+                continue;
+            }
+            atomic_inc(&key_counts[key_index]);
+            count++;
+        }
+    }
+    atomic_add(&counter[0], count);
+}
+
+/**
+Generates the entries within the static layer of the key map for each in bounds static or sleeping hull. These
+hulls are then given empty key banks, so they are left out of the key bank and key map that are rebuilt every sub-step, 
+and are only found as candidates of the hulls that are.
+ */
+__kernel void build_static_key_map(__global int4 *hull_aabb_index,
+                                   __global int2 *hull_aabb_key_table,
+                                   __global int *hull_flags,
+                                   __global int *key_map,
+                                   __global int *key_offsets,
+                                   __global int *key_counts,
+                                   int x_subdivisions,
+                                   int key_count_length,
+                                   int max_hull)
+{
+    int current_hull = get_global_id(0);
+    if (current_hull >= max_hull) return;
+    bool is_static = (hull_flags[current_hull] & (IS_STATIC | IS_SLEEPING)) != 0;
+    int2 bounds_bank = hull_aabb_key_table[current_hull];
+    if (!is_static || bounds_bank.y == 0) return;
+
+    int4 bounds_index = hull_aabb_index[current_hull];
+
+    for (int current_x = bounds_index.x; current_x <= bounds_index.y; current_x++)
+    {
+        for (int current_y = bounds_index.z; current_y <= bounds_index.w; current_y++)
+        {
+            int key_index = calculate_key_index(x_subdivisions, current_x, current_y);
+            if (key_index < 0 || key_index >= key_count_length)
+            {
+                continue;
+            }
+            int offset = key_offsets[key_index];
+            int i = atomic_inc(&key_counts[key_index]);
+            key_map[offset + i] = current_hull;
+        }
+    }
+    hull_aabb_key_table[current_hull].y = 0;
+}
@@ -1,170 +1,194 @@
+/**
+Distance, in world units, that a swept hull is stopped short of the surface it would have hit.
+ */
+#define CCD_SKIN 0.5f
 
-inline int compare(float a, float b) 
-{
-	return (a > b ? 1 : 0) - (a < b ? 1 : 0);
-}
-
-inline int orientation(float x0, float y0, float x1, float y1, float x2, float y2) 
+inline float cross_2d(float2 a, float2 b)
 {
-	return compare((x2 - x1) * (y1 - y0), (x1 - x0) * (y2 - y1));
+    return a.x * b.y - a.y * b.x;
 }
 
-inline bool linesIntersect(float4 line1, float4 line2) 
+/**
+Returns the fraction of the path from a to b at which it enters the edge from c to d, or 2.0f if it does not. The
+path only counts as entering the edge when a is on the outside of it, and b is on the inside, where the inside is
+the side the given center is on. Paths that leave a hull, or slide along one of its edges, are ignored, so hulls
+that are already touching are left to the narrow phase.
+ */
+inline float sweep_edge(float2 a, float2 b, float2 c, float2 d, float2 center)
 {
-	return orientation(line1.x, line1.y, line1.z, line1.w, line2.x, line2.y) != orientation(line1.x, line1.y, line1.z, line1.w, line2.z, line2.w) 
-        && orientation(line2.x, line2.y, line2.z, line2.w, line1.x, line1.y) != orientation(line2.x, line2.y, line2.z, line2.w, line1.z, line1.w);
+    float2 edge = d - c;
+    float inside = cross_2d(edge, center - c);
+    float side_a = cross_2d(edge, a - c) * inside;
+    float side_b = cross_2d(edge, b - c) * inside;
+    if (side_a > 0.0f || side_b <= 0.0f) return 2.0f;
+
+    float2 path = b - a;
+    float denom = cross_2d(path, edge);
+    if (fabs(denom) < FLT_EPSILON) return 2.0f;
+
+    float t = cross_2d(c - a, edge) / denom;
+    float u = cross_2d(c - a, path) / denom;
+    return (t < 0.0f || t > 1.0f || u < 0.0f || u > 1.0f)
+        ? 2.0f
+        : t;
 }
 
-float2 projectPointOnLine(float2 p1, float2 p2, float2 C) 
+/**
+Continuous collision detection for hulls that move far enough in one sub-step to pass through an obstacle.
+
+Candidates come from the broad phase, which keys hulls using bounds that cover both their current and previous
+positions, so a hull is paired with every hull along the path it swept through the key map. Only pairs of a moving
+hull and a static or sleeping polygon are checked, as those are the obstacles that do not move out of the way, and
+only when the moving hull travelled further than the given fraction of its own extent in this sub-step. For all
+other pairs, this kernel exits early, so the cost scales with the number of fast moving hulls.
+
+The points of the moving hull are swept along its path against the outer edges of the obstacle, and the points of
+the obstacle are swept along the reverse path against the edges of the moving hull at its previous position, which
+catches corners of the obstacle passing through the faces of the moving hull. Circles sweep only their center, and
+are stopped one radius short of the hit. The earliest hit sets the fraction of the sub-step that every point of the
+moving hull is rewound by, which is kept as the maximum of all the hits for that hull, and is applied by ccd_react.
+ */
+__kernel void ccd_collide(__global int2 *candidates,
+                          __global float4 *hulls,
+                          __global float2 *hull_scales,
+                          __global float4 *bounds,
+                          __global int2 *hull_point_tables,
+                          __global int2 *hull_edge_tables,
+                          __global int *hull_flags,
+                          __global float4 *points,
+                          __global float *point_anti_time,
+                          __global int2 *edges,
+                          __global int *edge_flags,
+                          __global int *candidate_count,
+                          float ccd_fraction,
+                          int max_index)
 {
-    float dx = p2.x - p1.x;
-    float dy = p2.y - p1.y;
-    float lengthSquared = dx * dx + dy * dy;
+    int gid = get_global_id(0);
+    if (gid >= max_index || gid >= candidate_count[0]) return;
 
-    if (lengthSquared == 0) {
-        return (float2)(0.0f);
+    int2 current_pair = candidates[gid];
+    int hull_1_flags = hull_flags[current_pair.x];
+    int hull_2_flags = hull_flags[current_pair.y];
+
+    bool hull_1_obstacle = (hull_1_flags & (IS_STATIC | IS_SLEEPING)) !=0;
+    bool hull_2_obstacle = (hull_2_flags & (IS_STATIC | IS_SLEEPING)) !=0;
+    if (hull_1_obstacle == hull_2_obstacle) return;
+
+    int mover_id    = hull_1_obstacle ? current_pair.y : current_pair.x;
+    int obstacle_id = hull_1_obstacle ? current_pair.x : current_pair.y;
+    int mover_flags    = hull_1_obstacle ? hull_2_flags : hull_1_flags;
+    int obstacle_flags = hull_1_obstacle ? hull_1_flags : hull_2_flags;
+
+    // sensors, cursors, and ghosts pass through other hulls by design, and circle obstacles have no edges to sweep
+    int ignored = IS_SENSOR | ENTITY_SENSOR | IS_CURSOR | GHOST_HULL;
+    if ((mover_flags & ignored) !=0 || (obstacle_flags & (ignored | IS_CIRCLE)) !=0) return;
+
+    float4 mover = hulls[mover_id];
+    float2 travel = mover.xy - mover.zw;
+    float distance = length(travel);
+    if (distance == 0.0f) return;
+
+    bool mover_is_circle = (mover_flags & IS_CIRCLE) !=0;
+    float radius = hull_scales[mover_id].y;
+
+    // bounds include the previous position of the hull, so the travel is taken back out to find its extent
+    float4 mover_bounds = bounds[mover_id];
+    float extent = mover_is_circle
+        ? radius * 2.0f
+        : min(mover_bounds.z - fabs(travel.x), mover_bounds.w - fabs(travel.y));
+    if (distance <= ccd_fraction * max(extent, 0.0f)) return;
+
+    float4 obstacle = hulls[obstacle_id];
+    int2 mover_points = hull_point_tables[mover_id];
+    int2 mover_edges = hull_edge_tables[mover_id];
+    int2 obstacle_points = hull_point_tables[obstacle_id];
+    int2 obstacle_edges = hull_edge_tables[obstacle_id];
+
+    float hit = 2.0f;
+
+    // points of the moving hull, along its path, against the outer edges of the obstacle
+    for (int e = obstacle_edges.x; e <= obstacle_edges.y; e++)
+    {
+        if ((edge_flags[e] & E_INTERIOR) !=0) continue;
+        int2 edge = edges[e];
+        float2 c = points[edge.x].xy;
+        float2 d = points[edge.y].xy;
+        for (int p = mover_points.x; p <= mover_points.y; p++)
+        {
+            float4 point = points[p];
+            hit = min(hit, sweep_edge(point.zw, point.xy, c, d, obstacle.xy));
+        }
     }
 
-    float t = ((C.x - p1.x) * dx + (C.y - p1.y) * dy) / lengthSquared;
-    t = max(0.0f, min(1.0f, t)); // Clamp t to [0, 1]
-
-    return (float2)(p1.x + t * dx, p1.y + t * dy);
-}
-
- float calculateLerpValue(float2 p1, float2 p2, float2 C) 
- {
-    float2 projection = projectPointOnLine(p1, p2, C);
-    float totalDistance = distance(p1, p2);
-    float distanceToProjection = distance(p1, projection);
-
-    // Ensure no division by zero
-    if (totalDistance == 0) 
+    // points of the obstacle, along the reverse path, against the outer edges of the moving hull where it started
+    if (!mover_is_circle)
     {
-        return 0;
+        for (int e = mover_edges.x; e <= mover_edges.y; e++)
+        {
+            if ((edge_flags[e] & E_INTERIOR) !=0) continue;
+            int2 edge = edges[e];
+            float2 c = points[edge.x].zw;
+            float2 d = points[edge.y].zw;
+            for (int p = obstacle_points.x; p <= obstacle_points.y; p++)
+            {
+                float2 q = points[p].xy;
+                hit = min(hit, sweep_edge(q, q - travel, c, d, mover.zw));
+            }
+        }
     }
 
-    return distanceToProjection / totalDistance;
+    if (hit > 1.0f) return;
 
+    float back_off = mover_is_circle
+        ? radius + CCD_SKIN
+        : CCD_SKIN;
 
+    float safe = max(hit - back_off / distance, 0.0f);
+    float rewind = 1.0f - safe;
 
-    // float totalDistance = distance(p1, p2);
-    // float distanceToC = distance(p1, C);
-        
-    // // Ensure no division by zero
-    // if (totalDistance == 0) 
-    // {
-    //     return 0;
-    // }
-        
-    // return distanceToC / totalDistance;
-}
-
-float2 getIntersection(float4 line1, float4 line2) 
-{
-    // Line AB represented as a1x + b1y = c1
-    float a1 = line1.w - line1.y;
-    float b1 = line1.x - line1.z;
-    float c1 = a1*(line1.x) + b1*(line1.y);
-    
-    // Line CD represented as a2x + b2y = c2
-    float a2 = line2.w - line2.y;
-    float b2 = line2.x - line2.z;
-    float c2 = a2*(line2.x)+ b2*(line2.y);
-    
-    float determinant = a1*b2 - a2*b1;
-    
-    if (determinant == 0)
-    {
-        // The lines are parallel. This is simplified
-        // by returning a pair of FLT_MAX
-        return (float2)(0.0f);
-    }
-    else
+    // rewind values are never negative, so their bits order the same way as the values do
+    int rewind_bits = as_int(rewind);
+    for (int p = mover_points.x; p <= mover_points.y; p++)
     {
-        float x = (b2*c1 - b1*c2)/determinant;
-        float y = (a1*c2 - a2*c1)/determinant;
-        return (float2)(x, y);
+        atomic_max((__global int *)&point_anti_time[p], rewind_bits);
     }
 }
 
-
 /**
-Performs axis-aligned bounding box collision detection as part of a broad phase collision step.
+Moves the points of hulls that were hit by ccd_collide back along their path, to where they were when the hit
+occurred, and removes their velocity, so they come to rest against the surface they hit. Contact with that surface
+is then handled by the narrow phase in the next sub-step. The centroid of each rewound hull is updated, so the
+narrow phase of this sub-step sees the hull where it now is.
  */
-__kernel void ccd_collide(__global int2 *edges,
-                          __global float4 *points,
-                          __global float *point_anti_time,
-                          __global int *edge_flags,
-                          __global int2 *candidates,
-                          int max_index)
+__kernel void ccd_react(__global float4 *hulls,
+                        __global int2 *hull_point_tables,
+                        __global float4 *points,
+                        __global float *point_anti_time,
+                        int max_hull)
 {
-    int gid = get_global_id(0);
-    if (gid >= max_index) return;
+    int current_hull = get_global_id(0);
+    if (current_hull >= max_hull) return;
 
-    int2 current_pair = candidates[gid];
-    
-    int edge1_id = current_pair.x;
-    int edge2_id = current_pair.y;
-    
-    int edge1_flags = edge_flags[edge1_id];
-    int edge2_flags = edge_flags[edge2_id];
-    
-    bool edge1_static = (edge1_flags & IS_STATIC) !=0;
-    bool edge2_static = (edge2_flags & IS_STATIC) !=0;
-
-    //printf("edge 1: %d edge 2: %d", index, next);
-    int static_edge_id = edge1_static 
-        ? edge1_id 
-        : edge2_id;
-
-    int non_static_edge_id = edge2_static 
-        ? edge1_id 
-        : edge2_id;
-
-    int2 static_edge = edges[static_edge_id];
-    int2 non_static_edge = edges[non_static_edge_id];
-    
-    float4 static_line = (float4)(points[static_edge.x].xy, points[static_edge.y].xy);
-    float4 point1 = points[non_static_edge.x];
-    float4 point2 = points[non_static_edge.y];
-
-    if (linesIntersect(static_line, point1))
-    {
-        float2 intersection = getIntersection(static_line, point1);
-        float dist = calculateLerpValue(point1.zw, point1.xy, intersection);
-        point_anti_time[non_static_edge.x] = dist;
-        // printf("lerp: %f static edge: %f,%f -> %f,%f dyn edge 1: %f,%f -> %f,%f intersection: %f,%f", 
-        //     dist, 
-        //     static_line.x, static_line.y, static_line.z, static_line.w, 
-        //     point1.x, point1.y, point1.z, point1.w, 
-        //     intersection.x, intersection.y);
-    }
-    if (linesIntersect(static_line, point2))
+    int2 point_table = hull_point_tables[current_hull];
+
+    // every point of a hull is rewound by the same amount, so the first point tells if the hull was hit
+    if (point_anti_time[point_table.x] == 0.0f) return;
+
+    float2 sum = (float2)(0.0f);
+    for (int p = point_table.x; p <= point_table.y; p++)
     {
-        float2 intersection = getIntersection(static_line, point2);
-        float dist = calculateLerpValue(point2.zw, point2.xy, intersection);
-        point_anti_time[non_static_edge.y] = dist;
-        // printf("lerp: %f static edge: %f,%f -> %f,%f dyn edge 2: %f,%f -> %f,%f intersection: %f,%f",
-        //     dist, 
-        //     static_line.x, static_line.y, static_line.z, static_line.w, 
-        //     point2.x, point2.y, point2.z, point2.w, 
-        //     intersection.x, intersection.y);
+        float rewind = point_anti_time[p];
+        point_anti_time[p] = 0.0f;
+        float4 point = points[p];
+        float2 rewound = float2_lerp(point.xy, point.zw, rewind);
+        point.xy = rewound;
+        point.zw = rewound;
+        points[p] = point;
+        sum += rewound;
     }
-}
 
-__kernel void ccd_react(__global float4 *points,
-                        __global float *point_anti_time,
-                        int max_point)
-{
-    int current_point = get_global_id(0);
-    if (current_point >= max_point) return;
-    float rewind = point_anti_time[current_point];
-    if (rewind == 0.0f) return;
-    point_anti_time[current_point] = 0.0f;
-    float4 point = points[current_point];
-    float2 rewound = float2_lerp(point.xy, point.zw, rewind);
-    float2 diff = point.xy - rewound;
-    point.zw = point.xy;
-    point.xy = rewound;
-    points[current_point] = point;
+    float4 hull = hulls[current_hull];
+    int point_count = point_table.y - point_table.x + 1;
+    hull.xy = sum / (float)point_count;
+    hulls[current_hull] = hull;
 }
@@ -392,10 +392,27 @@ __kernel void count_egress_entities(__global int *entity_flags,
     int current_entity = get_global_id(0);
     if (current_entity >= max_entity) return;
     int flags       = entity_flags[current_entity];
+    bool deleted    = (flags & DELETED) !=0;
     bool sector_out = (flags & SECTOR_OUT) !=0;
     bool broken     = (flags & BROKEN) !=0;
     bool collected  = (flags & COLLECTED) !=0;
 
+    // entities deleted in an earlier frame remain as tombstones until compaction. They were already egressed,
+    // so the flags that would egress them are cleared before the egress kernels run again.
+    if (deleted)
+    {
+        if (sector_out || broken || collected)
+        {
+            entity_flags[current_entity] = flags & ~(SECTOR_OUT | BROKEN | COLLECTED);
+        }
+        return;
+    }
+
+    if (sector_out || broken || collected)
+    {
+        atomic_inc(&counters[8]);
+    }
+
     if(collected)
     {
         flags = (flags | DELETED);
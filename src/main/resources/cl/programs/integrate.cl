@@ -11,6 +11,8 @@ Performs the integration step of a physics loop, generally this is the first sta
 in a process that updates all the tracked vertices each frame.
 Some meta-data about the hulls that are updated is stored within
 them before this kernel completes. 
+The largest distance any point moved in the previous step is written to max_speed,
+as the bits of a non-negative float, which order the same way as integers do.
  */
 __kernel void integrate(__global int2 *hull_point_tables,
                         __global float2 *entity_accel,
@@ -21,6 +23,7 @@ __kernel void integrate(__global int2 *hull_point_tables,
                         __global int *hull_entity_ids,
                         __global float *anti_gravity,
                         __global float *args, 
+                        __global int *max_speed,
                         int max_hull)
 {
     int current_hull = get_global_id(0);
@@ -30,6 +33,8 @@ __kernel void integrate(__global int2 *hull_point_tables,
     float dt             = args[0];
     float2 gravity       = (float2)(args[1], args[2]);
     float damping        = args[3];
+    float v_scale        = args[8];
+    float step_scale     = args[9];
 
     float dt_2 = dt * dt;
     
@@ -55,6 +60,7 @@ __kernel void integrate(__global int2 *hull_point_tables,
     bool touch_alike   = (hull_1_flags & TOUCH_ALIKE) !=0;
     bool out_of_bounds = (hull_1_flags & OUT_OF_BOUNDS) !=0;
     bool in_perimiter  = (hull_1_flags & IN_PERIMETER) !=0;
+    bool is_sleeping   = (hull_1_flags & IS_SLEEPING) !=0;
 
     // wipe all ephemeral flags
     hull_1_flags &= ~OUT_OF_BOUNDS;
@@ -66,6 +72,13 @@ __kernel void integrate(__global int2 *hull_point_tables,
     hull_1_flags &= ~CURSOR_HIT;
     hull_1_flags &= ~SENSOR_HIT;
 
+    // sleeping hulls hold still until they are woken, so their points are left as they are
+    if (is_sleeping)
+    {
+        hull_flags[current_hull] = hull_1_flags;
+        return;
+    }
+
     gravity = in_liquid
         ? gravity * 1.5f
         : gravity;
@@ -113,6 +126,8 @@ __kernel void integrate(__global int2 *hull_point_tables,
         ? .920f
         : 1.0f;
 
+    float hull_speed = 0.0f;
+
     for (int i = start; i <= end; i++)
     {
         // get this point
@@ -122,8 +137,9 @@ __kernel void integrate(__global int2 *hull_point_tables,
         float2 pos = point.xy;
         float2 prv = in_perimiter || out_of_bounds ? pos : point.zw;
 
-        float x_threshold = is_liquid ? 1.0f : 5.0f;
-        float y_threshold = is_liquid ? 0.25f : 1.0f;
+        // thresholds are per step distances, so are scaled with the step size
+        float x_threshold = (is_liquid ? 1.0f : 5.0f) * step_scale;
+        float y_threshold = (is_liquid ? 0.25f : 1.0f) * step_scale;
         
         float2 vel = (pos - prv) ;/// dt;
         bool s_x = fabs(vel.x) > x_threshold;
@@ -151,8 +167,10 @@ __kernel void integrate(__global int2 *hull_point_tables,
             bool high_density = hit_count >= HIT_LOW_MID_THRESHOLD;
             bool max_density = hit_count >= HIT_TOP_THRESHOLD;
 
-            // subtract prv from pos to get the difference this frame
-            float2 diff = pos - prv;
+            // subtract prv from pos to get the difference this frame, scaled by the ratio of
+            // the current time step to the previous one, in case the step size has changed
+            float2 diff = (pos - prv) * v_scale;
+            hull_speed = max(hull_speed, length(pos - prv));
 
             float g_x = touch_alike 
                 ? high_density 
@@ -208,6 +226,11 @@ __kernel void integrate(__global int2 *hull_point_tables,
     }
 
     hull_flags[current_hull] = hull_1_flags;
+
+    if (hull_speed > 0.0f)
+    {
+        atomic_max(max_speed, as_int(hull_speed));
+    }
 }
 
 __kernel void integrate_entities(__global float4 *entities,
@@ -228,9 +251,13 @@ __kernel void integrate_entities(__global float4 *entities,
     float2 origin  = (float2)(args[4], args[5]);
     float sector_w = args[6];
     float sector_h = args[7];
+    float v_scale  = args[8];
 
-    float4 entity = entities[current_entity];
     int _entity_flags = entity_flags[current_entity];
+    bool deleted = (_entity_flags & DELETED) != 0;
+    if (deleted) return;
+
+    float4 entity = entities[current_entity];
     bool is_wet = (_entity_flags & IS_WET) != 0;
     int root_hull = entity_root_hulls[current_entity];
     float2 acc = entity_accel[current_entity];
@@ -261,7 +288,7 @@ __kernel void integrate_entities(__global float4 *entities,
 
     if (!is_static && !no_bones)
     {
-        float2 diff = pos - prv;
+        float2 diff = (pos - prv) * v_scale;
         diff = acc + diff;
         diff.x *= damping;
         diff.y *= y_damping;
@@ -295,7 +322,11 @@ __kernel void calculate_hull_aabb(__global float4 *hulls,
                                   __global int4 *bounds_index_data,
                                   __global int2 *bounds_bank_data,
                                   __global int *hull_flags,
+                                  __global int *hull_entity_ids,
+                                  __global int *entity_flags,
                                   __global float *args, 
+                                  int static_cached,
+                                  int swept_circles,
                                   int max_hull)
 {
     int current_hull = get_global_id(0);
@@ -332,6 +363,30 @@ __kernel void calculate_hull_aabb(__global float4 *hulls,
     bool is_ghost      = (hull_1_flags & GHOST_HULL) !=0;
     bool is_circle     = (hull_1_flags & IS_CIRCLE) !=0;
     bool out_of_bounds = (hull_1_flags & OUT_OF_BOUNDS) !=0;
+    bool is_static     = (hull_1_flags & IS_STATIC) !=0;
+    bool is_sleeping   = (hull_1_flags & IS_SLEEPING) !=0;
+
+    // Static and sleeping hulls do not move, so while the broad phase holds their keys in its static layer, their
+    // bounds and keys are left as they are. Only the bounds flags cleared during integration are restored. The key
+    // bank is left as it is too, which is empty for hulls in the static layer, so they are not keyed again, and
+    // holds the keys of hulls that fell asleep since the layer was built, so they are keyed as before until it is
+    // rebuilt.
+    if ((is_static || is_sleeping) && static_cached == 1)
+    {
+        float4 cached_box = bounds[current_hull];
+        bool cached_deleted = (entity_flags[hull_entity_ids[current_hull]] & DELETED) !=0;
+        bool cached_in_bounds = !cached_deleted && is_box_in_bounds(cached_box, x_origin, y_origin, width, height);
+        if (!cached_in_bounds)
+        {
+            hull_1_flags |= OUT_OF_BOUNDS;
+        }
+        else if (!is_box_in_bounds(cached_box, inner_x_origin, inner_y_origin, inner_width, inner_height))
+        {
+            hull_1_flags |= IN_PERIMETER;
+        }
+        hull_flags[current_hull] = hull_1_flags;
+        return;
+    }
 
 	// calculate the number of vertices, used later for centroid calculation
 	int point_count = end - start + 1;
@@ -404,17 +459,18 @@ __kernel void calculate_hull_aabb(__global float4 *hulls,
     hull.x = native_divide(x_sum, point_count);
     hull.y = native_divide(y_sum, point_count);
 
-    // handle bounding boxes for circles
+    // handle bounding boxes for circles, which are centred on the current position, unless hulls are swept, in
+    // which case they extend from the previous center to the current one like polygons do
     if (is_circle)
     {
         float size = is_liquid
             ? hull_scale.y * 3
             : hull_scale.y;
 
-        min_x = hull.x - size;
-        max_x = hull.x + size;
-        min_y = hull.y - size;
-        max_y = hull.y + size;
+        min_x = swept_circles == 1 ? min_x - size : hull.x - size;
+        max_x = swept_circles == 1 ? max_x + size : hull.x + size;
+        min_y = swept_circles == 1 ? min_y - size : hull.y - size;
+        max_y = swept_circles == 1 ? max_y + size : hull.y + size;
     }
 
     if (is_sensor)
@@ -453,7 +509,11 @@ __kernel void calculate_hull_aabb(__global float4 *hulls,
 
     int4 k = getExtents(keys);
     bounds_index = k;
-    bool in_bounds = is_box_in_bounds(bounding_box, x_origin, y_origin, width, height);
+
+    // hulls of deleted entities are handled as out of bounds until they are compacted away, which keeps them
+    // out of the broad phase and the renderer, and stops them from moving
+    bool deleted = (entity_flags[hull_entity_ids[current_hull]] & DELETED) !=0;
+    bool in_bounds = !deleted && is_box_in_bounds(bounding_box, x_origin, y_origin, width, height);
 
     if (in_bounds)
     {
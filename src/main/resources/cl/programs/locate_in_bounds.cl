@@ -19,12 +19,27 @@ __kernel void locate_in_bounds(__global int2 *bounds_bank_data,
 }
 
 /**
-Counts the number of potential matches each hull could have.
+Fills the in bounds table with every hull index, in place of locating the in bounds hulls. Used when
+the broad phase is sized from upper bounds, so the number of in bounds hulls is never read back. 
+Hulls that are out of bounds have an empty key bank, so they contribute no candidates.
+ */
+__kernel void fill_in_bounds(__global int *in_bounds,
+                             int max_bound)
+{
+    int current_hull = get_global_id(0);
+    if (current_hull >= max_bound) return;
+    in_bounds[current_hull] = current_hull;
+}
+
+/**
+Counts the number of potential matches each hull could have. Hulls in the static layer of the key map are
+counted along with those in the key map. The static key counts are all zero when the static layer is not used.
  */
 __kernel void count_candidates(__global int2 *bounds_bank_data,
                                __global int *in_bounds,
                                __global int *key_bank,
                                __global int *key_counts,
+                               __global int *static_key_counts,
                                __global int2 *candidates,
                                int x_subdivisions,
                                int key_count_length, 
@@ -49,7 +64,7 @@ __kernel void count_candidates(__global int2 *bounds_bank_data,
         {
             continue;
         }
-        int count = key_counts[key_index];
+        int count = key_counts[key_index] + static_key_counts[key_index];
         size += count;
     }
     candidates[current_candidate].x = index;
@@ -83,4 +98,26 @@ __kernel void finalize_candidates(__global int2 *input_candidates,
         int j = atomic_inc(&counter[0]);
         final_candidates[j] = pair;
     }
-}
\ No newline at end of file
+}
+
+/**
+Records the peak of a count that was computed on the device, and raises the overflow flag for its
+slot when the count exceeds the bound that was used to size the buffers that depend on it. The 
+bounds buffer holds the overflow flags in the first element, followed by one peak per slot. This
+kernel is run as a single task.
+ */
+__kernel void record_bound(__global int *count,
+                           __global int *bounds,
+                           int slot,
+                           int bound)
+{
+    int value = count[0];
+    if (value > bounds[slot + 1])
+    {
+        bounds[slot + 1] = value;
+    }
+    if (value > bound)
+    {
+        bounds[0] |= (1 << slot);
+    }
+}
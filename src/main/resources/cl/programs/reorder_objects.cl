@@ -0,0 +1,217 @@
+/**
+Reordering moves every entity, along with all the hulls, points, edges, and bones it owns, to a new position in
+the core buffers. The order buffer maps each new entity index to the entity currently stored at that position.
+Like compaction, this relies on the objects owned by each entity being stored contiguously, in the same order as
+the entities themselves, so each object type moves by a single offset per entity.
+ */
+
+inline int entity_edge_start(int2 hull_table, __global int2 *hull_edge_tables)
+{
+    int hull_count = hull_table.y - hull_table.x + 1;
+    for (int i = 0; i < hull_count; i++)
+    {
+        int2 edge_table = hull_edge_tables[hull_table.x + i];
+        if (edge_table.y >= 0) return edge_table.x;
+    }
+    return 0;
+}
+
+/**
+Counts the objects owned by each entity, stored at the entity's new index. After an exclusive scan, each entry
+holds the new start index of every object type owned by that entity.
+ */
+__kernel void reorder_counts(__global int *order,
+                             __global int2 *entity_hull_tables,
+                             __global int2 *entity_bone_tables,
+                             __global int2 *hull_point_tables,
+                             __global int2 *hull_edge_tables,
+                             __global int2 *hull_bone_tables,
+                             __global int4 *object_counts,
+                             __global int *entity_bone_counts,
+                             int max_entity)
+{
+    int current_entity = get_global_id(0);
+    if (current_entity >= max_entity) return;
+
+    int entity_id = order[current_entity];
+    int2 hull_table = entity_hull_tables[entity_id];
+    int2 bone_table = entity_bone_tables[entity_id];
+
+    int hull_count = hull_table.y - hull_table.x + 1;
+    int point_count = 0;
+    int edge_count = 0;
+    int hull_bone_count = 0;
+    for (int i = 0; i < hull_count; i++)
+    {
+        int current_hull = hull_table.x + i;
+        int2 point_table = hull_point_tables[current_hull];
+        int2 edge_table = hull_edge_tables[current_hull];
+        int2 hull_bone_table = hull_bone_tables[current_hull];
+        point_count += point_table.y - point_table.x + 1;
+        edge_count += edge_table.y >= 0
+            ? edge_table.y - edge_table.x + 1
+            : 0;
+        hull_bone_count += hull_bone_table.y - hull_bone_table.x + 1;
+    }
+
+    object_counts[current_entity] = (int4)(hull_count, point_count, edge_count, hull_bone_count);
+    entity_bone_counts[current_entity] = bone_table.y - bone_table.x + 1;
+}
+
+/**
+Updates every index an entity's objects hold into the core buffers, so they refer to the new positions, and
+records the new position of each object in the target buffers. Updates are made in place, at the current
+positions, which is safe because each entity only touches the objects it owns. The objects are moved afterward
+by the scatter kernels.
+ */
+__kernel void reorder_entities(__global int *order,
+                               __global int4 *object_offsets,
+                               __global int *entity_bone_offsets,
+                               __global int *entity_root_hulls,
+                               __global int2 *entity_hull_tables,
+                               __global int2 *entity_bone_tables,
+                               __global int *hull_entity_ids,
+                               __global int2 *hull_point_tables,
+                               __global int2 *hull_edge_tables,
+                               __global int2 *hull_bone_tables,
+                               __global int *point_hull_indices,
+                               __global int4 *point_bone_tables,
+                               __global int2 *edges,
+                               __global int *edge_pins,
+                               __global int *hull_bind_pose_indices,
+                               __global int *entity_bone_parent_ids,
+                               __global int *entity_targets,
+                               __global int *hull_targets,
+                               __global int *point_targets,
+                               __global int *edge_targets,
+                               __global int *hull_bone_targets,
+                               __global int *entity_bone_targets,
+                               int max_entity)
+{
+    int current_entity = get_global_id(0);
+    if (current_entity >= max_entity) return;
+
+    int entity_id = order[current_entity];
+    int4 offsets = object_offsets[current_entity];
+    int entity_bone_offset = entity_bone_offsets[current_entity];
+
+    int2 hull_table = entity_hull_tables[entity_id];
+    int2 bone_table = entity_bone_tables[entity_id];
+
+    int hull_count = hull_table.y - hull_table.x + 1;
+    bool has_hulls = hull_count > 0;
+
+    int hull_shift = offsets.x - hull_table.x;
+    int point_shift = has_hulls ? offsets.y - hull_point_tables[hull_table.x].x : 0;
+    int edge_shift = has_hulls ? offsets.z - entity_edge_start(hull_table, hull_edge_tables) : 0;
+    int hull_bone_shift = has_hulls ? offsets.w - hull_bone_tables[hull_table.x].x : 0;
+    int entity_bone_shift = entity_bone_offset - bone_table.x;
+
+    entity_targets[entity_id] = current_entity;
+    entity_root_hulls[entity_id] += hull_shift;
+    entity_hull_tables[entity_id] = hull_table + hull_shift;
+    entity_bone_tables[entity_id] = bone_table + entity_bone_shift;
+
+    int entity_bone_count = bone_table.y - bone_table.x + 1;
+    for (int i = 0; i < entity_bone_count; i++)
+    {
+        int current_bone_bind = bone_table.x + i;
+        int bone_parent_id = entity_bone_parent_ids[current_bone_bind];
+        entity_bone_parent_ids[current_bone_bind] = bone_parent_id == -1
+            ? -1
+            : bone_parent_id + entity_bone_shift;
+        entity_bone_targets[current_bone_bind] = current_bone_bind + entity_bone_shift;
+    }
+
+    for (int i = 0; i < hull_count; i++)
+    {
+        int current_hull = hull_table.x + i;
+
+        int2 point_table = hull_point_tables[current_hull];
+        int2 edge_table = hull_edge_tables[current_hull];
+        int2 hull_bone_table = hull_bone_tables[current_hull];
+
+        hull_entity_ids[current_hull] = current_entity;
+        hull_point_tables[current_hull] = point_table + point_shift;
+        hull_bone_tables[current_hull] = hull_bone_table + hull_bone_shift;
+        if (edge_table.y >= 0)
+        {
+            hull_edge_tables[current_hull] = edge_table + edge_shift;
+        }
+        hull_targets[current_hull] = current_hull + hull_shift;
+
+        int edge_count = edge_table.y >= 0
+            ? edge_table.y - edge_table.x + 1
+            : 0;
+        for (int j = 0; j < edge_count; j++)
+        {
+            int current_edge = edge_table.x + j;
+            int edge_pin = edge_pins[current_edge];
+            edges[current_edge] = edges[current_edge] + point_shift;
+            edge_pins[current_edge] = edge_pin == -1
+                ? -1
+                : edge_pin + hull_shift;
+            edge_targets[current_edge] = current_edge + edge_shift;
+        }
+
+        int point_count = point_table.y - point_table.x + 1;
+        for (int k = 0; k < point_count; k++)
+        {
+            int current_point = point_table.x + k;
+            int4 point_bone_table = point_bone_tables[current_point];
+            point_bone_table.x += point_bone_table.x > -1 ? hull_bone_shift : 0;
+            point_bone_table.y += point_bone_table.y > -1 ? hull_bone_shift : 0;
+            point_bone_table.z += point_bone_table.z > -1 ? hull_bone_shift : 0;
+            point_bone_table.w += point_bone_table.w > -1 ? hull_bone_shift : 0;
+            point_hull_indices[current_point] += hull_shift;
+            point_bone_tables[current_point] = point_bone_table;
+            point_targets[current_point] = current_point + point_shift;
+        }
+
+        int hull_bone_count = hull_bone_table.y - hull_bone_table.x + 1;
+        for (int l = 0; l < hull_bone_count; l++)
+        {
+            int current_bone = hull_bone_table.x + l;
+            hull_bind_pose_indices[current_bone] += entity_bone_shift;
+            hull_bone_targets[current_bone] = current_bone + hull_bone_shift;
+        }
+    }
+}
+
+/**
+Moves objects from a copy of a core buffer into the buffer, at the positions recorded by reorder_entities. Each
+object is some whole number of words, so one kernel per word size covers every core buffer.
+ */
+__kernel void scatter_ints(__global int *source,
+                           __global int *destination,
+                           __global int *targets,
+                           int words,
+                           int max_object)
+{
+    int current_object = get_global_id(0);
+    if (current_object >= max_object) return;
+
+    int source_base = current_object * words;
+    int destination_base = targets[current_object] * words;
+    for (int i = 0; i < words; i++)
+    {
+        destination[destination_base + i] = source[source_base + i];
+    }
+}
+
+__kernel void scatter_shorts(__global short *source,
+                             __global short *destination,
+                             __global int *targets,
+                             int words,
+                             int max_object)
+{
+    int current_object = get_global_id(0);
+    if (current_object >= max_object) return;
+
+    int source_base = current_object * words;
+    int destination_base = targets[current_object] * words;
+    for (int i = 0; i < words; i++)
+    {
+        destination[destination_base + i] = source[source_base + i];
+    }
+}
@@ -86,6 +86,39 @@ inline void resolve_e_pin_constraint(__global float4 *entities,
     points[edge.y] = b;
 } 
 
+inline void resolve_hull_constraints(__global float4 *hulls,
+                                     __global int *hull_flags,
+                                     __global float4 *entities,
+                                     __global int2 *hull_edge_tables,
+                                     __global int2 *bounds_bank_data,
+                                     __global float4 *points,
+                                     __global int2 *edges,
+                                     __global float *edge_lengths,
+                                     __global int *edge_flags,
+                                     __global int *edge_pins,
+                                     int process_all,
+                                     int current_hull)
+{
+    int flags = hull_flags[current_hull];
+    if ((flags & (IS_STATIC | IS_SLEEPING)) != 0) return;
+    int2 edge_table = hull_edge_tables[current_hull];
+    int2 bounds_bank = bounds_bank_data[current_hull];
+    int bank_size = bounds_bank.y;
+    if (bank_size > 0 || process_all == 1)
+    {
+        for (int current_edge = edge_table.x; current_edge <= edge_table.y; current_edge++)
+        {
+            // todo: handle sensor edges with different logic
+            int flags = edge_flags[current_edge];
+            bool is_pin = (flags & SENSOR_EDGE) != 0;
+            bool e_pin = (flags & E_SENSOR) != 0;
+            if (e_pin) resolve_e_pin_constraint(entities, points, edges, edge_lengths, edge_pins, current_edge);
+            else if (is_pin) resolve_pin_constraint(hulls, points, edges, edge_lengths, edge_pins, current_edge);
+            else resolve_length_constraint(points, edges, edge_lengths, current_edge);
+        }
+    }
+}
+
 /**
 Resolves edge constraints used for Verlet integration.
  */
@@ -104,22 +137,197 @@ __kernel void resolve_constraints(__global float4 *hulls,
 {
     int current_hull = get_global_id(0);
     if (current_hull >= max_hull) return;
-    int flags = hull_flags[current_hull];
-    if ((flags & IS_STATIC) != 0) return;
+    resolve_hull_constraints(hulls, hull_flags, entities, hull_edge_tables, bounds_bank_data,
+        points, edges, edge_lengths, edge_flags, edge_pins, process_all, current_hull);
+}
+
+/**
+Largest number of colours an edge can be given. Colours are tracked as bits of an int while colouring a hull. A hull
+that needs more colours than this is not coloured, and is resolved by resolve_overflow_constraints instead.
+ */
+#define MAX_EDGE_COLORS 32
+
+/**
+Colour given to the edges of hulls that need more than MAX_EDGE_COLORS colours. Edges with this colour are left out
+of the colour buckets.
+ */
+#define OVERFLOW_COLOR -1
+
+/**
+Colours the edges of each hull so that no two edges of the same hull that share a point have the same colour. The
+edges of one colour can then be resolved in parallel by resolve_edge_constraints, without two work items writing
+the same point. Edges are coloured greedily in table order, each taking the lowest colour not used by an earlier
+edge that it shares a point with.
+
+When an edge has no free colour, every edge of its hull is given OVERFLOW_COLOR, and the hull is added to the
+overflow hull list, so its constraints are resolved by one work item for the whole hull.
+
+Hulls before the given first hull keep the colours they already have, so only hulls added since the last call need
+to be coloured.
+ */
+__kernel void color_edges(__global int2 *hull_edge_tables,
+                          __global int2 *edges,
+                          __global int *edge_colors,
+                          __global int *overflow_hulls,
+                          __global int *overflow_count,
+                          int first_hull,
+                          int max_hull)
+{
+    int current_hull = get_global_id(0) + first_hull;
+    if (current_hull >= max_hull) return;
     int2 edge_table = hull_edge_tables[current_hull];
+    bool overflow = false;
+    for (int current_edge = edge_table.x; current_edge <= edge_table.y && !overflow; current_edge++)
+    {
+        int2 edge = edges[current_edge];
+        uint used = 0;
+        for (int other_edge = edge_table.x; other_edge < current_edge; other_edge++)
+        {
+            int2 other = edges[other_edge];
+            bool shared = edge.x == other.x || edge.x == other.y || edge.y == other.x || edge.y == other.y;
+            if (shared) used |= 1u << edge_colors[other_edge];
+        }
+        int color = 0;
+        while (color < MAX_EDGE_COLORS && (used & (1u << color)) != 0) color++;
+        overflow = color == MAX_EDGE_COLORS;
+        edge_colors[current_edge] = color;
+    }
+    if (!overflow) return;
+    for (int current_edge = edge_table.x; current_edge <= edge_table.y; current_edge++)
+    {
+        edge_colors[current_edge] = OVERFLOW_COLOR;
+    }
+    int overflow_index = atomic_inc(&overflow_count[0]);
+    overflow_hulls[overflow_index] = current_hull;
+}
+
+/**
+Counts the edges of each colour. The counts are the sizes of the colour buckets built by bucket_edge_colors.
+ */
+__kernel void count_edge_colors(__global int *edge_colors,
+                                __global int *color_sizes,
+                                int max_edge)
+{
+    int current_edge = get_global_id(0);
+    if (current_edge >= max_edge) return;
+    int color = edge_colors[current_edge];
+    if (color == OVERFLOW_COLOR) return;
+    atomic_inc(&color_sizes[color]);
+}
+
+/**
+Groups edge indices by colour, so the edges of each colour are in one contiguous range that starts after the edges
+of all lower colours. The order of edges within a colour is not fixed, which does not matter as edges of the same
+colour never share a point.
+ */
+__kernel void bucket_edge_colors(__global int *edge_colors,
+                                 __global int *color_sizes,
+                                 __global int *color_cursors,
+                                 __global int *colored_edges,
+                                 int max_edge)
+{
+    int current_edge = get_global_id(0);
+    if (current_edge >= max_edge) return;
+    int color = edge_colors[current_edge];
+    if (color == OVERFLOW_COLOR) return;
+    int color_offset = 0;
+    for (int lower_color = 0; lower_color < color; lower_color++)
+    {
+        color_offset += color_sizes[lower_color];
+    }
+    int bucket_index = atomic_inc(&color_cursors[color]);
+    colored_edges[color_offset + bucket_index] = current_edge;
+}
+
+/**
+Resolves edge constraints used for Verlet integration, with one work item per edge rather than one per hull. Only
+the edges of one colour are resolved, read from the range of the colour bucket that starts at the given offset, so
+no two work items move the same point, and a full pass over all edges is one call per colour. Edges are skipped
+under the same conditions as the hulls they belong to in resolve_constraints.
+ */
+__kernel void resolve_edge_constraints(__global float4 *hulls,
+                                       __global int *hull_flags,
+                                       __global float4 *entities,
+                                       __global int2 *bounds_bank_data,
+                                       __global int *point_hull_indices,
+                                       __global float4 *points,
+                                       __global int2 *edges,
+                                       __global float *edge_lengths,
+                                       __global int *edge_flags,
+                                       __global int *edge_pins,
+                                       __global int *colored_edges,
+                                       int color_offset,
+                                       int process_all,
+                                       int max_edge)
+{
+    int bucket_index = get_global_id(0);
+    if (bucket_index >= max_edge) return;
+    int current_edge = colored_edges[color_offset + bucket_index];
+    int current_hull = point_hull_indices[edges[current_edge].x];
+    int flags = hull_flags[current_hull];
+    if ((flags & (IS_STATIC | IS_SLEEPING)) != 0) return;
     int2 bounds_bank = bounds_bank_data[current_hull];
     int bank_size = bounds_bank.y;
     if (bank_size > 0 || process_all == 1)
     {
-        for (int current_edge = edge_table.x; current_edge <= edge_table.y; current_edge++)
-        {
-            // todo: handle sensor edges with different logic
-            int flags = edge_flags[current_edge];
-            bool is_pin = (flags & SENSOR_EDGE) != 0;
-            bool e_pin = (flags & E_SENSOR) != 0;
-            if (e_pin) resolve_e_pin_constraint(entities, points, edges, edge_lengths, edge_pins, current_edge);
-            else if (is_pin) resolve_pin_constraint(hulls, points, edges, edge_lengths, edge_pins, current_edge);
-            else resolve_length_constraint(points, edges, edge_lengths, current_edge);
-        }
+        int e_flags = edge_flags[current_edge];
+        bool is_pin = (e_flags & SENSOR_EDGE) != 0;
+        bool e_pin = (e_flags & E_SENSOR) != 0;
+        if (e_pin) resolve_e_pin_constraint(entities, points, edges, edge_lengths, edge_pins, current_edge);
+        else if (is_pin) resolve_pin_constraint(hulls, points, edges, edge_lengths, edge_pins, current_edge);
+        else resolve_length_constraint(points, edges, edge_lengths, current_edge);
     }
 }
+
+/**
+Resolves edge constraints for the hulls that could not be coloured, with one work item per hull as in
+resolve_constraints. These hulls share no points with coloured edges, so this can run alongside the coloured passes.
+ */
+__kernel void resolve_overflow_constraints(__global float4 *hulls,
+                                           __global int *hull_flags,
+                                           __global float4 *entities,
+                                           __global int2 *hull_edge_tables,
+                                           __global int2 *bounds_bank_data,
+                                           __global float4 *points,
+                                           __global int2 *edges,
+                                           __global float *edge_lengths,
+                                           __global int *edge_flags,
+                                           __global int *edge_pins,
+                                           __global int *overflow_hulls,
+                                           int process_all,
+                                           int max_hull)
+{
+    int overflow_index = get_global_id(0);
+    if (overflow_index >= max_hull) return;
+    resolve_hull_constraints(hulls, hull_flags, entities, hull_edge_tables, bounds_bank_data,
+        points, edges, edge_lengths, edge_flags, edge_pins, process_all, overflow_hulls[overflow_index]);
+}
+
+/**
+Measures how far the edge constraints are from converged, as the largest difference between the length of an edge
+and its rest length, relative to the rest length. Pin edges, and edges of hulls that are not being resolved, are
+not measured. The error is never negative, so the bits of the float order the same way as an int, and the largest
+one can be kept with an integer atomic.
+ */
+__kernel void measure_constraint_error(__global int *hull_flags,
+                                       __global int *point_hull_indices,
+                                       __global float4 *points,
+                                       __global int2 *edges,
+                                       __global float *edge_lengths,
+                                       __global int *edge_flags,
+                                       __global int *max_error,
+                                       int max_edge)
+{
+    int current_edge = get_global_id(0);
+    if (current_edge >= max_edge) return;
+    int e_flags = edge_flags[current_edge];
+    if ((e_flags & (SENSOR_EDGE | E_SENSOR)) != 0) return;
+    int2 edge = edges[current_edge];
+    int flags = hull_flags[point_hull_indices[edge.x]];
+    if ((flags & (IS_STATIC | IS_SLEEPING | OUT_OF_BOUNDS)) != 0) return;
+    float constraint = edge_lengths[current_edge];
+    if (constraint <= 0.0f) return;
+    float length = fast_length(points[edge.y].xy - points[edge.x].xy);
+    float error = fabs(length - constraint) / constraint;
+    atomic_max(&max_error[0], as_int(error));
+}
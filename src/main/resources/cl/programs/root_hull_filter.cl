@@ -1,8 +1,34 @@
+/*
+    Entities that are deleted but not yet compacted away, and entities with a root hull that is out of bounds, are
+    not drawn, so they are left out of both the counts and the filtered lists.
+*/
+inline bool is_root_hull_visible(__global int *entity_flags,
+                                 __global int *hull_flags,
+                                 int current_entity,
+                                 int root_hull)
+{
+    bool deleted = (entity_flags[current_entity] & DELETED) !=0;
+    bool out_of_bounds = (hull_flags[root_hull] & OUT_OF_BOUNDS) !=0;
+    return !deleted && !out_of_bounds;
+}
+
+inline bool is_hull_visible(__global int *entity_flags,
+                            __global int *hull_flags,
+                            __global int *hull_entity_ids,
+                            int current_hull)
+{
+    bool deleted = (entity_flags[hull_entity_ids[current_hull]] & DELETED) !=0;
+    bool out_of_bounds = (hull_flags[current_hull] & OUT_OF_BOUNDS) !=0;
+    return !deleted && !out_of_bounds;
+}
+
 /*
     Filters all instances of a specific model in one array.
 */
 __kernel void root_hull_filter(__global int *entity_root_hulls,
                                __global int *entity_model_indices,
+                               __global int *entity_flags,
+                               __global int *hull_flags,
                                __global int *hulls_out,
                                __global int *counter,
                                int target_model_id,
@@ -12,7 +38,7 @@ __kernel void root_hull_filter(__global int *entity_root_hulls,
     if (current_entity >= max_entity) return;
     int root_hull = entity_root_hulls[current_entity];
     int model_id = entity_model_indices[current_entity];
-    if(model_id == target_model_id)
+    if(model_id == target_model_id && is_root_hull_visible(entity_flags, hull_flags, current_entity, root_hull))
     {
         int i = atomic_inc(&counter[0]);
         hulls_out[i] = root_hull;
@@ -23,15 +49,19 @@ __kernel void root_hull_filter(__global int *entity_root_hulls,
 /*
     Get the count of specific hull in array.
 */
-__kernel void root_hull_count(__global int *entity_model_indices,
+__kernel void root_hull_count(__global int *entity_root_hulls,
+                              __global int *entity_model_indices,
+                              __global int *entity_flags,
+                              __global int *hull_flags,
                               __global int *counter,
                               int target_model_id,
                               int max_entity)
 {
     int current_entity = get_global_id(0);
     if (current_entity >= max_entity) return;
+    int root_hull = entity_root_hulls[current_entity];
     int model_id = entity_model_indices[current_entity];
-    if(model_id == target_model_id)
+    if(model_id == target_model_id && is_root_hull_visible(entity_flags, hull_flags, current_entity, root_hull))
     {
         atomic_inc(&counter[0]);
     }
@@ -41,6 +71,9 @@ __kernel void root_hull_count(__global int *entity_model_indices,
 
 
 __kernel void hull_filter(__global int *hull_mesh_ids,
+                          __global int *hull_entity_ids,
+                          __global int *entity_flags,
+                          __global int *hull_flags,
                           __global int *hulls_out,
                           __global int *counter,
                           int target_mesh_id,
@@ -49,7 +82,7 @@ __kernel void hull_filter(__global int *hull_mesh_ids,
     int current_hull = get_global_id(0);
     if (current_hull >= max_hull) return;
     int mesh_id = hull_mesh_ids[current_hull];
-    if(mesh_id == target_mesh_id)
+    if(mesh_id == target_mesh_id && is_hull_visible(entity_flags, hull_flags, hull_entity_ids, current_hull))
     {
         int i = atomic_inc(&counter[0]);
         hulls_out[i] = current_hull;
@@ -58,6 +91,9 @@ __kernel void hull_filter(__global int *hull_mesh_ids,
 
 
 __kernel void hull_count(__global int *hull_mesh_ids,
+                         __global int *hull_entity_ids,
+                         __global int *entity_flags,
+                         __global int *hull_flags,
                          __global int *counter,
                          int target_mesh_id,
                          int max_hull)
@@ -65,9 +101,8 @@ __kernel void hull_count(__global int *hull_mesh_ids,
     int current_hull = get_global_id(0);
     if (current_hull >= max_hull) return;
     int mesh_id = hull_mesh_ids[current_hull];
-    if(mesh_id == target_mesh_id)
+    if(mesh_id == target_mesh_id && is_hull_visible(entity_flags, hull_flags, hull_entity_ids, current_hull))
     {
         atomic_inc(&counter[0]);
     }
 }
-
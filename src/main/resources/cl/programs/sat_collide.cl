@@ -1,3 +1,9 @@
+// the rest counter is held in the REST_TICKS bits of the entity flags
+#define REST_SHIFT 24
+
+// distance added around the bounds of a broken block, so bodies resting against it are woken
+#define WAKE_MARGIN 1.0f
+
 inline float calculate_anti_gravity(float2 gravity, float2 heading)
 {
     float dot_p = dot(gravity, heading);
@@ -5,6 +11,29 @@ inline float calculate_anti_gravity(float2 gravity, float2 heading)
     return native_divide(dot_p, mag_p);
 }
 
+/**
+Wakes a sleeping hull that has come near another hull, when the other hull belongs to an entity that is moving. 
+Entities that cannot sleep never count as resting, so players and other animated entities always wake the hulls 
+they touch. Bodies that are resting against a sleeping hull do not wake it, or piles of bodies would keep each 
+other awake.
+ */
+inline void wake_on_contact(int sleeping_hull,
+                            int other_hull,
+                            __global int *hull_flags,
+                            __global int *hull_entity_ids,
+                            __global int *entity_flags)
+{
+    int other_flags = hull_flags[other_hull];
+    if ((other_flags & (IS_STATIC | IS_SLEEPING | IS_CURSOR | GHOST_HULL)) !=0) return;
+
+    int other_entity = hull_entity_ids[other_hull];
+    bool other_resting = (entity_flags[other_entity] & REST_TICKS) !=0;
+    if (other_resting) return;
+
+    // the rest counter is cleared here, the hulls of the entity are woken when entities are moved
+    atomic_and(&entity_flags[hull_entity_ids[sleeping_hull]], ~REST_TICKS);
+}
+
 /**
 Performs collision detection using separating axis theorem, and then calculates reactions
 for objects when they are found to be colliding. Reactions detemine one "edge" polygon 
@@ -12,7 +41,8 @@ and one "vertex" polygon. The vertex polygon has a single vertex adjusted as a r
 The edge object has two vertices adjusted and the adjustments are in oppostie directions, 
 which will naturally apply some degree of rotation to the object. For circles/polygon 
 collisions, as there is only a single point, circles are always the vertex object.
-Circle/circle collisions use a simple distance/radius check.
+Circle/circle collisions use a simple distance/radius check. Sleeping hulls are handled as static 
+by the collision functions, but are woken when a moving hull is matched with them.
  */
 __kernel void sat_collide(__global int2 *candidates,
                           __global int *entity_model_transforms,
@@ -35,17 +65,34 @@ __kernel void sat_collide(__global int2 *candidates,
                           __global int *point_reactions,
                           __global float *masses,
                           __global int *counter,
+                          __global int *candidate_count,
+                          __global int *contact_partners,
+                          __global int *contact_stamps,
+                          __global float4 *contact_manifolds,
+                          __global int *warm_contacts,
+                          int contact_step,
+                          int warm,
                           float dt,
                           int max_index)
 {
     int gid = get_global_id(0);
-    if (gid >= max_index) return;
+    if (gid >= max_index || gid >= candidate_count[0]) return;
     
     int2 current_pair = candidates[gid];
     int b1_id = current_pair.x;
     int b2_id = current_pair.y;
     int hull_1_flags = hull_flags[b1_id];
     int hull_2_flags = hull_flags[b2_id];
+
+    bool b1_is_sleeping = (hull_1_flags & IS_SLEEPING) !=0;
+    bool b2_is_sleeping = (hull_2_flags & IS_SLEEPING) !=0;
+
+    if (b1_is_sleeping != b2_is_sleeping)
+    {
+        int sleeping_hull = b1_is_sleeping ? b1_id : b2_id;
+        int other_hull    = b1_is_sleeping ? b2_id : b1_id;
+        wake_on_contact(sleeping_hull, other_hull, hull_flags, hull_entity_ids, entity_flags);
+    }
     
     bool b1_is_circle = (hull_1_flags & IS_CIRCLE) !=0;
     bool b2_is_circle = (hull_2_flags & IS_CIRCLE) !=0;
@@ -84,6 +131,12 @@ __kernel void sat_collide(__global int2 *candidates,
             point_reactions,
             masses,
             counter,
+            contact_partners,
+            contact_stamps,
+            contact_manifolds,
+            warm_contacts,
+            contact_step,
+            warm,
             dt);
     }
     else if (b1_is_polygon && b2_is_polygon && !b1_is_sensor & !b2_is_sensor) 
@@ -107,6 +160,12 @@ __kernel void sat_collide(__global int2 *candidates,
             point_reactions,
             masses,
             counter,
+            contact_partners,
+            contact_stamps,
+            contact_manifolds,
+            warm_contacts,
+            contact_step,
+            warm,
             dt);
     }
     else if (b1_is_circle && b2_is_circle) 
@@ -185,10 +244,11 @@ __kernel void sort_reactions(__global float8 *reactions_in,
                              __global int *reaction_index,
                              __global int *point_reactions,
                              __global int *point_offsets,
+                             __global int *total_reactions,
                              int max_index)
 {
     int gid = get_global_id(0);
-    if (gid >= max_index) return;
+    if (gid >= max_index || gid >= total_reactions[0]) return;
 
     float8 reaction = reactions_in[gid];
     int index = reaction_index[gid];
@@ -220,6 +280,7 @@ __kernel void apply_reactions(__global float8 *reactions,
                               __global int *point_offsets,
                               __global int *point_hull_indices,
                               __global int *hull_flags,
+                              __global int *total_reactions,
                               int max_point)
 {
     // todo: actual gravity vector should be provided, when it can change this should also be changable
@@ -227,7 +288,7 @@ __kernel void apply_reactions(__global float8 *reactions,
     float2 g = (float2)(0.0f, -1.0f);
 
     int current_point = get_global_id(0);
-    if (current_point >= max_point) return;
+    if (current_point >= max_point || total_reactions[0] == 0) return;
 
     int reaction_count = point_reactions[current_point];
     int flags = point_flags[current_point];
@@ -429,6 +490,7 @@ inline int2 consume_point_flags(__global int *point_flags,
     return result;
 }
 __kernel void move_entities(__global float4 *hulls,
+                            __global float4 *bounds,
                             __global float4 *entities,
                             __global int *entity_flags,
                             __global short2 *entity_motion_states,
@@ -439,6 +501,12 @@ __kernel void move_entities(__global float4 *hulls,
                             __global int *point_flags,
                             __global short *point_hit_counts,
                             __global float4 *points,
+                            __global float4 *wake_bounds,
+                            __global int *wake_count,
+                            __global int *sleep_changes,
+                            int sleep_ticks,
+                            float sleep_speed,
+                            int max_wake,
                             float dt,
                             int max_entity)
 {
@@ -446,6 +514,7 @@ __kernel void move_entities(__global float4 *hulls,
     if (current_entity >= max_entity) return;
     float4 entity = entities[current_entity];
     int flags = entity_flags[current_entity];
+    bool was_broken = (flags & BROKEN) !=0;
     int2 hull_table = hull_tables[current_entity];
     int start = hull_table.x;
     int end = hull_table.y;
@@ -469,6 +538,7 @@ __kernel void move_entities(__global float4 *hulls,
     int total_hits = 0;
     int has_sensor = false;
     float2 sensor_p1 = (float2)(0.0f);
+    float rest_motion = 0.0f;
     for (int i = 0; i < hull_count; i++)
     {
         int n = start + i;
@@ -498,6 +568,7 @@ __kernel void move_entities(__global float4 *hulls,
         last_center = hull.xy;
         float2 diffa = last_center - hull.zw;
         diff += diffa;
+        rest_motion = max(rest_motion, fast_length(diffa));
         int2 xa = consume_point_flags(point_flags, point_hit_counts, point_table);
         total_hits += xa.y;
         _point_flags = is_foot || is_block
@@ -578,8 +649,109 @@ __kernel void move_entities(__global float4 *hulls,
         ? 1000 
         : motion_state.y;
 
+    // Entities without bones that have barely moved for a number of sub-steps in a row are put to sleep, and their 
+    // hulls are skipped by the integration and constraint kernels until the entity is woken. Waking only clears
+    // the rest counter, the hulls are woken here.
+    bool can_sleep = sleep_ticks > 0
+        && !had_bones
+        && !destroy
+        && (flags & DELETED) == 0
+        && (hull_flags_0 & IS_STATIC) == 0
+        && (_hull_flags & (IS_CURSOR | GHOST_HULL)) == 0;
+
+    bool at_rest = native_divide(rest_motion, dt) < sleep_speed;
+    int rest_ticks = (flags & REST_TICKS) >> REST_SHIFT;
+
+    rest_ticks = can_sleep && at_rest
+        ? min(rest_ticks + 1, sleep_ticks)
+        : 0;
+
+    flags = (flags & ~REST_TICKS) | (rest_ticks << REST_SHIFT);
+
+    bool sleeping = can_sleep && rest_ticks >= sleep_ticks;
+    bool was_sleeping = (hull_flags_0 & IS_SLEEPING) !=0;
+
+    if (sleeping != was_sleeping)
+    {
+        for (int i = 0; i < hull_count; i++)
+        {
+            int n = start + i;
+            int hull_flag = hull_flags[n];
+            hull_flags[n] = sleeping
+                ? hull_flag | IS_SLEEPING
+                : hull_flag & ~IS_SLEEPING;
+
+            // bodies fall asleep with no velocity, so they do not drift when they are woken
+            if (sleeping)
+            {
+                int2 point_table = hull_point_tables[n];
+                for (int p = point_table.x; p <= point_table.y; p++)
+                {
+                    float4 point = points[p];
+                    point.zw = point.xy;
+                    points[p] = point;
+                }
+            }
+        }
+        hull_flags_0 = sleeping
+            ? hull_flags_0 | IS_SLEEPING
+            : hull_flags_0 & ~IS_SLEEPING;
+
+        // sleeping hulls are kept in the static key layer, so it must be rebuilt when any hull falls asleep or wakes
+        atomic_inc(&sleep_changes[0]);
+    }
+
+    // a block that breaks may be holding up sleeping bodies, so its bounds are kept for them to be woken
+    if (sleep_ticks > 0 && destroy && !was_broken)
+    {
+        int wake_index = atomic_inc(&wake_count[0]);
+        if (wake_index < max_wake)
+        {
+            float4 bound = bounds[start];
+            bound.xy -= WAKE_MARGIN;
+            bound.zw += WAKE_MARGIN * 2.0f;
+            wake_bounds[wake_index] = bound;
+        }
+    }
+
     entity_motion_states[current_entity] = motion_state;
     hull_flags[start] = hull_flags_0;
     entities[current_entity] = entity;
     entity_flags[current_entity] = flags;
 }
+
+/**
+Wakes sleeping hulls near blocks that broke in the last frame. The bounds of each broken block are recorded when 
+entities are moved, and any sleeping hull whose bounds touch them has the rest counter of its entity cleared. When 
+more blocks broke than could be recorded, every sleeping hull is woken.
+ */
+__kernel void wake_sleepers(__global float4 *bounds,
+                            __global int *hull_flags,
+                            __global int *hull_entity_ids,
+                            __global int *entity_flags,
+                            __global float4 *wake_bounds,
+                            __global int *wake_count,
+                            int max_wake,
+                            int max_hull)
+{
+    int current_hull = get_global_id(0);
+    if (current_hull >= max_hull) return;
+
+    int count = wake_count[0];
+    if (count == 0) return;
+
+    int flags = hull_flags[current_hull];
+    if ((flags & IS_SLEEPING) == 0) return;
+
+    float4 bound = bounds[current_hull];
+    bool wake = count > max_wake;
+    for (int i = 0; i < count && !wake; i++)
+    {
+        wake = do_bounds_intersect(bound, wake_bounds[i]);
+    }
+
+    if (wake)
+    {
+        atomic_and(&entity_flags[hull_entity_ids[current_hull]], ~REST_TICKS);
+    }
+}
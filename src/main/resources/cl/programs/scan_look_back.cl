@@ -0,0 +1,117 @@
+/**
+Single pass exclusive scan using decoupled look-back. This source is shared by all element types, the program
+that builds it defines scan_t as the element type, and scan_upsweep/scan_downsweep as the matching sweep
+functions from the exclusive scan functions.
+
+Each work group scans one tile of the input, and publishes its state in the tile status buffer so that later
+tiles can find their prefix without waiting for a separate pass over the tile totals. A tile first publishes its
+own total (its aggregate), then walks backward over earlier tiles, adding their aggregates until it reaches a tile
+that has published its inclusive prefix. It then publishes its own inclusive prefix, and adds the exclusive
+prefix to each of its values.
+
+Tiles are numbered in the order work groups start running, using the counter in the first entry of the status
+buffer, rather than by group id. Every tile a work group waits on therefore belongs to a work group that is
+already running, so the scan cannot deadlock when fewer work groups are resident than there are tiles.
+
+The status buffer must be zeroed before each scan.
+ */
+
+#define TILE_INVALID   0
+#define TILE_AGGREGATE 1
+#define TILE_PREFIX    2
+
+__kernel void scan_look_back(__global scan_t *input,
+                             __global scan_t *output,
+                             __local scan_t *buffer,
+                             volatile __global int *tile_status,
+                             volatile __global scan_t *tile_aggregates,
+                             volatile __global scan_t *tile_prefixes,
+                             int n)
+{
+    __local int tile_id_local;
+    __local scan_t tile_prefix_local;
+
+    int local_id = get_local_id(0);
+    int wx = get_local_size(0);
+    int m = wx * 2;
+    bool last_item = local_id == (wx - 1);
+
+    // the tile counter is stored ahead of the status of each tile
+    if (local_id == 0)
+    {
+        tile_id_local = atomic_inc(&tile_status[0]);
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+    int tile_id = tile_id_local;
+    volatile __global int *status = tile_status + 1;
+
+    int local_a_index = (2 * local_id);
+    int local_b_index = (2 * local_id) + 1;
+    int a_index = (tile_id * m) + local_a_index;
+    int b_index = (tile_id * m) + local_b_index;
+
+    buffer[local_a_index] = (a_index < n) ? input[a_index] : (scan_t)(0);
+    buffer[local_b_index] = (b_index < n) ? input[b_index] : (scan_t)(0);
+
+    scan_upsweep(buffer, m);
+
+    // the aggregate is published as early as possible, so later tiles spend less time waiting on this one
+    scan_t aggregate = (scan_t)(0);
+    if (last_item)
+    {
+        aggregate = buffer[local_b_index];
+        buffer[local_b_index] = (scan_t)(0);
+        if (tile_id == 0)
+        {
+            tile_prefixes[0] = aggregate;
+            write_mem_fence(CLK_GLOBAL_MEM_FENCE);
+            atomic_xchg(&status[0], TILE_PREFIX);
+        }
+        else
+        {
+            tile_aggregates[tile_id] = aggregate;
+            write_mem_fence(CLK_GLOBAL_MEM_FENCE);
+            atomic_xchg(&status[tile_id], TILE_AGGREGATE);
+        }
+    }
+
+    scan_downsweep(buffer, m);
+
+    if (last_item)
+    {
+        scan_t prefix = (scan_t)(0);
+        int look_back = tile_id - 1;
+        while (look_back >= 0)
+        {
+            int tile_state = atomic_or(&status[look_back], 0);
+            if (tile_state == TILE_INVALID) continue;
+            read_mem_fence(CLK_GLOBAL_MEM_FENCE);
+            if (tile_state == TILE_PREFIX)
+            {
+                prefix += tile_prefixes[look_back];
+                break;
+            }
+            prefix += tile_aggregates[look_back];
+            look_back--;
+        }
+
+        if (tile_id > 0)
+        {
+            tile_prefixes[tile_id] = prefix + aggregate;
+            write_mem_fence(CLK_GLOBAL_MEM_FENCE);
+            atomic_xchg(&status[tile_id], TILE_PREFIX);
+        }
+        tile_prefix_local = prefix;
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    scan_t tile_prefix = tile_prefix_local;
+    if (a_index < n)
+    {
+        output[a_index] = buffer[local_a_index] + tile_prefix;
+    }
+    if (b_index < n)
+    {
+        output[b_index] = buffer[local_b_index] + tile_prefix;
+    }
+}
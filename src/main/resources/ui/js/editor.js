@@ -40,27 +40,47 @@ event_source.addEventListener('phys_bank_complete_bounds', handle_event);
 event_source.addEventListener('phys_bank_read_pinned', handle_event);
 event_source.addEventListener('phys_gen_keys', handle_event);
 event_source.addEventListener('phys_key_map', handle_event);
+event_source.addEventListener('phys_static_keys', handle_event);
 event_source.addEventListener('phys_locate_inbounds', handle_event);
 event_source.addEventListener('phys_match_candidates', handle_event);
 event_source.addEventListener('phys_match_buffer_count', handle_event);
 event_source.addEventListener('phys_match_offsets', handle_event);
+event_source.addEventListener('phys_candidate_count', handle_event);
+event_source.addEventListener('phys_reaction_count', handle_event);
+event_source.addEventListener('phys_warm_contacts', handle_event);
+event_source.addEventListener('phys_constraint_error', handle_event);
+event_source.addEventListener('phys_sub_steps', handle_event);
+event_source.addEventListener('phys_edge_steps', handle_event);
+event_source.addEventListener('phys_budget_limited', handle_event);
 event_source.addEventListener('phys_aabb_collide', handle_event);
 event_source.addEventListener('phys_finalize_candidates', handle_event);
+event_source.addEventListener('phys_ccd_collide', handle_event);
 event_source.addEventListener('phys_sat_collide', handle_event);
 event_source.addEventListener('phys_sat_scan_reactions', handle_event);
 event_source.addEventListener('phys_sat_sort_reactions', handle_event);
 event_source.addEventListener('phys_sat_apply_reactions', handle_event);
 event_source.addEventListener('phys_move_entities', handle_event);
 event_source.addEventListener('phys_move_hulls', handle_event);
+event_source.addEventListener('phys_wake_sleepers', handle_event);
 event_source.addEventListener('phys_cycle', handle_event);
 event_source.addEventListener('sector_load', handle_event);
 event_source.addEventListener('sector_count', handle_event);
+event_source.addEventListener('sectors_loaded', handle_event);
+event_source.addEventListener('mem_sector', handle_event);
+event_source.addEventListener('mem_render', handle_event);
+event_source.addEventListener('pool_hits', handle_event);
+event_source.addEventListener('pool_misses', handle_event);
+event_source.addEventListener('phys_bounds_overflow', handle_event);
 event_source.addEventListener('phys_compact', handle_event);
+event_source.addEventListener('phys_tombstones', handle_event);
+event_source.addEventListener('phys_compactions', handle_event);
+event_source.addEventListener('phys_reorder', handle_event);
 event_source.addEventListener('phys_egress', handle_event);
 event_source.addEventListener('phys_animate_entities', handle_event);
 event_source.addEventListener('phys_animate_bones', handle_event);
 event_source.addEventListener('phys_animate_points', handle_event);
 event_source.addEventListener('phys_resolve_constraints', handle_event);
+event_source.addEventListener('phys_color_edges', handle_event);
 event_source.addEventListener('render_model', handle_event);
 event_source.addEventListener('render_detail_transfer', handle_event);
 event_source.addEventListener('render_data_transfer', handle_event);
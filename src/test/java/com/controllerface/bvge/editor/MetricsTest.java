@@ -0,0 +1,71 @@
+package com.controllerface.bvge.editor;
+
+import com.controllerface.bvge.editor.Metrics.Counter;
+import com.controllerface.bvge.editor.Metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsTest
+{
+    private final long[] scratch = new long[Metrics.WINDOW];
+
+    @BeforeEach
+    public void setUp()
+    {
+        Metrics.reset();
+    }
+
+    @Test
+    public void empty_window()
+    {
+        var summary = Metrics.snapshot(Metric.PHYS_CYCLE, scratch);
+        assertEquals(0, summary.samples());
+        assertEquals(0, summary.max());
+    }
+
+    @Test
+    public void percentiles()
+    {
+        for (int i = 100; i > 0; i--)
+        {
+            Metrics.record(Metric.PHYS_CYCLE, i);
+        }
+        var summary = Metrics.snapshot(Metric.PHYS_CYCLE, scratch);
+        assertEquals(100, summary.samples());
+        assertEquals(50, summary.p50());
+        assertEquals(99, summary.p99());
+        assertEquals(100, summary.max());
+    }
+
+    @Test
+    public void window_keeps_recent_samples()
+    {
+        Metrics.record(Metric.PHYS_EGRESS, 1_000_000);
+        for (int i = 0; i < Metrics.WINDOW; i++)
+        {
+            Metrics.record(Metric.PHYS_EGRESS, 10);
+        }
+        var summary = Metrics.snapshot(Metric.PHYS_EGRESS, scratch);
+        assertEquals(Metrics.WINDOW, summary.samples());
+        assertEquals(10, summary.max());
+    }
+
+    @Test
+    public void metrics_are_independent()
+    {
+        Metrics.record(Metric.PHYS_COMPACT, 5);
+        assertEquals(1, Metrics.snapshot(Metric.PHYS_COMPACT, scratch).samples());
+        assertEquals(0, Metrics.snapshot(Metric.PHYS_EGRESS, scratch).samples());
+    }
+
+    @Test
+    public void counters_accumulate()
+    {
+        Metrics.count(Counter.DROPPED_SUB_STEPS, 1);
+        Metrics.count(Counter.DROPPED_SUB_STEPS, 2);
+        assertEquals(3, Metrics.total(Counter.DROPPED_SUB_STEPS));
+        assertEquals(0, Metrics.total(Counter.SECTORS_LOADED));
+    }
+}
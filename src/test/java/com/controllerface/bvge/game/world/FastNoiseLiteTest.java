@@ -0,0 +1,40 @@
+package com.controllerface.bvge.game.world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FastNoiseLiteTest
+{
+    @Test
+    public void noise_grid_matches_single_samples()
+    {
+        int width = 18;
+        int height = 18;
+        float x_start = -1.5f;
+        float y_start = -17.0f;
+        var grid = new float[width * height];
+
+        for (var fractal_type : FastNoiseLite.FractalType.values())
+        {
+            for (var noise_type : FastNoiseLite.NoiseType.values())
+            {
+                var noise = new FastNoiseLite(1337);
+                noise.SetNoiseType(noise_type);
+                noise.SetFractalType(fractal_type);
+                noise.SetFrequency(0.02f);
+                noise.GetNoiseGrid(grid, x_start, y_start, 1.0f, width, height);
+
+                for (int row = 0; row < height; row++)
+                {
+                    for (int column = 0; column < width; column++)
+                    {
+                        float expected = noise.GetNoise(x_start + column, y_start + row);
+                        assertEquals(expected, grid[row * width + column], 0.0f,
+                            noise_type + "/" + fractal_type + " at " + column + "," + row);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.controllerface.bvge.game.world;
+
+import com.controllerface.bvge.memory.sectors.Sector;
+import com.controllerface.bvge.physics.PhysicsEntityBatch;
+import com.controllerface.bvge.substances.Liquid;
+import com.controllerface.bvge.substances.Solid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectorStoreTest
+{
+    private static PhysicsEntityBatch random_batch(long seed, int scale)
+    {
+        var random = new Random(seed);
+        var batch = new PhysicsEntityBatch();
+        var solids = Solid.values();
+        var liquids = Liquid.values();
+
+        for (int i = 0; i < scale; i++)
+        {
+            var hits = new int[random.nextInt(5)];
+            for (int h = 0; h < hits.length; h++)
+            {
+                hits[h] = random.nextInt();
+            }
+            batch.new_block(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat(),
+                random.nextFloat(), random.nextFloat(), random.nextInt(), random.nextInt(),
+                solids[random.nextInt(solids.length)], hits);
+            batch.new_shard(random.nextBoolean(), random.nextBoolean(), random.nextFloat(), random.nextFloat(),
+                random.nextFloat(), random.nextInt(), random.nextInt(), random.nextFloat(), random.nextFloat(),
+                random.nextFloat(), solids[random.nextInt(solids.length)]);
+            batch.new_liquid(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat(),
+                random.nextFloat(), random.nextFloat(), random.nextInt(), random.nextInt(), random.nextInt(),
+                liquids[random.nextInt(liquids.length)]);
+        }
+
+        // columns are filled directly, the same way decoding fills them
+        var columns = batch.entities;
+        columns.resize(new int[]{ scale, scale * 2, scale * 8, scale * 8, scale, scale * 3 });
+        for (int i = 0; i < columns.entity.length; i++) columns.entity[i] = random.nextFloat();
+        for (int i = 0; i < columns.entity_motion_state.length; i++) columns.entity_motion_state[i] = (short) random.nextInt();
+        for (int i = 0; i < columns.entity_hull_table.length; i++) columns.entity_hull_table[i] = random.nextInt();
+        for (int i = 0; i < columns.hull.length; i++) columns.hull[i] = random.nextFloat();
+        for (int i = 0; i < columns.hull_flag.length; i++) columns.hull_flag[i] = random.nextInt();
+        for (int i = 0; i < columns.point.length; i++) columns.point[i] = random.nextFloat();
+        for (int i = 0; i < columns.point_hit_count.length; i++) columns.point_hit_count[i] = (short) random.nextInt();
+        for (int i = 0; i < columns.edge.length; i++) columns.edge[i] = random.nextInt();
+        for (int i = 0; i < columns.edge_length.length; i++) columns.edge_length[i] = random.nextFloat();
+        for (int i = 0; i < columns.hull_bone.length; i++) columns.hull_bone[i] = random.nextFloat();
+        for (int i = 0; i < columns.entity_bone_parent_id.length; i++) columns.entity_bone_parent_id[i] = random.nextInt();
+        return batch;
+    }
+
+    private static byte[] encode(PhysicsEntityBatch batch)
+    {
+        var buffer = ByteBuffer.allocate(SectorStore.encoded_size(batch));
+        SectorStore.encode(batch, buffer);
+        assertFalse(buffer.hasRemaining(), "encoded data must fill the computed size exactly");
+        return buffer.array();
+    }
+
+    private static void assert_same_batch(PhysicsEntityBatch expected, PhysicsEntityBatch actual)
+    {
+        assertEquals(expected.blocks.size(), actual.blocks.size());
+        for (int i = 0; i < expected.blocks.size(); i++)
+        {
+            var e = expected.blocks.get(i);
+            var a = actual.blocks.get(i);
+            assertEquals(e.x(), a.x());
+            assertEquals(e.y(), a.y());
+            assertEquals(e.size(), a.size());
+            assertEquals(e.mass(), a.mass());
+            assertEquals(e.friction(), a.friction());
+            assertEquals(e.restitution(), a.restitution());
+            assertEquals(e.entity_flags(), a.entity_flags());
+            assertEquals(e.hull_flags(), a.hull_flags());
+            assertEquals(e.material(), a.material());
+            assertArrayEquals(e.hits(), a.hits());
+        }
+        assertEquals(expected.shards, actual.shards);
+        assertEquals(expected.fluids, actual.fluids);
+        assertArrayEquals(expected.entities.counts(), actual.entities.counts());
+
+        // columns hold more than their counts, so they are compared through their encoded form
+        assertArrayEquals(encode(expected), encode(actual));
+    }
+
+    @Test
+    public void encode_decode_round_trip()
+    {
+        var batch = random_batch(42, 7);
+        var decoded = SectorStore.decode(ByteBuffer.wrap(encode(batch)));
+
+        assertNotNull(decoded);
+        assert_same_batch(batch, decoded);
+        assertEquals(batch.entities.entity[5], decoded.entities.entity[5]);
+        assertEquals(batch.entities.point_hit_count[11], decoded.entities.point_hit_count[11]);
+        assertEquals(batch.entities.edge[55], decoded.entities.edge[55]);
+        assertEquals(batch.entities.entity_bone_parent_id[20], decoded.entities.entity_bone_parent_id[20]);
+    }
+
+    @Test
+    public void empty_batch_round_trip()
+    {
+        var batch = new PhysicsEntityBatch();
+        var decoded = SectorStore.decode(ByteBuffer.wrap(encode(batch)));
+
+        assertNotNull(decoded);
+        assert_same_batch(batch, decoded);
+    }
+
+    @Test
+    public void stored_sectors_survive_growth_and_reopening(@TempDir Path directory)
+    {
+        var sector_a = new Sector(0, 0);
+        var sector_b = new Sector(1, 0);
+        var sector_c = new Sector(-1, -1);
+        var small_a = random_batch(1, 2);
+        var large_a = random_batch(2, 40);
+        var small_b = random_batch(3, 3);
+        var small_c = random_batch(4, 1);
+
+        var store = new SectorStore(directory);
+        assertNull(store.load(sector_a));
+        store.save(sector_a, small_a);
+        store.save(sector_b, small_b);
+        store.save(sector_c, small_c);
+        assert_same_batch(small_a, store.load(sector_a));
+
+        // growing a sector moves it, and must leave its neighbours readable
+        store.save(sector_a, large_a);
+        assert_same_batch(large_a, store.load(sector_a));
+        assert_same_batch(small_b, store.load(sector_b));
+        store.close();
+
+        var reopened = new SectorStore(directory);
+        assert_same_batch(large_a, reopened.load(sector_a));
+        assert_same_batch(small_b, reopened.load(sector_b));
+        assert_same_batch(small_c, reopened.load(sector_c));
+        reopened.close();
+    }
+
+    @Test
+    public void freed_extents_are_reused(@TempDir Path directory) throws IOException
+    {
+        var sector_a = new Sector(0, 0);
+        var sector_b = new Sector(1, 0);
+        var sector_c = new Sector(2, 0);
+        var region_file = directory.resolve("r.0.0.bvr");
+
+        var store = new SectorStore(directory);
+        store.save(sector_a, random_batch(1, 4));
+        store.save(sector_b, random_batch(2, 4));
+
+        // a moves to the end of the file, leaving its first extent free
+        var large_a = random_batch(3, 40);
+        store.save(sector_a, large_a);
+        long grown_size = Files.size(region_file);
+
+        // c fits in the space a left behind, so the file does not grow
+        var small_c = random_batch(4, 1);
+        store.save(sector_c, small_c);
+        assertEquals(grown_size, Files.size(region_file));
+
+        // a keeps outgrowing its extent, and the extents it leaves are merged and taken again, so the file stays
+        // smaller than it would be if every extent a left behind were abandoned
+        long abandoned_size = grown_size;
+        PhysicsEntityBatch last_a = large_a;
+        for (int i = 1; i <= 8; i++)
+        {
+            last_a = random_batch(5 + i, 40 + i * 8);
+            int length = SectorStore.encoded_size(last_a);
+            abandoned_size += length + (length >> 2);
+            store.save(sector_a, last_a);
+        }
+        assertTrue(Files.size(region_file) < abandoned_size);
+
+        assert_same_batch(last_a, store.load(sector_a));
+        assert_same_batch(small_c, store.load(sector_c));
+        store.close();
+
+        var reopened = new SectorStore(directory);
+        assert_same_batch(small_c, reopened.load(sector_c));
+        reopened.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DevicePoolTest
+{
+    private final Set<CL_Buffer> live = new HashSet<>();
+    private long next_ptr = 1;
+    private DevicePool pool;
+
+    private final BufferAllocator fake = new BufferAllocator()
+    {
+        @Override
+        public CL_Buffer allocate(long byte_capacity)
+        {
+            var buffer = new CL_Buffer(next_ptr++);
+            live.add(buffer);
+            return buffer;
+        }
+
+        @Override
+        public void free(CL_Buffer buffer, long byte_capacity)
+        {
+            assertTrue(live.remove(buffer));
+        }
+    };
+
+    @BeforeEach
+    public void setUp()
+    {
+        pool = new DevicePool("test", fake);
+    }
+
+    private void trim_window()
+    {
+        for (int i = 0; i < DevicePool.TRIM_INTERVAL; i++)
+        {
+            pool.trim();
+        }
+    }
+
+    @Test
+    public void size_classes()
+    {
+        assertEquals(DevicePool.MIN_CLASS_BYTES, pool.capacity_for(1));
+        assertEquals(DevicePool.MIN_CLASS_BYTES, pool.capacity_for(DevicePool.MIN_CLASS_BYTES));
+        assertEquals(5120, pool.capacity_for(4097));
+        assertEquals(8192, pool.capacity_for(8192));
+        assertEquals(10240, pool.capacity_for(8193));
+        assertEquals(14336, pool.capacity_for(14000));
+    }
+
+    @Test
+    public void freed_buffers_are_reused()
+    {
+        var a = pool.allocate(10_000);
+        pool.free(a, pool.capacity_for(10_000));
+        var b = pool.allocate(9_000);
+        assertSame(a, b);
+        assertEquals(1, pool.hits());
+        assertEquals(1, pool.misses());
+        assertEquals(0.5, pool.hit_rate());
+    }
+
+    @Test
+    public void different_classes_are_not_shared()
+    {
+        var a = pool.allocate(10_000);
+        pool.free(a, pool.capacity_for(10_000));
+        var b = pool.allocate(100_000);
+        assertNotSame(a, b);
+        assertEquals(0, pool.hits());
+    }
+
+    @Test
+    public void trim_keeps_window_peak()
+    {
+        var a = pool.allocate(8192);
+        var b = pool.allocate(8192);
+        pool.free(a, 8192);
+        pool.free(b, 8192);
+        trim_window();
+        assertEquals(16384, pool.free_bytes());
+        assertEquals(2, live.size());
+    }
+
+    @Test
+    public void trim_releases_memory_unused_for_a_window()
+    {
+        var a = pool.allocate(8192);
+        var b = pool.allocate(8192);
+        pool.free(a, 8192);
+        pool.free(b, 8192);
+        trim_window();
+        var c = pool.allocate(8192);
+        trim_window();
+        assertEquals(0, pool.free_bytes());
+        assertEquals(8192, pool.in_use_bytes());
+        assertEquals(1, live.size());
+        assertTrue(live.contains(c));
+    }
+
+    @Test
+    public void release_frees_retained_buffers()
+    {
+        var a = pool.allocate(8192);
+        pool.free(a, 8192);
+        pool.release();
+        assertTrue(live.isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GrowthPolicyTest
+{
+    @Test
+    public void linear_grows_in_whole_steps()
+    {
+        var policy = GrowthPolicy.linear(100);
+        assertEquals(1100, policy.grow(1000, 1001));
+        assertEquals(1300, policy.grow(1000, 1250));
+        assertEquals(1300, policy.grow(1000, 1300));
+    }
+
+    @Test
+    public void geometric_doubles_small_buffers()
+    {
+        var policy = GrowthPolicy.geometric(2.0, 1_000_000);
+        assertEquals(2002, policy.grow(1000, 1001));
+        assertEquals(10_000, policy.grow(1000, 5000));
+    }
+
+    @Test
+    public void geometric_step_is_capped()
+    {
+        var policy = GrowthPolicy.geometric(2.0, 500);
+        assertEquals(1501, policy.grow(1000, 1001));
+        assertEquals(100_500, policy.grow(50_000, 100_000));
+    }
+
+    @Test
+    public void default_step_is_limited_by_item_size()
+    {
+        var policy = GrowthPolicy.for_item_size(64);
+        long max_step = GrowthPolicy.MAX_GROWTH_BYTES / 64;
+        assertEquals(2000, policy.grow(1000, 1000));
+        assertEquals(10 * max_step + max_step, policy.grow(max_step, 10 * max_step));
+    }
+
+    @Test
+    public void shrink_only_when_mostly_empty()
+    {
+        var policy = GrowthPolicy.geometric(2.0, 1_000_000);
+        assertEquals(1000, policy.shrink(1000, 250, 10));
+        assertEquals(1000, policy.shrink(1000, 600, 10));
+        assertEquals(400, policy.shrink(1000, 200, 10));
+    }
+
+    @Test
+    public void shrink_respects_minimum()
+    {
+        var policy = GrowthPolicy.doubling();
+        assertEquals(500, policy.shrink(10_000, 0, 500));
+        assertEquals(500, policy.shrink(10_000, 100, 500));
+    }
+}
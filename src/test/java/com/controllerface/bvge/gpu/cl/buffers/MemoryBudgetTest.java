@@ -0,0 +1,51 @@
+package com.controllerface.bvge.gpu.cl.buffers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MemoryBudgetTest
+{
+    @Test
+    public void tracks_used_and_peak()
+    {
+        var budget = new MemoryBudget("test");
+        budget.allocated(1000);
+        budget.allocated(500);
+        budget.resized(1000, 4000);
+        assertEquals(4500, budget.used());
+        budget.released(4000);
+        assertEquals(500, budget.used());
+        assertEquals(4500, budget.peak());
+    }
+
+    @Test
+    public void unlimited_budget_grants_request()
+    {
+        var budget = new MemoryBudget("test");
+        budget.allocated(1000);
+        assertEquals(8000, budget.fit(1000, 2000, 8000));
+    }
+
+    @Test
+    public void growth_is_trimmed_to_fit()
+    {
+        var budget = new MemoryBudget("test");
+        budget.set_limit(5000);
+        budget.allocated(1000);
+        budget.allocated(2000);
+        // the 1000 byte buffer grows, 2000 bytes belong to another buffer, leaving 3000 for this one
+        assertEquals(3000, budget.fit(1000, 2500, 8000));
+        assertEquals(2000, budget.fit(1000, 2000, 2000));
+    }
+
+    @Test
+    public void required_growth_over_budget_fails()
+    {
+        var budget = new MemoryBudget("test");
+        budget.set_limit(5000);
+        budget.allocated(4000);
+        assertThrows(RuntimeException.class, () -> budget.fit(0, 2000, 2000));
+    }
+}
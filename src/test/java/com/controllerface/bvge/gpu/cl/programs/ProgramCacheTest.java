@@ -0,0 +1,40 @@
+package com.controllerface.bvge.gpu.cl.programs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramCacheTest
+{
+    private static final String OPTIONS = "-cl-fast-relaxed-math";
+    private static final String DEVICE = "vendor|device|OpenCL 3.0|1.0";
+
+    @Test
+    public void key_is_stable_for_identical_inputs()
+    {
+        var a = ProgramCache.key(List.of("kernel void a() {}", "kernel void b() {}"), OPTIONS, DEVICE);
+        var b = ProgramCache.key(List.of("kernel void a() {}", "kernel void b() {}"), OPTIONS, DEVICE);
+        assertEquals(a, b);
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    public void key_changes_with_sources_options_and_device()
+    {
+        var src = List.of("kernel void a() {}");
+        var key = ProgramCache.key(src, OPTIONS, DEVICE);
+        assertNotEquals(key, ProgramCache.key(List.of("kernel void b() {}"), OPTIONS, DEVICE));
+        assertNotEquals(key, ProgramCache.key(src, OPTIONS + " -cl-mad-enable", DEVICE));
+        assertNotEquals(key, ProgramCache.key(src, OPTIONS, "vendor|device|OpenCL 3.0|1.1"));
+    }
+
+    @Test
+    public void key_depends_on_source_boundaries()
+    {
+        var split_early = ProgramCache.key(List.of("ab", "cd"), OPTIONS, DEVICE);
+        var split_late = ProgramCache.key(List.of("abc", "d"), OPTIONS, DEVICE);
+        assertNotEquals(split_early, split_late);
+    }
+}
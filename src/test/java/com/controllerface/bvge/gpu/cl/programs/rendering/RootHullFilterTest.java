@@ -0,0 +1,168 @@
+package com.controllerface.bvge.gpu.cl.programs.rendering;
+
+import com.controllerface.bvge.game.Constants.EntityFlags;
+import com.controllerface.bvge.game.Constants.HullFlags;
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import com.controllerface.bvge.gpu.cl.kernels.rendering.RootHullCount_k;
+import com.controllerface.bvge.gpu.cl.kernels.rendering.RootHullFilter_k;
+import com.controllerface.bvge.gpu.cl.programs.GPUProgram;
+import com.controllerface.bvge.memory.sectors.CompactionPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+import static com.controllerface.bvge.gpu.GPU.CL.arg_long;
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the root hull filter leaves out liquid particles that are deleted but not yet compacted, on whatever
+ * Open CL device is available. The tests are skipped when no device can be found.
+ */
+class RootHullFilterTest
+{
+    private static final int LIQUID_MODEL = 3;
+    private static final int OTHER_MODEL  = 5;
+
+    private static boolean available = false;
+
+    @BeforeAll
+    public static void start_compute()
+    {
+        try
+        {
+            GPU.startup_compute();
+            available = true;
+        }
+        catch (Throwable e)
+        {
+            available = false;
+        }
+    }
+
+    @AfterAll
+    public static void stop_compute()
+    {
+        if (available) GPU.shutdown();
+    }
+
+    @BeforeEach
+    public void require_device()
+    {
+        assumeTrue(available, "no Open CL device available");
+    }
+
+    private static CL_Buffer upload(int[] values)
+    {
+        var buffer = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * values.length);
+        var data = MemoryUtil.memAlloc(cl_int.size() * values.length);
+        try
+        {
+            data.asIntBuffer().put(values);
+            GPU.CL.write_buffer(GPU.compute.physics_queue, buffer, data);
+            GPU.compute.physics_queue.finish();
+        }
+        finally
+        {
+            MemoryUtil.memFree(data);
+        }
+        return buffer;
+    }
+
+    private static int[] download(CL_Buffer buffer, int length)
+    {
+        var values = new int[length];
+        GPU.CL.map_read_int_buffer(GPU.compute.physics_queue, buffer, cl_int.size(), length, values);
+        return values;
+    }
+
+    /**
+     * Runs the count and filter kernels over the given entities, the same way the liquid renderer does, and
+     * returns the filtered root hulls in ascending order.
+     */
+    private static int[] filter_liquids(int[] root_hulls, int[] model_ids, int[] entity_flags, int[] hull_flags)
+    {
+        GPUProgram program = new RootHullFilter().init();
+        var b_root_hulls   = upload(root_hulls);
+        var b_model_ids    = upload(model_ids);
+        var b_entity_flags = upload(entity_flags);
+        var b_hull_flags   = upload(hull_flags);
+        var b_hulls_out    = upload(new int[root_hulls.length]);
+        var b_counter      = upload(new int[1]);
+        int entity_count   = root_hulls.length;
+        int entity_size    = GPU.compute.calculate_preferred_global_size(entity_count);
+
+        new RootHullCount_k(GPU.compute.physics_queue, program)
+            .buf_arg(RootHullCount_k.Args.entity_root_hulls, b_root_hulls)
+            .buf_arg(RootHullCount_k.Args.entity_model_indices, b_model_ids)
+            .buf_arg(RootHullCount_k.Args.entity_flags, b_entity_flags)
+            .buf_arg(RootHullCount_k.Args.hull_flags, b_hull_flags)
+            .buf_arg(RootHullCount_k.Args.counter, b_counter)
+            .set_arg(RootHullCount_k.Args.model_id, LIQUID_MODEL)
+            .set_arg(RootHullCount_k.Args.max_entity, entity_count)
+            .call(arg_long(entity_size), GPU.compute.preferred_work_size);
+        GPU.compute.physics_queue.finish();
+        int count = download(b_counter, 1)[0];
+
+        GPU.CL.zero_buffer(GPU.compute.physics_queue, b_counter, cl_int.size());
+        new RootHullFilter_k(GPU.compute.physics_queue, program)
+            .buf_arg(RootHullFilter_k.Args.entity_root_hulls, b_root_hulls)
+            .buf_arg(RootHullFilter_k.Args.entity_model_indices, b_model_ids)
+            .buf_arg(RootHullFilter_k.Args.entity_flags, b_entity_flags)
+            .buf_arg(RootHullFilter_k.Args.hull_flags, b_hull_flags)
+            .buf_arg(RootHullFilter_k.Args.hulls_out, b_hulls_out)
+            .buf_arg(RootHullFilter_k.Args.counter, b_counter)
+            .set_arg(RootHullFilter_k.Args.model_id, LIQUID_MODEL)
+            .set_arg(RootHullFilter_k.Args.max_entity, entity_count)
+            .call(arg_long(entity_size), GPU.compute.preferred_work_size);
+        GPU.compute.physics_queue.finish();
+
+        // the count and the filtered list must agree, or the renderer reads past the end of the list
+        assertEquals(count, download(b_counter, 1)[0]);
+        var filtered = Arrays.copyOf(download(b_hulls_out, root_hulls.length), count);
+        Arrays.sort(filtered);
+
+        b_root_hulls.release();
+        b_model_ids.release();
+        b_entity_flags.release();
+        b_hull_flags.release();
+        b_hulls_out.release();
+        b_counter.release();
+        program.release();
+        return filtered;
+    }
+
+    @Test
+    public void deleted_liquid_is_not_returned_before_lazy_compaction()
+    {
+        // with lazy compaction, a single deleted particle stays in the buffers as a tombstone
+        var policy = new CompactionPolicy(1_000, 0.1f, 120);
+        policy.record_tombstones(1);
+        assertFalse(policy.next_frame(4));
+
+        int deleted = EntityFlags.DELETED.bits;
+        int[] root_hulls   = { 10, 11, 12, 13 };
+        int[] model_ids    = { LIQUID_MODEL, LIQUID_MODEL, OTHER_MODEL, LIQUID_MODEL };
+        int[] entity_flags = { 0, deleted, 0, 0 };
+        int[] hull_flags   = new int[14];
+
+        assertArrayEquals(new int[]{ 10, 13 }, filter_liquids(root_hulls, model_ids, entity_flags, hull_flags));
+    }
+
+    @Test
+    public void out_of_bounds_liquid_is_not_returned()
+    {
+        int[] root_hulls   = { 0, 1, 2 };
+        int[] model_ids    = { LIQUID_MODEL, LIQUID_MODEL, LIQUID_MODEL };
+        int[] entity_flags = { 0, 0, 0 };
+        int[] hull_flags   = { 0, 0, HullFlags.OUT_OF_BOUNDS.bits };
+
+        assertArrayEquals(new int[]{ 0, 1 }, filter_liquids(root_hulls, model_ids, entity_flags, hull_flags));
+    }
+}
@@ -0,0 +1,210 @@
+package com.controllerface.bvge.gpu.cl.programs.scan;
+
+import com.controllerface.bvge.gpu.GPU;
+import com.controllerface.bvge.gpu.cl.buffers.CL_Buffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Random;
+
+import static com.controllerface.bvge.gpu.cl.buffers.CL_DataTypes.cl_int;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the look-back scans against a host scan, on whatever Open CL device is available, including CPU
+ * runtimes. The tests are skipped when no device can be found. Timing against the multi-pass scans is measured by
+ * GPUScanBenchmark in the JMH source set.
+ */
+class GPUScanLookBackTest
+{
+    private static boolean available = false;
+
+    @BeforeAll
+    public static void start_compute()
+    {
+        try
+        {
+            GPU.startup_compute();
+            available = true;
+        }
+        catch (Throwable e)
+        {
+            available = false;
+        }
+    }
+
+    @AfterAll
+    public static void stop_compute()
+    {
+        if (available) GPU.shutdown();
+    }
+
+    @BeforeEach
+    public void require_device()
+    {
+        assumeTrue(available, "no Open CL device available");
+    }
+
+    @AfterEach
+    public void restore_mode()
+    {
+        GPUScanLookBack.select_mode(GPUScanLookBack.Mode.MULTI_PASS);
+    }
+
+    private int[] sizes()
+    {
+        int block = (int) GPU.compute.max_scan_block_size;
+        return new int[]{ 1, 7, block - 1, block, block + 1, block * 3 + 5, block * 64, (1 << 20) + 3 };
+    }
+
+    private static int[] random_input(int length, long seed)
+    {
+        var random = new Random(seed);
+        var input = new int[length];
+        for (int i = 0; i < length; i++)
+        {
+            input[i] = random.nextInt(16);
+        }
+        return input;
+    }
+
+    private static int[] host_scan(int[] input, int width)
+    {
+        var output = new int[input.length];
+        var sum = new int[width];
+        for (int i = 0; i < input.length; i += width)
+        {
+            for (int c = 0; c < width; c++)
+            {
+                output[i + c] = sum[c];
+                sum[c] += input[i + c];
+            }
+        }
+        return output;
+    }
+
+    private static CL_Buffer upload(int[] values)
+    {
+        var buffer = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * values.length);
+        var data = MemoryUtil.memAlloc(cl_int.size() * values.length);
+        try
+        {
+            data.asIntBuffer().put(values);
+            GPU.CL.write_buffer(GPU.compute.physics_queue, buffer, data);
+            GPU.compute.physics_queue.finish();
+        }
+        finally
+        {
+            MemoryUtil.memFree(data);
+        }
+        return buffer;
+    }
+
+    private static int[] download(CL_Buffer buffer, int length)
+    {
+        var values = new int[length];
+        GPU.CL.map_read_int_buffer(GPU.compute.physics_queue, buffer, cl_int.size(), length, values);
+        return values;
+    }
+
+    private static void scan(GPUScanLookBack.Element element, long data_ptr, int n)
+    {
+        switch (element)
+        {
+            case INT ->
+            {
+                var scan = new GPUScanScalarInt(GPU.compute.physics_queue);
+                scan.scan_int(data_ptr, n);
+                GPU.compute.physics_queue.finish();
+                scan.release();
+            }
+            case INT2 ->
+            {
+                var scan = new GPUScanVectorInt2(GPU.compute.physics_queue);
+                scan.scan_int2(data_ptr, n);
+                GPU.compute.physics_queue.finish();
+                scan.release();
+            }
+            case INT4 ->
+            {
+                var scan = new GPUScanVectorInt4(GPU.compute.physics_queue);
+                scan.scan_int4(data_ptr, n);
+                GPU.compute.physics_queue.finish();
+                scan.release();
+            }
+        }
+    }
+
+    private void check_scan(GPUScanLookBack.Element element, int width)
+    {
+        GPUScanLookBack.select_mode(GPUScanLookBack.Mode.LOOK_BACK);
+        for (int n : sizes())
+        {
+            var input = random_input(n * width, n);
+            var buffer = upload(input);
+            scan(element, buffer.ptr(), n);
+            assertArrayEquals(host_scan(input, width), download(buffer, n * width), element + " scan of " + n);
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void scan_int_matches_host()
+    {
+        check_scan(GPUScanLookBack.Element.INT, 1);
+    }
+
+    @Test
+    public void scan_int2_matches_host()
+    {
+        check_scan(GPUScanLookBack.Element.INT2, 2);
+    }
+
+    @Test
+    public void scan_int4_matches_host()
+    {
+        check_scan(GPUScanLookBack.Element.INT4, 4);
+    }
+
+    @Test
+    public void scan_int_out_leaves_input_unchanged()
+    {
+        GPUScanLookBack.select_mode(GPUScanLookBack.Mode.LOOK_BACK);
+        int n = (int) GPU.compute.max_scan_block_size * 5 + 1;
+        var input = random_input(n, 42);
+        var in_buffer = upload(input);
+        var out_buffer = GPU.CL.new_buffer(GPU.compute.context, (long) cl_int.size() * n);
+
+        var scan = new GPUScanScalarIntOut(GPU.compute.physics_queue);
+        scan.scan_int_out(in_buffer.ptr(), out_buffer.ptr(), n);
+        GPU.compute.physics_queue.finish();
+        scan.release();
+
+        assertArrayEquals(host_scan(input, 1), download(out_buffer, n));
+        assertArrayEquals(input, download(in_buffer, n));
+        in_buffer.release();
+        out_buffer.release();
+    }
+
+    @Test
+    public void scan_is_repeatable_on_one_instance()
+    {
+        GPUScanLookBack.select_mode(GPUScanLookBack.Mode.LOOK_BACK);
+        var scan = new GPUScanScalarInt(GPU.compute.physics_queue);
+        for (int n : sizes())
+        {
+            var input = random_input(n, n + 1);
+            var buffer = upload(input);
+            scan.scan_int(buffer.ptr(), n);
+            GPU.compute.physics_queue.finish();
+            assertArrayEquals(host_scan(input, 1), download(buffer, n), "scan of " + n);
+            buffer.release();
+        }
+        scan.release();
+    }
+}
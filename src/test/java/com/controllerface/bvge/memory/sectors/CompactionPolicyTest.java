@@ -0,0 +1,67 @@
+package com.controllerface.bvge.memory.sectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactionPolicyTest
+{
+    @Test
+    public void no_compaction_without_tombstones()
+    {
+        var policy = new CompactionPolicy(0, 0.0f, 1);
+        for (int i = 0; i < 10; i++)
+        {
+            assertFalse(policy.next_frame(100));
+        }
+    }
+
+    @Test
+    public void eager_compacts_on_any_tombstone()
+    {
+        var policy = CompactionPolicy.eager();
+        assertFalse(policy.next_frame(100));
+        policy.record_tombstones(1);
+        assertTrue(policy.next_frame(100));
+        assertEquals(0, policy.tombstones());
+        assertFalse(policy.next_frame(100));
+    }
+
+    @Test
+    public void compacts_at_limit()
+    {
+        var policy = new CompactionPolicy(10, 0.0f, 0);
+        policy.record_tombstones(9);
+        assertFalse(policy.next_frame(1000));
+        policy.record_tombstones(1);
+        assertTrue(policy.next_frame(1000));
+    }
+
+    @Test
+    public void compacts_at_ratio()
+    {
+        var policy = new CompactionPolicy(0, 0.1f, 0);
+        policy.record_tombstones(9);
+        assertFalse(policy.next_frame(100));
+        policy.record_tombstones(1);
+        assertTrue(policy.next_frame(100));
+    }
+
+    @Test
+    public void compacts_when_overdue()
+    {
+        var policy = new CompactionPolicy(0, 0.5f, 3);
+        policy.record_tombstones(1);
+        assertFalse(policy.next_frame(100));
+        assertFalse(policy.next_frame(100));
+        assertTrue(policy.next_frame(100));
+    }
+
+    @Test
+    public void rejects_invalid_policies()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new CompactionPolicy(0, 0.0f, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CompactionPolicy(-1, 0.0f, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CompactionPolicy(1, -0.5f, 1));
+    }
+}
@@ -0,0 +1,75 @@
+package com.controllerface.bvge.memory.sectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MortonOrderTest
+{
+    private static float[] positions(float... xy)
+    {
+        var positions = new float[xy.length * 2];
+        for (int i = 0; i < xy.length / 2; i++)
+        {
+            positions[i * 4]     = xy[i * 2];
+            positions[i * 4 + 1] = xy[i * 2 + 1];
+        }
+        return positions;
+    }
+
+    @Test
+    public void interleave_alternates_axis_bits()
+    {
+        assertEquals(0b00, MortonOrder.interleave(0, 0));
+        assertEquals(0b01, MortonOrder.interleave(1, 0));
+        assertEquals(0b10, MortonOrder.interleave(0, 1));
+        assertEquals(0b1111, MortonOrder.interleave(3, 3));
+        assertEquals(0x3FFFFFFF, MortonOrder.interleave(0x7FFF, 0x7FFF));
+    }
+
+    @Test
+    public void sorts_neighbours_together()
+    {
+        // two clusters, interleaved in storage order
+        var positions = positions(
+            0, 0,
+            100, 100,
+            1, 0,
+            101, 100,
+            0, 1,
+            100, 101);
+
+        int[] order = new int[6];
+        assertTrue(new MortonOrder().sort(positions, 0, 6, order));
+
+        assertArrayEquals(new int[]{ 0, 2, 4, 1, 3, 5 }, order);
+    }
+
+    @Test
+    public void pinned_entities_keep_their_positions()
+    {
+        var positions = positions(
+            500, 500,
+            100, 100,
+            1, 1,
+            0, 0);
+
+        int[] order = new int[4];
+        assertTrue(new MortonOrder().sort(positions, 2, 4, order));
+        assertArrayEquals(new int[]{ 0, 1, 3, 2 }, order);
+    }
+
+    @Test
+    public void ordered_input_is_reported_unchanged()
+    {
+        var positions = positions(
+            0, 0,
+            1, 0,
+            0, 1,
+            1, 1);
+
+        int[] order = new int[4];
+        assertFalse(new MortonOrder().sort(positions, 0, 4, order));
+        assertArrayEquals(new int[]{ 0, 1, 2, 3 }, order);
+    }
+}
@@ -0,0 +1,49 @@
+package com.controllerface.bvge.memory.sectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderScheduleTest
+{
+    @Test
+    public void disabled_schedule_never_fires()
+    {
+        var schedule = ReorderSchedule.disabled();
+        schedule.record_churn(1_000_000);
+        assertFalse(schedule.enabled());
+        assertFalse(schedule.next_frame(10));
+    }
+
+    @Test
+    public void interval_fires_every_n_frames()
+    {
+        var schedule = new ReorderSchedule(3, 0.0f);
+        assertFalse(schedule.next_frame(100));
+        assertFalse(schedule.next_frame(100));
+        assertTrue(schedule.next_frame(100));
+        assertFalse(schedule.next_frame(100));
+        assertFalse(schedule.next_frame(100));
+        assertTrue(schedule.next_frame(100));
+    }
+
+    @Test
+    public void churn_fires_once_threshold_is_reached()
+    {
+        var schedule = new ReorderSchedule(0, 0.25f);
+        schedule.record_churn(20);
+        assertFalse(schedule.next_frame(100));
+        schedule.record_churn(5);
+        assertTrue(schedule.next_frame(100));
+
+        // churn starts over after a reorder
+        assertFalse(schedule.next_frame(100));
+    }
+
+    @Test
+    public void invalid_configuration_is_rejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ReorderSchedule(-1, 0.0f));
+        assertThrows(IllegalArgumentException.class, () -> new ReorderSchedule(0, -0.5f));
+    }
+}
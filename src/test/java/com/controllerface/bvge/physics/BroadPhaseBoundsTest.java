@@ -0,0 +1,137 @@
+package com.controllerface.bvge.physics;
+
+import org.junit.jupiter.api.Test;
+
+import static com.controllerface.bvge.physics.BroadPhaseBounds.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadPhaseBoundsTest
+{
+    private static BroadPhaseBounds bounded()
+    {
+        return new BroadPhaseBounds(Mode.BOUNDED, 2.0f, 16);
+    }
+
+    @Test
+    public void exact_mode_never_bounds()
+    {
+        var bounds = new BroadPhaseBounds(Mode.EXACT, 2.0f, 16);
+        bounds.observe(BANK, 100);
+        bounds.end_frame(null);
+        assertFalse(bounds.bounded());
+        assertEquals(0, bounds.bound(BANK));
+    }
+
+    @Test
+    public void first_frame_is_exact_then_bounded_from_observed_counts()
+    {
+        var bounds = bounded();
+        assertFalse(bounds.bounded());
+
+        bounds.observe(BANK, 100);
+        bounds.observe(BANK, 40);
+        bounds.observe(MATCH, 5);
+        bounds.end_frame(null);
+
+        assertTrue(bounds.bounded());
+        assertEquals(200, bounds.bound(BANK));
+        assertEquals(16, bounds.bound(MATCH));
+        assertEquals(16, bounds.bound(CANDIDATE));
+    }
+
+    @Test
+    public void bounded_frame_uses_device_peaks()
+    {
+        var bounds = bounded();
+        bounds.observe(BANK, 100);
+        bounds.end_frame(null);
+
+        bounds.end_frame(new int[]{ 0, 150, 30, 10 });
+
+        assertTrue(bounds.bounded());
+        assertFalse(bounds.overflowed());
+        assertEquals(300, bounds.bound(BANK));
+        assertEquals(60, bounds.bound(MATCH));
+        assertEquals(20, bounds.bound(CANDIDATE));
+    }
+
+    @Test
+    public void overflow_runs_one_exact_frame()
+    {
+        var bounds = bounded();
+        bounds.observe(MATCH, 10);
+        bounds.end_frame(null);
+
+        bounds.end_frame(new int[]{ 1 << MATCH, 0, 50, 0 });
+        assertTrue(bounds.overflowed());
+        assertFalse(bounds.bounded());
+
+        bounds.observe(MATCH, 70);
+        bounds.end_frame(null);
+        assertFalse(bounds.overflowed());
+        assertTrue(bounds.bounded());
+        assertEquals(140, bounds.bound(MATCH));
+    }
+
+    @Test
+    public void new_hulls_run_one_exact_frame()
+    {
+        var bounds = bounded();
+        bounds.begin_frame(10, 0);
+        bounds.observe(BANK, 100);
+        bounds.end_frame(null);
+
+        bounds.begin_frame(10, 0);
+        assertTrue(bounds.bounded());
+        bounds.end_frame(new int[]{ 0, 100, 0, 0 });
+
+        bounds.begin_frame(12, 0);
+        assertFalse(bounds.bounded());
+        bounds.observe(BANK, 300);
+        bounds.end_frame(null);
+        assertEquals(600, bounds.bound(BANK));
+
+        // fewer hulls fit inside the existing bounds
+        bounds.begin_frame(8, 0);
+        assertTrue(bounds.bounded());
+    }
+
+    @Test
+    public void layout_changes_run_one_exact_frame()
+    {
+        var bounds = bounded();
+        bounds.begin_frame(10, 0);
+        bounds.observe(BANK, 100);
+        bounds.end_frame(null);
+
+        bounds.begin_frame(10, 1);
+        assertFalse(bounds.bounded());
+        bounds.observe(BANK, 100);
+        bounds.end_frame(null);
+
+        bounds.begin_frame(10, 1);
+        assertTrue(bounds.bounded());
+    }
+
+    @Test
+    public void bounds_shrink_only_when_well_below_peak()
+    {
+        var bounds = bounded();
+        bounds.observe(BANK, 1000);
+        bounds.end_frame(null);
+        assertEquals(2000, bounds.bound(BANK));
+
+        bounds.end_frame(new int[]{ 0, 600, 0, 0 });
+        assertEquals(2000, bounds.bound(BANK));
+
+        bounds.end_frame(new int[]{ 0, 400, 0, 0 });
+        assertEquals(800, bounds.bound(BANK));
+    }
+
+    @Test
+    public void invalid_configuration_is_rejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new BroadPhaseBounds(Mode.BOUNDED, 0.5f, 16));
+        assertThrows(IllegalArgumentException.class, () -> new BroadPhaseBounds(Mode.BOUNDED, 2.0f, 0));
+    }
+}
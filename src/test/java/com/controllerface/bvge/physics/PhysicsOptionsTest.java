@@ -0,0 +1,46 @@
+package com.controllerface.bvge.physics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhysicsOptionsTest
+{
+    private static PhysicsOptions all_features()
+    {
+        return PhysicsOptions.DEFAULTS
+            .with_sub_steps(SubStepScheduler.Mode.ADAPTIVE)
+            .with_broad_phase(BroadPhaseBounds.Mode.BOUNDED)
+            .with_static_keys(StaticKeyLayer.Mode.CACHED)
+            .with_sleep(BodySleep.Mode.SLEEP_AT_REST)
+            .with_ccd(ContinuousCollision.Mode.SWEPT)
+            .with_contacts(ContactCache.Mode.WARM)
+            .with_constraints(EdgeColoring.Mode.PER_EDGE)
+            .with_warm_edge_steps(8);
+    }
+
+    @Test
+    public void gpu_backend_keeps_selected_features()
+    {
+        var options = all_features();
+        assertEquals(options, options.resolve());
+        assertEquals(PhysicsBackend.GPU, options.resolve().backend());
+    }
+
+    @Test
+    public void cpu_backend_resets_features_to_defaults()
+    {
+        var options = all_features().with_backend(PhysicsBackend.CPU).resolve();
+        assertEquals(PhysicsOptions.DEFAULTS.with_backend(PhysicsBackend.CPU), options);
+    }
+
+    @Test
+    public void each_option_is_set_independently()
+    {
+        var options = PhysicsOptions.DEFAULTS.with_ccd(ContinuousCollision.Mode.SWEPT);
+        assertEquals(ContinuousCollision.Mode.SWEPT, options.ccd());
+        assertEquals(PhysicsOptions.DEFAULTS.contacts(), options.contacts());
+        assertEquals(PhysicsOptions.DEFAULTS.sub_steps(), options.sub_steps());
+        assertEquals(PhysicsOptions.DEFAULTS.warm_edge_steps(), options.warm_edge_steps());
+    }
+}
@@ -0,0 +1,84 @@
+package com.controllerface.bvge.physics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubStepSchedulerTest
+{
+    private static final float TICK_RATE = 1.0f / 60.0f;
+    private static final long BUDGET = 8_000_000L;
+
+    private static SubStepScheduler adaptive()
+    {
+        return new SubStepScheduler(SubStepScheduler.Mode.ADAPTIVE, TICK_RATE,
+            6, 3, 12,
+            16, 6, 16,
+            BUDGET);
+    }
+
+    @Test
+    public void fixed_mode_never_changes()
+    {
+        var scheduler = new SubStepScheduler(SubStepScheduler.Mode.FIXED, TICK_RATE,
+            6, 3, 12,
+            16, 6, 16,
+            BUDGET);
+        scheduler.update(50_000_000L, 6, 100.0f);
+        assertEquals(6, scheduler.sub_steps());
+        assertEquals(16, scheduler.edge_steps());
+        assertFalse(scheduler.budget_limited());
+    }
+
+    @Test
+    public void calm_scene_uses_minimum_schedule()
+    {
+        var scheduler = adaptive();
+        scheduler.update(1_000_000L, 6, 0.0f);
+        assertEquals(3, scheduler.sub_steps());
+        assertEquals(6, scheduler.edge_steps());
+        assertEquals(TICK_RATE / 3, scheduler.time_step());
+    }
+
+    @Test
+    public void fast_points_increase_sub_steps()
+    {
+        var scheduler = adaptive();
+        // 10 units per sub-step at 6 sub-steps per tick is 3600 units/s
+        scheduler.update(1_000_000L, 6, 10.0f);
+        assertEquals(12, scheduler.sub_steps());
+        assertEquals(16, scheduler.edge_steps());
+        assertFalse(scheduler.budget_limited());
+    }
+
+    @Test
+    public void over_budget_reduces_iterations_before_sub_steps()
+    {
+        var scheduler = adaptive();
+        // 1 ms per sub-step, so 12 full sub-steps would be 12 ms
+        scheduler.update(6_000_000L, 6, 10.0f);
+        assertTrue(scheduler.budget_limited());
+        assertTrue(scheduler.estimate_cost(scheduler.sub_steps(), scheduler.edge_steps()) <= BUDGET);
+        assertEquals(6, scheduler.edge_steps());
+        assertTrue(scheduler.sub_steps() < 12);
+    }
+
+    @Test
+    public void quality_floor_is_kept_over_budget()
+    {
+        var scheduler = adaptive();
+        scheduler.update(600_000_000L, 6, 10.0f);
+        assertTrue(scheduler.budget_limited());
+        assertEquals(3, scheduler.sub_steps());
+        assertEquals(6, scheduler.edge_steps());
+    }
+
+    @Test
+    public void invalid_ranges_are_rejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new SubStepScheduler(SubStepScheduler.Mode.ADAPTIVE,
+            TICK_RATE, 2, 3, 12, 16, 6, 16, BUDGET));
+        assertThrows(IllegalArgumentException.class, () -> new SubStepScheduler(SubStepScheduler.Mode.ADAPTIVE,
+            TICK_RATE, 6, 3, 12, 16, 20, 16, BUDGET));
+    }
+}
@@ -0,0 +1,263 @@
+package com.controllerface.bvge.physics.cpu;
+
+import com.controllerface.bvge.physics.UniformGrid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static com.controllerface.bvge.physics.cpu.CPUConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CPUPhysicsBackendTest
+{
+    private static final float TIME_STEP = 1.0f / 60.0f / 6.0f;
+    private static final float GRAVITY_Y = -9.8f * 5 * 60.0f;
+
+    private CPUPhysicsState state;
+    private CPUPhysicsBackend backend;
+
+    @BeforeEach
+    public void setUp()
+    {
+        var uniform_grid = new UniformGrid(1920, 1080);
+        uniform_grid.updateOrigin(0, 0, 0, 0);
+        uniform_grid.update_sector_metrics(Set.of(), 0, 0, 2000, 2000);
+        state = new CPUPhysicsState();
+        backend = new CPUPhysicsBackend(state, uniform_grid, TIME_STEP, 0, GRAVITY_Y, .990f);
+    }
+
+    /**
+     * Sets up one circle per position, each circle being a single point hull owned by its own entity.
+     */
+    private void add_circles(float radius, float... positions)
+    {
+        int count = positions.length / 2;
+        state.resize(count, 0, count, count);
+        for (int i = 0; i < count; i++)
+        {
+            float x = positions[i * 2];
+            float y = positions[i * 2 + 1];
+            state.points[i * 4]     = x;
+            state.points[i * 4 + 1] = y;
+            state.points[i * 4 + 2] = x;
+            state.points[i * 4 + 3] = y;
+            state.point_hull_indices[i] = i;
+
+            state.hulls[i * 4]     = x;
+            state.hulls[i * 4 + 1] = y;
+            state.hull_scales[i * 2]     = 1.0f;
+            state.hull_scales[i * 2 + 1] = radius;
+            state.hull_point_tables[i * 2]     = i;
+            state.hull_point_tables[i * 2 + 1] = i;
+            state.hull_edge_tables[i * 2]     = 0;
+            state.hull_edge_tables[i * 2 + 1] = -1;
+            state.hull_flags[i] = IS_CIRCLE;
+            state.hull_entity_ids[i] = i;
+
+            state.entities[i * 4]     = x;
+            state.entities[i * 4 + 1] = y;
+            state.entities[i * 4 + 2] = x;
+            state.entities[i * 4 + 3] = y;
+            state.entity_root_hulls[i] = i;
+            state.entity_hull_tables[i * 2]     = i;
+            state.entity_hull_tables[i * 2 + 1] = i;
+            state.masses[i] = 1.0f;
+        }
+    }
+
+    /**
+     * Sets up one square block per position, each block being a four point hull owned by its own entity. Points are
+     * wound counter-clockwise from the bottom left corner, and the edges follow the same winding. Blocks at indices
+     * listed as static are flagged static, the rest are free to move.
+     */
+    private void add_blocks(float size, int[] static_blocks, float... positions)
+    {
+        int count = positions.length / 2;
+        float half = size / 2.0f;
+        float[] corners = { -half, -half, half, -half, half, half, -half, half };
+        state.resize(count * 4, count * 4, count, count);
+        for (int i = 0; i < count; i++)
+        {
+            float x = positions[i * 2];
+            float y = positions[i * 2 + 1];
+            for (int c = 0; c < 4; c++)
+            {
+                int point = i * 4 + c;
+                float p_x = x + corners[c * 2];
+                float p_y = y + corners[c * 2 + 1];
+                state.points[point * 4]     = p_x;
+                state.points[point * 4 + 1] = p_y;
+                state.points[point * 4 + 2] = p_x;
+                state.points[point * 4 + 3] = p_y;
+                state.point_hull_indices[point] = i;
+
+                int edge = i * 4 + c;
+                state.edges[edge * 2]     = point;
+                state.edges[edge * 2 + 1] = i * 4 + (c + 1) % 4;
+                state.edge_lengths[edge]  = size;
+            }
+
+            boolean is_static = false;
+            for (int static_block : static_blocks)
+            {
+                is_static |= static_block == i;
+            }
+
+            state.hulls[i * 4]     = x;
+            state.hulls[i * 4 + 1] = y;
+            state.hull_scales[i * 2]     = 1.0f;
+            state.hull_scales[i * 2 + 1] = 1.0f;
+            state.hull_point_tables[i * 2]     = i * 4;
+            state.hull_point_tables[i * 2 + 1] = i * 4 + 3;
+            state.hull_edge_tables[i * 2]     = i * 4;
+            state.hull_edge_tables[i * 2 + 1] = i * 4 + 3;
+            state.hull_flags[i] = is_static
+                ? IS_BLOCK | IS_POLYGON | NO_BONES | IS_STATIC
+                : IS_BLOCK | IS_POLYGON | NO_BONES;
+            state.hull_entity_ids[i] = i;
+
+            state.entities[i * 4]     = x;
+            state.entities[i * 4 + 1] = y;
+            state.entities[i * 4 + 2] = x;
+            state.entities[i * 4 + 3] = y;
+            state.entity_root_hulls[i] = i;
+            state.entity_hull_tables[i * 2]     = i;
+            state.entity_hull_tables[i * 2 + 1] = i;
+            state.masses[i] = 1.0f;
+        }
+    }
+
+    private float edge_length(int edge)
+    {
+        int p1 = state.edges[edge * 2] * 4;
+        int p2 = state.edges[edge * 2 + 1] * 4;
+        return (float) Math.hypot(state.points[p2] - state.points[p1], state.points[p2 + 1] - state.points[p1 + 1]);
+    }
+
+    @Test
+    public void free_circle_falls()
+    {
+        add_circles(5.0f, 500.0f, 500.0f);
+
+        backend.tick_simulation();
+
+        assertEquals(500.0f, state.points[0]);
+        assertTrue(state.points[1] < 500.0f);
+        assertEquals(500.0f, state.points[3]);
+    }
+
+    @Test
+    public void overlapping_circles_separate()
+    {
+        add_circles(5.0f, 500.0f, 500.0f, 506.0f, 500.0f);
+
+        backend.tick_simulation();
+
+        assertTrue(state.points[0] < 500.0f);
+        assertTrue(state.points[4] > 506.0f);
+        assertEquals(state.points[1], state.points[5]);
+    }
+
+    @Test
+    public void distant_circles_do_not_react()
+    {
+        add_circles(5.0f, 500.0f, 500.0f, 600.0f, 500.0f);
+
+        backend.tick_simulation();
+
+        assertEquals(500.0f, state.points[0]);
+        assertEquals(600.0f, state.points[4]);
+        assertEquals(0, state.point_hit_counts[0]);
+        assertEquals(0, state.point_hit_counts[1]);
+    }
+
+    @Test
+    public void block_rests_on_static_block()
+    {
+        // the free block sinks one unit into the top face of the static block below it
+        add_blocks(10.0f, new int[]{ 0 }, 500.0f, 500.0f, 500.0f, 509.0f);
+
+        backend.tick_simulation();
+
+        // the static block is neither moved by gravity nor pushed by the contact
+        for (int point = 0; point < 4; point++)
+        {
+            assertEquals(state.points[point * 4], state.points[point * 4 + 2]);
+            assertEquals(state.points[point * 4 + 1], state.points[point * 4 + 3]);
+            assertEquals(0, state.point_hit_counts[point]);
+        }
+        assertEquals(495.0f, state.points[1]);
+        assertEquals(505.0f, state.points[9]);
+
+        // the deepest corner of the free block's bottom face is pushed back onto the top face of the static block,
+        // against gravity, and flagged as resting on a floor
+        int contact = state.points[17] > state.points[21] ? 4 : 5;
+        assertEquals(505.0f, state.points[contact * 4 + 1], 0.001f);
+        assertTrue(state.points[contact * 4 + 1] > state.points[contact * 4 + 3]);
+        assertTrue(state.point_hit_counts[contact] > 0);
+        assertTrue((state.point_flags[contact] & HIT_FLOOR) != 0);
+
+        // the top of the free block is not in contact
+        assertEquals(0, state.point_hit_counts[6]);
+        assertEquals(0, state.point_hit_counts[7]);
+    }
+
+    @Test
+    public void block_clear_of_static_block_falls()
+    {
+        add_blocks(10.0f, new int[]{ 0 }, 500.0f, 500.0f, 500.0f, 520.0f);
+
+        backend.tick_simulation();
+
+        for (int point = 4; point < 8; point++)
+        {
+            assertTrue(state.points[point * 4 + 1] < state.points[point * 4 + 3]);
+            assertEquals(0, state.point_hit_counts[point]);
+        }
+    }
+
+    @Test
+    public void constraints_restore_edge_lengths()
+    {
+        add_blocks(10.0f, new int[]{}, 500.0f, 500.0f);
+
+        // drag the top right corner away, both positions moving so the block is not given any velocity
+        state.points[8]  += 3.0f;
+        state.points[9]  += 2.0f;
+        state.points[10] += 3.0f;
+        state.points[11] += 2.0f;
+        state.bounds_bank_data[1] = 2;
+        assertTrue(Math.abs(edge_length(1) - 10.0f) > 1.0f);
+
+        backend.resolve_constraints(32);
+
+        for (int edge = 0; edge < 4; edge++)
+        {
+            assertEquals(10.0f, edge_length(edge), 0.01f);
+        }
+
+        // resolving moves previous positions along with current ones, so no velocity is introduced
+        for (int point = 0; point < 4; point++)
+        {
+            assertEquals(state.points[point * 4], state.points[point * 4 + 2], 0.001f);
+            assertEquals(state.points[point * 4 + 1], state.points[point * 4 + 3], 0.001f);
+        }
+    }
+
+    @Test
+    public void constraints_skip_static_hulls()
+    {
+        add_blocks(10.0f, new int[]{ 0 }, 500.0f, 500.0f);
+
+        state.points[8] += 3.0f;
+        state.bounds_bank_data[1] = 2;
+        float stretched = edge_length(1);
+
+        backend.resolve_constraints(4);
+
+        assertEquals(stretched, edge_length(1));
+        assertEquals(508.0f, state.points[8]);
+    }
+}
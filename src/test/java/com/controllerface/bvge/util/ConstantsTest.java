@@ -1,8 +1,12 @@
 package com.controllerface.bvge.util;
 
 import com.controllerface.bvge.game.Constants;
+import com.controllerface.bvge.physics.BodySleep;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class ConstantsTest
 {
     @Test
@@ -16,4 +20,24 @@ class ConstantsTest
         System.out.println("-");
         System.out.println(Constants.point_flags_src());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void entity_flags_do_not_overlap()
+    {
+        int seen = 0;
+        for (var flag : Constants.EntityFlags.values())
+        {
+            assertEquals(0, seen & flag.bits, flag.name());
+            seen |= flag.bits;
+        }
+    }
+
+    @Test
+    public void rest_ticks_hold_sleep_ticks()
+    {
+        // the rest counter is shifted into place by the kernels, see REST_SHIFT in sat_collide.cl
+        int max_ticks = Constants.EntityFlags.REST_TICKS.bits >>> 24;
+        assertEquals(0, (max_ticks << 24) ^ Constants.EntityFlags.REST_TICKS.bits);
+        assertTrue(BodySleep.SLEEP_TICKS > 0 && BodySleep.SLEEP_TICKS <= max_ticks);
+    }
+}